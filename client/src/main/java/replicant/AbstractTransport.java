@@ -1,5 +1,6 @@
 package replicant;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -9,8 +10,10 @@ import javax.annotation.Nullable;
 import jsinterop.base.Js;
 import jsinterop.base.JsPropertyMap;
 import replicant.messages.AuthTokenMessage;
+import replicant.messages.BatchMessage;
 import replicant.messages.BulkSubscribeMessage;
 import replicant.messages.BulkUnsubscribeMessage;
+import replicant.messages.ClientToServerMessage;
 import replicant.messages.EtagsMessage;
 import replicant.messages.PingMessage;
 import replicant.messages.ServerToClientMessage;
@@ -22,6 +25,48 @@ public abstract class AbstractTransport
 {
   @Nullable
   private TransportContext _transportContext;
+  private boolean _batchRequestsEnabled;
+  /**
+   * The messages collected while a batch is being built, otherwise null.
+   */
+  @Nullable
+  private List<ClientToServerMessage> _batch;
+  private int _batchRequestId;
+
+  /**
+   * Specify whether the backend supports batch requests.
+   * See {@link Transport#requestBatch(SafeProcedure)} for further details.
+   */
+  public final void setBatchRequestsEnabled( final boolean batchRequestsEnabled )
+  {
+    _batchRequestsEnabled = batchRequestsEnabled;
+  }
+
+  @Override
+  public final boolean supportsBatchRequests()
+  {
+    return _batchRequestsEnabled;
+  }
+
+  @Override
+  public final void requestBatch( @Nonnull final SafeProcedure action )
+  {
+    assert _batchRequestsEnabled;
+    assert null == _batch;
+    final int requestId = newRequestId( Replicant.areNamesEnabled() ? "Batch" : null );
+    final List<ClientToServerMessage> batch = new ArrayList<>();
+    _batchRequestId = requestId;
+    _batch = batch;
+    try
+    {
+      action.call();
+    }
+    finally
+    {
+      _batch = null;
+    }
+    sendRemoteMessage( BatchMessage.create( requestId, batch.toArray( new ClientToServerMessage[ 0 ] ) ) );
+  }
 
   @Override
   public final void unbind()
@@ -57,14 +102,14 @@ public abstract class AbstractTransport
   public final void requestSubscribe( @Nonnull final ChannelAddress address, @Nullable final Object filter )
   {
     final int requestId = newRequestId( toRequestKey( "Subscribe", address ) );
-    sendRemoteMessage( SubscribeMessage.create( requestId, address.asChannelDescriptor(), filter ) );
+    sendRequest( SubscribeMessage.create( requestId, address.asChannelDescriptor(), filter ) );
   }
 
   @Override
   public final void requestUnsubscribe( @Nonnull final ChannelAddress address )
   {
     final int requestId = newRequestId( toRequestKey( "Unsubscribe", address ) );
-    sendRemoteMessage( UnsubscribeMessage.create( requestId, address.asChannelDescriptor() ) );
+    sendRequest( UnsubscribeMessage.create( requestId, address.asChannelDescriptor() ) );
   }
 
   @Override
@@ -73,7 +118,7 @@ public abstract class AbstractTransport
   {
     final int requestId = newRequestId( toRequestKey( "BulkSubscribe", addresses ) );
     final String[] channels = addresses.stream().map( ChannelAddress::asChannelDescriptor ).toArray( String[]::new );
-    sendRemoteMessage( BulkSubscribeMessage.create( requestId, channels, filter ) );
+    sendRequest( BulkSubscribeMessage.create( requestId, channels, filter ) );
   }
 
   @Override
@@ -81,7 +126,7 @@ public abstract class AbstractTransport
   {
     final int requestId = newRequestId( toRequestKey( "BulkUnsubscribe", addresses ) );
     final String[] channels = addresses.stream().map( ChannelAddress::asChannelDescriptor ).toArray( String[]::new );
-    sendRemoteMessage( BulkUnsubscribeMessage.create( requestId, channels ) );
+    sendRequest( BulkUnsubscribeMessage.create( requestId, channels ) );
   }
 
   @Override
@@ -147,9 +192,25 @@ public abstract class AbstractTransport
            null;
   }
 
+  /**
+   * Send the request to the backend or add it to the current batch if a batch is being built.
+   */
+  private void sendRequest( @Nonnull final ClientToServerMessage message )
+  {
+    if ( null != _batch )
+    {
+      _batch.add( message );
+    }
+    else
+    {
+      sendRemoteMessage( message );
+    }
+  }
+
   private int newRequestId( @Nullable final String name )
   {
-    return newRequestId( name, false );
+    // Requests within a batch share the request id of the batch
+    return null != _batch ? _batchRequestId : newRequestId( name, false );
   }
 
   private int newRequestId( @Nullable final String name, final boolean syncRequest )
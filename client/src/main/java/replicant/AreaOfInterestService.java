@@ -8,10 +8,11 @@ import arez.annotations.Feature;
 import arez.annotations.Observable;
 import arez.annotations.ObservableValueRef;
 import arez.annotations.PreDispose;
+import arez.component.ComponentObservable;
 import arez.component.DisposeNotifier;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -32,10 +33,10 @@ abstract class AreaOfInterestService
   extends ReplicantService
 {
   /**
-   * A set of all the AreasOfInterest.
+   * All the AreasOfInterest keyed by the address of the channel that they are about.
    */
   @Nonnull
-  private final Set<AreaOfInterest> _areasOfInterest = new HashSet<>();
+  private final Map<ChannelAddress, AreaOfInterest> _areasOfInterest = new HashMap<>();
 
   AreaOfInterestService( @Nullable final ReplicantContext context )
   {
@@ -66,6 +67,9 @@ abstract class AreaOfInterestService
 
   /**
    * Return a specific AreaOfInterest that has specified address.
+   * This method will observe the <code>areasOfInterest</code> property if not found and the
+   * result {@link AreaOfInterest} if found. This ensures that if an observer invokes this method
+   * then the observer will be rescheduled when the result changes.
    *
    * @param address the address of the channel that AreaOfInterest is about.
    * @return the AreaOfInterest that matches if any.
@@ -73,7 +77,17 @@ abstract class AreaOfInterestService
   @Nullable
   AreaOfInterest findAreaOfInterestByAddress( @Nonnull final ChannelAddress address )
   {
-    return areasOfInterest().filter( e -> e.getAddress().equals( address ) ).findAny().orElse( null );
+    final AreaOfInterest areaOfInterest = _areasOfInterest.get( address );
+    if ( null == areaOfInterest || Disposable.isDisposed( areaOfInterest ) )
+    {
+      getAreasOfInterestObservableValue().reportObserved();
+      return null;
+    }
+    else
+    {
+      ComponentObservable.observe( areaOfInterest );
+      return areaOfInterest;
+    }
   }
 
   /**
@@ -128,13 +142,13 @@ abstract class AreaOfInterestService
       apiInvariant( () -> Disposable.isNotDisposed( areaOfInterest ),
                     () -> "Replicant-0093: Called attach() passing an areaOfInterest that is disposed. " +
                           "AreaOfInterest: " + areaOfInterest );
-      apiInvariant( () -> !_areasOfInterest.contains( areaOfInterest ),
-                    () -> "Replicant-0094: Called attach() passing an areaOfInterest that is already attached to " +
-                          "the container. AreaOfInterest: " + areaOfInterest );
+      apiInvariant( () -> !_areasOfInterest.containsKey( areaOfInterest.getAddress() ),
+                    () -> "Replicant-0094: Called attach() passing an areaOfInterest with an address that is " +
+                          "already attached to the container. AreaOfInterest: " + areaOfInterest );
     }
     getAreasOfInterestObservableValue().preReportChanged();
     doAttach( areaOfInterest );
-    _areasOfInterest.add( areaOfInterest );
+    _areasOfInterest.put( areaOfInterest.getAddress(), areaOfInterest );
     getAreasOfInterestObservableValue().reportChanged();
   }
 
@@ -144,7 +158,7 @@ abstract class AreaOfInterestService
   @PreDispose
   void preDispose()
   {
-    _areasOfInterest.forEach( entry -> doDetach( entry, true ) );
+    _areasOfInterest.values().forEach( entry -> doDetach( entry, true ) );
     _areasOfInterest.clear();
   }
 
@@ -157,7 +171,7 @@ abstract class AreaOfInterestService
   boolean contains( @Nonnull final AreaOfInterest areaOfInterest )
   {
     getAreasOfInterestObservableValue().reportObserved();
-    return _areasOfInterest.contains( areaOfInterest );
+    return areaOfInterest == _areasOfInterest.get( areaOfInterest.getAddress() );
   }
 
   /**
@@ -169,7 +183,7 @@ abstract class AreaOfInterestService
   private void detach( @Nonnull final AreaOfInterest areaOfInterest )
   {
     // This method has been extracted to try and avoid GWT inlining into invoker
-    if ( _areasOfInterest.remove( areaOfInterest ) )
+    if ( _areasOfInterest.remove( areaOfInterest.getAddress(), areaOfInterest ) )
     {
       getAreasOfInterestObservableValue().preReportChanged();
       doDetach( areaOfInterest, false );
@@ -191,7 +205,7 @@ abstract class AreaOfInterestService
   @Nonnull
   public Stream<AreaOfInterest> areasOfInterest()
   {
-    return _areasOfInterest.stream();
+    return _areasOfInterest.values().stream();
   }
 
   @ObservableValueRef
@@ -19,6 +19,11 @@ final class ChannelChangeDescriptor
   private final ChannelAddress _address;
   @Nullable
   private final Object _filter;
+  /**
+   * The entities delinked by an UPDATE, identified by "typeId.id" descriptors, if supplied by the server.
+   */
+  @Nullable
+  private final String[] _delinks;
 
   @Nonnull
   static ChannelChangeDescriptor from( final int schema, @Nonnull final String channelAction )
@@ -29,7 +34,7 @@ final class ChannelChangeDescriptor
       Type.ADD :
       SharedConstants.CHANNEL_ACTION_REMOVE == commandCode ? Type.REMOVE : Type.DELETE;
     final ChannelAddress address = ChannelAddress.parse( schema, channelAction.substring( 1 ) );
-    return new ChannelChangeDescriptor( type, address, null );
+    return new ChannelChangeDescriptor( type, address, null, null );
   }
 
   @Nonnull
@@ -44,16 +49,18 @@ final class ChannelChangeDescriptor
       Type.REMOVE :
       SharedConstants.CHANNEL_ACTION_DELETE == commandCode ? Type.DELETE : Type.UPDATE;
     final ChannelAddress address = ChannelAddress.parse( schema, channelAction.substring( 1 ) );
-    return new ChannelChangeDescriptor( type, address, channelChange.getFilter() );
+    return new ChannelChangeDescriptor( type, address, channelChange.getFilter(), channelChange.getDelinks() );
   }
 
   private ChannelChangeDescriptor( @Nonnull final Type type,
                                    @Nonnull final ChannelAddress address,
-                                   @Nullable final Object filter )
+                                   @Nullable final Object filter,
+                                   @Nullable final String[] delinks )
   {
     _type = Objects.requireNonNull( type );
     _address = Objects.requireNonNull( address );
     _filter = filter;
+    _delinks = delinks;
   }
 
   @Nonnull
@@ -73,4 +80,10 @@ final class ChannelChangeDescriptor
   {
     return _filter;
   }
+
+  @Nullable
+  String[] getDelinks()
+  {
+    return _delinks;
+  }
 }
@@ -65,6 +65,12 @@ public final class ChannelSchema
    * The entities that are included within the graph
    */
   private final List<EntitySchema> _entities;
+  /**
+   * The entities that may be delinked from the channel when the filter changes. If null then any entity
+   * may be delinked. This should be null unless {@link #_filterType} is {@link FilterType#DYNAMIC}.
+   */
+  @Nullable
+  private final List<EntitySchema> _filteredEntities;
 
   public ChannelSchema( final int id,
                         @Nullable final String name,
@@ -74,6 +80,19 @@ public final class ChannelSchema
                         final boolean cacheable,
                         final boolean external,
                         @Nonnull final List<EntitySchema> entities )
+  {
+    this( id, name, instanceType, filterType, filter, cacheable, external, entities, null );
+  }
+
+  public ChannelSchema( final int id,
+                        @Nullable final String name,
+                        @Nullable final Class<?> instanceType,
+                        @Nonnull final FilterType filterType,
+                        @Nullable final SubscriptionUpdateEntityFilter<?> filter,
+                        final boolean cacheable,
+                        final boolean external,
+                        @Nonnull final List<EntitySchema> entities,
+                        @Nullable final List<EntitySchema> filteredEntities )
   {
     if ( Replicant.shouldCheckApiInvariants() )
     {
@@ -86,6 +105,9 @@ public final class ChannelSchema
       apiInvariant( () -> FilterType.DYNAMIC == filterType || null == filter,
                     () -> "Replicant-0077: ChannelSchema " + id + " does not have a DYNAMIC filterType " +
                           "but has supplied a filter." );
+      apiInvariant( () -> FilterType.DYNAMIC == filterType || null == filteredEntities,
+                    () -> "Replicant-0118: ChannelSchema " + id + " does not have a DYNAMIC filterType " +
+                          "but has supplied filteredEntities." );
     }
     _id = id;
     _name = Replicant.areNamesEnabled() ? Objects.requireNonNull( name ) : null;
@@ -95,6 +117,7 @@ public final class ChannelSchema
     _cacheable = cacheable;
     _external = external;
     _entities = entities;
+    _filteredEntities = filteredEntities;
   }
 
   /**
@@ -211,6 +234,18 @@ public final class ChannelSchema
     return CollectionsUtil.wrap( _entities );
   }
 
+  /**
+   * Return the entities that may be delinked from the channel when the filter changes.
+   * A null value indicates that any entity transmitted over the channel may be delinked.
+   *
+   * @return the entities that may be delinked from the channel when the filter changes.
+   */
+  @Nullable
+  public List<EntitySchema> getFilteredEntities()
+  {
+    return null == _filteredEntities ? null : CollectionsUtil.wrap( _filteredEntities );
+  }
+
   /**
    * Return the entity with specified id, if any.
    *
@@ -6,11 +6,12 @@ import arez.annotations.Feature;
 import arez.annotations.Observable;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import replicant.messages.ServerToClientMessage;
@@ -40,6 +41,21 @@ abstract class Connection
    * Pending actions that will change the area of interest.
    */
   private final LinkedList<AreaOfInterestRequest> _pendingAreaOfInterestRequests = new LinkedList<>();
+  /**
+   * The pending actions keyed by address, in the order that they were enqueued. Used to locate the
+   * pending actions for an address without scanning every pending action.
+   */
+  private final Map<ChannelAddress, List<PendingAreaOfInterestRequest>> _pendingAreaOfInterestRequestsByAddress =
+    new HashMap<>();
+  /**
+   * The sequence number assigned to the next pending action.
+   */
+  private int _nextPendingSequence;
+  /**
+   * The sequence number of the pending action at the head of the queue. The position of a pending action
+   * in the queue is the difference between its sequence number and the head sequence number.
+   */
+  private int _headPendingSequence;
   /**
    * This list contains the messages from the server.
    */
@@ -55,6 +71,12 @@ abstract class Connection
    */
   @Nonnull
   private final List<AreaOfInterestRequest> _currentAreaOfInterestRequests = new ArrayList<>();
+  /**
+   * The current requests keyed by address.
+   */
+  @Nonnull
+  private final Map<ChannelAddress, List<AreaOfInterestRequest>> _currentAreaOfInterestRequestsByAddress =
+    new HashMap<>();
 
   @Nonnull
   static Connection create( @Nonnull final Connector connector )
@@ -109,11 +131,56 @@ abstract class Connection
                                              @Nonnull final AreaOfInterestRequest.Type action,
                                              @Nullable final Object filter )
   {
-    _pendingAreaOfInterestRequests.add( new AreaOfInterestRequest( address, action, filter ) );
+    final AreaOfInterestRequest request = new AreaOfInterestRequest( address, action, filter );
+    _pendingAreaOfInterestRequests.add( request );
+    _pendingAreaOfInterestRequestsByAddress
+      .computeIfAbsent( address, k -> new ArrayList<>() )
+      .add( new PendingAreaOfInterestRequest( request, _nextPendingSequence++ ) );
+  }
+
+  @Nonnull
+  private AreaOfInterestRequest removeFirstPendingAreaOfInterestRequest()
+  {
+    final AreaOfInterestRequest request = _pendingAreaOfInterestRequests.removeFirst();
+    final ChannelAddress address = request.getAddress();
+    final List<PendingAreaOfInterestRequest> requests = _pendingAreaOfInterestRequestsByAddress.get( address );
+    // Requests are only removed from the head of the queue so the request is the first for the address
+    assert null != requests && requests.get( 0 ).getRequest() == request;
+    requests.remove( 0 );
+    if ( requests.isEmpty() )
+    {
+      _pendingAreaOfInterestRequestsByAddress.remove( address );
+    }
+    _headPendingSequence++;
+    return request;
+  }
+
+  private void addCurrentAreaOfInterestRequest( @Nonnull final AreaOfInterestRequest request )
+  {
+    _currentAreaOfInterestRequests.add( request );
+    _currentAreaOfInterestRequestsByAddress
+      .computeIfAbsent( request.getAddress(), k -> new ArrayList<>() )
+      .add( request );
+  }
+
+  private boolean isCurrentAreaOfInterestRequest( @Nonnull final AreaOfInterestRequest.Type action,
+                                                  @Nonnull final ChannelAddress address,
+                                                  @Nullable final Object filter )
+  {
+    final List<AreaOfInterestRequest> requests = _currentAreaOfInterestRequestsByAddress.get( address );
+    return null != requests && requests.stream().anyMatch( a -> a.match( action, address, filter ) );
   }
 
   void enqueueResponse( @Nonnull final ServerToClientMessage message, @Nullable final RequestEntry request )
   {
+    // Consecutive unsolicited ChangeSets are merged so that a backlog of updates is applied in a single pass
+    if ( null == request &&
+         _connector.shouldCoalesceChangeSets() &&
+         !_pendingResponses.isEmpty() &&
+         _pendingResponses.getLast().tryMerge( message ) )
+    {
+      return;
+    }
     _pendingResponses.add( new MessageResponse( _connector.getSchema().getId(), message, request ) );
   }
 
@@ -131,9 +198,8 @@ abstract class Connection
                  () -> "Replicant-0025: Connection.isAreaOfInterestRequestPending passed a REMOVE " +
                        "request for address '" + address + "' with a non-null filter '" + filter + "'." );
     }
-    return
-      _currentAreaOfInterestRequests.stream().anyMatch( a -> a.match( action, address, filter ) ) ||
-      _pendingAreaOfInterestRequests.stream().anyMatch( a -> a.match( action, address, filter ) );
+    return isCurrentAreaOfInterestRequest( action, address, filter ) ||
+           -1 != lastIndexOfPendingAreaOfInterestRequestInQueue( action, address, filter );
   }
 
   /**
@@ -149,19 +215,12 @@ abstract class Connection
                  () -> "Replicant-0024: Connection.lastIndexOfPendingAreaOfInterestRequest passed a REMOVE " +
                        "request for address '" + address + "' with a non-null filter '" + filter + "'." );
     }
-    int index = _pendingAreaOfInterestRequests.size();
-
-    final Iterator<AreaOfInterestRequest> iterator = _pendingAreaOfInterestRequests.descendingIterator();
-    while ( iterator.hasNext() )
+    final int index = lastIndexOfPendingAreaOfInterestRequestInQueue( action, address, filter );
+    if ( -1 != index )
     {
-      final AreaOfInterestRequest request = iterator.next();
-      if ( request.match( action, address, filter ) )
-      {
-        return index;
-      }
-      index -= 1;
+      return index;
     }
-    if ( _currentAreaOfInterestRequests.stream().anyMatch( a -> a.match( action, address, filter ) ) )
+    else if ( isCurrentAreaOfInterestRequest( action, address, filter ) )
     {
       return 0;
     }
@@ -171,6 +230,28 @@ abstract class Connection
     }
   }
 
+  /**
+   * Return the 1-based position of the last matching request in the pending queue or -1 if there is none.
+   */
+  private int lastIndexOfPendingAreaOfInterestRequestInQueue( @Nonnull final AreaOfInterestRequest.Type action,
+                                                              @Nonnull final ChannelAddress address,
+                                                              @Nullable final Object filter )
+  {
+    final List<PendingAreaOfInterestRequest> requests = _pendingAreaOfInterestRequestsByAddress.get( address );
+    if ( null != requests )
+    {
+      for ( int i = requests.size() - 1; i >= 0; i-- )
+      {
+        final PendingAreaOfInterestRequest request = requests.get( i );
+        if ( request.getRequest().match( action, address, filter ) )
+        {
+          return request.getSequence() - _headPendingSequence + 1;
+        }
+      }
+    }
+    return -1;
+  }
+
   @Nonnull
   RequestEntry newRequest( @Nullable final String name, final boolean syncRequest )
   {
@@ -334,12 +415,12 @@ abstract class Connection
   {
     if ( _currentAreaOfInterestRequests.isEmpty() && !_pendingAreaOfInterestRequests.isEmpty() )
     {
-      final AreaOfInterestRequest first = _pendingAreaOfInterestRequests.removeFirst();
-      _currentAreaOfInterestRequests.add( first );
+      final AreaOfInterestRequest first = removeFirstPendingAreaOfInterestRequest();
+      addCurrentAreaOfInterestRequest( first );
       while ( _pendingAreaOfInterestRequests.size() > 0 &&
               canGroupRequests( first, _pendingAreaOfInterestRequests.get( 0 ) ) )
       {
-        _currentAreaOfInterestRequests.add( _pendingAreaOfInterestRequests.removeFirst() );
+        addCurrentAreaOfInterestRequest( removeFirstPendingAreaOfInterestRequest() );
       }
     }
     return CollectionsUtil.wrap( _currentAreaOfInterestRequests );
@@ -363,6 +444,56 @@ abstract class Connection
              FilterUtil.filtersEqual( match.getFilter(), template.getFilter() ) );
   }
 
+  /**
+   * Append the pending requests that immediately follow the current AreaOfInterest requests to the current
+   * requests so that they can be sent to the backend in a single batch. Requests for cacheable channels are
+   * never batched as the backend may respond to them using the cache. A request for a channel that is already
+   * part of the batch ends the batch as it depends upon the completion of the earlier request.
+   *
+   * @return true if any requests were appended to the current requests, false otherwise.
+   */
+  boolean batchAreaOfInterestRequests()
+  {
+    if ( _currentAreaOfInterestRequests.isEmpty() ||
+         !_currentAreaOfInterestRequests.stream().allMatch( this::canBatchRequest ) )
+    {
+      return false;
+    }
+    final Set<ChannelAddress> addresses = new HashSet<>();
+    _currentAreaOfInterestRequests.forEach( r -> addresses.add( r.getAddress() ) );
+    boolean batched = false;
+    while ( !_pendingAreaOfInterestRequests.isEmpty() &&
+            canBatchRequest( _pendingAreaOfInterestRequests.get( 0 ) ) &&
+            addresses.add( _pendingAreaOfInterestRequests.get( 0 ).getAddress() ) )
+    {
+      addCurrentAreaOfInterestRequest( removeFirstPendingAreaOfInterestRequest() );
+      batched = true;
+    }
+    return batched;
+  }
+
+  private boolean canBatchRequest( @Nonnull final AreaOfInterestRequest request )
+  {
+    final ChannelAddress address = request.getAddress();
+    final CacheService cacheService = _connector.getReplicantContext().getCacheService();
+    return !_connector.getSchema().getChannel( address.getChannelId() ).isCacheable() &&
+           ( null == cacheService || null == cacheService.lookup( address ) );
+  }
+
+  /**
+   * Remove the current AreaOfInterest requests that were completed without being sent to the backend.
+   */
+  void removeCompletedAreaOfInterestRequests()
+  {
+    if ( _currentAreaOfInterestRequests.removeIf( r -> !r.isInProgress() ) )
+    {
+      _currentAreaOfInterestRequestsByAddress.clear();
+      _currentAreaOfInterestRequests.forEach( r -> _currentAreaOfInterestRequestsByAddress
+        .computeIfAbsent( r.getAddress(), k -> new ArrayList<>() )
+        .add( r ) );
+    }
+  }
+
   /**
    * Mark all the current AreaOfInterest requests as complete and clear out the current requests list
    */
@@ -375,11 +506,12 @@ abstract class Connection
     }
     _currentAreaOfInterestRequests.forEach( AreaOfInterestRequest::markAsComplete );
     _currentAreaOfInterestRequests.clear();
+    _currentAreaOfInterestRequestsByAddress.clear();
   }
 
   void injectCurrentAreaOfInterestRequest( @Nonnull final AreaOfInterestRequest request )
   {
-    _currentAreaOfInterestRequests.add( request );
+    addCurrentAreaOfInterestRequest( request );
   }
 
   List<MessageResponse> getPendingResponses()
@@ -391,4 +523,31 @@ abstract class Connection
   {
     return CollectionsUtil.wrap( _pendingAreaOfInterestRequests );
   }
+
+  /**
+   * A pending request along with the sequence number that identifies its position in the queue.
+   */
+  private static final class PendingAreaOfInterestRequest
+  {
+    @Nonnull
+    private final AreaOfInterestRequest _request;
+    private final int _sequence;
+
+    PendingAreaOfInterestRequest( @Nonnull final AreaOfInterestRequest request, final int sequence )
+    {
+      _request = Objects.requireNonNull( request );
+      _sequence = sequence;
+    }
+
+    @Nonnull
+    AreaOfInterestRequest getRequest()
+    {
+      return _request;
+    }
+
+    int getSequence()
+    {
+      return _sequence;
+    }
+  }
 }
@@ -14,10 +14,12 @@ import arez.annotations.PostConstruct;
 import arez.annotations.PreDispose;
 import arez.component.Linkable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -61,6 +63,10 @@ abstract class Connector
 {
   private static final int DEFAULT_LINKS_TO_PROCESS_PER_TICK = 20;
   private static final int DEFAULT_CHANGES_TO_PROCESS_PER_TICK = 20;
+  /**
+   * The maximum number of entity changes or links processed in a single tick when working to a time budget.
+   */
+  private static final int MAX_ITEMS_TO_PROCESS_PER_TICK = 10000;
   /**
    * The schema that defines data-API used to interact with datasource.
    */
@@ -111,6 +117,25 @@ abstract class Connector
    * been processed then return and any remaining change can be processed in a later tick.
    */
   private int _changesToProcessPerTick = DEFAULT_CHANGES_TO_PROCESS_PER_TICK;
+  /**
+   * The time in milliseconds to spend processing entity changes or entity links in a single tick of the scheduler.
+   * If zero then the fixed number of changes and links per tick are processed, otherwise the number of items
+   * processed per tick adapts to the time taken to process recent items.
+   */
+  private int _timeBudgetPerTick;
+  /**
+   * The number of entity links to process in the next tick when working to a time budget.
+   */
+  private int _adaptiveLinksPerTick = DEFAULT_LINKS_TO_PROCESS_PER_TICK;
+  /**
+   * The number of EntityChange messages to process in the next tick when working to a time budget.
+   */
+  private int _adaptiveChangesPerTick = DEFAULT_CHANGES_TO_PROCESS_PER_TICK;
+  /**
+   * Flag set if consecutive ChangeSets that were not generated in response to a request and are not
+   * cacheable should be merged into a single MessageResponse before they are processed.
+   */
+  private boolean _coalesceChangeSets;
   /**
    * Action invoked after current MessageResponse is processed. This is typically used to update or alter
    * change Connection on message processing complete.
@@ -357,6 +382,63 @@ abstract class Connector
     _changesToProcessPerTick = changesToProcessPerTick;
   }
 
+  int getTimeBudgetPerTick()
+  {
+    return _timeBudgetPerTick;
+  }
+
+  void setTimeBudgetPerTick( final int timeBudgetPerTick )
+  {
+    if ( Replicant.shouldCheckApiInvariants() )
+    {
+      apiInvariant( () -> timeBudgetPerTick >= 0,
+                    () -> "Replicant-0116: Connector.setTimeBudgetPerTick() invoked with negative " +
+                          "timeBudgetPerTick " + timeBudgetPerTick + "." );
+    }
+    _timeBudgetPerTick = timeBudgetPerTick;
+    _adaptiveLinksPerTick = _linksToProcessPerTick;
+    _adaptiveChangesPerTick = _changesToProcessPerTick;
+  }
+
+  boolean shouldCoalesceChangeSets()
+  {
+    return _coalesceChangeSets;
+  }
+
+  void setCoalesceChangeSets( final boolean coalesceChangeSets )
+  {
+    _coalesceChangeSets = coalesceChangeSets;
+  }
+
+  int getAdaptiveLinksPerTick()
+  {
+    return _adaptiveLinksPerTick;
+  }
+
+  int getAdaptiveChangesPerTick()
+  {
+    return _adaptiveChangesPerTick;
+  }
+
+  /**
+   * Return the number of items to process in the next tick given the time taken to process the last chunk.
+   * The per-item cost of the last chunk is used to estimate how many items fit within the time budget.
+   * The chunk size will at most double between ticks so that a chunk that was unusually cheap or that
+   * completed within the resolution of the clock does not result in an oversized chunk.
+   *
+   * @param chunkSize the number of items that were permitted in the last chunk.
+   * @param count     the number of items processed in the last chunk.
+   * @param elapsed   the time in nanoseconds taken to process the last chunk.
+   * @return the number of items to process in the next chunk.
+   */
+  int nextChunkSize( final int chunkSize, final int count, final long elapsed )
+  {
+    final long maxChunkSize = Math.min( MAX_ITEMS_TO_PROCESS_PER_TICK, chunkSize * 2L );
+    final long budget = _timeBudgetPerTick * 1000000L;
+    final long estimate = elapsed <= 0 ? maxChunkSize : budget * count / elapsed;
+    return (int) Math.max( 1, Math.min( maxChunkSize, estimate ) );
+  }
+
   /**
    * Return true if an area of interest action with specified parameters is pending or being processed.
    * When the action parameter is DELETE the filter parameter is ignored.
@@ -656,11 +738,7 @@ abstract class Connector
       if ( ChannelChangeDescriptor.Type.ADD == actionType )
       {
         response.incChannelAddCount();
-        final boolean explicitSubscribe =
-          getReplicantContext()
-            .getAreasOfInterest()
-            .stream()
-            .anyMatch( a -> a.getAddress().equals( address ) );
+        final boolean explicitSubscribe = null != getReplicantContext().findAreaOfInterestByAddress( address );
         getReplicantContext().getSubscriptionService().createSubscription( address, filter, explicitSubscribe );
       }
       else if ( ChannelChangeDescriptor.Type.REMOVE == actionType || ChannelChangeDescriptor.Type.DELETE == actionType )
@@ -714,7 +792,12 @@ abstract class Connector
         }
         assert null != subscription;
         subscription.setFilter( filter );
-        updateSubscriptionForFilteredEntities( subscription );
+        final List<Entity> delinkedEntities =
+          updateSubscriptionForFilteredEntities( subscription, channelChange.getDelinks() );
+        if ( shouldTrackChangedEntities() )
+        {
+          delinkedEntities.forEach( response::entityChanged );
+        }
         response.incChannelUpdateCount();
       }
     }
@@ -725,11 +808,20 @@ abstract class Connector
   void processEntityLinks()
   {
     final MessageResponse response = ensureCurrentMessageResponse();
+    final boolean timeBudgeted = 0 != _timeBudgetPerTick;
+    final int linksToProcess = timeBudgeted ? _adaptiveLinksPerTick : _linksToProcessPerTick;
+    final long start = timeBudgeted ? System.nanoTime() : 0;
+    int count = 0;
     Linkable linkable;
-    for ( int i = 0; i < _linksToProcessPerTick && null != ( linkable = response.nextEntityToLink() ); i++ )
+    while ( count < linksToProcess && null != ( linkable = response.nextEntityToLink() ) )
     {
       linkable.link();
       response.incEntityLinkCount();
+      count++;
+    }
+    if ( timeBudgeted && 0 != count )
+    {
+      _adaptiveLinksPerTick = nextChunkSize( linksToProcess, count, System.nanoTime() - start );
     }
   }
 
@@ -738,9 +830,29 @@ abstract class Connector
    * that are no longer part of the subscription now that the filter has changed.
    *
    * @param subscription the subscription that was updated.
+   * @return the entities that were delinked from the subscription.
+   */
+  @Nonnull
+  List<Entity> updateSubscriptionForFilteredEntities( @Nonnull final Subscription subscription )
+  {
+    return updateSubscriptionForFilteredEntities( subscription, null );
+  }
+
+  /**
+   * Method invoked when a filter has updated and the Connector needs to delink any entities
+   * that are no longer part of the subscription now that the filter has changed. If the server
+   * supplied the entities delinked by the update then those entities are delinked and the filter
+   * is not evaluated. Otherwise the filter is evaluated against the entities of the types listed in
+   * {@link ChannelSchema#getFilteredEntities()} or against every entity if the channel lists no types.
+   *
+   * @param subscription the subscription that was updated.
+   * @param delinks      the "typeId.id" descriptors of the entities delinked by the update, if supplied by the server.
+   * @return the entities that were delinked from the subscription.
    */
   @SuppressWarnings( "unchecked" )
-  void updateSubscriptionForFilteredEntities( @Nonnull final Subscription subscription )
+  @Nonnull
+  List<Entity> updateSubscriptionForFilteredEntities( @Nonnull final Subscription subscription,
+                                                      @Nullable final String[] delinks )
   {
     final ChannelAddress address = subscription.getAddress();
     final ChannelSchema channel = getSchema().getChannel( address.getChannelId() );
@@ -752,7 +864,46 @@ abstract class Connector
     }
 
     final List<Entity> entitiesToDelink = new ArrayList<>();
-    for ( final Class<?> entityType : new ArrayList<>( subscription.findAllEntityTypes() ) )
+    if ( null != delinks )
+    {
+      final SystemSchema schema = getSchema();
+      for ( final String delink : delinks )
+      {
+        final int separator = delink.indexOf( '.' );
+        final int typeId = ReplicantUtil.parseInt( delink, 0, separator );
+        final int id = ReplicantUtil.parseInt( delink, separator + 1, delink.length() );
+        final Entity entity = subscription.findEntityByTypeAndId( schema.getEntity( typeId ).getType(), id );
+        // The entity may be absent if it was already delinked or was never sent to the client
+        if ( null != entity )
+        {
+          entitiesToDelink.add( entity );
+        }
+      }
+    }
+    else
+    {
+      final List<EntitySchema> filteredEntities = channel.getFilteredEntities();
+      final Collection<Class<?>> entityTypes =
+        null == filteredEntities ?
+        new ArrayList<>( subscription.findAllEntityTypes() ) :
+        filteredEntities.stream().map( EntitySchema::getType ).collect( Collectors.toList() );
+      collectEntitiesToDelink( subscription, channel, entityTypes, entitiesToDelink );
+    }
+
+    for ( final Entity entity : entitiesToDelink )
+    {
+      entity.delinkFromSubscription( subscription );
+    }
+    return entitiesToDelink;
+  }
+
+  @SuppressWarnings( "unchecked" )
+  private void collectEntitiesToDelink( @Nonnull final Subscription subscription,
+                                        @Nonnull final ChannelSchema channel,
+                                        @Nonnull final Collection<Class<?>> entityTypes,
+                                        @Nonnull final List<Entity> entitiesToDelink )
+  {
+    for ( final Class<?> entityType : entityTypes )
     {
       final List<Entity> entities = subscription.findAllEntitiesByType( entityType );
       if ( !entities.isEmpty() )
@@ -777,11 +928,14 @@ abstract class Connector
         }
       }
     }
+  }
 
-    for ( final Entity entity : entitiesToDelink )
-    {
-      entity.delinkFromSubscription( subscription );
-    }
+  /**
+   * Return true if the entities changed by a MessageResponse should be recorded so that they can be validated.
+   */
+  private boolean shouldTrackChangedEntities()
+  {
+    return Replicant.shouldValidateEntitiesOnLoad() && getReplicantContext().getValidator().isIncremental();
   }
 
   void setPostMessageResponseAction( @Nullable final SafeProcedure postMessageResponseAction )
@@ -1010,90 +1164,164 @@ abstract class Connector
   void processEntityChanges()
   {
     final MessageResponse response = ensureCurrentMessageResponse();
-    EntityChange change;
-    for ( int i = 0; i < _changesToProcessPerTick && null != ( change = response.nextEntityChange() ); i++ )
-    {
-      final String id = change.getId();
-      final int idSeparator = id.indexOf( "." );
-      final int typeId = Integer.parseInt( id.substring( 0, idSeparator ) );
-      final int entityId = Integer.parseInt( id.substring( idSeparator + 1 ) );
-      final EntitySchema entitySchema = getSchema().getEntity( typeId );
-      final Class<?> type = entitySchema.getType();
-      Entity entity = getReplicantContext().getEntityService().findEntityByTypeAndId( type, entityId );
-      if ( change.isRemove() )
-      {
-        /*
-         * Sometimes a remove can occur for an entity that is no longer present on the client. The most
-         * common cause of this is initiating an action that deletes an entity and then un-subscribing
-         * from the channel that contains entity. This can result in an entity that has been removed
-         * locally but has a remove message in the queue. Other interleaved async operations can also
-         * trigger this scenario.
-         */
-        if ( null != entity )
-        {
-          Disposable.dispose( entity );
-          response.incEntityRemoveCount();
-        }
-      }
-      else
+    final boolean timeBudgeted = 0 != _timeBudgetPerTick;
+    final int changesToProcess = timeBudgeted ? _adaptiveChangesPerTick : _changesToProcessPerTick;
+    final long start = timeBudgeted ? System.nanoTime() : 0;
+    final EntityService entityService = getReplicantContext().getEntityService();
+    /*
+     * When the response is the initial load of newly added subscriptions, the changes are applied as a batch.
+     * The entity and subscription maps are sized once and the changes to the EntityService and to each
+     * Subscription are reported once per chunk rather than once per entity.
+     */
+    final boolean batchApply = response.isInitialLoad();
+    if ( batchApply && !response.isBatchApplyPrepared() )
+    {
+      prepareBatchApply( response );
+    }
+    final List<Subscription> modifiedSubscriptions = batchApply ? new ArrayList<>() : null;
+    final boolean trackChangedEntities = shouldTrackChangedEntities();
+    boolean entitiesCreated = false;
+    int count = 0;
+    try
+    {
+      EntityChange change;
+      while ( count < changesToProcess && null != ( change = response.nextEntityChange() ) )
       {
-        final EntityChangeData data = change.getData();
-        if ( null == entity )
+        count++;
+        final int typeId = response.getEntityTypeId();
+        final int entityId = response.getEntityId();
+        final EntitySchema entitySchema = getSchema().getEntity( typeId );
+        final Class<?> type = entitySchema.getType();
+        Entity entity = entityService.findEntityByTypeAndId( type, entityId );
+        if ( change.isRemove() )
         {
-          final String name = Replicant.areNamesEnabled() ? entitySchema.getName() + "/" + entityId : null;
-          entity = getReplicantContext().getEntityService().findOrCreateEntity( name, type, entityId );
-          final Object userObject = entitySchema.getCreator().createEntity( entityId, data );
-          entity.setUserObject( userObject );
-
+          /*
+           * Sometimes a remove can occur for an entity that is no longer present on the client. The most
+           * common cause of this is initiating an action that deletes an entity and then un-subscribing
+           * from the channel that contains entity. This can result in an entity that has been removed
+           * locally but has a remove message in the queue. Other interleaved async operations can also
+           * trigger this scenario.
+           */
+          if ( null != entity )
+          {
+            Disposable.dispose( entity );
+            response.incEntityRemoveCount();
+          }
         }
         else
         {
-          @SuppressWarnings( "rawtypes" )
-          final EntitySchema.Updater updater = entitySchema.getUpdater();
-          if ( null != updater )
+          final EntityChangeData data = change.getData();
+          if ( null == entity )
           {
-            updater.updateEntity( entity.getUserObject(), data );
+            final String name = Replicant.areNamesEnabled() ? entitySchema.getName() + "/" + entityId : null;
+            entity = entityService.findOrCreateEntity( name, type, entityId, !batchApply );
+            entitiesCreated = true;
+            final Object userObject = entitySchema.getCreator().createEntity( entityId, data );
+            entity.setUserObject( userObject );
+
+          }
+          else
+          {
+            @SuppressWarnings( "rawtypes" )
+            final EntitySchema.Updater updater = entitySchema.getUpdater();
+            if ( null != updater )
+            {
+              updater.updateEntity( entity.getUserObject(), data );
+            }
           }
-        }
 
-        final String[] channels = change.getChannels();
-        final int schemaId = getSchema().getId();
-        for ( final String channel : channels )
-        {
-          final int separator = channel.indexOf( "." );
-          final ChannelAddress address =
-            new ChannelAddress( schemaId,
-                                Integer.parseInt( -1 == separator ? channel : channel.substring( 0, separator ) ),
-                                -1 == separator ? null : Integer.parseInt( channel.substring( separator + 1 ) ) );
-          final Subscription subscription = getReplicantContext().findSubscription( address );
-          if ( Replicant.shouldCheckInvariants() )
+          for ( final String channel : change.getChannels() )
           {
-            invariant( () -> null != subscription,
-                       () -> "Replicant-0069: ChangeSet contained an EntityChange message referencing channel " +
-                             address + " but no such subscription exists locally." );
+            final Subscription subscription = getSubscriptionForChannel( response, channel );
+            if ( entity.tryLinkToSubscription( subscription, !batchApply ) &&
+                 batchApply &&
+                 !modifiedSubscriptions.contains( subscription ) )
+            {
+              modifiedSubscriptions.add( subscription );
+            }
           }
-          assert null != subscription;
-          entity.tryLinkToSubscription( subscription );
+          /*
+           We could get the existing subscriptions for an entity, and any that are not present
+           in the EntityChannel could be removed here. However we assume the code generated in
+           subscription change will handle subscription changes and remove subscriptions no longer
+           relevant.
+           */
+
+          if ( trackChangedEntities )
+          {
+            response.entityChanged( entity );
+          }
+          response.incEntityUpdateCount();
+          response.changeProcessed( entity.getUserObject() );
         }
-        /*
-         We could get the existing subscriptions for an entity, and any that are not present
-         in the EntityChannel could be removed here. However we assume the code generated in
-         subscription change will handle subscription changes and remove subscriptions no longer
-         relevant.
-         */
-
-        response.incEntityUpdateCount();
-        response.changeProcessed( entity.getUserObject() );
       }
     }
+    finally
+    {
+      if ( batchApply )
+      {
+        if ( entitiesCreated )
+        {
+          entityService.reportEntitiesChanged();
+        }
+        modifiedSubscriptions.forEach( Subscription::reportEntitiesChanged );
+      }
+    }
+    if ( timeBudgeted && 0 != count )
+    {
+      _adaptiveChangesPerTick = nextChunkSize( changesToProcess, count, System.nanoTime() - start );
+    }
+  }
+
+  /**
+   * Size the entity maps for the entities that will be created by the initial load.
+   * This avoids repeatedly growing the maps while applying a large initial load.
+   */
+  private void prepareBatchApply( @Nonnull final MessageResponse response )
+  {
+    response.markBatchApplyPrepared();
+    final Map<Integer, Integer> entityCountsByType = response.countPendingEntityUpdatesByType();
+    final EntityService entityService = getReplicantContext().getEntityService();
+    for ( final Map.Entry<Integer, Integer> entry : entityCountsByType.entrySet() )
+    {
+      entityService.ensureCapacity( getSchema().getEntity( entry.getKey() ).getType(), entry.getValue() );
+    }
+  }
+
+  /**
+   * Return the subscription referenced by the channel descriptor in an EntityChange.
+   * The subscription is cached in the response so each distinct descriptor is only parsed and
+   * looked up once while processing the response.
+   */
+  @Nonnull
+  private Subscription getSubscriptionForChannel( @Nonnull final MessageResponse response,
+                                                  @Nonnull final String channel )
+  {
+    final Subscription cached = response.findSubscriptionByChannel( channel );
+    if ( null != cached && !Disposable.isDisposed( cached ) )
+    {
+      return cached;
+    }
+    final ChannelAddress address = ChannelAddress.parse( getSchema().getId(), channel );
+    final Subscription subscription = getReplicantContext().findSubscription( address );
+    if ( Replicant.shouldCheckInvariants() )
+    {
+      invariant( () -> null != subscription,
+                 () -> "Replicant-0069: ChangeSet contained an EntityChange message referencing channel " +
+                       address + " but no such subscription exists locally." );
+    }
+    assert null != subscription;
+    response.cacheSubscriptionByChannel( channel, subscription );
+    return subscription;
   }
 
   void validateWorld()
   {
-    ensureCurrentMessageResponse().markWorldAsValidated();
+    final MessageResponse response = ensureCurrentMessageResponse();
+    response.markWorldAsValidated();
     if ( Replicant.shouldValidateEntitiesOnLoad() )
     {
-      getReplicantContext().getValidator().validateEntities();
+      getReplicantContext().getValidator().validateEntitiesAfterMessage( response.getChangedEntities() );
     }
   }
 
@@ -1114,20 +1342,84 @@ abstract class Connector
     }
     else
     {
-      final AreaOfInterestRequest.Type type = requests.get( 0 ).getType();
-      if ( AreaOfInterestRequest.Type.ADD == type )
+      final Connection connection = ensureConnection();
+      if ( _transport.supportsBatchRequests() && connection.batchAreaOfInterestRequests() )
       {
-        progressAreaOfInterestAddRequests( requests );
+        progressBatchedAreaOfInterestRequests( new ArrayList<>( connection.getCurrentAreaOfInterestRequests() ) );
       }
-      else if ( AreaOfInterestRequest.Type.REMOVE == type )
+      else
+      {
+        progressAreaOfInterestRequests( requests );
+      }
+      return true;
+    }
+  }
+
+  private void progressAreaOfInterestRequests( @Nonnull final List<AreaOfInterestRequest> requests )
+  {
+    final AreaOfInterestRequest.Type type = requests.get( 0 ).getType();
+    if ( AreaOfInterestRequest.Type.ADD == type )
+    {
+      progressAreaOfInterestAddRequests( requests );
+    }
+    else if ( AreaOfInterestRequest.Type.REMOVE == type )
+    {
+      progressAreaOfInterestRemoveRequests( requests );
+    }
+    else
+    {
+      progressAreaOfInterestUpdateRequests( requests );
+    }
+  }
+
+  /**
+   * Send the requests to the server. The requests are split into groups that could each be sent in a
+   * single network message and, if there is more than one group, the groups are sent as a single batch.
+   */
+  void progressBatchedAreaOfInterestRequests( @Nonnull final List<AreaOfInterestRequest> requests )
+  {
+    final Connection connection = ensureConnection();
+    final List<List<AreaOfInterestRequest>> groups = new ArrayList<>();
+    List<AreaOfInterestRequest> group = null;
+    for ( final AreaOfInterestRequest request : requests )
+    {
+      if ( null == group || !connection.canGroupRequests( group.get( 0 ), request ) )
+      {
+        group = new ArrayList<>();
+        groups.add( group );
+      }
+      group.add( request );
+    }
+    for ( final List<AreaOfInterestRequest> g : groups )
+    {
+      final AreaOfInterestRequest.Type type = g.get( 0 ).getType();
+      if ( AreaOfInterestRequest.Type.REMOVE == type )
       {
-        progressAreaOfInterestRemoveRequests( requests );
+        removeUnneededRemoveRequests( g );
+      }
+      else if ( AreaOfInterestRequest.Type.UPDATE == type )
+      {
+        removeUnneededUpdateRequests( g );
+      }
+    }
+    groups.removeIf( List::isEmpty );
+
+    if ( groups.isEmpty() )
+    {
+      completeAreaOfInterestRequest();
+    }
+    else
+    {
+      if ( 1 == groups.size() )
+      {
+        progressAreaOfInterestRequests( groups.get( 0 ) );
       }
       else
       {
-        progressAreaOfInterestUpdateRequests( requests );
+        _transport.requestBatch( () -> groups.forEach( this::progressAreaOfInterestRequests ) );
       }
-      return true;
+      // Requests that were not needed are removed so that the remaining requests complete with the response
+      connection.removeCompletedAreaOfInterestRequests();
     }
   }
 
@@ -1374,6 +1666,10 @@ abstract class Connector
       messageToQueue = Objects.requireNonNull( JSON.parse( entry.getContent() ) ).cast();
       messageToQueue.setRequestId( requestId );
     }
+    else if ( ChangeSetMessage.TYPE.equals( message.getType() ) && ( (ChangeSetMessage) message ).isDelta() )
+    {
+      messageToQueue = applyDeltaToCachedChangeSet( (ChangeSetMessage) message );
+    }
     else
     {
       messageToQueue = message;
@@ -1383,6 +1679,55 @@ abstract class Connector
     triggerMessageScheduler();
   }
 
+  /**
+   * Apply the delta received from the server to the cached ChangeSet that the delta is based upon.
+   * The resulting ChangeSet contains the complete data for the channel and will replace the content
+   * of the cache entry when the ChangeSet has been processed.
+   *
+   * @param delta the delta received from the server.
+   * @return the patched ChangeSet.
+   */
+  @Nonnull
+  private ChangeSetMessage applyDeltaToCachedChangeSet( @Nonnull final ChangeSetMessage delta )
+  {
+    final String baseETag = delta.getBaseETag();
+    final CacheService cacheService = getReplicantContext().getCacheService();
+    if ( Replicant.shouldCheckApiInvariants() )
+    {
+      apiInvariant( () -> null != cacheService,
+                    () -> "Replicant-0113: Received a delta ChangeSet based on etag '" + baseETag +
+                          "' but no cache service configured." );
+    }
+    assert null != cacheService;
+    final int schemaId = getSchema().getId();
+    final ChannelChangeDescriptor channelChange =
+      delta.hasChannels() && 1 == delta.getChannels().length ?
+      ChannelChangeDescriptor.from( schemaId, delta.getChannels()[ 0 ] ) :
+      delta.hasFilteredChannels() && 1 == delta.getFilteredChannels().length ?
+      ChannelChangeDescriptor.from( schemaId, delta.getFilteredChannels()[ 0 ] ) :
+      null;
+    if ( Replicant.shouldCheckApiInvariants() )
+    {
+      apiInvariant( () -> null != channelChange && ChannelChangeDescriptor.Type.ADD == channelChange.getType(),
+                    () -> "Replicant-0114: Received a delta ChangeSet based on etag '" + baseETag +
+                          "' but the ChangeSet does not contain a single channel add action." );
+    }
+    assert null != channelChange;
+    final ChannelAddress address = channelChange.getAddress();
+    final CacheEntry entry = cacheService.lookup( address );
+    if ( Replicant.shouldCheckApiInvariants() )
+    {
+      apiInvariant( () -> null != entry && entry.getETag().equals( baseETag ),
+                    () -> "Replicant-0115: Received a delta ChangeSet for channel " + address +
+                          " based on etag '" + baseETag + "' but the cache entry for the channel has etag '" +
+                          ( null == entry ? null : entry.getETag() ) + "'." );
+    }
+    assert null != entry;
+    final ChangeSetMessage changeSet = Objects.requireNonNull( JSON.parse( entry.getContent() ) ).cast();
+    changeSet.applyDelta( delta );
+    return changeSet;
+  }
+
   /**
    * Invoked when a change set has been completely processed.
    *
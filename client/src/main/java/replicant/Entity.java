@@ -135,10 +135,29 @@ public abstract class Entity
    * Link to subscription if not already subscribed, ignore otherwise.
    */
   void tryLinkToSubscription( @Nonnull final Subscription subscription )
+  {
+    tryLinkToSubscription( subscription, true );
+  }
+
+  /**
+   * Link to subscription if not already subscribed, ignore otherwise.
+   * If reportChanged is false then the change to the entities of the subscription is not reported and
+   * the caller must invoke {@link Subscription#reportEntitiesChanged()} before the transaction completes.
+   *
+   * @param subscription  the subscription.
+   * @param reportChanged true to report the change to the entities of the subscription.
+   * @return true if the entity was linked to the subscription, false if it was already linked.
+   */
+  boolean tryLinkToSubscription( @Nonnull final Subscription subscription, final boolean reportChanged )
   {
     if ( !_subscriptions.containsKey( subscription.getAddress() ) )
     {
-      linkToSubscription( subscription );
+      linkToSubscription( subscription, reportChanged );
+      return true;
+    }
+    else
+    {
+      return false;
     }
   }
 
@@ -148,6 +167,11 @@ public abstract class Entity
    * @param subscription the subscription.
    */
   void linkToSubscription( @Nonnull final Subscription subscription )
+  {
+    linkToSubscription( subscription, true );
+  }
+
+  private void linkToSubscription( @Nonnull final Subscription subscription, final boolean reportChanged )
   {
     if ( Replicant.shouldCheckInvariants() )
     {
@@ -157,7 +181,7 @@ public abstract class Entity
                        "already linked to subscription." );
     }
     linkEntityToSubscription( subscription );
-    subscription.linkSubscriptionToEntity( this );
+    subscription.linkSubscriptionToEntity( this, reportChanged );
   }
 
   private void linkEntityToSubscription( @Nonnull final Subscription subscription )
@@ -202,8 +226,8 @@ public abstract class Entity
     delinkSubscriptionFromEntity( subscription, true );
   }
 
-  private void delinkSubscriptionFromEntity( @Nonnull final Subscription subscription,
-                                             final boolean disposeEntityIfNoSubscriptions )
+  void delinkSubscriptionFromEntity( @Nonnull final Subscription subscription,
+                                     final boolean disposeEntityIfNoSubscriptions )
   {
     getSubscriptionsObservableValue().preReportChanged();
     final ChannelAddress address = subscription.getAddress();
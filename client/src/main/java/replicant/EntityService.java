@@ -24,8 +24,11 @@ import static org.realityforge.braincheck.Guards.*;
 abstract class EntityService
   extends ReplicantService
 {
-  // Entity map: Type => ID
-  private final Map<Class<?>, Map<Integer, Entity>> _entities = new HashMap<>();
+  // Entity map: Type => ID. The ids are indexed using an IntMap to avoid boxing the id.
+  private final Map<Class<?>, IntMap<Entity>> _entities = new HashMap<>();
+  // The capacity to allocate when the map for a type is created. This is kept outside of the entities map
+  // so that sizing a type that has no entities does not modify the observable map.
+  private final Map<Class<?>, Integer> _pendingCapacities = new HashMap<>();
 
   @Nonnull
   static EntityService create( @Nullable final ReplicantContext context )
@@ -42,7 +45,7 @@ abstract class EntityService
   abstract ObservableValue<?> getEntitiesObservableValue();
 
   @Observable( expectSetter = false )
-  Map<Class<?>, Map<Integer, Entity>> getEntities()
+  Map<Class<?>, IntMap<Entity>> getEntities()
   {
     return _entities;
   }
@@ -71,7 +74,7 @@ abstract class EntityService
   @Nullable
   Entity findEntityByTypeAndId( @Nonnull final Class<?> type, final int id )
   {
-    final Map<Integer, Entity> typeMap = _entities.get( type );
+    final IntMap<Entity> typeMap = _entities.get( type );
     if ( null == typeMap )
     {
       getEntitiesObservableValue().reportObserved();
@@ -96,8 +99,8 @@ abstract class EntityService
   @Nonnull
   List<Entity> findAllEntitiesByType( @Nonnull final Class<?> type )
   {
-    final Map<Integer, Entity> typeMap = getEntities().get( type );
-    return null == typeMap ? Collections.emptyList() : CollectionsUtil.asList( typeMap.values().stream() );
+    final IntMap<Entity> typeMap = getEntities().get( type );
+    return null == typeMap ? Collections.emptyList() : CollectionsUtil.wrap( typeMap.values() );
   }
 
   /**
@@ -111,7 +114,7 @@ abstract class EntityService
 
     final Class<?> entityType = entity.getType();
     final int id = entity.getId();
-    final Map<Integer, Entity> typeMap = _entities.get( entityType );
+    final IntMap<Entity> typeMap = _entities.get( entityType );
     if ( Replicant.shouldCheckInvariants() )
     {
       invariant( () -> null != typeMap,
@@ -132,6 +135,68 @@ abstract class EntityService
     getEntitiesObservableValue().reportChanged();
   }
 
+  /**
+   * Grow the map of entities of the specified type so that the specified number of entities can be
+   * added without resizing the map. If no entities of the specified type are present then the map
+   * is created with the requested capacity when the first entity of the type is added.
+   *
+   * @param type               the type of the entities.
+   * @param additionalEntities the number of entities expected to be added.
+   */
+  void ensureCapacity( @Nonnull final Class<?> type, final int additionalEntities )
+  {
+    final IntMap<Entity> typeMap = _entities.get( type );
+    if ( null == typeMap )
+    {
+      _pendingCapacities.put( type, additionalEntities );
+    }
+    else
+    {
+      typeMap.ensureCapacity( typeMap.size() + additionalEntities );
+    }
+  }
+
+  /**
+   * Report that the entities have changed.
+   * This is invoked after entities have been created without reporting the change.
+   */
+  void reportEntitiesChanged()
+  {
+    getEntitiesObservableValue().preReportChanged();
+    getEntitiesObservableValue().reportChanged();
+  }
+
+  /**
+   * Dispose the specified entities and remove them from the service.
+   * The entities are reported as changed once for the batch rather than once per entity.
+   *
+   * @param entities the entities.
+   */
+  void disposeEntities( @Nonnull final Collection<Entity> entities )
+  {
+    if ( entities.isEmpty() )
+    {
+      return;
+    }
+    getEntitiesObservableValue().preReportChanged();
+    for ( final Entity entity : entities )
+    {
+      final Class<?> entityType = entity.getType();
+      final IntMap<Entity> typeMap = _entities.get( entityType );
+      if ( null != typeMap && entity == typeMap.get( entity.getId() ) )
+      {
+        typeMap.remove( entity.getId() );
+        detachEntity( entity );
+        if ( typeMap.isEmpty() )
+        {
+          _entities.remove( entityType );
+        }
+      }
+      Disposable.dispose( entity );
+    }
+    getEntitiesObservableValue().reportChanged();
+  }
+
   /**
    * Return the entity specified by type and id, creating an Entity if one does not already exist.
    *
@@ -143,19 +208,44 @@ abstract class EntityService
   @Nonnull
   Entity findOrCreateEntity( @Nullable final String name, @Nonnull final Class<?> type, final int id )
   {
-    final Map<Integer, Entity> typeMap = _entities.get( type );
+    return findOrCreateEntity( name, type, id, true );
+  }
+
+  /**
+   * Return the entity specified by type and id, creating an Entity if one does not already exist.
+   * If reportChanged is false then the creation of an entity is not reported and the caller must
+   * invoke {@link #reportEntitiesChanged()} before the transaction completes.
+   *
+   * @param name          the name of the entity if any.
+   * @param type          the type of the entity.
+   * @param id            the id of the entity.
+   * @param reportChanged true to report the creation of an entity.
+   * @return the existing Entity if it exists, otherwise the newly created entity.
+   */
+  @Nonnull
+  Entity findOrCreateEntity( @Nullable final String name,
+                             @Nonnull final Class<?> type,
+                             final int id,
+                             final boolean reportChanged )
+  {
+    final IntMap<Entity> typeMap = _entities.get( type );
     if ( null == typeMap )
     {
-      final HashMap<Integer, Entity> newTypeMap = new HashMap<>();
+      final IntMap<Entity> newTypeMap = new IntMap<>();
+      final Integer capacity = _pendingCapacities.remove( type );
+      if ( null != capacity )
+      {
+        newTypeMap.ensureCapacity( capacity );
+      }
       _entities.put( type, newTypeMap );
-      return createEntity( newTypeMap, name, type, id );
+      return createEntity( newTypeMap, name, type, id, reportChanged );
     }
     else
     {
       final Entity entity = typeMap.get( id );
       if ( null == entity )
       {
-        return createEntity( typeMap, name, type, id );
+        return createEntity( typeMap, name, type, id, reportChanged );
       }
       else
       {
@@ -166,18 +256,25 @@ abstract class EntityService
   }
 
   @Nonnull
-  private Entity createEntity( @Nonnull final Map<Integer, Entity> typeMap,
+  private Entity createEntity( @Nonnull final IntMap<Entity> typeMap,
                                @Nullable final String name,
                                @Nonnull final Class<?> type,
-                               final int id )
+                               final int id,
+                               final boolean reportChanged )
   {
-    getEntitiesObservableValue().preReportChanged();
+    if ( reportChanged )
+    {
+      getEntitiesObservableValue().preReportChanged();
+    }
     final Entity entity = Entity.create( Replicant.areZonesEnabled() ? getReplicantContext() : null, name, type, id );
     DisposeNotifier
       .asDisposeNotifier( entity )
       .addOnDisposeListener( this, () -> destroy( entity ) );
     typeMap.put( id, entity );
-    getEntitiesObservableValue().reportChanged();
+    if ( reportChanged )
+    {
+      getEntitiesObservableValue().reportChanged();
+    }
     ComponentObservable.observe( entity );
     return entity;
   }
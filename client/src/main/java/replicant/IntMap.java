@@ -0,0 +1,217 @@
+package replicant;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A map from int keys to non-null values that uses open addressing with linear probing.
+ * The keys are stored in a primitive array so lookups do not box the key and the map does not
+ * allocate an entry per mapping. This is used to index entities by id as a client may hold many
+ * thousands of entities of a single type.
+ *
+ * @param <V> the type of the values.
+ */
+final class IntMap<V>
+{
+  private static final int MIN_CAPACITY = 8;
+  @Nonnull
+  private int[] _keys;
+  /**
+   * The values, with a null value marking an empty slot.
+   */
+  @Nonnull
+  private Object[] _values;
+  private int _size;
+
+  IntMap()
+  {
+    _keys = new int[ MIN_CAPACITY ];
+    _values = new Object[ MIN_CAPACITY ];
+  }
+
+  int size()
+  {
+    return _size;
+  }
+
+  boolean isEmpty()
+  {
+    return 0 == _size;
+  }
+
+  boolean containsKey( final int key )
+  {
+    return -1 != indexOf( key );
+  }
+
+  @SuppressWarnings( "unchecked" )
+  @Nullable
+  V get( final int key )
+  {
+    final int index = indexOf( key );
+    return -1 == index ? null : (V) _values[ index ];
+  }
+
+  /**
+   * Associate the value with the key.
+   *
+   * @param key   the key.
+   * @param value the value.
+   * @return the value previously associated with the key, if any.
+   */
+  @SuppressWarnings( "unchecked" )
+  @Nullable
+  V put( final int key, @Nonnull final V value )
+  {
+    final int mask = _values.length - 1;
+    int index = slot( key, mask );
+    while ( null != _values[ index ] )
+    {
+      if ( key == _keys[ index ] )
+      {
+        final V previous = (V) _values[ index ];
+        _values[ index ] = value;
+        return previous;
+      }
+      index = ( index + 1 ) & mask;
+    }
+    _keys[ index ] = key;
+    _values[ index ] = value;
+    _size++;
+    // Keep the load factor at or below 0.5 so that probe sequences remain short
+    if ( _size * 2 > _values.length )
+    {
+      resize( _values.length * 2 );
+    }
+    return null;
+  }
+
+  /**
+   * Remove the value associated with the key.
+   *
+   * @param key the key.
+   * @return the value that was associated with the key, if any.
+   */
+  @SuppressWarnings( "unchecked" )
+  @Nullable
+  V remove( final int key )
+  {
+    final int index = indexOf( key );
+    if ( -1 == index )
+    {
+      return null;
+    }
+    final V removed = (V) _values[ index ];
+    // Shift subsequent entries in the probe sequence back so that no tombstone is required
+    final int mask = _values.length - 1;
+    int hole = index;
+    int i = ( index + 1 ) & mask;
+    while ( null != _values[ i ] )
+    {
+      final int ideal = slot( _keys[ i ], mask );
+      if ( ( ( i - ideal ) & mask ) >= ( ( i - hole ) & mask ) )
+      {
+        _keys[ hole ] = _keys[ i ];
+        _values[ hole ] = _values[ i ];
+        hole = i;
+      }
+      i = ( i + 1 ) & mask;
+    }
+    _keys[ hole ] = 0;
+    _values[ hole ] = null;
+    _size--;
+    return removed;
+  }
+
+  /**
+   * Grow the map so that it can hold the specified number of mappings without resizing.
+   *
+   * @param size the number of mappings.
+   */
+  void ensureCapacity( final int size )
+  {
+    int capacity = _values.length;
+    while ( size * 2 > capacity )
+    {
+      capacity *= 2;
+    }
+    if ( capacity != _values.length )
+    {
+      resize( capacity );
+    }
+  }
+
+  /**
+   * Return a list containing the values in the map.
+   * The list is a copy and is not modified when the map is modified.
+   *
+   * @return a list containing the values in the map.
+   */
+  @SuppressWarnings( "unchecked" )
+  @Nonnull
+  List<V> values()
+  {
+    final List<V> values = new ArrayList<>( _size );
+    for ( final Object value : _values )
+    {
+      if ( null != value )
+      {
+        values.add( (V) value );
+      }
+    }
+    return values;
+  }
+
+  private int indexOf( final int key )
+  {
+    final int mask = _values.length - 1;
+    int index = slot( key, mask );
+    while ( null != _values[ index ] )
+    {
+      if ( key == _keys[ index ] )
+      {
+        return index;
+      }
+      index = ( index + 1 ) & mask;
+    }
+    return -1;
+  }
+
+  private static int slot( final int key, final int mask )
+  {
+    // Ids are typically sequential so spreading the high bits into the low bits is sufficient
+    return ( key ^ ( key >>> 16 ) ) & mask;
+  }
+
+  private void resize( final int capacity )
+  {
+    final int[] keys = _keys;
+    final Object[] values = _values;
+    _keys = new int[ capacity ];
+    _values = new Object[ capacity ];
+    final int mask = capacity - 1;
+    for ( int i = 0; i < values.length; i++ )
+    {
+      final Object value = values[ i ];
+      if ( null != value )
+      {
+        int index = slot( keys[ i ], mask );
+        while ( null != _values[ index ] )
+        {
+          index = ( index + 1 ) & mask;
+        }
+        _keys[ index ] = keys[ i ];
+        _values[ index ] = value;
+      }
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return Arrays.toString( values().toArray() );
+  }
+}
@@ -2,8 +2,11 @@ package replicant;
 
 import arez.component.Linkable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -31,6 +34,31 @@ final class MessageResponse
    * The current index into changes.
    */
   private int _entityChangeIndex;
+  /**
+   * The type id decoded from the EntityChange most recently returned by {@link #nextEntityChange()}.
+   */
+  private int _entityTypeId;
+  /**
+   * The entity id decoded from the EntityChange most recently returned by {@link #nextEntityChange()}.
+   */
+  private int _entityId;
+  /**
+   * The subscriptions resolved for the channel descriptors in the entity changes, keyed by the descriptor.
+   * Most entity changes in a ChangeSet reference the same few channels so each distinct descriptor is
+   * parsed and resolved once per response.
+   */
+  @Nullable
+  private Map<String, Subscription> _subscriptionsByChannel;
+  /**
+   * Flag set when the entity maps have been sized for the entities created by an initial load.
+   */
+  private boolean _batchApplyPrepared;
+  /**
+   * The entities created, updated or delinked while processing the response.
+   * This is only populated when the entities are validated incrementally.
+   */
+  @Nullable
+  private List<Entity> _changedEntities;
   private LinkedList<Linkable> _updatedEntities = new LinkedList<>();
   private List<ChannelChangeDescriptor> _parsedChannelChanges;
   private boolean _worldValidated;
@@ -142,6 +170,31 @@ final class MessageResponse
     return _request;
   }
 
+  /**
+   * Merge the specified message into the message of this response if both messages are unsolicited ChangeSets
+   * and the specified message can be merged. This must only be invoked before the response has been selected
+   * for processing.
+   *
+   * @param message the message received after the message of this response.
+   * @return true if the message was merged, false otherwise.
+   */
+  boolean tryMerge( @Nonnull final ServerToClientMessage message )
+  {
+    if ( null == _request &&
+         ChangeSetMessage.TYPE.equals( _message.getType() ) &&
+         ChangeSetMessage.TYPE.equals( message.getType() ) )
+    {
+      final ChangeSetMessage changeSet = (ChangeSetMessage) _message;
+      final ChangeSetMessage next = (ChangeSetMessage) message;
+      if ( changeSet.canMerge( next ) )
+      {
+        changeSet.merge( next );
+        return true;
+      }
+    }
+    return false;
+  }
+
   boolean areEntityChangesPending()
   {
     if ( ChangeSetMessage.TYPE.equals( _message.getType() ) )
@@ -188,6 +241,73 @@ final class MessageResponse
     return _parsedChannelChanges;
   }
 
+  /**
+   * Return true if the response is the initial load of one or more channels.
+   * This is a ChangeSet where every channel action adds a channel and thus the entity changes
+   * typically create entities that are part of the newly added subscriptions.
+   *
+   * @return true if the response is the initial load of one or more channels.
+   */
+  boolean isInitialLoad()
+  {
+    if ( ChangeSetMessage.TYPE.equals( _message.getType() ) )
+    {
+      final ChangeSetMessage changeSet = (ChangeSetMessage) _message;
+      if ( ( !changeSet.hasChannels() || 0 == changeSet.getChannels().length ) &&
+           ( !changeSet.hasFilteredChannels() || 0 == changeSet.getFilteredChannels().length ) )
+      {
+        return false;
+      }
+      for ( final ChannelChangeDescriptor channelChange : getChannelChanges() )
+      {
+        if ( ChannelChangeDescriptor.Type.ADD != channelChange.getType() )
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+    else
+    {
+      return false;
+    }
+  }
+
+  boolean isBatchApplyPrepared()
+  {
+    return _batchApplyPrepared;
+  }
+
+  void markBatchApplyPrepared()
+  {
+    _batchApplyPrepared = true;
+  }
+
+  /**
+   * Return the number of pending entity updates in the response for each entity type.
+   *
+   * @return a map from the entity type id to the number of pending updates of that type.
+   */
+  @Nonnull
+  Map<Integer, Integer> countPendingEntityUpdatesByType()
+  {
+    final Map<Integer, Integer> counts = new HashMap<>();
+    if ( areEntityChangesPending() )
+    {
+      final EntityChange[] changes = ( (ChangeSetMessage) _message ).getEntityChanges();
+      for ( int i = _entityChangeIndex; i < changes.length; i++ )
+      {
+        final EntityChange change = changes[ i ];
+        if ( change.isUpdate() )
+        {
+          final String id = change.getId();
+          counts.merge( ReplicantUtil.parseInt( id, 0, id.indexOf( '.' ) ), 1, Integer::sum );
+        }
+      }
+    }
+    return counts;
+  }
+
   void markChannelActionsProcessed()
   {
     _channelActionsProcessed = true;
@@ -199,6 +319,10 @@ final class MessageResponse
     {
       final EntityChange change = ( (ChangeSetMessage) _message ).getEntityChanges()[ _entityChangeIndex ];
       _entityChangeIndex++;
+      final String id = change.getId();
+      final int separator = id.indexOf( '.' );
+      _entityTypeId = ReplicantUtil.parseInt( id, 0, separator );
+      _entityId = ReplicantUtil.parseInt( id, separator + 1, id.length() );
       return change;
     }
     else
@@ -207,6 +331,57 @@ final class MessageResponse
     }
   }
 
+  /**
+   * Return the type id of the EntityChange most recently returned by {@link #nextEntityChange()}.
+   */
+  int getEntityTypeId()
+  {
+    return _entityTypeId;
+  }
+
+  /**
+   * Return the entity id of the EntityChange most recently returned by {@link #nextEntityChange()}.
+   */
+  int getEntityId()
+  {
+    return _entityId;
+  }
+
+  @Nullable
+  Subscription findSubscriptionByChannel( @Nonnull final String channel )
+  {
+    return null == _subscriptionsByChannel ? null : _subscriptionsByChannel.get( channel );
+  }
+
+  void cacheSubscriptionByChannel( @Nonnull final String channel, @Nonnull final Subscription subscription )
+  {
+    if ( null == _subscriptionsByChannel )
+    {
+      _subscriptionsByChannel = new HashMap<>();
+    }
+    _subscriptionsByChannel.put( channel, subscription );
+  }
+
+  /**
+   * Record that the entity was created, updated or delinked while processing the response.
+   *
+   * @param entity the entity.
+   */
+  void entityChanged( @Nonnull final Entity entity )
+  {
+    if ( null == _changedEntities )
+    {
+      _changedEntities = new ArrayList<>();
+    }
+    _changedEntities.add( entity );
+  }
+
+  @Nonnull
+  List<Entity> getChangedEntities()
+  {
+    return null == _changedEntities ? Collections.emptyList() : _changedEntities;
+  }
+
   void changeProcessed( @Nonnull final Object entity )
   {
     if ( entity instanceof Linkable )
@@ -438,6 +438,52 @@ public final class ReplicantContext
     getRuntime().setConnectorRequired( schemaId, required );
   }
 
+  /**
+   * Set the time budget that the connector for the specified schema aims to spend processing entity changes
+   * and entity links in a single tick of the scheduler. When a budget is specified, the number of items
+   * processed per tick adapts to the time taken to process recent items. This allows large change sets to
+   * be applied in fewer ticks without blocking the UI thread for longer than the budget. A budget of 0
+   * reverts to processing a fixed number of items per tick.
+   *
+   * @param schemaId          the id of the schema handled by connector.
+   * @param timeBudgetPerTick the budget in milliseconds. Must not be negative.
+   */
+  public void setTimeBudgetPerTick( final int schemaId, final int timeBudgetPerTick )
+  {
+    getRuntime().getConnector( schemaId ).setTimeBudgetPerTick( timeBudgetPerTick );
+  }
+
+  /**
+   * Specify whether the connector for the specified schema merges consecutive ChangeSets that were not
+   * generated in response to a request and are not cacheable. Such ChangeSets typically arrive in bursts
+   * when the client has been in the background and merging them allows the backlog to be applied in a
+   * single pass, retaining only the last data received for each entity.
+   *
+   * @param schemaId           the id of the schema handled by connector.
+   * @param coalesceChangeSets true to merge consecutive unsolicited ChangeSets, false otherwise.
+   */
+  public void setCoalesceChangeSets( final int schemaId, final boolean coalesceChangeSets )
+  {
+    getRuntime().getConnector( schemaId ).setCoalesceChangeSets( coalesceChangeSets );
+  }
+
+  /**
+   * Specify whether only the entities created, updated or delinked by a message are validated after the message
+   * has been processed. This reduces the cost of validation when the client holds many entities but will not
+   * detect entities that were invalidated by changes to other entities. A periodic validation of every entity
+   * can be specified to detect these problems. This has no effect unless
+   * {@link Replicant#shouldValidateEntitiesOnLoad()} returns true.
+   *
+   * @param incremental            true to only validate the entities changed by a message, false to validate
+   *                               every entity after every message.
+   * @param fullValidationInterval the number of messages after which every entity is validated when validating
+   *                               incrementally or 0 to never validate every entity.
+   */
+  public void setIncrementalEntityValidation( final boolean incremental, final int fullValidationInterval )
+  {
+    getValidator().setIncremental( incremental, fullValidationInterval );
+  }
+
   /**
    * Get the connection id from the connector for specified schema if the connector has established a connection else return null.
    *
@@ -65,6 +65,42 @@ final class ReplicantUtil
     return sb.toString();
   }
 
+  /**
+   * Parse the decimal integer in the specified region of the string.
+   * This avoids creating a substring for each number parsed when decoding the identifiers in a ChangeSet.
+   *
+   * @param value the string containing the number.
+   * @param start the index of the first character of the number.
+   * @param end   the index after the last character of the number.
+   * @return the parsed number.
+   * @throws NumberFormatException if the region does not contain a decimal integer.
+   */
+  static int parseInt( @Nonnull final String value, final int start, final int end )
+  {
+    final boolean negative = start < end && '-' == value.charAt( start );
+    int index = negative ? start + 1 : start;
+    if ( index >= end )
+    {
+      throw new NumberFormatException( value );
+    }
+    // Accumulate negatively so that Integer.MIN_VALUE can be represented
+    int result = 0;
+    while ( index < end )
+    {
+      final int digit = value.charAt( index++ ) - '0';
+      if ( digit < 0 || digit > 9 || result < ( Integer.MIN_VALUE + digit ) / 10 )
+      {
+        throw new NumberFormatException( value );
+      }
+      result = result * 10 - digit;
+    }
+    if ( !negative && Integer.MIN_VALUE == result )
+    {
+      throw new NumberFormatException( value );
+    }
+    return negative ? result : -result;
+  }
+
   private static void addCausedByPrefix( @Nonnull final StringBuilder sb )
   {
     if ( 0 != sb.length() )
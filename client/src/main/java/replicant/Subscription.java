@@ -30,7 +30,7 @@ public abstract class Subscription
   implements Comparable<Subscription>
 {
   @Nonnull
-  private final Map<Class<?>, Map<Integer, EntitySubscriptionEntry>> _entities = new HashMap<>();
+  private final Map<Class<?>, IntMap<EntitySubscriptionEntry>> _entities = new HashMap<>();
   @Nonnull
   private final ChannelAddress _address;
 
@@ -68,7 +68,7 @@ public abstract class Subscription
 
   @Nonnull
   @Observable( expectSetter = false )
-  Map<Class<?>, Map<Integer, EntitySubscriptionEntry>> getEntities()
+  Map<Class<?>, IntMap<EntitySubscriptionEntry>> getEntities()
   {
     return _entities;
   }
@@ -82,7 +82,7 @@ public abstract class Subscription
   @Nonnull
   public List<Entity> findAllEntitiesByType( @Nonnull final Class<?> type )
   {
-    final Map<Integer, EntitySubscriptionEntry> typeMap = getEntities().get( type );
+    final IntMap<EntitySubscriptionEntry> typeMap = getEntities().get( type );
     return null == typeMap ?
            Collections.emptyList() :
            CollectionsUtil.asList( typeMap.values().stream().map( EntitySubscriptionEntry::getEntity ) );
@@ -91,7 +91,7 @@ public abstract class Subscription
   @Nullable
   public Entity findEntityByTypeAndId( @Nonnull final Class<?> type, final int id )
   {
-    final Map<Integer, EntitySubscriptionEntry> typeMap = _entities.get( type );
+    final IntMap<EntitySubscriptionEntry> typeMap = _entities.get( type );
     if ( null == typeMap )
     {
       getEntitiesObservableValue().reportObserved();
@@ -171,23 +171,59 @@ public abstract class Subscription
 
   void linkSubscriptionToEntity( @Nonnull final Entity entity )
   {
-    getEntitiesObservableValue().preReportChanged();
+    linkSubscriptionToEntity( entity, true );
+  }
+
+  /**
+   * Link the entity to the subscription if it is not already linked.
+   * If reportChanged is false then the change is not reported and the caller must invoke
+   * {@link #reportEntitiesChanged()} before the transaction completes.
+   *
+   * @param entity        the entity.
+   * @param reportChanged true to report the change.
+   * @return true if the entity was linked, false if the entity was already linked.
+   */
+  boolean linkSubscriptionToEntity( @Nonnull final Entity entity, final boolean reportChanged )
+  {
+    if ( reportChanged )
+    {
+      getEntitiesObservableValue().preReportChanged();
+    }
     final Class<?> type = entity.getType();
     final int id = entity.getId();
-    final Map<Integer, EntitySubscriptionEntry> typeMap = _entities.computeIfAbsent( type, t -> new HashMap<>() );
+    final IntMap<EntitySubscriptionEntry> typeMap = _entities.computeIfAbsent( type, t -> new IntMap<>() );
     if ( !typeMap.containsKey( id ) )
     {
-      createSubscriptionEntry( typeMap, entity );
+      createSubscriptionEntry( typeMap, entity, reportChanged );
+      return true;
+    }
+    else
+    {
+      return false;
     }
   }
 
-  private void createSubscriptionEntry( @Nonnull final Map<Integer, EntitySubscriptionEntry> typeMap,
-                                        @Nonnull final Entity entity )
+  private void createSubscriptionEntry( @Nonnull final IntMap<EntitySubscriptionEntry> typeMap,
+                                        @Nonnull final Entity entity,
+                                        final boolean reportChanged )
   {
     typeMap.put( entity.getId(), EntitySubscriptionEntry.create( entity ) );
     DisposeNotifier
       .asDisposeNotifier( entity )
       .addOnDisposeListener( this, () -> detachEntity( entity, false ) );
+    if ( reportChanged )
+    {
+      getEntitiesObservableValue().reportChanged();
+    }
+  }
+
+  /**
+   * Report that the entities in the subscription have changed.
+   * This is invoked after entities have been linked without reporting the change.
+   */
+  void reportEntitiesChanged()
+  {
+    getEntitiesObservableValue().preReportChanged();
     getEntitiesObservableValue().reportChanged();
   }
 
@@ -202,7 +238,7 @@ public abstract class Subscription
   private void detachEntity( @Nonnull final Entity entity, final boolean disposeEntityIfNoSubscriptions )
   {
     final Class<?> entityType = entity.getType();
-    final Map<Integer, EntitySubscriptionEntry> typeMap = _entities.get( entityType );
+    final IntMap<EntitySubscriptionEntry> typeMap = _entities.get( entityType );
     final ChannelAddress address = getAddress();
     if ( Replicant.shouldCheckInvariants() )
     {
@@ -239,11 +275,33 @@ public abstract class Subscription
     delinkSubscriptionFromAllEntities();
   }
 
+  /**
+   * Detach every entity from the subscription in a single pass.
+   * The entities that are no longer part of any subscription are disposed as a single batch so that
+   * the entities in the {@link EntityService} are reported as changed once rather than once per entity.
+   */
   private void delinkSubscriptionFromAllEntities()
   {
-    new ArrayList<>( _entities.values() )
-      .stream()
-      .flatMap( entitySet -> new ArrayList<>( entitySet.values() ).stream() )
-      .forEachOrdered( entity -> entity.getEntity().delinkSubscriptionFromEntity( this ) );
+    if ( _entities.isEmpty() )
+    {
+      return;
+    }
+    final List<Entity> entitiesToDispose = new ArrayList<>();
+    for ( final IntMap<EntitySubscriptionEntry> typeMap : _entities.values() )
+    {
+      for ( final EntitySubscriptionEntry entry : typeMap.values() )
+      {
+        final Entity entity = entry.getEntity();
+        DisposeNotifier.asDisposeNotifier( entity ).removeOnDisposeListener( this );
+        Disposable.dispose( entry );
+        entity.delinkSubscriptionFromEntity( this, false );
+        if ( entity.subscriptions().isEmpty() )
+        {
+          entitiesToDispose.add( entity );
+        }
+      }
+    }
+    _entities.clear();
+    getReplicantContext().getEntityService().disposeEntities( entitiesToDispose );
   }
 }
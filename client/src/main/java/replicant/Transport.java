@@ -47,4 +47,24 @@ public interface Transport
   void requestBulkSubscribe( @Nonnull List<ChannelAddress> addresses, @Nullable Object filter );
 
   void requestBulkUnsubscribe( @Nonnull List<ChannelAddress> addresses );
+
+  /**
+   * Return true if the transport supports sending several requests in a single batch.
+   * See {@link #requestBatch(SafeProcedure)}.
+   */
+  default boolean supportsBatchRequests()
+  {
+    return false;
+  }
+
+  /**
+   * Send the subscribe and unsubscribe requests made by the action to the backend as a single batch.
+   * The backend processes the requests in order within a single transaction and responds with a single
+   * message. All the requests share the same request id. This method should only be invoked if
+   * {@link #supportsBatchRequests()} returns true.
+   */
+  default void requestBatch( @Nonnull final SafeProcedure action )
+  {
+    throw new IllegalStateException( "Transport does not support batch requests" );
+  }
 }
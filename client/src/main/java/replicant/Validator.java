@@ -1,9 +1,12 @@
 package replicant;
 
+import arez.Disposable;
 import arez.annotations.Action;
 import arez.annotations.ArezComponent;
 import arez.annotations.Feature;
 import arez.component.Verifiable;
+import java.util.Collection;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import static org.realityforge.braincheck.Guards.*;
 
@@ -14,6 +17,20 @@ import static org.realityforge.braincheck.Guards.*;
 abstract class Validator
   extends ReplicantService
 {
+  /**
+   * Flag indicating whether only the entities changed by a message are validated after the message is processed.
+   */
+  private boolean _incremental;
+  /**
+   * The number of messages after which every entity is validated when validating incrementally.
+   * A value of 0 indicates that every entity is never validated when validating incrementally.
+   */
+  private int _fullValidationInterval;
+  /**
+   * The number of messages processed since every entity was validated.
+   */
+  private int _messagesSinceFullValidation;
+
   static Validator create( @Nullable final ReplicantContext context )
   {
     return new Arez_Validator( context );
@@ -24,6 +41,65 @@ abstract class Validator
     super( context );
   }
 
+  boolean isIncremental()
+  {
+    return _incremental;
+  }
+
+  int getFullValidationInterval()
+  {
+    return _fullValidationInterval;
+  }
+
+  /**
+   * Specify whether only the entities changed by a message are validated after the message is processed.
+   *
+   * @param incremental            true to only validate the entities changed by a message, false to validate
+   *                               every entity.
+   * @param fullValidationInterval the number of messages after which every entity is validated when validating
+   *                               incrementally or 0 to never validate every entity.
+   */
+  void setIncremental( final boolean incremental, final int fullValidationInterval )
+  {
+    if ( Replicant.shouldCheckApiInvariants() )
+    {
+      apiInvariant( () -> fullValidationInterval >= 0,
+                    () -> "Replicant-0117: Validator.setIncremental() invoked with negative " +
+                          "fullValidationInterval " + fullValidationInterval + "." );
+    }
+    _incremental = incremental;
+    _fullValidationInterval = fullValidationInterval;
+    _messagesSinceFullValidation = 0;
+  }
+
+  /**
+   * Validate the entities after a message has been processed.
+   * If validating incrementally then only the specified entities are validated unless a full validation
+   * is due, otherwise every entity is validated.
+   *
+   * @param changedEntities the entities created, updated or delinked by the message.
+   */
+  void validateEntitiesAfterMessage( @Nonnull final Collection<Entity> changedEntities )
+  {
+    if ( _incremental )
+    {
+      _messagesSinceFullValidation++;
+      if ( 0 != _fullValidationInterval && _messagesSinceFullValidation >= _fullValidationInterval )
+      {
+        _messagesSinceFullValidation = 0;
+        validateEntities();
+      }
+      else if ( !changedEntities.isEmpty() )
+      {
+        validateChangedEntities( changedEntities );
+      }
+    }
+    else
+    {
+      validateEntities();
+    }
+  }
+
   /**
    * Verify that all entities contained within the EntityService will pass verification.
    * An entity can be verified by implementing the {@link Verifiable} interface.
@@ -37,20 +113,46 @@ abstract class Validator
       {
         for ( final Entity entity : getReplicantContext().findAllEntitiesByType( entityType ) )
         {
-          try
-          {
-            final Object userObject = entity.maybeUserObject();
-            if ( null != userObject )
-            {
-              Verifiable.verify( userObject );
-            }
-          }
-          catch ( final Exception e )
-          {
-            fail( () -> "Replicant-0065: Entity failed to verify during validation process. Entity = " + entity );
-          }
+          validateEntity( entity );
         }
       }
     }
   }
+
+  /**
+   * Verify that the specified entities will pass verification.
+   * Entities that have been disposed are skipped.
+   *
+   * @param entities the entities.
+   */
+  @Action( verifyRequired = false )
+  void validateChangedEntities( @Nonnull final Collection<Entity> entities )
+  {
+    if ( Replicant.shouldCheckInvariants() )
+    {
+      for ( final Entity entity : entities )
+      {
+        if ( Disposable.isNotDisposed( entity ) )
+        {
+          validateEntity( entity );
+        }
+      }
+    }
+  }
+
+  private void validateEntity( @Nonnull final Entity entity )
+  {
+    try
+    {
+      final Object userObject = entity.maybeUserObject();
+      if ( null != userObject )
+      {
+        Verifiable.verify( userObject );
+      }
+    }
+    catch ( final Exception e )
+    {
+      fail( () -> "Replicant-0065: Entity failed to verify during validation process. Entity = " + entity );
+    }
+  }
 }
@@ -0,0 +1,30 @@
+package replicant.messages;
+
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import jsinterop.annotations.JsOverlay;
+import jsinterop.annotations.JsPackage;
+import jsinterop.annotations.JsType;
+
+/**
+ * A message containing several commands that the server processes in order as a single request.
+ */
+@JsType( isNative = true, namespace = JsPackage.GLOBAL, name = "Object" )
+@SuppressWarnings( { "NotNullFieldNotInitialized", "unused" } )
+public final class BatchMessage
+  extends ClientToServerMessage
+{
+  @Nonnull
+  private ClientToServerMessage[] commands;
+
+  @JsOverlay
+  @Nonnull
+  public static BatchMessage create( final int req, @Nonnull final ClientToServerMessage[] commands )
+  {
+    final BatchMessage message = new BatchMessage();
+    message.type = "batch";
+    message.requestId = req;
+    message.commands = Objects.requireNonNull( commands );
+    return message;
+  }
+}
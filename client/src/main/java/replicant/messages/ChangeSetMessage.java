@@ -1,6 +1,7 @@
 package replicant.messages;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import jsinterop.annotations.JsOverlay;
@@ -22,6 +23,8 @@ public class ChangeSetMessage
   @Nullable
   private String etag;
   @Nullable
+  private String baseEtag;
+  @Nullable
   private String[] channels;
   @Nullable
   private ChannelChange[] fchannels;
@@ -34,11 +37,23 @@ public class ChangeSetMessage
                                          @Nullable final String[] channels,
                                          @Nullable final ChannelChange[] fchannels,
                                          @Nullable final EntityChange[] entityChanges )
+  {
+    return create( requestId, eTag, null, channels, fchannels, entityChanges );
+  }
+
+  @GwtIncompatible
+  public static ChangeSetMessage create( @Nullable final Integer requestId,
+                                         @Nullable final String eTag,
+                                         @Nullable final String baseETag,
+                                         @Nullable final String[] channels,
+                                         @Nullable final ChannelChange[] fchannels,
+                                         @Nullable final EntityChange[] entityChanges )
   {
     final ChangeSetMessage changeSet = new ChangeSetMessage();
     changeSet.type = TYPE;
     changeSet.requestId = null == requestId ? null : requestId.doubleValue();
     changeSet.etag = eTag;
+    changeSet.baseEtag = baseETag;
     changeSet.channels = channels;
     changeSet.fchannels = fchannels;
     changeSet.changes = entityChanges;
@@ -55,6 +70,167 @@ public class ChangeSetMessage
     return etag;
   }
 
+  /**
+   * Return the version of the cached data that this message should be applied to.
+   * This is non-null when the message is a delta containing only the changes since the
+   * specified version rather than the complete data for the channel.
+   *
+   * @return the version of the cached data that this delta applies to, if any.
+   */
+  @Nullable
+  @JsOverlay
+  public final String getBaseETag()
+  {
+    return baseEtag;
+  }
+
+  /**
+   * Return true if this ChangeSet is a delta that must be applied to cached data.
+   *
+   * @return true if this ChangeSet is a delta that must be applied to cached data.
+   */
+  @JsOverlay
+  public final boolean isDelta()
+  {
+    return null != baseEtag;
+  }
+
+  /**
+   * Apply the specified delta to this message. This message is expected to be the cached data
+   * identified by the base version of the delta. After the delta is applied, this message will
+   * have the version and requestId of the delta and the entity changes will have been updated,
+   * added or removed as specified by the delta.
+   *
+   * @param delta the delta to apply.
+   */
+  @JsOverlay
+  public final void applyDelta( @Nonnull final ChangeSetMessage delta )
+  {
+    if ( Replicant.shouldCheckApiInvariants() )
+    {
+      apiInvariant( delta::isDelta,
+                    () -> "Replicant-0111: ChangeSet.applyDelta() invoked with a ChangeSet that is not a delta." );
+      apiInvariant( () -> delta.baseEtag.equals( etag ),
+                    () -> "Replicant-0112: ChangeSet.applyDelta() invoked with a delta for version '" +
+                          delta.baseEtag + "' but the ChangeSet has version '" + etag + "'." );
+    }
+    if ( null != delta.changes )
+    {
+      final LinkedHashMap<String, EntityChange> merged = new LinkedHashMap<>();
+      if ( null != changes )
+      {
+        for ( final EntityChange change : changes )
+        {
+          merged.put( change.getId(), change );
+        }
+      }
+      for ( final EntityChange change : delta.changes )
+      {
+        if ( change.isRemove() )
+        {
+          merged.remove( change.getId() );
+        }
+        else
+        {
+          merged.put( change.getId(), change );
+        }
+      }
+      changes = merged.values().toArray( new EntityChange[ 0 ] );
+    }
+    requestId = delta.requestId;
+    etag = delta.etag;
+  }
+
+  /**
+   * Return true if this ChangeSet was not generated in response to a request and is not cacheable.
+   *
+   * @return true if this ChangeSet has no requestId and no version.
+   */
+  @JsOverlay
+  public final boolean isUnsolicited()
+  {
+    return null == getRequestId() && null == etag && null == baseEtag;
+  }
+
+  /**
+   * Return true if the specified ChangeSet can be merged into this ChangeSet via {@link #merge(ChangeSetMessage)}.
+   * Both ChangeSets must be unsolicited and the specified ChangeSet must contain no channel changes as
+   * the channel changes of a ChangeSet are applied before the entity changes. The specified ChangeSet must
+   * also not update an entity that this ChangeSet removes as the entity must be removed before it is recreated.
+   *
+   * @param next the ChangeSet that follows this ChangeSet.
+   * @return true if the specified ChangeSet can be merged into this ChangeSet.
+   */
+  @JsOverlay
+  public final boolean canMerge( @Nonnull final ChangeSetMessage next )
+  {
+    if ( !isUnsolicited() || !next.isUnsolicited() || null != next.channels || null != next.fchannels )
+    {
+      return false;
+    }
+    else if ( null != changes && null != next.changes )
+    {
+      final HashSet<String> removed = new HashSet<>();
+      for ( final EntityChange change : changes )
+      {
+        if ( change.isRemove() )
+        {
+          removed.add( change.getId() );
+        }
+      }
+      if ( !removed.isEmpty() )
+      {
+        for ( final EntityChange change : next.changes )
+        {
+          if ( change.isUpdate() && removed.contains( change.getId() ) )
+          {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Merge the specified ChangeSet into this ChangeSet so that both can be applied in a single pass.
+   * The entity changes of the specified ChangeSet are merged into the entity changes of this ChangeSet
+   * so that there is a single change per entity that reflects the last data received for the entity.
+   *
+   * @param next the ChangeSet that follows this ChangeSet.
+   * @see #canMerge(ChangeSetMessage)
+   */
+  @JsOverlay
+  public final void merge( @Nonnull final ChangeSetMessage next )
+  {
+    if ( Replicant.shouldCheckApiInvariants() )
+    {
+      apiInvariant( () -> canMerge( next ),
+                    () -> "Replicant-0119: ChangeSet.merge() invoked with a ChangeSet that can not be merged." );
+    }
+    if ( null != next.changes )
+    {
+      if ( null == changes )
+      {
+        changes = next.changes;
+      }
+      else
+      {
+        final LinkedHashMap<String, EntityChange> merged = new LinkedHashMap<>();
+        for ( final EntityChange change : changes )
+        {
+          merged.put( change.getId(), change );
+        }
+        for ( final EntityChange change : next.changes )
+        {
+          final EntityChange existing = merged.get( change.getId() );
+          merged.put( change.getId(), null == existing ? change : existing.merge( change ) );
+        }
+        changes = merged.values().toArray( new EntityChange[ 0 ] );
+      }
+    }
+  }
+
   /**
    * Return the channel changes that are part of the message.
    * This should only be invoked if {@link #hasChannels()} return true.
@@ -15,6 +15,8 @@ public class ChannelChange
   private String channel;
   @Nullable
   private Object filter;
+  @Nullable
+  private String[] delinks;
 
   /**
    * Create a ChannelChange.
@@ -30,6 +32,21 @@ public class ChannelChange
     return channel;
   }
 
+  /**
+   * Create a ChannelChange that updates the filter of a channel and lists the entities delinked by the update.
+   *
+   * @return the new ChannelChange.
+   */
+  @JsOverlay
+  public static ChannelChange create( @Nonnull final String channelAction,
+                                      @Nullable final Object filter,
+                                      @Nullable final String[] delinks )
+  {
+    final ChannelChange channel = create( channelAction, filter );
+    channel.delinks = delinks;
+    return channel;
+  }
+
   private ChannelChange()
   {
   }
@@ -55,4 +72,17 @@ public class ChannelChange
   {
     return filter;
   }
+
+  /**
+   * Return the entities delinked from the channel by a filter update, if supplied.
+   * Each entity is identified by a "typeId.id" descriptor.
+   *
+   * @return the entities delinked from the channel, if supplied.
+   */
+  @Nullable
+  @JsOverlay
+  public final String[] getDelinks()
+  {
+    return delinks;
+  }
 }
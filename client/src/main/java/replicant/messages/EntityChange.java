@@ -1,5 +1,7 @@
 package replicant.messages;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import jsinterop.annotations.JsOverlay;
@@ -103,4 +105,43 @@ public class EntityChange
     assert null != data;
     return data;
   }
+
+  /**
+   * Return the change that results from applying this change and then the specified change to the same entity.
+   * If the specified change is a remove then it supersedes this change. Otherwise the result has the data of the
+   * specified change and is associated with the channels of both changes, as an update does not delink the entity
+   * from any channel.
+   *
+   * @param next the change that follows this change.
+   * @return the merged change.
+   */
+  @JsOverlay
+  @Nonnull
+  public final EntityChange merge( @Nonnull final EntityChange next )
+  {
+    if ( next.isRemove() || isRemove() )
+    {
+      return next;
+    }
+    else
+    {
+      final List<String> mergedChannels = new ArrayList<>();
+      for ( final String channel : channels )
+      {
+        mergedChannels.add( channel );
+      }
+      for ( final String channel : next.channels )
+      {
+        if ( !mergedChannels.contains( channel ) )
+        {
+          mergedChannels.add( channel );
+        }
+      }
+      final EntityChange change = new EntityChange();
+      change.id = next.id;
+      change.channels = mergedChannels.toArray( new String[ 0 ] );
+      change.data = next.data;
+      return change;
+    }
+  }
 }
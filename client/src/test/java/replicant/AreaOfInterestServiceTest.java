@@ -2,6 +2,7 @@ package replicant;
 
 import arez.Disposable;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.realityforge.guiceyloops.shared.ValueUtil;
 import org.testng.annotations.Test;
 import replicant.spy.AreaOfInterestCreatedEvent;
@@ -56,6 +57,56 @@ public class AreaOfInterestServiceTest
     } );
   }
 
+  @Test
+  public void findAreaOfInterestByAddress()
+  {
+    final ChannelAddress address1 = new ChannelAddress( 1, 0 );
+    final ChannelAddress address2 = new ChannelAddress( 1, 1, 2 );
+
+    final AreaOfInterestService service = AreaOfInterestService.create( null );
+
+    final AtomicInteger findAddress1CallCount = new AtomicInteger();
+    observer( () -> {
+      // Access observable next line
+      service.findAreaOfInterestByAddress( address1 );
+      findAddress1CallCount.incrementAndGet();
+    } );
+
+    final AtomicInteger findAddress2CallCount = new AtomicInteger();
+    observer( () -> {
+      // Access observable next line
+      service.findAreaOfInterestByAddress( address2 );
+      findAddress2CallCount.incrementAndGet();
+    } );
+
+    assertEquals( findAddress1CallCount.get(), 1 );
+    assertEquals( findAddress2CallCount.get(), 1 );
+    safeAction( () -> assertNull( service.findAreaOfInterestByAddress( address1 ) ) );
+
+    final AreaOfInterest areaOfInterest1 = safeAction( () -> service.createOrUpdateAreaOfInterest( address1, null ) );
+
+    assertEquals( findAddress1CallCount.get(), 2 );
+    assertEquals( findAddress2CallCount.get(), 2 );
+    safeAction( () -> assertEquals( service.findAreaOfInterestByAddress( address1 ), areaOfInterest1 ) );
+    safeAction( () -> assertNull( service.findAreaOfInterestByAddress( address2 ) ) );
+
+    final AreaOfInterest areaOfInterest2 = safeAction( () -> service.createOrUpdateAreaOfInterest( address2, null ) );
+
+    // Observers that found an AreaOfInterest are not rescheduled when other areas of interest are created
+    assertEquals( findAddress1CallCount.get(), 2 );
+    assertEquals( findAddress2CallCount.get(), 3 );
+    safeAction( () -> assertEquals( service.findAreaOfInterestByAddress( address2 ), areaOfInterest2 ) );
+
+    Disposable.dispose( areaOfInterest1 );
+
+    assertEquals( findAddress1CallCount.get(), 3 );
+    assertEquals( findAddress2CallCount.get(), 3 );
+    safeAction( () -> assertNull( service.findAreaOfInterestByAddress( address1 ) ) );
+    safeAction( () -> assertEquals( service.findAreaOfInterestByAddress( address2 ), areaOfInterest2 ) );
+    safeAction( () -> assertTrue( service.contains( areaOfInterest2 ) ) );
+    safeAction( () -> assertEquals( service.getAreasOfInterest().size(), 1 ) );
+  }
+
   @Test
   public void createAreaOfInterestGeneratesSpyEvent()
   {
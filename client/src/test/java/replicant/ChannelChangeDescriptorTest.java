@@ -115,6 +115,7 @@ public class ChannelChangeDescriptorTest
     assertEquals( descriptor.getAddress().getName(), "0.23" );
     assertEquals( descriptor.getType(), ChannelChangeDescriptor.Type.UPDATE );
     assertEquals( descriptor.getFilter(), filter );
+    assertNull( descriptor.getDelinks() );
   }
 
   @Test
@@ -130,6 +131,19 @@ public class ChannelChangeDescriptorTest
     assertEquals( descriptor.getFilter(), filter );
   }
 
+  @Test
+  public void updateWithDelinks()
+  {
+    final int schemaId = 0;
+    final String[] delinks = new String[]{ "1.2", "3.4" };
+    final ChannelChangeDescriptor descriptor =
+      ChannelChangeDescriptor.from( schemaId, ChannelChange.create( "=23.2", null, delinks ) );
+    assertEquals( descriptor.getAddress().getName(), "0.23.2" );
+    assertEquals( descriptor.getType(), ChannelChangeDescriptor.Type.UPDATE );
+    assertNull( descriptor.getFilter() );
+    assertEquals( descriptor.getDelinks(), delinks );
+  }
+
   @Test
   public void deleteInstanceGraph()
   {
@@ -134,6 +134,25 @@ public class ChannelSchemaTest
     assertEquals( channelSchema.getFilter(), filter );
     assertEquals( channelSchema.isCacheable(), cacheable );
     assertEquals( channelSchema.isExternal(), external );
+    assertNull( channelSchema.getFilteredEntities() );
+  }
+
+  @Test
+  public void dynamicFilteredGraph_withFilteredEntities()
+  {
+    final EntitySchema entity =
+      new EntitySchema( 1, ValueUtil.randomString(), String.class, ( i, d ) -> String.valueOf( i ), null );
+    final ChannelSchema channelSchema =
+      new ChannelSchema( ValueUtil.randomInt(),
+                         ValueUtil.randomString(),
+                         null,
+                         ChannelSchema.FilterType.DYNAMIC,
+                         mock( SubscriptionUpdateEntityFilter.class ),
+                         ValueUtil.randomBoolean(),
+                         ValueUtil.randomBoolean(),
+                         Collections.singletonList( entity ),
+                         Collections.singletonList( entity ) );
+    assertEquals( channelSchema.getFilteredEntities(), Collections.singletonList( entity ) );
   }
 
   @Test
@@ -207,4 +226,22 @@ public class ChannelSchemaTest
     assertEquals( exception.getMessage(),
                   "Replicant-0077: ChannelSchema 222 does not have a DYNAMIC filterType but has supplied a filter." );
   }
+
+  @Test
+  public void constructorPassedFilteredEntitiesWhenNotExpected()
+  {
+    final IllegalStateException exception =
+      expectThrows( IllegalStateException.class,
+                    () -> new ChannelSchema( 222,
+                                             "MyChannel",
+                                             null,
+                                             ChannelSchema.FilterType.STATIC,
+                                             null,
+                                             ValueUtil.randomBoolean(),
+                                             ValueUtil.randomBoolean(),
+                                             Collections.emptyList(),
+                                             Collections.emptyList() ) );
+    assertEquals( exception.getMessage(),
+                  "Replicant-0118: ChannelSchema 222 does not have a DYNAMIC filterType but has supplied filteredEntities." );
+  }
 }
@@ -8,6 +8,9 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.realityforge.guiceyloops.shared.ValueUtil;
 import org.testng.annotations.Test;
+import replicant.messages.ChangeSetMessage;
+import replicant.messages.EntityChange;
+import replicant.messages.EntityChangeDataImpl;
 import replicant.messages.OkMessage;
 import replicant.messages.ServerToClientMessage;
 import replicant.messages.UseCacheMessage;
@@ -188,6 +191,51 @@ public class ConnectionTest
     assertEquals( response2.getMessage(), data2 );
   }
 
+  @Test
+  public void enqueueResponse_coalesceChangeSets()
+  {
+    final Connection connection = createConnection();
+    connection.getConnector().setCoalesceChangeSets( true );
+
+    final EntityChange change1 = EntityChange.create( 1, 1, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final EntityChange change2 = EntityChange.create( 1, 1, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final EntityChange change3 = EntityChange.create( 1, 2, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final ChangeSetMessage data1 = ChangeSetMessage.create( null, null, null, null, new EntityChange[]{ change1 } );
+    final ChangeSetMessage data2 = ChangeSetMessage.create( null, null, null, null, new EntityChange[]{ change2 } );
+    final ChangeSetMessage data3 = ChangeSetMessage.create( null, null, null, null, new EntityChange[]{ change3 } );
+    final ChangeSetMessage data4 = ChangeSetMessage.create( null, "X", null, null, new EntityChange[]{ change3 } );
+    final ChangeSetMessage data5 = ChangeSetMessage.create( null, null, null, null, new EntityChange[]{ change1 } );
+
+    connection.enqueueResponse( data1, null );
+    connection.enqueueResponse( data2, null );
+    connection.enqueueResponse( data3, null );
+
+    assertEquals( connection.getPendingResponses().size(), 1 );
+    final MessageResponse response = connection.getPendingResponses().get( 0 );
+    assertEquals( response.getMessage(), data1 );
+    final EntityChange[] changes = data1.getEntityChanges();
+    assertEquals( changes.length, 2 );
+    assertEquals( changes[ 0 ].getData(), change2.getData() );
+    assertEquals( changes[ 1 ], change3 );
+
+    // A cacheable ChangeSet is not merged and nor is the ChangeSet that follows it
+    connection.enqueueResponse( data4, null );
+    connection.enqueueResponse( data5, null );
+
+    assertEquals( connection.getPendingResponses().size(), 3 );
+  }
+
+  @Test
+  public void enqueueResponse_coalesceChangeSetsDisabled()
+  {
+    final Connection connection = createConnection();
+
+    connection.enqueueResponse( ChangeSetMessage.create( null, null, null, null, null ), null );
+    connection.enqueueResponse( ChangeSetMessage.create( null, null, null, null, null ), null );
+
+    assertEquals( connection.getPendingResponses().size(), 2 );
+  }
+
   @Test
   public void basicRequestManagementWorkflow()
   {
@@ -672,6 +720,55 @@ public class ConnectionTest
     assertRequestPendingState( connection, address4, filter4, true, false, false, 0, -1, -1 );
   }
 
+  @Test
+  public void pendingAreaOfInterestRequestQueries_afterRequestsDequeued()
+  {
+    final Connection connection = createConnection();
+
+    final ChannelAddress address1 = new ChannelAddress( 1, 0 );
+    final ChannelAddress address2 = new ChannelAddress( 1, 1 );
+    final ChannelAddress address3 = new ChannelAddress( 1, 2 );
+
+    final Object filter2 = ValueUtil.randomString();
+
+    connection.requestSubscribe( address1, null );
+    connection.requestSubscriptionUpdate( address2, filter2 );
+    connection.requestSubscribe( address3, null );
+    connection.requestUnsubscribe( address1 );
+
+    assertRequestPendingState( connection, address1, null, true, false, true, 1, -1, 4 );
+    assertRequestPendingState( connection, address2, filter2, false, true, false, -1, 2, -1 );
+    assertRequestPendingState( connection, address3, null, true, false, false, 3, -1, -1 );
+
+    // Type graph requests are never grouped so the first request becomes current
+    assertEquals( connection.getCurrentAreaOfInterestRequests().size(), 1 );
+
+    assertRequestPendingState( connection, address1, null, true, false, true, 0, -1, 3 );
+    assertRequestPendingState( connection, address2, filter2, false, true, false, -1, 1, -1 );
+    assertRequestPendingState( connection, address3, null, true, false, false, 2, -1, -1 );
+
+    connection.completeAreaOfInterestRequest();
+
+    assertRequestPendingState( connection, address1, null, false, false, true, -1, -1, 3 );
+
+    assertEquals( connection.getCurrentAreaOfInterestRequests().size(), 1 );
+
+    assertRequestPendingState( connection, address1, null, false, false, true, -1, -1, 2 );
+    assertRequestPendingState( connection, address2, filter2, false, true, false, -1, 0, -1 );
+    assertRequestPendingState( connection, address3, null, true, false, false, 1, -1, -1 );
+
+    // The current request was never sent so it is removed
+    connection.removeCompletedAreaOfInterestRequests();
+
+    assertRequestPendingState( connection, address2, filter2, false, false, false, -1, -1, -1 );
+    assertRequestPendingState( connection, address3, null, true, false, false, 1, -1, -1 );
+
+    // Requests enqueued after requests were dequeued are positioned after the remaining requests
+    connection.requestSubscriptionUpdate( address2, filter2 );
+
+    assertRequestPendingState( connection, address2, filter2, false, true, false, -1, 3, -1 );
+  }
+
   private void assertRequestPendingState( final Connection connection,
                                           final ChannelAddress address,
                                           final Object filter,
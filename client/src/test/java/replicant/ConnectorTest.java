@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -1342,6 +1343,114 @@ public class ConnectorTest
     } );
   }
 
+  @Test
+  public void updateSubscriptionForFilteredEntities_withDelinks()
+  {
+    // The filter matches no entities so any entity that is evaluated would be delinked
+    final SubscriptionUpdateEntityFilter<?> filter = ( f, entity ) -> false;
+    final EntitySchema entitySchema1 =
+      new EntitySchema( 0, ValueUtil.randomString(), Integer.class, ( i, d ) -> i, null );
+    final EntitySchema entitySchema2 =
+      new EntitySchema( 1, ValueUtil.randomString(), String.class, ( i, d ) -> String.valueOf( i ), null );
+    final ChannelSchema channelSchema =
+      new ChannelSchema( 0,
+                         ValueUtil.randomString(),
+                         null,
+                         ChannelSchema.FilterType.DYNAMIC,
+                         filter,
+                         true, true,
+                         Arrays.asList( entitySchema1, entitySchema2 ) );
+    final SystemSchema schema =
+      new SystemSchema( 1,
+                        ValueUtil.randomString(),
+                        new ChannelSchema[]{ channelSchema },
+                        new EntitySchema[]{ entitySchema1, entitySchema2 } );
+
+    final Connector connector = createConnector( schema );
+    newConnection( connector );
+
+    final Subscription subscription =
+      createSubscription( new ChannelAddress( 1, 0, 1 ), ValueUtil.randomString(), true );
+
+    final Entity entity1 = findOrCreateEntity( Integer.class, -1 );
+    final Entity entity2 = findOrCreateEntity( Integer.class, -2 );
+    final Entity entity3 = findOrCreateEntity( String.class, 5 );
+    final Entity entity4 = findOrCreateEntity( String.class, 6 );
+
+    safeAction( () -> {
+      entity1.linkToSubscription( subscription );
+      entity2.linkToSubscription( subscription );
+      entity3.linkToSubscription( subscription );
+      entity4.linkToSubscription( subscription );
+    } );
+
+    // 0.99 is not part of the subscription and is ignored
+    final List<Entity> delinked =
+      safeAction( () -> connector.updateSubscriptionForFilteredEntities( subscription,
+                                                                         new String[]{ "0.-1", "1.5", "0.99" } ) );
+
+    assertEquals( delinked, Arrays.asList( entity1, entity3 ) );
+    safeAction( () -> {
+      assertTrue( Disposable.isDisposed( entity1 ) );
+      assertFalse( Disposable.isDisposed( entity2 ) );
+      assertTrue( Disposable.isDisposed( entity3 ) );
+      assertFalse( Disposable.isDisposed( entity4 ) );
+
+      assertEquals( subscription.findAllEntitiesByType( Integer.class ).size(), 1 );
+      assertEquals( subscription.findAllEntitiesByType( String.class ).size(), 1 );
+    } );
+  }
+
+  @Test
+  public void updateSubscriptionForFilteredEntities_filteredEntities()
+  {
+    final SubscriptionUpdateEntityFilter<?> filter = ( f, entity ) -> false;
+    final EntitySchema entitySchema1 =
+      new EntitySchema( 0, ValueUtil.randomString(), Integer.class, ( i, d ) -> i, null );
+    final EntitySchema entitySchema2 =
+      new EntitySchema( 1, ValueUtil.randomString(), String.class, ( i, d ) -> String.valueOf( i ), null );
+    // Only the Integer entities are affected by the filter
+    final ChannelSchema channelSchema =
+      new ChannelSchema( 0,
+                         ValueUtil.randomString(),
+                         null,
+                         ChannelSchema.FilterType.DYNAMIC,
+                         filter,
+                         true, true,
+                         Arrays.asList( entitySchema1, entitySchema2 ),
+                         Collections.singletonList( entitySchema1 ) );
+    final SystemSchema schema =
+      new SystemSchema( 1,
+                        ValueUtil.randomString(),
+                        new ChannelSchema[]{ channelSchema },
+                        new EntitySchema[]{ entitySchema1, entitySchema2 } );
+
+    final Connector connector = createConnector( schema );
+    newConnection( connector );
+
+    final Subscription subscription =
+      createSubscription( new ChannelAddress( 1, 0, 1 ), ValueUtil.randomString(), true );
+
+    final Entity entity1 = findOrCreateEntity( Integer.class, 1 );
+    final Entity entity2 = findOrCreateEntity( String.class, 2 );
+
+    safeAction( () -> {
+      entity1.linkToSubscription( subscription );
+      entity2.linkToSubscription( subscription );
+    } );
+
+    final List<Entity> delinked = safeAction( () -> connector.updateSubscriptionForFilteredEntities( subscription ) );
+
+    assertEquals( delinked, Collections.singletonList( entity1 ) );
+    safeAction( () -> {
+      assertTrue( Disposable.isDisposed( entity1 ) );
+      assertFalse( Disposable.isDisposed( entity2 ) );
+
+      assertEquals( subscription.findAllEntitiesByType( Integer.class ).size(), 0 );
+      assertEquals( subscription.findAllEntitiesByType( String.class ).size(), 1 );
+    } );
+  }
+
   @Test
   public void updateSubscriptionForFilteredEntities_badFilterType()
   {
@@ -1462,6 +1571,97 @@ public class ConnectorTest
     assertTrue( Disposable.isDisposed( entity3 ) );
   }
 
+  @SuppressWarnings( "unchecked" )
+  @Test
+  public void processEntityChanges_initialLoad()
+  {
+    final int schemaId = 1;
+    final ChannelSchema channelSchema =
+      new ChannelSchema( 0,
+                         ValueUtil.randomString(),
+                         null,
+                         ChannelSchema.FilterType.NONE,
+                         null,
+                         false, true,
+                         Collections.emptyList() );
+    final EntitySchema.Creator<Linkable> creator = mock( EntitySchema.Creator.class );
+    final EntitySchema entitySchema =
+      new EntitySchema( 0, ValueUtil.randomString(), Linkable.class, creator, null );
+    final SystemSchema schema =
+      new SystemSchema( schemaId,
+                        ValueUtil.randomString(),
+                        new ChannelSchema[]{ channelSchema },
+                        new EntitySchema[]{ entitySchema } );
+    final Connector connector = createConnector( schema );
+    connector.setChangesToProcessPerTick( 2 );
+
+    final Connection connection = newConnection( connector );
+
+    final Subscription subscription = createSubscription( new ChannelAddress( schemaId, 0 ), null, true );
+
+    final EntityChangeData data1 = mock( EntityChangeData.class );
+    final EntityChangeData data2 = mock( EntityChangeData.class );
+    final EntityChangeData data3 = mock( EntityChangeData.class );
+    final EntityChange[] entityChanges = {
+      EntityChange.create( 0, 1, new String[]{ "0" }, data1 ),
+      EntityChange.create( 0, 2, new String[]{ "0" }, data2 ),
+      EntityChange.create( 0, 3, new String[]{ "0" }, data3 )
+    };
+    final MessageResponse response =
+      setCurrentMessageResponse( connection,
+                                 ChangeSetMessage.create( null, null, new String[]{ "+0" }, null, entityChanges ) );
+    response.markChannelActionsProcessed();
+
+    when( creator.createEntity( 1, data1 ) ).thenReturn( mock( Linkable.class ) );
+    when( creator.createEntity( 2, data2 ) ).thenReturn( mock( Linkable.class ) );
+    when( creator.createEntity( 3, data3 ) ).thenReturn( mock( Linkable.class ) );
+
+    assertTrue( response.isInitialLoad() );
+    assertFalse( response.isBatchApplyPrepared() );
+
+    final EntityService entityService = Replicant.context().getEntityService();
+    final AtomicInteger entitiesCallCount = new AtomicInteger();
+    observer( () -> {
+      //noinspection ResultOfMethodCallIgnored
+      entityService.getEntities();
+      entitiesCallCount.incrementAndGet();
+    } );
+    final AtomicInteger subscriptionCallCount = new AtomicInteger();
+    observer( () -> {
+      //noinspection ResultOfMethodCallIgnored
+      subscription.getEntities();
+      subscriptionCallCount.incrementAndGet();
+    } );
+
+    assertEquals( entitiesCallCount.get(), 1 );
+    assertEquals( subscriptionCallCount.get(), 1 );
+
+    connector.processEntityChanges();
+
+    assertTrue( response.isBatchApplyPrepared() );
+    assertEquals( response.getEntityUpdateCount(), 2 );
+    assertEquals( entitiesCallCount.get(), 2 );
+    assertEquals( subscriptionCallCount.get(), 2 );
+
+    connector.processEntityChanges();
+
+    assertEquals( response.getEntityUpdateCount(), 3 );
+    assertEquals( entitiesCallCount.get(), 3 );
+    assertEquals( subscriptionCallCount.get(), 3 );
+    assertFalse( response.areEntityChangesPending() );
+
+    safeAction( () -> {
+      for ( int id = 1; id <= 3; id++ )
+      {
+        final Entity entity = entityService.findEntityByTypeAndId( Linkable.class, id );
+        assertNotNull( entity );
+        assertEquals( entity.getSubscriptions().size(), 1 );
+        assertEquals( subscription.findEntityByTypeAndId( Linkable.class, id ), entity );
+      }
+      assertEquals( subscription.findAllEntitiesByType( Linkable.class ).size(), 3 );
+    } );
+  }
+
   @SuppressWarnings( "unchecked" )
   @Test
   public void processEntityChanges_referenceNonExistentSubscription()
@@ -1598,6 +1798,82 @@ public class ConnectorTest
     verify( entity4, never() ).link();
   }
 
+  @Test
+  public void processEntityLinks_timeBudgeted()
+  {
+    final Connector connector = createConnector();
+    connector.setLinksToProcessPerTick( 1 );
+    connector.setTimeBudgetPerTick( 8 );
+
+    assertEquals( connector.getTimeBudgetPerTick(), 8 );
+    assertEquals( connector.getAdaptiveLinksPerTick(), 1 );
+
+    final Connection connection = newConnection( connector );
+    final MessageResponse response =
+      setCurrentMessageResponse( connection,
+                                 ChangeSetMessage.create( null, null, new String[ 0 ], null, new EntityChange[ 0 ] ) );
+
+    final Linkable entity1 = mock( Linkable.class );
+    final Linkable entity2 = mock( Linkable.class );
+    final Linkable entity3 = mock( Linkable.class );
+    final Linkable entity4 = mock( Linkable.class );
+
+    response.changeProcessed( entity1 );
+    response.changeProcessed( entity2 );
+    response.changeProcessed( entity3 );
+    response.changeProcessed( entity4 );
+
+    connector.processEntityLinks();
+
+    // Links are cheap so the chunk grows
+    assertEquals( response.getEntityLinkCount(), 1 );
+    assertEquals( connector.getAdaptiveLinksPerTick(), 2 );
+
+    connector.processEntityLinks();
+
+    assertEquals( response.getEntityLinkCount(), 3 );
+    assertEquals( connector.getAdaptiveLinksPerTick(), 4 );
+
+    connector.processEntityLinks();
+
+    assertEquals( response.getEntityLinkCount(), 4 );
+    verify( entity4, times( 1 ) ).link();
+  }
+
+  @Test
+  public void nextChunkSize()
+  {
+    final Connector connector = createConnector();
+    connector.setTimeBudgetPerTick( 8 );
+
+    // 1ms per item
+    assertEquals( connector.nextChunkSize( 20, 20, TimeUnit.MILLISECONDS.toNanos( 20 ) ), 8 );
+    // 0.5ms per item
+    assertEquals( connector.nextChunkSize( 10, 10, TimeUnit.MILLISECONDS.toNanos( 5 ) ), 16 );
+    // Growth is limited to doubling the chunk
+    assertEquals( connector.nextChunkSize( 10, 10, TimeUnit.MICROSECONDS.toNanos( 10 ) ), 20 );
+    // Chunk completed within the resolution of the clock
+    assertEquals( connector.nextChunkSize( 10, 10, 0 ), 20 );
+    // Chunk that exhausted the changes uses the cost of the processed items
+    assertEquals( connector.nextChunkSize( 10, 2, TimeUnit.MILLISECONDS.toNanos( 2 ) ), 8 );
+    // Always process at least one item
+    assertEquals( connector.nextChunkSize( 10, 1, TimeUnit.MILLISECONDS.toNanos( 100 ) ), 1 );
+    // Chunk is limited to the maximum
+    assertEquals( connector.nextChunkSize( 8000, 8000, 1 ), 10000 );
+  }
+
+  @Test
+  public void setTimeBudgetPerTick_negative()
+  {
+    final Connector connector = createConnector();
+
+    final IllegalStateException exception =
+      expectThrows( IllegalStateException.class, () -> connector.setTimeBudgetPerTick( -1 ) );
+
+    assertEquals( exception.getMessage(),
+                  "Replicant-0116: Connector.setTimeBudgetPerTick() invoked with negative timeBudgetPerTick -1." );
+  }
+
   @Test
   public void completeAreaOfInterestRequest()
   {
@@ -2316,6 +2592,63 @@ public class ConnectorTest
     assertTrue( response.hasWorldBeenValidated() );
   }
 
+  @SuppressWarnings( "unchecked" )
+  @Test
+  public void validateWorld_incremental()
+  {
+    final int schemaId = 1;
+    final ChannelSchema channelSchema =
+      new ChannelSchema( 0,
+                         ValueUtil.randomString(),
+                         null,
+                         ChannelSchema.FilterType.NONE,
+                         null,
+                         false, true,
+                         Collections.emptyList() );
+    final EntitySchema.Creator<MyEntity> creator = mock( EntitySchema.Creator.class );
+    final EntitySchema entitySchema =
+      new EntitySchema( 0, ValueUtil.randomString(), MyEntity.class, creator, null );
+    final SystemSchema schema =
+      new SystemSchema( schemaId,
+                        ValueUtil.randomString(),
+                        new ChannelSchema[]{ channelSchema },
+                        new EntitySchema[]{ entitySchema } );
+    final Connector connector = createConnector( schema );
+    newConnection( connector );
+
+    Replicant.context().setIncrementalEntityValidation( true, 0 );
+
+    createSubscription( new ChannelAddress( schemaId, 0 ), null, true );
+
+    // An invalid entity that is not changed by the message
+    final EntityService entityService = Replicant.context().getEntityService();
+    final Entity entity1 =
+      safeAction( () -> entityService.findOrCreateEntity( "MyEntity/1", MyEntity.class, 1 ) );
+    safeAction( () -> entity1.setUserObject( new MyEntity( new Exception() ) ) );
+
+    final EntityChangeData data = mock( EntityChangeData.class );
+    when( creator.createEntity( 2, data ) ).thenReturn( new MyEntity( null ) );
+
+    final MessageResponse response =
+      setCurrentMessageResponse( connector.ensureConnection(),
+                                 ChangeSetMessage.create( null,
+                                                          null,
+                                                          null,
+                                                          null,
+                                                          new EntityChange[]{
+                                                            EntityChange.create( 0, 2, new String[]{ "0" }, data )
+                                                          } ) );
+
+    connector.processEntityChanges();
+
+    final Entity entity2 = safeAction( () -> entityService.findEntityByTypeAndId( MyEntity.class, 2 ) );
+    assertEquals( response.getChangedEntities(), Collections.singletonList( entity2 ) );
+
+    connector.validateWorld();
+
+    assertTrue( response.hasWorldBeenValidated() );
+  }
+
   @Test
   public void validateWorld_validEntity()
   {
@@ -3467,6 +3800,83 @@ public class ConnectorTest
     handler.assertNextEvent( UnsubscribeStartedEvent.class, e -> assertEquals( e.getAddress(), address1 ) );
   }
 
+  @Test
+  public void progressAreaOfInterestRequestProcessing_Batch()
+  {
+    final ChannelSchema channelSchema0 =
+      new ChannelSchema( 0,
+                         ValueUtil.randomString(),
+                         String.class,
+                         ChannelSchema.FilterType.STATIC,
+                         null,
+                         false, true,
+                         Collections.emptyList() );
+    final ChannelSchema channelSchema1 =
+      new ChannelSchema( 1,
+                         ValueUtil.randomString(),
+                         null,
+                         ChannelSchema.FilterType.NONE,
+                         null,
+                         false, true,
+                         Collections.emptyList() );
+    final ChannelSchema channelSchema2 =
+      new ChannelSchema( 2,
+                         ValueUtil.randomString(),
+                         null,
+                         ChannelSchema.FilterType.NONE,
+                         null,
+                         true, true,
+                         Collections.emptyList() );
+    final SystemSchema schema =
+      new SystemSchema( 1,
+                        ValueUtil.randomString(),
+                        new ChannelSchema[]{ channelSchema0, channelSchema1, channelSchema2 },
+                        new EntitySchema[]{} );
+
+    final Connector connector = createConnector( schema );
+    final Connection connection = newConnection( connector );
+    final Transport transport = connector.getTransport();
+    when( transport.supportsBatchRequests() ).thenReturn( true );
+    doAnswer( i -> {
+      ( (SafeProcedure) i.getArguments()[ 0 ] ).call();
+      return null;
+    } ).when( transport ).requestBatch( any( SafeProcedure.class ) );
+
+    final ChannelAddress address1 = new ChannelAddress( 1, 0, 1 );
+    final ChannelAddress address2 = new ChannelAddress( 1, 0, 2 );
+    final ChannelAddress address3 = new ChannelAddress( 1, 1 );
+    final ChannelAddress address4 = new ChannelAddress( 1, 2 );
+    final String filter = ValueUtil.randomString();
+
+    pauseScheduler();
+
+    createSubscription( address3, null, true );
+
+    connection.requestSubscribe( address1, filter );
+    connection.requestSubscribe( address2, filter );
+    connection.requestUnsubscribe( address3 );
+    // Requests for cacheable channels are not batched
+    connection.requestSubscribe( address4, null );
+
+    final TestSpyEventHandler handler = registerTestSpyEventHandler();
+
+    assertTrue( connector.progressAreaOfInterestRequestProcessing() );
+
+    verify( transport ).requestBatch( any( SafeProcedure.class ) );
+    verify( transport ).requestBulkSubscribe( Arrays.asList( address1, address2 ), filter );
+    verify( transport ).requestUnsubscribe( address3 );
+
+    final List<AreaOfInterestRequest> requests = connection.getCurrentAreaOfInterestRequests();
+    assertEquals( requests.size(), 3 );
+    assertTrue( requests.stream().allMatch( AreaOfInterestRequest::isInProgress ) );
+    assertEquals( connection.getPendingAreaOfInterestRequests().size(), 1 );
+
+    handler.assertEventCount( 3 );
+    handler.assertNextEvent( SubscribeStartedEvent.class, e -> assertEquals( e.getAddress(), address1 ) );
+    handler.assertNextEvent( SubscribeStartedEvent.class, e -> assertEquals( e.getAddress(), address2 ) );
+    handler.assertNextEvent( UnsubscribeStartedEvent.class, e -> assertEquals( e.getAddress(), address3 ) );
+  }
+
   @Test
   public void pauseMessageScheduler()
   {
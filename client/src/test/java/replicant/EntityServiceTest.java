@@ -191,6 +191,37 @@ public class EntityServiceTest
     }
   }
 
+  @Test
+  public void ensureCapacity_missingType()
+  {
+    final EntityService service = Replicant.context().getEntityService();
+
+    final AtomicInteger callCount = new AtomicInteger();
+    observer( () -> {
+      service.findAllEntityTypes();
+      callCount.incrementAndGet();
+    } );
+
+    assertEquals( callCount.get(), 1 );
+
+    // Sizing a type with no entities does not add a map for the type
+    safeAction( () -> {
+      service.ensureCapacity( A.class, 100 );
+      assertEquals( service.findAllEntityTypes().size(), 0 );
+    } );
+    assertEquals( callCount.get(), 1 );
+
+    safeAction( () -> service.findOrCreateEntity( "A/1", A.class, 1 ) );
+
+    safeAction( () -> assertEquals( service.findAllEntityTypes().size(), 1 ) );
+    assertEquals( callCount.get(), 2 );
+
+    safeAction( () -> {
+      service.ensureCapacity( A.class, 100 );
+      assertNotNull( service.findEntityByTypeAndId( A.class, 1 ) );
+    } );
+  }
+
   @Test
   public void unlinkEntity_missingType()
   {
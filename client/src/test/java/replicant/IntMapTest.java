@@ -0,0 +1,122 @@
+package replicant;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class IntMapTest
+  extends AbstractReplicantTest
+{
+  @Test
+  public void basicOperation()
+  {
+    final IntMap<String> map = new IntMap<>();
+
+    assertTrue( map.isEmpty() );
+    assertEquals( map.size(), 0 );
+    assertNull( map.get( 0 ) );
+    assertFalse( map.containsKey( 0 ) );
+
+    assertNull( map.put( 0, "A" ) );
+    assertNull( map.put( -1, "B" ) );
+    assertNull( map.put( Integer.MAX_VALUE, "C" ) );
+
+    assertFalse( map.isEmpty() );
+    assertEquals( map.size(), 3 );
+    assertEquals( map.get( 0 ), "A" );
+    assertEquals( map.get( -1 ), "B" );
+    assertEquals( map.get( Integer.MAX_VALUE ), "C" );
+    assertTrue( map.containsKey( 0 ) );
+    assertFalse( map.containsKey( 1 ) );
+
+    assertEquals( map.put( 0, "D" ), "A" );
+    assertEquals( map.size(), 3 );
+    assertEquals( map.get( 0 ), "D" );
+
+    final List<String> values = map.values();
+    Collections.sort( values );
+    assertEquals( values.toString(), "[B, C, D]" );
+
+    assertEquals( map.remove( -1 ), "B" );
+    assertNull( map.remove( -1 ) );
+    assertEquals( map.size(), 2 );
+    assertNull( map.get( -1 ) );
+    assertEquals( map.get( 0 ), "D" );
+    assertEquals( map.get( Integer.MAX_VALUE ), "C" );
+  }
+
+  @Test
+  public void collidingKeys()
+  {
+    final IntMap<Integer> map = new IntMap<>();
+
+    // Keys that share a slot in the initial table
+    map.put( 1, 1 );
+    map.put( 9, 9 );
+    map.put( 17, 17 );
+    map.put( 2, 2 );
+
+    assertEquals( map.remove( 9 ), (Integer) 9 );
+
+    assertEquals( map.get( 1 ), (Integer) 1 );
+    assertEquals( map.get( 17 ), (Integer) 17 );
+    assertEquals( map.get( 2 ), (Integer) 2 );
+    assertNull( map.get( 9 ) );
+  }
+
+  @Test
+  public void ensureCapacity()
+  {
+    final IntMap<Integer> map = new IntMap<>();
+    map.put( 1, 1 );
+
+    map.ensureCapacity( 1000 );
+
+    assertEquals( map.size(), 1 );
+    assertEquals( map.get( 1 ), (Integer) 1 );
+
+    for ( int i = 0; i < 1000; i++ )
+    {
+      map.put( i, i );
+    }
+    assertEquals( map.size(), 1000 );
+    assertEquals( map.get( 999 ), (Integer) 999 );
+  }
+
+  @Test
+  public void matchesHashMap()
+  {
+    final Random random = new Random( 42 );
+    final IntMap<Integer> map = new IntMap<>();
+    final Map<Integer, Integer> expected = new HashMap<>();
+
+    for ( int i = 0; i < 20000; i++ )
+    {
+      final int key = random.nextInt( 2000 ) - 100;
+      if ( random.nextBoolean() )
+      {
+        assertEquals( map.put( key, i ), expected.put( key, i ) );
+      }
+      else
+      {
+        assertEquals( map.remove( key ), expected.remove( key ) );
+      }
+      assertEquals( map.size(), expected.size() );
+    }
+
+    for ( int key = -100; key < 1900; key++ )
+    {
+      assertEquals( map.get( key ), expected.get( key ) );
+    }
+    final List<Integer> values = map.values();
+    final List<Integer> expectedValues = new ArrayList<>( expected.values() );
+    Collections.sort( values );
+    Collections.sort( expectedValues );
+    assertEquals( values, expectedValues );
+  }
+}
@@ -1,6 +1,7 @@
 package replicant;
 
 import arez.component.Linkable;
+import java.util.Map;
 import org.realityforge.guiceyloops.shared.ValueUtil;
 import org.testng.annotations.Test;
 import replicant.messages.ChangeSetMessage;
@@ -171,12 +172,16 @@ public class MessageResponseTest
     // Process entity changes
     {
       assertEquals( action.nextEntityChange(), entityChanges[ 0 ] );
+      assertEquals( action.getEntityTypeId(), 100 );
+      assertEquals( action.getEntityId(), 50 );
       action.changeProcessed( entities[ 0 ] );
       action.incEntityUpdateCount();
 
       assertTrue( action.areEntityChangesPending() );
 
       assertEquals( action.nextEntityChange(), entityChanges[ 1 ] );
+      assertEquals( action.getEntityTypeId(), 100 );
+      assertEquals( action.getEntityId(), 51 );
       action.incEntityRemoveCount();
 
       assertTrue( action.areEntityChangesPending() );
@@ -267,6 +272,63 @@ public class MessageResponseTest
     assertTrue( action.hasWorldBeenValidated() );
   }
 
+  @Test
+  public void isInitialLoad()
+  {
+    final EntityChange[] entityChanges = {
+      EntityChange.create( 1, 10, new String[]{ "1" }, new EntityChangeDataImpl() ),
+      EntityChange.create( 2, 20, new String[]{ "1" }, new EntityChangeDataImpl() ),
+      EntityChange.create( 1, 11, new String[]{ "1" }, new EntityChangeDataImpl() ),
+      EntityChange.create( 1, 12, new String[]{ "1" } )
+    };
+    final MessageResponse initialLoad =
+      new MessageResponse( 1,
+                           ChangeSetMessage.create( null, null, new String[]{ "+1", "+2.3" }, null, entityChanges ),
+                           null );
+    final MessageResponse update =
+      new MessageResponse( 1, ChangeSetMessage.create( null, null, null, null, entityChanges ), null );
+    final MessageResponse removal =
+      new MessageResponse( 1,
+                           ChangeSetMessage.create( null, null, new String[]{ "+1", "-2.3" }, null, entityChanges ),
+                           null );
+
+    assertTrue( initialLoad.isInitialLoad() );
+    assertFalse( update.isInitialLoad() );
+    assertFalse( removal.isInitialLoad() );
+
+    final Map<Integer, Integer> counts = initialLoad.countPendingEntityUpdatesByType();
+    assertEquals( counts.size(), 2 );
+    assertEquals( counts.get( 1 ), (Integer) 2 );
+    assertEquals( counts.get( 2 ), (Integer) 1 );
+
+    initialLoad.markChannelActionsProcessed();
+    initialLoad.nextEntityChange();
+
+    final Map<Integer, Integer> remainingCounts = initialLoad.countPendingEntityUpdatesByType();
+    assertEquals( remainingCounts.get( 1 ), (Integer) 1 );
+    assertEquals( remainingCounts.get( 2 ), (Integer) 1 );
+
+    assertFalse( initialLoad.isBatchApplyPrepared() );
+    initialLoad.markBatchApplyPrepared();
+    assertTrue( initialLoad.isBatchApplyPrepared() );
+  }
+
+  @Test
+  public void subscriptionByChannel()
+  {
+    final MessageResponse action =
+      new MessageResponse( 1, ChangeSetMessage.create( null, null, null, null, null ), null );
+
+    final Subscription subscription = createSubscription( new ChannelAddress( 1, 2, 3 ), null, true );
+
+    assertNull( action.findSubscriptionByChannel( "2.3" ) );
+
+    action.cacheSubscriptionByChannel( "2.3", subscription );
+
+    assertEquals( action.findSubscriptionByChannel( "2.3" ), subscription );
+    assertNull( action.findSubscriptionByChannel( "2" ) );
+  }
+
   @Test
   public void setChangeSet_mismatchedRequestId()
   {
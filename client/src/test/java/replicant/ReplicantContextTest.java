@@ -373,6 +373,41 @@ public class ReplicantContextTest
     assertFalse( context.getRuntime().getConnectorEntryBySchemaId( schemaId ).isRequired() );
   }
 
+  @Test
+  public void setTimeBudgetPerTick()
+  {
+    final SystemSchema schema = newSchema();
+
+    final Connector connector = createConnector( schema );
+
+    assertEquals( connector.getTimeBudgetPerTick(), 0 );
+    Replicant.context().setTimeBudgetPerTick( schema.getId(), 8 );
+    assertEquals( connector.getTimeBudgetPerTick(), 8 );
+  }
+
+  @Test
+  public void setCoalesceChangeSets()
+  {
+    final SystemSchema schema = newSchema();
+
+    final Connector connector = createConnector( schema );
+
+    assertFalse( connector.shouldCoalesceChangeSets() );
+    Replicant.context().setCoalesceChangeSets( schema.getId(), true );
+    assertTrue( connector.shouldCoalesceChangeSets() );
+  }
+
+  @Test
+  public void setIncrementalEntityValidation()
+  {
+    final ReplicantContext context = Replicant.context();
+
+    assertFalse( context.getValidator().isIncremental() );
+    context.setIncrementalEntityValidation( true, 10 );
+    assertTrue( context.getValidator().isIncremental() );
+    assertEquals( context.getValidator().getFullValidationInterval(), 10 );
+  }
+
   @Test
   public void setCacheService()
   {
@@ -39,4 +39,27 @@ public class ReplicantUtilTest
     assertTrue( text.startsWith( "java.lang.RuntimeException: X\n" ) );
     assertTrue( text.contains( "\nCaused by: java.io.IOException: Y\n" ) );
   }
+
+  @Test
+  public void parseInt()
+  {
+    assertEquals( ReplicantUtil.parseInt( "42", 0, 2 ), 42 );
+    assertEquals( ReplicantUtil.parseInt( "1.23", 0, 1 ), 1 );
+    assertEquals( ReplicantUtil.parseInt( "1.23", 2, 4 ), 23 );
+    assertEquals( ReplicantUtil.parseInt( "1.-23", 2, 5 ), -23 );
+    assertEquals( ReplicantUtil.parseInt( "0", 0, 1 ), 0 );
+    assertEquals( ReplicantUtil.parseInt( "2147483647", 0, 10 ), Integer.MAX_VALUE );
+    assertEquals( ReplicantUtil.parseInt( "-2147483648", 0, 11 ), Integer.MIN_VALUE );
+  }
+
+  @Test
+  public void parseInt_invalid()
+  {
+    expectThrows( NumberFormatException.class, () -> ReplicantUtil.parseInt( "", 0, 0 ) );
+    expectThrows( NumberFormatException.class, () -> ReplicantUtil.parseInt( "-", 0, 1 ) );
+    expectThrows( NumberFormatException.class, () -> ReplicantUtil.parseInt( "1.2", 0, 3 ) );
+    expectThrows( NumberFormatException.class, () -> ReplicantUtil.parseInt( "a", 0, 1 ) );
+    expectThrows( NumberFormatException.class, () -> ReplicantUtil.parseInt( "2147483648", 0, 10 ) );
+    expectThrows( NumberFormatException.class, () -> ReplicantUtil.parseInt( "-2147483649", 0, 11 ) );
+  }
 }
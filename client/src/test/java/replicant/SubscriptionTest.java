@@ -1,5 +1,6 @@
 package replicant;
 
+import arez.Disposable;
 import java.util.Collections;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.realityforge.guiceyloops.shared.ValueUtil;
@@ -174,6 +175,57 @@ public class SubscriptionTest
   }
 
   @SuppressWarnings( "EqualsWithItself" )
+  @Test
+  public void dispose_delinksAllEntities()
+  {
+    final EntityService entityService = Replicant.context().getEntityService();
+    final Entity entity1 = safeAction( () -> entityService.findOrCreateEntity( "A/1", A.class, 1 ) );
+    final Entity entity2 = safeAction( () -> entityService.findOrCreateEntity( "A/2", A.class, 2 ) );
+    final Entity entity3 = safeAction( () -> entityService.findOrCreateEntity( "B/3", B.class, 3 ) );
+
+    final Subscription subscription1 = createSubscription( new ChannelAddress( 1, 0, 1 ), null, true );
+    final Subscription subscription2 = createSubscription( new ChannelAddress( 1, 0, 2 ), null, true );
+
+    safeAction( () -> {
+      entity1.linkToSubscription( subscription1 );
+      entity2.linkToSubscription( subscription1 );
+      entity3.linkToSubscription( subscription1 );
+      entity3.linkToSubscription( subscription2 );
+    } );
+
+    final AtomicInteger callCount = new AtomicInteger();
+    observer( () -> {
+      //noinspection ResultOfMethodCallIgnored
+      entityService.getEntities();
+      callCount.incrementAndGet();
+    } );
+
+    assertEquals( callCount.get(), 1 );
+
+    Disposable.dispose( subscription1 );
+
+    assertEquals( callCount.get(), 2 );
+
+    assertTrue( Disposable.isDisposed( entity1 ) );
+    assertTrue( Disposable.isDisposed( entity2 ) );
+    assertFalse( Disposable.isDisposed( entity3 ) );
+
+    safeAction( () -> {
+      assertNull( entityService.findEntityByTypeAndId( A.class, 1 ) );
+      assertNull( entityService.findEntityByTypeAndId( A.class, 2 ) );
+      assertEquals( entityService.findEntityByTypeAndId( B.class, 3 ), entity3 );
+      assertNull( entityService.getEntities().get( A.class ) );
+      assertEquals( entity3.getSubscriptions().size(), 1 );
+      assertEquals( entity3.getSubscriptions().iterator().next(), subscription2 );
+      assertEquals( subscription2.findEntityByTypeAndId( B.class, 3 ), entity3 );
+    } );
+
+    // Disposing the entity still detaches it from the remaining subscription
+    Disposable.dispose( entity3 );
+
+    safeAction( () -> assertNull( subscription2.findEntityByTypeAndId( B.class, 3 ) ) );
+  }
+
   @Test
   public void comparable()
   {
@@ -318,4 +370,8 @@ public class SubscriptionTest
   static class A
   {
   }
+
+  static class B
+  {
+  }
 }
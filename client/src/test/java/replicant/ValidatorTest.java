@@ -1,6 +1,8 @@
 package replicant;
 
+import arez.Disposable;
 import arez.component.Verifiable;
+import java.util.Collections;
 import javax.annotation.Nullable;
 import org.testng.annotations.Test;
 import static org.testng.Assert.*;
@@ -41,6 +43,64 @@ public class ValidatorTest
                   "Replicant-0065: Entity failed to verify during validation process. Entity = MyEntity/1" );
   }
 
+  @Test
+  public void validateEntitiesAfterMessage_incremental()
+  {
+    final EntityService entityService = Replicant.context().getEntityService();
+    final Entity entity1 = safeAction( () -> entityService.findOrCreateEntity( "MyEntity/1", MyEntity.class, 1 ) );
+    final Entity entity2 = safeAction( () -> entityService.findOrCreateEntity( "MyEntity/2", MyEntity.class, 2 ) );
+    safeAction( () -> entity1.setUserObject( new MyEntity( new Exception() ) ) );
+    safeAction( () -> entity2.setUserObject( new MyEntity( null ) ) );
+
+    final Validator validator = Validator.create( null );
+
+    assertFalse( validator.isIncremental() );
+    assertEquals( validator.getFullValidationInterval(), 0 );
+
+    validator.setIncremental( true, 3 );
+
+    assertTrue( validator.isIncremental() );
+    assertEquals( validator.getFullValidationInterval(), 3 );
+
+    // Invalid entity was not changed by message
+    validator.validateEntitiesAfterMessage( Collections.singletonList( entity2 ) );
+    validator.validateEntitiesAfterMessage( Collections.emptyList() );
+
+    // Full validation occurs on the third message
+    final IllegalStateException exception =
+      expectThrows( IllegalStateException.class,
+                    () -> validator.validateEntitiesAfterMessage( Collections.singletonList( entity2 ) ) );
+
+    assertEquals( exception.getMessage(),
+                  "Replicant-0065: Entity failed to verify during validation process. Entity = MyEntity/1" );
+
+    // Invalid entity was changed by message
+    expectThrows( IllegalStateException.class,
+                  () -> validator.validateEntitiesAfterMessage( Collections.singletonList( entity1 ) ) );
+
+    // Disposed entities are skipped
+    Disposable.dispose( entity1 );
+    validator.validateEntitiesAfterMessage( Collections.singletonList( entity1 ) );
+
+    validator.setIncremental( false, 0 );
+    final Entity entity3 = safeAction( () -> entityService.findOrCreateEntity( "MyEntity/1", MyEntity.class, 1 ) );
+    safeAction( () -> entity3.setUserObject( new MyEntity( new Exception() ) ) );
+
+    // Every entity is validated when not incremental
+    expectThrows( IllegalStateException.class,
+                  () -> validator.validateEntitiesAfterMessage( Collections.emptyList() ) );
+  }
+
+  @Test
+  public void setIncremental_negativeFullValidationInterval()
+  {
+    final IllegalStateException exception =
+      expectThrows( IllegalStateException.class, () -> Validator.create( null ).setIncremental( true, -1 ) );
+
+    assertEquals( exception.getMessage(),
+                  "Replicant-0117: Validator.setIncremental() invoked with negative fullValidationInterval -1." );
+  }
+
   static class MyEntity
     implements Verifiable
   {
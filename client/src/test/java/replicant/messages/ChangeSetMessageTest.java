@@ -150,4 +150,142 @@ public class ChangeSetMessageTest
     assertEquals( exception.getMessage(),
                   "Replicant-0012: ChangeSet.getEntityChanges() invoked when no changes are present. Should guard call with ChangeSet.hasEntityChanges()." );
   }
+
+  @Test
+  public void applyDelta()
+  {
+    final EntityChange change1 = EntityChange.create( 1, 1, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final EntityChange change2 = EntityChange.create( 1, 2, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final EntityChange change3 = EntityChange.create( 1, 3, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final ChangeSetMessage changeSet =
+      ChangeSetMessage.create( 1, "X", new String[]{ "+1" }, null, new EntityChange[]{ change1, change2, change3 } );
+
+    assertFalse( changeSet.isDelta() );
+    assertNull( changeSet.getBaseETag() );
+
+    final EntityChange change2b = EntityChange.create( 1, 2, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final EntityChange change3r = EntityChange.create( 1, 3, new String[]{ "1" } );
+    final EntityChange change4 = EntityChange.create( 1, 4, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final ChangeSetMessage delta =
+      ChangeSetMessage.create( 7,
+                               "X#2",
+                               "X",
+                               new String[]{ "+1" },
+                               null,
+                               new EntityChange[]{ change2b, change3r, change4 } );
+
+    assertTrue( delta.isDelta() );
+    assertEquals( delta.getBaseETag(), "X" );
+
+    changeSet.applyDelta( delta );
+
+    assertFalse( changeSet.isDelta() );
+    assertEquals( changeSet.getRequestId(), (Integer) 7 );
+    assertEquals( changeSet.getETag(), "X#2" );
+    assertEquals( changeSet.getChannels(), new String[]{ "+1" } );
+    assertEquals( changeSet.getEntityChanges(), new EntityChange[]{ change1, change2b, change4 } );
+
+    changeSet.validate();
+  }
+
+  @Test
+  public void applyDelta_notDelta()
+  {
+    final ChangeSetMessage changeSet = ChangeSetMessage.create( null, "X", null, null, null );
+    final ChangeSetMessage delta = ChangeSetMessage.create( null, "X#1", null, null, null );
+
+    final IllegalStateException exception =
+      expectThrows( IllegalStateException.class, () -> changeSet.applyDelta( delta ) );
+    assertEquals( exception.getMessage(),
+                  "Replicant-0111: ChangeSet.applyDelta() invoked with a ChangeSet that is not a delta." );
+  }
+
+  @Test
+  public void applyDelta_versionMismatch()
+  {
+    final ChangeSetMessage changeSet = ChangeSetMessage.create( null, "X", null, null, null );
+    final ChangeSetMessage delta = ChangeSetMessage.create( null, "Y#1", "Y", null, null, null );
+
+    final IllegalStateException exception =
+      expectThrows( IllegalStateException.class, () -> changeSet.applyDelta( delta ) );
+    assertEquals( exception.getMessage(),
+                  "Replicant-0112: ChangeSet.applyDelta() invoked with a delta for version 'Y' but the " +
+                  "ChangeSet has version 'X'." );
+  }
+
+  @Test
+  public void isUnsolicited()
+  {
+    assertTrue( ChangeSetMessage.create( null, null, null, null, null ).isUnsolicited() );
+    assertFalse( ChangeSetMessage.create( 1, null, null, null, null ).isUnsolicited() );
+    assertFalse( ChangeSetMessage.create( null, "X", null, null, null ).isUnsolicited() );
+  }
+
+  @Test
+  public void merge()
+  {
+    final EntityChange change1 = EntityChange.create( 1, 1, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final EntityChange change2 = EntityChange.create( 1, 2, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final EntityChange change3 = EntityChange.create( 1, 3, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final ChangeSetMessage changeSet =
+      ChangeSetMessage.create( null,
+                               null,
+                               new String[]{ "+1" },
+                               null,
+                               new EntityChange[]{ change1, change2, change3 } );
+
+    final EntityChange change2b = EntityChange.create( 1, 2, new String[]{ "2" }, new EntityChangeDataImpl() );
+    final EntityChange change3r = EntityChange.create( 1, 3, new String[]{ "1" } );
+    final EntityChange change4 = EntityChange.create( 1, 4, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final ChangeSetMessage next =
+      ChangeSetMessage.create( null, null, null, null, new EntityChange[]{ change2b, change3r, change4 } );
+
+    assertTrue( changeSet.canMerge( next ) );
+
+    changeSet.merge( next );
+
+    assertEquals( changeSet.getChannels(), new String[]{ "+1" } );
+    final EntityChange[] changes = changeSet.getEntityChanges();
+    assertEquals( changes.length, 4 );
+    assertEquals( changes[ 0 ], change1 );
+    assertEquals( changes[ 1 ].getId(), "1.2" );
+    assertEquals( changes[ 1 ].getData(), change2b.getData() );
+    assertEquals( changes[ 1 ].getChannels(), new String[]{ "1", "2" } );
+    assertEquals( changes[ 2 ], change3r );
+    assertEquals( changes[ 3 ], change4 );
+
+    changeSet.validate();
+  }
+
+  @Test
+  public void canMerge()
+  {
+    final EntityChange remove = EntityChange.create( 1, 1, new String[]{ "1" } );
+    final EntityChange update = EntityChange.create( 1, 1, new String[]{ "1" }, new EntityChangeDataImpl() );
+    final ChangeSetMessage changeSet = ChangeSetMessage.create( null, null, null, null, new EntityChange[]{ remove } );
+
+    assertTrue( changeSet.canMerge( ChangeSetMessage.create( null, null, null, null, null ) ) );
+    // Solicited or cacheable ChangeSets are not merged
+    assertFalse( changeSet.canMerge( ChangeSetMessage.create( 1, null, null, null, null ) ) );
+    assertFalse( changeSet.canMerge( ChangeSetMessage.create( null, "X", null, null, null ) ) );
+    assertFalse( ChangeSetMessage.create( 1, null, null, null, null )
+                   .canMerge( ChangeSetMessage.create( null, null, null, null, null ) ) );
+    // ChangeSets with channel changes are not merged
+    assertFalse( changeSet.canMerge( ChangeSetMessage.create( null, null, new String[]{ "+1" }, null, null ) ) );
+    // An entity removed by the first ChangeSet can not be recreated by the second
+    final EntityChange[] updates = { update };
+    assertFalse( changeSet.canMerge( ChangeSetMessage.create( null, null, null, null, updates ) ) );
+  }
+
+  @Test
+  public void merge_notMergeable()
+  {
+    final ChangeSetMessage changeSet = ChangeSetMessage.create( null, null, null, null, null );
+    final ChangeSetMessage next = ChangeSetMessage.create( 1, null, null, null, null );
+
+    final IllegalStateException exception =
+      expectThrows( IllegalStateException.class, () -> changeSet.merge( next ) );
+    assertEquals( exception.getMessage(),
+                  "Replicant-0119: ChangeSet.merge() invoked with a ChangeSet that can not be merged." );
+  }
 }
@@ -35,4 +35,21 @@ public class EntityChangeTest
     assertTrue( change.isUpdate() );
     assertEquals( change.getData(), data );
   }
+
+  @Test
+  public void merge()
+  {
+    final EntityChangeData data1 = mock( EntityChangeData.class );
+    final EntityChangeData data2 = mock( EntityChangeData.class );
+    final EntityChange update1 = EntityChange.create( 2, 1, new String[]{ "0", "3.4" }, data1 );
+    final EntityChange update2 = EntityChange.create( 2, 1, new String[]{ "3.4", "3.5" }, data2 );
+    final EntityChange remove = EntityChange.create( 2, 1, new String[]{ "0" } );
+
+    final EntityChange merged = update1.merge( update2 );
+    assertEquals( merged.getId(), "2.1" );
+    assertEquals( merged.getChannels(), new String[]{ "0", "3.4", "3.5" } );
+    assertEquals( merged.getData(), data2 );
+
+    assertEquals( update1.merge( remove ), remove );
+  }
 }
@@ -0,0 +1,102 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.transaction.TransactionSynchronizationRegistry;
+import org.realityforge.replicant.server.ChannelAddress;
+import org.realityforge.replicant.server.EntityMessage;
+import org.realityforge.replicant.server.transport.ChannelMetaData;
+import org.realityforge.replicant.server.transport.ReplicantMessageBroker;
+import org.realityforge.replicant.server.transport.ReplicantSession;
+import org.realityforge.replicant.server.transport.ReplicantSessionManagerImpl;
+import org.realityforge.replicant.server.transport.SubscriptionEntry;
+import org.realityforge.replicant.server.transport.SystemMetaData;
+
+/**
+ * A session manager for the schemas created by {@link Workloads}. The filter of a filtered channel is
+ * an Integer modulus and an entity is in scope if the id of the entity is a multiple of the modulus.
+ * Links are always followed.
+ */
+public class BenchmarkSessionManager
+  extends ReplicantSessionManagerImpl
+{
+  @Nonnull
+  private final SystemMetaData _systemMetaData;
+
+  public BenchmarkSessionManager( @Nonnull final SystemMetaData systemMetaData )
+  {
+    _systemMetaData = Objects.requireNonNull( systemMetaData );
+  }
+
+  @Nonnull
+  @Override
+  public SystemMetaData getSystemMetaData()
+  {
+    return _systemMetaData;
+  }
+
+  /**
+   * Subscribe the session to the graph instance at every level, linking each level to the next as
+   * link expansion would. The caller must hold the session lock.
+   *
+   * @param session  the session.
+   * @param instance the sub-channel id of the instance at each level.
+   * @param modulus  the filter of any filtered channels.
+   */
+  public void subscribeToGraph( @Nonnull final ReplicantSession session, final int instance, final int modulus )
+  {
+    SubscriptionEntry previous = null;
+    final int channelCount = _systemMetaData.getChannelCount();
+    for ( int level = 0; level < channelCount; level++ )
+    {
+      final ChannelMetaData channel = _systemMetaData.getChannelMetaData( level );
+      final SubscriptionEntry entry = session.createSubscriptionEntry( new ChannelAddress( level, instance ) );
+      if ( channel.hasFilterParameter() )
+      {
+        entry.setFilter( modulus );
+      }
+      if ( null == previous )
+      {
+        entry.setExplicitlySubscribed( true );
+      }
+      else
+      {
+        previous.registerOutwardSubscription( entry.getAddress() );
+        entry.registerInwardSubscription( previous.getAddress() );
+      }
+      previous = entry;
+    }
+  }
+
+  @Override
+  protected boolean shouldFollowLink( @Nonnull final SubscriptionEntry sourceEntry,
+                                      @Nonnull final ChannelAddress target )
+  {
+    return true;
+  }
+
+  @Nullable
+  @Override
+  protected EntityMessage filterEntityMessage( @Nonnull final ReplicantSession session,
+                                               @Nonnull final ChannelAddress address,
+                                               @Nonnull final EntityMessage message )
+  {
+    final Integer modulus = (Integer) session.getSubscriptionEntry( address ).getFilter();
+    return null == modulus || 0 == message.getId() % modulus ? message : null;
+  }
+
+  @Nonnull
+  @Override
+  protected ReplicantMessageBroker getReplicantMessageBroker()
+  {
+    throw new UnsupportedOperationException( "The benchmarks route messages directly to the sessions" );
+  }
+
+  @Nonnull
+  @Override
+  protected TransactionSynchronizationRegistry getRegistry()
+  {
+    throw new UnsupportedOperationException( "The benchmarks route messages outside of a transaction" );
+  }
+}
@@ -0,0 +1,86 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.realityforge.replicant.server.Change;
+import org.realityforge.replicant.server.ChangeSet;
+import org.realityforge.replicant.server.ChannelAction;
+import org.realityforge.replicant.server.EntityMessage;
+
+/**
+ * Measures merging the changes of two transactions that update the same entities into a change set.
+ *
+ * <p>When the changes are not copied on merge, the change set retains the changes of the first
+ * transaction and merges the second transaction into them. Each invocation merges the same values so
+ * the state reached after the first invocation does not change.</p>
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ChangeSetMergeBenchmark
+{
+  @Param( { "10", "1000" } )
+  public int messageCount;
+  @Param( { "4", "32" } )
+  public int attributeCount;
+  @Param( { "1", "4" } )
+  public int graphDepth;
+  @Param( { "false", "true" } )
+  public boolean copyOnMerge;
+  @Param( { "NONE", "ALL" } )
+  public Workloads.FilterMix filterMix;
+  private List<Change> _changes;
+  private List<Change> _updates;
+  private List<ChannelAction> _actions;
+
+  @Setup
+  public void setup()
+  {
+    _changes = createChanges( 0 );
+    _updates = createChanges( 1 );
+    _actions = Workloads.createChannelActions( 16, filterMix );
+  }
+
+  private List<Change> createChanges( final int version )
+  {
+    final List<Change> changes = new ArrayList<>( messageCount );
+    for ( int i = 0; i < messageCount; i++ )
+    {
+      final int level = i % graphDepth;
+      final EntityMessage message = Workloads.createMessage( i, level, graphDepth, 0, attributeCount, version );
+      changes.add( new Change( message, level, 0 ) );
+    }
+    return changes;
+  }
+
+  @Benchmark
+  public ChangeSet merge()
+  {
+    final ChangeSet changeSet = new ChangeSet();
+    changeSet.mergeActions( _actions );
+    for ( final Change change : _changes )
+    {
+      changeSet.merge( change, copyOnMerge );
+    }
+    for ( final Change change : _updates )
+    {
+      changeSet.merge( change, copyOnMerge );
+    }
+    return changeSet;
+  }
+}
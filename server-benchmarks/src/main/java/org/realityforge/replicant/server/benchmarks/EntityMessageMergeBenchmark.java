@@ -0,0 +1,74 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.realityforge.replicant.server.EntityMessage;
+
+/**
+ * Measures merging an update into a message. The message is duplicated by each invocation as the merge
+ * mutates the message, so the cost of the merge is the difference between the two benchmarks.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class EntityMessageMergeBenchmark
+{
+  @Param( { "4", "32" } )
+  public int attributeCount;
+  /**
+   * The number of instance graphs that the entity is routed to.
+   */
+  @Param( { "1", "16" } )
+  public int instanceCount;
+  private EntityMessage _message;
+  private EntityMessage _update;
+
+  @Setup
+  public void setup()
+  {
+    _message = createMessage( 0 );
+    _update = createMessage( 1 );
+  }
+
+  @SuppressWarnings( "unchecked" )
+  private EntityMessage createMessage( final int version )
+  {
+    final EntityMessage message = Workloads.createMessage( 1, 0, 2, 0, attributeCount, version );
+    final Serializable instances = message.getRoutingKeys().get( Workloads.channelName( 0 ) );
+    for ( int i = 1; i < instanceCount; i++ )
+    {
+      // Versions route to overlapping sets of instances
+      ( (ArrayList<Integer>) instances ).add( i + version * instanceCount / 2 );
+    }
+    return message;
+  }
+
+  @Benchmark
+  public EntityMessage duplicate()
+  {
+    return _message.duplicate();
+  }
+
+  @Benchmark
+  public EntityMessage duplicateAndMerge()
+  {
+    final EntityMessage message = _message.duplicate();
+    message.merge( _update );
+    return message;
+  }
+}
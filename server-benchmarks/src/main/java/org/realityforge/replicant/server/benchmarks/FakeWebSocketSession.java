@@ -0,0 +1,343 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.websocket.CloseReason;
+import javax.websocket.Extension;
+import javax.websocket.MessageHandler;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.Session;
+import javax.websocket.WebSocketContainer;
+
+/**
+ * A websocket session that discards the messages sent to it, recording the number of frames and the
+ * number of bytes that would have been written to the network.
+ */
+public final class FakeWebSocketSession
+  implements Session
+{
+  @Nonnull
+  private final String _id;
+  @Nonnull
+  private final Remote _remote = new Remote();
+  @Nonnull
+  private final Map<String, Object> _userProperties = new HashMap<>();
+  private boolean _open = true;
+  private long _frameCount;
+  private long _byteCount;
+
+  public FakeWebSocketSession( @Nonnull final String id )
+  {
+    _id = Objects.requireNonNull( id );
+  }
+
+  /**
+   * Return the number of text frames sent to the session.
+   */
+  public long getFrameCount()
+  {
+    return _frameCount;
+  }
+
+  /**
+   * Return the number of bytes in the UTF-8 encoding of the text frames sent to the session.
+   */
+  public long getByteCount()
+  {
+    return _byteCount;
+  }
+
+  public void resetCounts()
+  {
+    _frameCount = 0;
+    _byteCount = 0;
+  }
+
+  @Nonnull
+  @Override
+  public String getId()
+  {
+    return _id;
+  }
+
+  @Override
+  public boolean isOpen()
+  {
+    return _open;
+  }
+
+  @Nonnull
+  @Override
+  public RemoteEndpoint.Basic getBasicRemote()
+  {
+    return _remote;
+  }
+
+  @Override
+  public void close()
+  {
+    _open = false;
+  }
+
+  @Override
+  public void close( final CloseReason closeReason )
+  {
+    _open = false;
+  }
+
+  @Override
+  public Map<String, Object> getUserProperties()
+  {
+    return _userProperties;
+  }
+
+  @Override
+  public WebSocketContainer getContainer()
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void addMessageHandler( final MessageHandler handler )
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T> void addMessageHandler( final Class<T> clazz, final MessageHandler.Whole<T> handler )
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public <T> void addMessageHandler( final Class<T> clazz, final MessageHandler.Partial<T> handler )
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Set<MessageHandler> getMessageHandlers()
+  {
+    return Collections.emptySet();
+  }
+
+  @Override
+  public void removeMessageHandler( final MessageHandler handler )
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public String getProtocolVersion()
+  {
+    return "13";
+  }
+
+  @Override
+  public String getNegotiatedSubprotocol()
+  {
+    return "";
+  }
+
+  @Override
+  public List<Extension> getNegotiatedExtensions()
+  {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public boolean isSecure()
+  {
+    return false;
+  }
+
+  @Override
+  public long getMaxIdleTimeout()
+  {
+    return 0;
+  }
+
+  @Override
+  public void setMaxIdleTimeout( final long milliseconds )
+  {
+  }
+
+  @Override
+  public void setMaxBinaryMessageBufferSize( final int length )
+  {
+  }
+
+  @Override
+  public int getMaxBinaryMessageBufferSize()
+  {
+    return 0;
+  }
+
+  @Override
+  public void setMaxTextMessageBufferSize( final int length )
+  {
+  }
+
+  @Override
+  public int getMaxTextMessageBufferSize()
+  {
+    return 0;
+  }
+
+  @Override
+  public RemoteEndpoint.Async getAsyncRemote()
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public URI getRequestURI()
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Map<String, List<String>> getRequestParameterMap()
+  {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public String getQueryString()
+  {
+    return null;
+  }
+
+  @Override
+  public Map<String, String> getPathParameters()
+  {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public Principal getUserPrincipal()
+  {
+    return null;
+  }
+
+  @Override
+  public Set<Session> getOpenSessions()
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Return the length of the UTF-8 encoding of the text without encoding it.
+   */
+  static int utf8Length( @Nonnull final String text )
+  {
+    final int length = text.length();
+    int bytes = length;
+    for ( int i = 0; i < length; i++ )
+    {
+      final char ch = text.charAt( i );
+      if ( ch >= 0x80 )
+      {
+        if ( ch < 0x800 )
+        {
+          bytes += 1;
+        }
+        else if ( Character.isHighSurrogate( ch ) )
+        {
+          // A surrogate pair is two chars that encode to four bytes
+          bytes += 2;
+          i++;
+        }
+        else
+        {
+          bytes += 2;
+        }
+      }
+    }
+    return bytes;
+  }
+
+  private final class Remote
+    implements RemoteEndpoint.Basic
+  {
+    @Override
+    public void sendText( final String text )
+    {
+      _frameCount++;
+      _byteCount += utf8Length( text );
+    }
+
+    @Override
+    public void sendBinary( final ByteBuffer data )
+    {
+      _frameCount++;
+      _byteCount += data.remaining();
+    }
+
+    @Override
+    public void sendText( final String partialMessage, final boolean isLast )
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void sendBinary( final ByteBuffer partialByte, final boolean isLast )
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public OutputStream getSendStream()
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Writer getSendWriter()
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void sendObject( final Object data )
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setBatchingAllowed( final boolean allowed )
+    {
+    }
+
+    @Override
+    public boolean getBatchingAllowed()
+    {
+      return false;
+    }
+
+    @Override
+    public void flushBatch()
+    {
+    }
+
+    @Override
+    public void sendPing( final ByteBuffer applicationData )
+    {
+    }
+
+    @Override
+    public void sendPong( final ByteBuffer applicationData )
+    {
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * A registry for a single simulated transaction at a time. The resources are discarded when the
+ * transaction ends. It is only accessed by the thread that commits the transactions.
+ */
+public final class InMemoryTransactionSynchronizationRegistry
+  implements TransactionSynchronizationRegistry
+{
+  @Nonnull
+  private final Map<Object, Object> _resources = new HashMap<>();
+  private long _transactionId;
+
+  /**
+   * Discard the resources of the current transaction and start the next transaction.
+   */
+  public void endTransaction()
+  {
+    _resources.clear();
+    _transactionId++;
+  }
+
+  @Override
+  public Object getTransactionKey()
+  {
+    return _transactionId;
+  }
+
+  @Override
+  public void putResource( final Object key, final Object value )
+  {
+    _resources.put( key, value );
+  }
+
+  @Override
+  public Object getResource( final Object key )
+  {
+    return _resources.get( key );
+  }
+
+  @Override
+  public void registerInterposedSynchronization( final Synchronization synchronization )
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int getTransactionStatus()
+  {
+    return Status.STATUS_ACTIVE;
+  }
+
+  @Override
+  public void setRollbackOnly()
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean getRollbackOnly()
+  {
+    return false;
+  }
+}
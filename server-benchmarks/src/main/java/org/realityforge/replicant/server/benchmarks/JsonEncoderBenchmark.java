@@ -0,0 +1,66 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.realityforge.replicant.server.Change;
+import org.realityforge.replicant.server.ChangeSet;
+import org.realityforge.replicant.server.EntityMessage;
+import org.realityforge.replicant.server.json.JsonEncoder;
+
+/**
+ * Measures encoding a change set that contains entity changes and channel actions.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class JsonEncoderBenchmark
+{
+  @Param( { "10", "1000" } )
+  public int messageCount;
+  @Param( { "4", "32" } )
+  public int attributeCount;
+  /**
+   * The number of channels that each entity is routed to.
+   */
+  @Param( { "1", "4" } )
+  public int channelCount;
+  @Param( { "NONE", "MIXED", "ALL" } )
+  public Workloads.FilterMix filterMix;
+  private ChangeSet _changeSet;
+
+  @Setup
+  public void setup()
+  {
+    _changeSet = new ChangeSet();
+    _changeSet.mergeActions( Workloads.createChannelActions( 16, filterMix ) );
+    for ( int i = 0; i < messageCount; i++ )
+    {
+      final EntityMessage message = Workloads.createMessage( i, 0, 1, 0, attributeCount, 0 );
+      final Change change = new Change( message );
+      for ( int channel = 0; channel < channelCount; channel++ )
+      {
+        change.getChannels().put( channel, 0 == channel % 2 ? i % 16 : null );
+      }
+      _changeSet.merge( change );
+    }
+  }
+
+  @Benchmark
+  public String encodeChangeSet()
+  {
+    return JsonEncoder.encodeChangeSet( 1, "E1", _changeSet );
+  }
+}
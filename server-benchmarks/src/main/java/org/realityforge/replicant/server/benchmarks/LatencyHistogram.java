@@ -0,0 +1,104 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in microseconds that can be recorded from multiple threads without
+ * allocating. Values below 64 microseconds are recorded exactly and larger values are recorded in
+ * buckets that are within about 3% of the value.
+ */
+public final class LatencyHistogram
+{
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int EXACT_LIMIT = SUB_BUCKET_COUNT * 2;
+  private static final int EXACT_EXPONENT = SUB_BUCKET_BITS + 1;
+  /**
+   * The buckets cover values up to 2^40 microseconds which is more than 12 days.
+   */
+  private static final int BUCKET_COUNT = EXACT_LIMIT + ( 40 - EXACT_EXPONENT ) * SUB_BUCKET_COUNT;
+  private final AtomicLongArray _buckets = new AtomicLongArray( BUCKET_COUNT );
+  private final AtomicLong _count = new AtomicLong();
+  private final AtomicLong _max = new AtomicLong();
+
+  public void recordNanos( final long nanos )
+  {
+    final long micros = TimeUnit.NANOSECONDS.toMicros( Math.max( 0, nanos ) );
+    _buckets.incrementAndGet( bucketIndex( micros ) );
+    _count.incrementAndGet();
+    _max.accumulateAndGet( micros, Math::max );
+  }
+
+  public long getCount()
+  {
+    return _count.get();
+  }
+
+  /**
+   * Return the maximum latency recorded in microseconds.
+   */
+  public long getMax()
+  {
+    return _max.get();
+  }
+
+  /**
+   * Return the latency in microseconds that the specified percentage of recorded latencies do not exceed.
+   *
+   * @param percentile the percentile between 0 and 100.
+   * @return the latency or 0 if no latencies have been recorded.
+   */
+  public long getPercentile( final double percentile )
+  {
+    if ( percentile < 0 || percentile > 100 )
+    {
+      throw new IllegalArgumentException( "Percentile " + percentile + " is not between 0 and 100" );
+    }
+    final long count = _count.get();
+    final long target = Math.max( 1, (long) Math.ceil( count * percentile / 100D ) );
+    long seen = 0;
+    for ( int i = 0; i < BUCKET_COUNT; i++ )
+    {
+      seen += _buckets.get( i );
+      if ( seen >= target )
+      {
+        return Math.min( bucketValue( i ), _max.get() );
+      }
+    }
+    return _max.get();
+  }
+
+  static int bucketIndex( final long micros )
+  {
+    if ( micros < EXACT_LIMIT )
+    {
+      return (int) micros;
+    }
+    else
+    {
+      final int exponent = 63 - Long.numberOfLeadingZeros( micros );
+      final int subBucket = (int) ( micros >>> ( exponent - SUB_BUCKET_BITS ) ) & ( SUB_BUCKET_COUNT - 1 );
+      return Math.min( EXACT_LIMIT + ( exponent - EXACT_EXPONENT ) * SUB_BUCKET_COUNT + subBucket,
+                       BUCKET_COUNT - 1 );
+    }
+  }
+
+  /**
+   * Return the largest value recorded in the bucket.
+   */
+  static long bucketValue( final int index )
+  {
+    if ( index < EXACT_LIMIT )
+    {
+      return index;
+    }
+    else
+    {
+      final int exponent = ( index - EXACT_LIMIT ) / SUB_BUCKET_COUNT + EXACT_EXPONENT;
+      final int subBucket = ( index - EXACT_LIMIT ) % SUB_BUCKET_COUNT;
+      return ( ( (long) SUB_BUCKET_COUNT + subBucket + 1 ) << ( exponent - SUB_BUCKET_BITS ) ) - 1;
+    }
+  }
+}
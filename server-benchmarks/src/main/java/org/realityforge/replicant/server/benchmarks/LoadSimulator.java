@@ -0,0 +1,326 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.realityforge.replicant.server.ChangeSet;
+import org.realityforge.replicant.server.EntityMessage;
+import org.realityforge.replicant.server.transport.ReplicantMessageBroker;
+import org.realityforge.replicant.server.transport.ReplicantMessageBrokerImpl;
+import org.realityforge.replicant.server.transport.ReplicantSession;
+import org.realityforge.replicant.server.transport.ReplicantSessionManager;
+import org.realityforge.replicant.server.transport.SystemMetaData;
+
+/**
+ * Simulates the load generated by many connected sessions within a single process. Transactions are
+ * committed via {@link ReplicantSessionManager#saveEntityMessages(String, Integer, Collection, ChangeSet)},
+ * routed by a {@link ReplicantMessageBrokerImpl} on a pool of worker threads and sent to fake websocket
+ * sessions. The latency is measured from the commit of a transaction until a frame containing the
+ * changes of the transaction is sent to a session.
+ *
+ * <p>The simulator is run from the command line with options of the form {@code --name=value}. Run
+ * with {@code --help} to list the options.</p>
+ */
+public final class LoadSimulator
+{
+  /**
+   * The number of distinct entities at each level of the graph that transactions update.
+   */
+  private static final int ENTITIES_PER_LEVEL = 10_000;
+  private static final int ATTRIBUTE_COUNT = 8;
+  @Nonnull
+  private final SimulatorSessionManager _sessionManager;
+  @Nonnull
+  private final SimulatorMessageBroker _broker;
+  @Nonnull
+  private final FakeWebSocketSession[] _webSocketSessions;
+  private final int _graphDepth;
+  private final int _instanceCount;
+  private final int _workerCount;
+  @Nonnull
+  private final TransactionMix _mix;
+  @Nonnull
+  private final LatencyHistogram _latencies = new LatencyHistogram();
+  @Nonnull
+  private final AtomicLong _packetCount = new AtomicLong();
+  private volatile boolean _running;
+
+  public LoadSimulator( final int sessionCount,
+                        final int instanceCount,
+                        final int graphDepth,
+                        @Nonnull final Workloads.FilterMix filterMix,
+                        final int workerCount,
+                        @Nonnull final TransactionMix mix )
+  {
+    if ( sessionCount <= 0 || instanceCount <= 0 || graphDepth <= 0 || workerCount <= 0 )
+    {
+      throw new IllegalArgumentException( "The session count, instance count, graph depth and worker count " +
+                                          "must be positive" );
+    }
+    _graphDepth = graphDepth;
+    _instanceCount = instanceCount;
+    _workerCount = workerCount;
+    _mix = Objects.requireNonNull( mix );
+    _sessionManager = new SimulatorSessionManager( Workloads.createSystemMetaData( graphDepth, filterMix ) );
+    _broker = new SimulatorMessageBroker( _sessionManager );
+    _webSocketSessions = new FakeWebSocketSession[ sessionCount ];
+    for ( int i = 0; i < sessionCount; i++ )
+    {
+      final FakeWebSocketSession webSocketSession = new FakeWebSocketSession( "S" + i );
+      final ReplicantSession session = _sessionManager.createSession( webSocketSession );
+      session.getLock().lock();
+      try
+      {
+        _sessionManager.subscribeToGraph( session, i % instanceCount, 1 + i % 3 );
+      }
+      finally
+      {
+        session.getLock().unlock();
+      }
+      _webSocketSessions[ i ] = webSocketSession;
+    }
+  }
+
+  /**
+   * Commit the transactions at the specified rate and wait until they have been routed to every session.
+   * The simulator can only be run once as the sessions retain the state of the run.
+   *
+   * @param transactionCount     the number of transactions.
+   * @param transactionsPerSecond the rate at which transactions are committed or 0 to commit as fast as possible.
+   * @param seed                 the seed of the generator that chooses the transactions.
+   * @return the report.
+   * @throws InterruptedException if interrupted while waiting for the transactions to be routed.
+   */
+  @Nonnull
+  public SimulationReport run( final int transactionCount, final int transactionsPerSecond, final long seed )
+    throws InterruptedException
+  {
+    if ( _running || 0 != _packetCount.get() )
+    {
+      throw new IllegalStateException( "The simulator has already been run" );
+    }
+    _running = true;
+    final List<Thread> workers = new ArrayList<>();
+    for ( int i = 0; i < _workerCount; i++ )
+    {
+      final Thread worker = new Thread( this::processPendingSessions, "LoadSimulator-Worker-" + i );
+      worker.setDaemon( true );
+      worker.start();
+      workers.add( worker );
+    }
+    try
+    {
+      final Random random = new Random( seed );
+      final long interval = 0 == transactionsPerSecond ? 0 : TimeUnit.SECONDS.toNanos( 1 ) / transactionsPerSecond;
+      final long start = System.nanoTime();
+      long messageCount = 0;
+      for ( int i = 0; i < transactionCount; i++ )
+      {
+        final long delay = start + i * interval - System.nanoTime();
+        if ( delay > 0 )
+        {
+          LockSupport.parkNanos( delay );
+        }
+        messageCount += commitTransaction( random, i );
+      }
+      final long commitDuration = System.nanoTime() - start;
+
+      final long expectedPacketCount = (long) transactionCount * _webSocketSessions.length;
+      while ( _packetCount.get() < expectedPacketCount )
+      {
+        if ( workers.stream().noneMatch( Thread::isAlive ) )
+        {
+          throw new IllegalStateException( "The workers terminated before the transactions were routed" );
+        }
+        TimeUnit.MILLISECONDS.sleep( 1 );
+      }
+      final long duration = System.nanoTime() - start;
+
+      long frameCount = 0;
+      long byteCount = 0;
+      for ( final FakeWebSocketSession webSocketSession : _webSocketSessions )
+      {
+        frameCount += webSocketSession.getFrameCount();
+        byteCount += webSocketSession.getByteCount();
+      }
+      return new SimulationReport( _webSocketSessions.length,
+                                   transactionCount,
+                                   messageCount,
+                                   commitDuration,
+                                   duration,
+                                   frameCount,
+                                   byteCount,
+                                   _latencies );
+    }
+    finally
+    {
+      // The broker polls with a short timeout so the workers notice promptly. The workers are not
+      // interrupted as the broker closes the session that it is routing to when interrupted.
+      _running = false;
+      for ( final Thread worker : workers )
+      {
+        worker.join();
+      }
+    }
+  }
+
+  private int commitTransaction( @Nonnull final Random random, final int version )
+  {
+    final int messageCount = _mix.nextMessageCount( random );
+    final List<EntityMessage> messages = new ArrayList<>( messageCount );
+    for ( int i = 0; i < messageCount; i++ )
+    {
+      final int level = random.nextInt( _graphDepth );
+      final int instance = random.nextInt( _instanceCount );
+      final int id = random.nextInt( ENTITIES_PER_LEVEL );
+      messages.add( Workloads.createMessage( id, level, _graphDepth, instance, ATTRIBUTE_COUNT, version ) );
+    }
+    _sessionManager.saveEntityMessages( null, null, new CommittedMessages( messages ), null );
+    _sessionManager.getRegistry().endTransaction();
+    return messageCount;
+  }
+
+  private void processPendingSessions()
+  {
+    while ( _running )
+    {
+      _broker.processPendingSessions();
+    }
+  }
+
+  public static void main( final String[] args )
+    throws InterruptedException
+  {
+    final Map<String, String> options = new HashMap<>();
+    options.put( "sessions", "2000" );
+    options.put( "instances", "100" );
+    options.put( "depth", "2" );
+    options.put( "filters", Workloads.FilterMix.MIXED.name() );
+    options.put( "workers", String.valueOf( Runtime.getRuntime().availableProcessors() ) );
+    options.put( "mix", "80:1,15:10,5:100" );
+    options.put( "transactions", "5000" );
+    options.put( "rate", "500" );
+    options.put( "seed", "42" );
+    for ( final String arg : args )
+    {
+      final int separator = arg.indexOf( '=' );
+      final String name = arg.startsWith( "--" ) && -1 != separator ? arg.substring( 2, separator ) : null;
+      if ( null == name || !options.containsKey( name ) )
+      {
+        System.out.println( "Usage: LoadSimulator [--name=value]..." );
+        System.out.println( "Options and their defaults:" );
+        options.forEach( ( key, value ) -> System.out.println( "  --" + key + "=" + value ) );
+        System.out.println( "The mix is a list of weight:messageCount entries describing the transactions." );
+        System.out.println( "A rate of 0 commits transactions as fast as possible." );
+        if ( !"--help".equals( arg ) )
+        {
+          System.exit( 1 );
+        }
+        return;
+      }
+      options.put( name, arg.substring( separator + 1 ) );
+    }
+
+    final LoadSimulator simulator =
+      new LoadSimulator( Integer.parseInt( options.get( "sessions" ) ),
+                         Integer.parseInt( options.get( "instances" ) ),
+                         Integer.parseInt( options.get( "depth" ) ),
+                         Workloads.FilterMix.valueOf( options.get( "filters" ) ),
+                         Integer.parseInt( options.get( "workers" ) ),
+                         TransactionMix.parse( options.get( "mix" ) ) );
+    System.out.println( "Simulating " + options );
+    final SimulationReport report =
+      simulator.run( Integer.parseInt( options.get( "transactions" ) ),
+                     Integer.parseInt( options.get( "rate" ) ),
+                     Long.parseLong( options.get( "seed" ) ) );
+    System.out.println( report );
+  }
+
+  /**
+   * The messages of a transaction along with the time the transaction was committed. The broker
+   * passes the same collection to the session manager when the messages are routed to each session.
+   */
+  private static final class CommittedMessages
+    extends ArrayList<EntityMessage>
+  {
+    private final long _committedAt = System.nanoTime();
+
+    CommittedMessages( @Nonnull final Collection<EntityMessage> messages )
+    {
+      super( messages );
+    }
+  }
+
+  private final class SimulatorSessionManager
+    extends BenchmarkSessionManager
+  {
+    @Nonnull
+    private final InMemoryTransactionSynchronizationRegistry _registry =
+      new InMemoryTransactionSynchronizationRegistry();
+
+    SimulatorSessionManager( @Nonnull final SystemMetaData systemMetaData )
+    {
+      super( systemMetaData );
+    }
+
+    @Override
+    public void sendChangeMessage( @Nonnull final ReplicantSession session,
+                                   @Nullable final Integer requestId,
+                                   @Nullable final String etag,
+                                   @Nullable final String baseEtag,
+                                   @Nonnull final Collection<EntityMessage> messages,
+                                   @Nonnull final ChangeSet changeSet )
+    {
+      final FakeWebSocketSession webSocketSession = (FakeWebSocketSession) session.getWebSocketSession();
+      final long frameCount = webSocketSession.getFrameCount();
+      super.sendChangeMessage( session, requestId, etag, baseEtag, messages, changeSet );
+      if ( messages instanceof CommittedMessages && frameCount != webSocketSession.getFrameCount() )
+      {
+        _latencies.recordNanos( System.nanoTime() - ( (CommittedMessages) messages )._committedAt );
+      }
+      _packetCount.incrementAndGet();
+    }
+
+    @Nonnull
+    @Override
+    protected ReplicantMessageBroker getReplicantMessageBroker()
+    {
+      return _broker;
+    }
+
+    @Nonnull
+    @Override
+    protected InMemoryTransactionSynchronizationRegistry getRegistry()
+    {
+      return _registry;
+    }
+  }
+
+  private static final class SimulatorMessageBroker
+    extends ReplicantMessageBrokerImpl
+  {
+    @Nonnull
+    private final ReplicantSessionManager _sessionManager;
+
+    SimulatorMessageBroker( @Nonnull final ReplicantSessionManager sessionManager )
+    {
+      _sessionManager = sessionManager;
+    }
+
+    @Nonnull
+    @Override
+    protected ReplicantSessionManager getReplicantSessionManager()
+    {
+      return _sessionManager;
+    }
+  }
+}
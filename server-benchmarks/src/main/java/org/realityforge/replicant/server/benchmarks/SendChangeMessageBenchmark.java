@@ -0,0 +1,87 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.realityforge.replicant.server.ChangeSet;
+import org.realityforge.replicant.server.EntityMessage;
+import org.realityforge.replicant.server.transport.ReplicantSession;
+
+/**
+ * Measures routing the messages of a transaction to every session, including link expansion, encoding
+ * and sending the resulting change set. Each session subscribes to one instance of the graph so the
+ * instance count determines the fraction of the messages that are routed to each session.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SendChangeMessageBenchmark
+{
+  @Param( { "1", "100" } )
+  public int sessionCount;
+  @Param( { "1", "16" } )
+  public int instanceCount;
+  @Param( { "1", "4" } )
+  public int graphDepth;
+  @Param( { "NONE", "MIXED", "ALL" } )
+  public Workloads.FilterMix filterMix;
+  @Param( { "100" } )
+  public int messageCount;
+  private BenchmarkSessionManager _sessionManager;
+  private ReplicantSession[] _sessions;
+  private List<EntityMessage> _messages;
+
+  @Setup
+  public void setup()
+    throws InterruptedException
+  {
+    _sessionManager = new BenchmarkSessionManager( Workloads.createSystemMetaData( graphDepth, filterMix ) );
+    _sessions = new ReplicantSession[ sessionCount ];
+    for ( int i = 0; i < sessionCount; i++ )
+    {
+      final ReplicantSession session = _sessionManager.createSession( new FakeWebSocketSession( "S" + i ) );
+      session.lockInterruptibly();
+      try
+      {
+        _sessionManager.subscribeToGraph( session, i % instanceCount, 1 + i % 3 );
+      }
+      finally
+      {
+        session.getLock().unlock();
+      }
+      _sessions[ i ] = session;
+    }
+    _messages = Workloads.createMessages( graphDepth, instanceCount, messageCount, 8 );
+  }
+
+  @Benchmark
+  public void sendChangeMessage()
+    throws InterruptedException
+  {
+    for ( final ReplicantSession session : _sessions )
+    {
+      session.lockInterruptibly();
+      try
+      {
+        _sessionManager.sendChangeMessage( session, null, null, _messages, new ChangeSet() );
+      }
+      finally
+      {
+        session.getLock().unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+/**
+ * The results of a run of the {@link LoadSimulator}.
+ */
+public final class SimulationReport
+{
+  private final int _sessionCount;
+  private final int _transactionCount;
+  private final long _messageCount;
+  private final long _commitDuration;
+  private final long _duration;
+  private final long _frameCount;
+  private final long _byteCount;
+  @Nonnull
+  private final LatencyHistogram _latencies;
+
+  SimulationReport( final int sessionCount,
+                    final int transactionCount,
+                    final long messageCount,
+                    final long commitDuration,
+                    final long duration,
+                    final long frameCount,
+                    final long byteCount,
+                    @Nonnull final LatencyHistogram latencies )
+  {
+    _sessionCount = sessionCount;
+    _transactionCount = transactionCount;
+    _messageCount = messageCount;
+    _commitDuration = commitDuration;
+    _duration = duration;
+    _frameCount = frameCount;
+    _byteCount = byteCount;
+    _latencies = latencies;
+  }
+
+  public int getSessionCount()
+  {
+    return _sessionCount;
+  }
+
+  public int getTransactionCount()
+  {
+    return _transactionCount;
+  }
+
+  /**
+   * Return the number of entity messages in the committed transactions.
+   */
+  public long getMessageCount()
+  {
+    return _messageCount;
+  }
+
+  /**
+   * Return the time taken to commit the transactions in nanoseconds.
+   */
+  public long getCommitDuration()
+  {
+    return _commitDuration;
+  }
+
+  /**
+   * Return the time taken to commit and route the transactions to every session in nanoseconds.
+   */
+  public long getDuration()
+  {
+    return _duration;
+  }
+
+  public long getFrameCount()
+  {
+    return _frameCount;
+  }
+
+  public long getByteCount()
+  {
+    return _byteCount;
+  }
+
+  /**
+   * Return the latencies from the commit of a transaction until a frame containing the changes was sent.
+   */
+  @Nonnull
+  public LatencyHistogram getLatencies()
+  {
+    return _latencies;
+  }
+
+  @Override
+  public String toString()
+  {
+    final double seconds = _duration / (double) TimeUnit.SECONDS.toNanos( 1 );
+    return String.format( Locale.ENGLISH,
+                          "Sessions: %d%n" +
+                          "Transactions: %d (%d messages) committed in %.3fs%n" +
+                          "Routed in: %.3fs (%.1f transactions/s)%n" +
+                          "Frames: %d (%.1f frames/s)%n" +
+                          "Bytes: %d (%.1f MiB/s, %.1f bytes/frame)%n" +
+                          "Commit to frame latency (us): p50=%d p90=%d p99=%d p99.9=%d max=%d%n",
+                          _sessionCount,
+                          _transactionCount,
+                          _messageCount,
+                          _commitDuration / (double) TimeUnit.SECONDS.toNanos( 1 ),
+                          seconds,
+                          _transactionCount / seconds,
+                          _frameCount,
+                          _frameCount / seconds,
+                          _byteCount,
+                          _byteCount / seconds / ( 1024 * 1024 ),
+                          0 == _frameCount ? 0D : _byteCount / (double) _frameCount,
+                          _latencies.getPercentile( 50 ),
+                          _latencies.getPercentile( 90 ),
+                          _latencies.getPercentile( 99 ),
+                          _latencies.getPercentile( 99.9 ),
+                          _latencies.getMax() );
+  }
+}
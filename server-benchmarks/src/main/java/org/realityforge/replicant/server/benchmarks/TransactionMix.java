@@ -0,0 +1,101 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.util.Random;
+import javax.annotation.Nonnull;
+
+/**
+ * The weighted mix of transactions replayed by the load simulator. Transactions differ in the number
+ * of entities that they update.
+ */
+public final class TransactionMix
+{
+  @Nonnull
+  private final int[] _weights;
+  @Nonnull
+  private final int[] _messageCounts;
+  private final int _totalWeight;
+
+  private TransactionMix( @Nonnull final int[] weights, @Nonnull final int[] messageCounts )
+  {
+    _weights = weights;
+    _messageCounts = messageCounts;
+    int totalWeight = 0;
+    for ( final int weight : weights )
+    {
+      totalWeight += weight;
+    }
+    _totalWeight = totalWeight;
+  }
+
+  /**
+   * Parse a mix of the form "weight:messageCount,weight:messageCount". i.e. "90:1,10:50" describes
+   * a mix where 90% of transactions update a single entity and 10% update 50 entities.
+   *
+   * @param mix the description of the mix.
+   * @return the mix.
+   * @throws IllegalArgumentException if the description is malformed.
+   */
+  @Nonnull
+  public static TransactionMix parse( @Nonnull final String mix )
+  {
+    final String[] entries = mix.split( "," );
+    final int[] weights = new int[ entries.length ];
+    final int[] messageCounts = new int[ entries.length ];
+    for ( int i = 0; i < entries.length; i++ )
+    {
+      final String[] parts = entries[ i ].trim().split( ":" );
+      try
+      {
+        if ( 2 != parts.length )
+        {
+          throw new NumberFormatException();
+        }
+        weights[ i ] = Integer.parseInt( parts[ 0 ] );
+        messageCounts[ i ] = Integer.parseInt( parts[ 1 ] );
+      }
+      catch ( final NumberFormatException nfe )
+      {
+        throw new IllegalArgumentException( "Transaction mix entry '" + entries[ i ] + "' is not of the " +
+                                            "form weight:messageCount" );
+      }
+      if ( weights[ i ] <= 0 || messageCounts[ i ] <= 0 )
+      {
+        throw new IllegalArgumentException( "Transaction mix entry '" + entries[ i ] + "' must have a " +
+                                            "positive weight and messageCount" );
+      }
+    }
+    return new TransactionMix( weights, messageCounts );
+  }
+
+  /**
+   * Choose the number of entities updated by the next transaction.
+   */
+  int nextMessageCount( @Nonnull final Random random )
+  {
+    int value = random.nextInt( _totalWeight );
+    for ( int i = 0; i < _weights.length; i++ )
+    {
+      value -= _weights[ i ];
+      if ( value < 0 )
+      {
+        return _messageCounts[ i ];
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  @Override
+  public String toString()
+  {
+    final StringBuilder sb = new StringBuilder();
+    for ( int i = 0; i < _weights.length; i++ )
+    {
+      if ( 0 != i )
+      {
+        sb.append( ',' );
+      }
+      sb.append( _weights[ i ] ).append( ':' ).append( _messageCounts[ i ] );
+    }
+    return sb.toString();
+  }
+}
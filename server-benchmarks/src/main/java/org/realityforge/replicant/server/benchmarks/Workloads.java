@@ -0,0 +1,193 @@
+package org.realityforge.replicant.server.benchmarks;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.realityforge.replicant.server.ChannelAction;
+import org.realityforge.replicant.server.ChannelAddress;
+import org.realityforge.replicant.server.ChannelLink;
+import org.realityforge.replicant.server.EntityMessage;
+import org.realityforge.replicant.server.transport.ChannelMetaData;
+import org.realityforge.replicant.server.transport.SystemMetaData;
+
+/**
+ * Generators for the synthetic schemas and messages used by the benchmarks.
+ *
+ * <p>The schema is a chain of instance graphs where the graph at each level links to the graph at the
+ * next level, so the graph depth is the number of channels that a session transitively subscribes to.
+ * The entities of level N have a type id of N and are routed to the instance with the sub-channel id
+ * of the entity id modulo the instance count.</p>
+ */
+public final class Workloads
+{
+  /**
+   * Describes which channels in the schema have a filter parameter.
+   */
+  public enum FilterMix
+  {
+    /**
+     * No channel is filtered.
+     */
+    NONE,
+    /**
+     * Every second channel, starting with the second, is filtered.
+     */
+    MIXED,
+    /**
+     * Every channel is filtered.
+     */
+    ALL;
+
+    boolean isFiltered( final int level )
+    {
+      return ALL == this || ( MIXED == this && 1 == level % 2 );
+    }
+  }
+
+  private static final long TIMESTAMP = 1_600_000_000_000L;
+
+  private Workloads()
+  {
+  }
+
+  @Nonnull
+  public static String channelName( final int level )
+  {
+    return "Level" + level;
+  }
+
+  @Nonnull
+  public static SystemMetaData createSystemMetaData( final int graphDepth, @Nonnull final FilterMix filterMix )
+  {
+    final ChannelMetaData[] channels = new ChannelMetaData[ graphDepth ];
+    for ( int level = 0; level < graphDepth; level++ )
+    {
+      final boolean filtered = filterMix.isFiltered( level );
+      channels[ level ] =
+        new ChannelMetaData( level,
+                             channelName( level ),
+                             level,
+                             filtered ? ChannelMetaData.FilterType.DYNAMIC : ChannelMetaData.FilterType.NONE,
+                             filtered ? Integer.class : null,
+                             ChannelMetaData.CacheType.NONE,
+                             false,
+                             false );
+    }
+    return new SystemMetaData( "Benchmark", channels );
+  }
+
+  /**
+   * Create the messages produced by a transaction that updates the specified number of entities. The
+   * entities are spread evenly across the levels of the graph and across the instances of each level.
+   *
+   * @param graphDepth     the number of levels in the graph.
+   * @param instanceCount  the number of instances of each graph.
+   * @param messageCount   the number of messages.
+   * @param attributeCount the number of attributes in each message.
+   * @return the messages.
+   */
+  @Nonnull
+  public static List<EntityMessage> createMessages( final int graphDepth,
+                                                    final int instanceCount,
+                                                    final int messageCount,
+                                                    final int attributeCount )
+  {
+    final List<EntityMessage> messages = new ArrayList<>( messageCount );
+    for ( int i = 0; i < messageCount; i++ )
+    {
+      final int level = i % graphDepth;
+      final int instance = ( i / graphDepth ) % instanceCount;
+      messages.add( createMessage( i, level, graphDepth, instance, attributeCount, 0 ) );
+    }
+    return messages;
+  }
+
+  /**
+   * Create a message for an entity.
+   *
+   * @param id             the id of the entity.
+   * @param level          the level of the graph that the entity is contained within. Also the type id.
+   * @param graphDepth     the number of levels in the graph. Entities link to the instance at the next level.
+   * @param instance       the sub-channel id of the instance graph that the entity is contained within.
+   * @param attributeCount the number of attributes.
+   * @param version        a value mixed into the attribute values so that successive versions differ.
+   * @return the message.
+   */
+  @Nonnull
+  public static EntityMessage createMessage( final int id,
+                                             final int level,
+                                             final int graphDepth,
+                                             final int instance,
+                                             final int attributeCount,
+                                             final int version )
+  {
+    final Map<String, Serializable> routingKeys = new HashMap<>();
+    final ArrayList<Integer> instances = new ArrayList<>();
+    instances.add( instance );
+    routingKeys.put( channelName( level ), instances );
+
+    final Map<String, Serializable> attributeValues = new HashMap<>();
+    for ( int i = 0; i < attributeCount; i++ )
+    {
+      attributeValues.put( "A" + i, createAttributeValue( i, id + version ) );
+    }
+
+    final Set<ChannelLink> links;
+    if ( level + 1 < graphDepth )
+    {
+      links = new HashSet<>();
+      links.add( new ChannelLink( new ChannelAddress( level, instance ), new ChannelAddress( level + 1, instance ) ) );
+    }
+    else
+    {
+      links = null;
+    }
+    return new EntityMessage( id, level, TIMESTAMP + version, routingKeys, attributeValues, links );
+  }
+
+  @Nonnull
+  private static Serializable createAttributeValue( final int attribute, final int seed )
+  {
+    switch ( attribute % 4 )
+    {
+      case 0:
+        return seed * 31 + attribute;
+      case 1:
+        return "Value " + seed + "/" + attribute;
+      case 2:
+        return 0 == ( seed + attribute ) % 2;
+      default:
+        return new Date( TIMESTAMP + seed * 1000L );
+    }
+  }
+
+  /**
+   * Create the channel actions that a subscription change would add to a change set.
+   *
+   * @param actionCount the number of actions.
+   * @param filterMix   the mix of filtered and unfiltered channels that the actions apply to.
+   * @return the actions.
+   */
+  @Nonnull
+  public static List<ChannelAction> createChannelActions( final int actionCount, @Nonnull final FilterMix filterMix )
+  {
+    final List<ChannelAction> actions = new ArrayList<>( actionCount );
+    for ( int i = 0; i < actionCount; i++ )
+    {
+      final JsonObject filter =
+        filterMix.isFiltered( i ) ?
+        Json.createObjectBuilder().add( "modulus", 1 + i % 3 ).add( "name", "Filter" + i ).build() :
+        null;
+      actions.add( new ChannelAction( new ChannelAddress( 0, i ), ChannelAction.Action.ADD, filter ) );
+    }
+    return actions;
+  }
+}
@@ -15,7 +15,7 @@ public class Change
 
   public Change( @Nonnull final EntityMessage entityMessage )
   {
-    _key = entityMessage.getTypeId() + "#" + entityMessage.getId();
+    _key = toKey( entityMessage );
     _entityMessage = entityMessage;
     _channels = new LinkedHashMap<>();
   }
@@ -28,6 +28,12 @@ public class Change
     _channels.put( channelId, subChannelId );
   }
 
+  @Nonnull
+  static String toKey( @Nonnull final EntityMessage entityMessage )
+  {
+    return entityMessage.getTypeId() + "#" + entityMessage.getId();
+  }
+
   @Nonnull
   public String getKey()
   {
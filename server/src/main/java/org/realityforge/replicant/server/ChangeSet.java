@@ -1,10 +1,13 @@
 package org.realityforge.replicant.server;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.json.JsonObject;
@@ -16,7 +19,26 @@ public final class ChangeSet
   private final List<ChannelAction> _channelActions = new LinkedList<>();
   @Nonnull
   private final Map<String, Change> _changes = new LinkedHashMap<>();
+  /**
+   * The entities delinked from a channel by an update to the filter of the channel, keyed by the address
+   * of the channel. The entities are identified by the "typeId.id" descriptor used in the transport.
+   */
+  @Nonnull
+  private final Map<ChannelAddress, Set<String>> _delinks = new LinkedHashMap<>();
   private boolean _required;
+  /**
+   * True if the json form of the most recently converted filter is retained.
+   *
+   * @see #setFilterJsonRetained(boolean)
+   */
+  private boolean _filterJsonRetained;
+  /**
+   * The filter most recently converted to json while the json form is retained.
+   */
+  @Nullable
+  private Object _lastFilter;
+  @Nullable
+  private JsonObject _lastFilterJson;
 
   public boolean hasContent()
   {
@@ -33,6 +55,21 @@ public final class ChangeSet
     _required = required;
   }
 
+  /**
+   * Specify whether the json form of the most recently merged filter is retained so that merging further
+   * actions with the same filter instance does not convert the filter again. Bulk subscriptions merge many
+   * actions with the same filter and enable this for the duration of the subscription. The filter must not
+   * be modified while the json form is retained. The json form is discarded when this is disabled.
+   *
+   * @param retained true to retain the json form of the most recently merged filter.
+   */
+  public void setFilterJsonRetained( final boolean retained )
+  {
+    _filterJsonRetained = retained;
+    _lastFilter = null;
+    _lastFilterJson = null;
+  }
+
   public void mergeActions( @Nonnull final Collection<ChannelAction> actions )
   {
     for ( final ChannelAction action : actions )
@@ -88,9 +125,23 @@ public final class ChangeSet
     _channelActions.add( action );
   }
 
+  @Nullable
   private JsonObject filterToJsonObject( @Nullable final Object filter )
   {
-    return null == filter ? null : JsonUtil.toJsonObject( filter );
+    if ( null == filter )
+    {
+      return null;
+    }
+    else if ( !_filterJsonRetained )
+    {
+      return JsonUtil.toJsonObject( filter );
+    }
+    else if ( filter != _lastFilter )
+    {
+      _lastFilterJson = JsonUtil.toJsonObject( filter );
+      _lastFilter = filter;
+    }
+    return _lastFilterJson;
   }
 
   @Nonnull
@@ -99,6 +150,53 @@ public final class ChangeSet
     return _channelActions;
   }
 
+  /**
+   * Record that the entity is no longer part of the channel as a result of an update to the filter of the channel.
+   *
+   * @param address the address of the channel.
+   * @param typeId  the type of the entity.
+   * @param id      the id of the entity.
+   * @see #addDelinks(ChannelAddress, int, Collection)
+   */
+  public void addDelink( @Nonnull final ChannelAddress address, final int typeId, final int id )
+  {
+    addDelinks( address, typeId, Collections.singletonList( id ) );
+  }
+
+  /**
+   * Record that the entities are no longer part of the channel as a result of an update to the filter of the
+   * channel. The delinks are sent with the UPDATE action for the channel and the client will delink the
+   * specified entities rather than re-evaluating the filter against every entity in the subscription. Thus if
+   * any delinks are recorded for a channel then every delinked entity must be recorded. Passing an empty
+   * collection of ids records that the update delinks no entities of the type.
+   *
+   * @param address the address of the channel.
+   * @param typeId  the type of the entities.
+   * @param ids     the ids of the entities.
+   */
+  public void addDelinks( @Nonnull final ChannelAddress address,
+                          final int typeId,
+                          @Nonnull final Collection<Integer> ids )
+  {
+    final Set<String> delinks = _delinks.computeIfAbsent( address, a -> new LinkedHashSet<>() );
+    for ( final Integer id : ids )
+    {
+      delinks.add( typeId + "." + id );
+    }
+  }
+
+  /**
+   * Return the entities delinked from the channel by an update to the filter of the channel.
+   *
+   * @param address the address of the channel.
+   * @return the "typeId.id" descriptors of the delinked entities or null if the delinks were not recorded.
+   */
+  @Nullable
+  public Set<String> getDelinks( @Nonnull final ChannelAddress address )
+  {
+    return _delinks.get( address );
+  }
+
   public void merge( @Nonnull final Collection<Change> changes )
   {
     merge( changes, false );
@@ -134,6 +232,10 @@ public final class ChangeSet
   {
     merge( changeSet.getChanges(), copyOnMerge );
     mergeActions( changeSet.getChannelActions() );
+    for ( final Map.Entry<ChannelAddress, Set<String>> entry : changeSet._delinks.entrySet() )
+    {
+      _delinks.computeIfAbsent( entry.getKey(), a -> new LinkedHashSet<>() ).addAll( entry.getValue() );
+    }
   }
 
   public void merge( @Nonnull final ChannelAddress address, @Nonnull final EntityMessageSet messages )
@@ -141,6 +243,17 @@ public final class ChangeSet
     merge( ChangeUtil.toChanges( messages.getEntityMessages(), address.getChannelId(), address.getSubChannelId() ) );
   }
 
+  /**
+   * Remove the change for the entity identified by the specified message, if present.
+   *
+   * @param message the message identifying the entity.
+   * @return true if a change was removed, false otherwise.
+   */
+  public boolean remove( @Nonnull final EntityMessage message )
+  {
+    return null != _changes.remove( Change.toKey( message ) );
+  }
+
   @Nonnull
   public Collection<Change> getChanges()
   {
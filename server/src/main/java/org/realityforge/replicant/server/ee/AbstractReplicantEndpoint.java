@@ -2,21 +2,20 @@ package org.realityforge.replicant.server.ee;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.json.Json;
-import javax.json.JsonArray;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
-import javax.json.JsonString;
-import javax.json.JsonValue;
 import javax.persistence.EntityManager;
 import javax.transaction.TransactionSynchronizationRegistry;
 import javax.transaction.Transactional;
@@ -39,6 +38,28 @@ public abstract class AbstractReplicantEndpoint
   protected static final Logger LOG = Logger.getLogger( AbstractEeReplicantEndpoint.class.getName() );
   @Nonnull
   private transient final ObjectMapper _jsonMapper = new ObjectMapper();
+  @Nonnull
+  private transient final Map<String, CommandHandler> _commandHandlers = new HashMap<>();
+  /**
+   * Flags set if a subclass overrides the deprecated hooks that are passed the command as a json object.
+   * The command is only converted to a json object if one of these hooks is overridden.
+   */
+  private transient final boolean _legacyBeforeCommand =
+    isOverridden( "beforeCommand", ReplicantSession.class, String.class, JsonObject.class );
+  private transient final boolean _legacyAfterCommand =
+    isOverridden( "afterCommand", ReplicantSession.class, String.class, JsonObject.class );
+
+  protected AbstractReplicantEndpoint()
+  {
+    registerCommandHandler( "etags", this::onETags );
+    registerCommandHandler( "ping", this::onPing );
+    registerCommandHandler( "sub", this::onSubscribe );
+    registerCommandHandler( "bulk-sub", this::onBulkSubscribe );
+    registerCommandHandler( "unsub", this::onUnsubscribe );
+    registerCommandHandler( "bulk-unsub", this::onBulkUnsubscribe );
+    registerCommandHandler( "auth", this::onAuthorize );
+    registerCommandHandler( "batch", this::onBatch );
+  }
 
   @SuppressWarnings( "WeakerAccess" )
   @Nonnull
@@ -95,95 +116,53 @@ public abstract class AbstractReplicantEndpoint
                "Message on WebSocket Session " + session.getId() +
                " for replicant session " + getReplicantSession( session ).getId() + ". Message:\n" + message );
     }
-    final JsonObject command;
-    final String type;
-    final int requestId;
+    final Command command;
     try
     {
-      command = Json.createReader( new StringReader( message ) ).readObject();
-      type = command.getString( "type" );
-      requestId = command.getInt( "requestId" );
+      command = CommandDecoder.decode( message );
     }
     catch ( final Throwable ignored )
     {
       onMalformedMessage( replicantSession, message );
       return;
     }
+    final String type = command.getType();
     if ( !"auth".equals( type ) && !isAuthorized( replicantSession ) )
     {
       sendErrorAndClose( session, "Replicant session not authroized" );
       return;
     }
-    beforeCommand( replicantSession, type, command );
-    //noinspection IfCanBeSwitch
-    if ( "etags".equals( type ) )
-    {
-      try
-      {
-        onETags( replicantSession, command );
-      }
-      catch ( final InterruptedException ignored )
-      {
-        replicantSession.closeDueToInterrupt();
-      }
-    }
-    else if ( "ping".equals( type ) )
-    {
-      sendOk( session, requestId );
-    }
-    else if ( "sub".equals( type ) )
-    {
-      try
-      {
-        onSubscribe( replicantSession, command );
-      }
-      catch ( final InterruptedException ignored )
-      {
-        replicantSession.closeDueToInterrupt();
-      }
-    }
-    else if ( "bulk-sub".equals( type ) )
-    {
-      try
-      {
-        onBulkSubscribe( replicantSession, command );
-      }
-      catch ( final InterruptedException ignored )
-      {
-        replicantSession.closeDueToInterrupt();
-      }
-    }
-    else if ( "unsub".equals( type ) )
+    beforeCommand( replicantSession, command );
+    final CommandHandler handler = _commandHandlers.get( type );
+    if ( null == handler )
     {
-      try
-      {
-        onUnsubscribe( replicantSession, command );
-      }
-      catch ( final InterruptedException ignored )
-      {
-        replicantSession.closeDueToInterrupt();
-      }
+      onUnknownCommand( replicantSession, command );
     }
-    else if ( "bulk-unsub".equals( type ) )
+    else
     {
       try
       {
-        onBulkUnsubscribe( replicantSession, command );
+        handler.handle( replicantSession, command );
       }
       catch ( final InterruptedException ignored )
       {
         replicantSession.closeDueToInterrupt();
       }
     }
-    else if ( "auth".equals( type ) )
-    {
-      onAuthorize( replicantSession, command );
-    }
-    else
-    {
-      onUnknownCommand( replicantSession, command );
-    }
-    afterCommand( replicantSession, type, command );
+    afterCommand( replicantSession, command );
+  }
+
+  /**
+   * Register the handler for commands of the specified type, replacing any existing handler.
+   * Subclasses may use this to support additional commands or to customize the processing of commands.
+   *
+   * @param type    the type of the command.
+   * @param handler the handler.
+   */
+  @SuppressWarnings( "WeakerAccess" )
+  protected void registerCommandHandler( @Nonnull final String type, @Nonnull final CommandHandler handler )
+  {
+    _commandHandlers.put( Objects.requireNonNull( type ), Objects.requireNonNull( handler ) );
   }
 
   /**
@@ -196,13 +175,32 @@ public abstract class AbstractReplicantEndpoint
   {
   }
 
+  /**
+   * A hook method invoked before a command is processed.
+   * The default implementation invokes {@link #beforeCommand(ReplicantSession, String, JsonObject)}
+   * if a subclass overrides it.
+   *
+   * @param session the session.
+   * @param command the command.
+   */
+  protected void beforeCommand( @Nonnull final ReplicantSession session, @Nonnull final Command command )
+  {
+    if ( _legacyBeforeCommand )
+    {
+      beforeCommand( session, command.getType(), command.toJsonObject() );
+    }
+  }
+
   /**
    * A hook method invoked before a command is processed.
    *
    * @param session the session.
    * @param type    the type of the command.
    * @param command the command object
+   * @deprecated Override {@link #beforeCommand(ReplicantSession, Command)} instead, which does not require the
+   * command to be parsed into a json object.
    */
+  @Deprecated
   @SuppressWarnings( "unused" )
   protected void beforeCommand( @Nonnull final ReplicantSession session,
                                 @Nonnull final String type,
@@ -210,13 +208,32 @@ public abstract class AbstractReplicantEndpoint
   {
   }
 
+  /**
+   * A hook method invoked after a command is processed.
+   * The default implementation invokes {@link #afterCommand(ReplicantSession, String, JsonObject)}
+   * if a subclass overrides it.
+   *
+   * @param session the session.
+   * @param command the command.
+   */
+  protected void afterCommand( @Nonnull final ReplicantSession session, @Nonnull final Command command )
+  {
+    if ( _legacyAfterCommand )
+    {
+      afterCommand( session, command.getType(), command.toJsonObject() );
+    }
+  }
+
   /**
    * A hook method invoked after a command is processed.
    *
    * @param session the session.
    * @param type    the type of the command.
    * @param command the command object
+   * @deprecated Override {@link #afterCommand(ReplicantSession, Command)} instead, which does not require the
+   * command to be parsed into a json object.
    */
+  @Deprecated
   @SuppressWarnings( "unused" )
   protected void afterCommand( @Nonnull final ReplicantSession session,
                                @Nonnull final String type,
@@ -224,6 +241,25 @@ public abstract class AbstractReplicantEndpoint
   {
   }
 
+  /**
+   * Return true if a subclass of the endpoint declares the specified method.
+   */
+  private boolean isOverridden( @Nonnull final String name, @Nonnull final Class<?>... parameterTypes )
+  {
+    for ( Class<?> type = getClass(); AbstractReplicantEndpoint.class != type; type = type.getSuperclass() )
+    {
+      try
+      {
+        type.getDeclaredMethod( name, parameterTypes );
+        return true;
+      }
+      catch ( final NoSuchMethodException ignored )
+      {
+      }
+    }
+    return false;
+  }
+
   @SuppressWarnings( { "WeakerAccess", "unused" } )
   protected boolean isAuthorized( @Nonnull final ReplicantSession replicantSession )
   {
@@ -239,16 +275,10 @@ public abstract class AbstractReplicantEndpoint
     WebSocketUtil.sendJsonObject( session, builder.build() );
   }
 
-  private void onETags( @Nonnull final ReplicantSession session, @Nonnull final JsonObject command )
+  private void onETags( @Nonnull final ReplicantSession session, @Nonnull final Command command )
     throws InterruptedException
   {
-    final Map<ChannelAddress, String> etags = new HashMap<>();
-    for ( final Map.Entry<String, JsonValue> entry : command.getJsonObject( "etags" ).entrySet() )
-    {
-      final ChannelAddress address = ChannelAddress.parse( entry.getKey() );
-      final String eTag = ( (JsonString) entry.getValue() ).getString();
-      etags.put( address, eTag );
-    }
+    final Map<ChannelAddress, String> etags = command.getETags();
     ReplicationRequestUtil.sessionLockingRequest( getRegistry(),
                                                   getEntityManager(),
                                                   getEndpoint(),
@@ -257,7 +287,12 @@ public abstract class AbstractReplicantEndpoint
                                                   null,
                                                   () -> session.setETags( etags ) );
 
-    sendOk( session.getWebSocketSession(), command.getInt( "requestId" ) );
+    sendOk( session.getWebSocketSession(), command.getRequestId() );
+  }
+
+  private void onPing( @Nonnull final ReplicantSession session, @Nonnull final Command command )
+  {
+    sendOk( session.getWebSocketSession(), command.getRequestId() );
   }
 
   private void onMalformedMessage( @Nonnull final ReplicantSession replicantSession, @Nonnull final String message )
@@ -271,29 +306,29 @@ public abstract class AbstractReplicantEndpoint
                     builder.build() );
   }
 
-  private void onUnknownCommand( @Nonnull final ReplicantSession replicantSession, @Nonnull final JsonObject command )
+  private void onUnknownCommand( @Nonnull final ReplicantSession replicantSession, @Nonnull final Command command )
   {
     final JsonObjectBuilder builder =
       Json.createObjectBuilder()
         .add( "type", "unknown-command" )
-        .add( "command", command );
+        .add( "command", command.toJsonObject() );
     closeWithError( replicantSession, "Unknown command", builder.build() );
   }
 
-  private void onAuthorize( @Nonnull final ReplicantSession replicantSession, @Nonnull final JsonObject command )
+  private void onAuthorize( @Nonnull final ReplicantSession replicantSession, @Nonnull final Command command )
   {
-    replicantSession.setAuthToken( command.getString( "token" ) );
-    sendOk( replicantSession.getWebSocketSession(), command.getInt( "requestId" ) );
+    replicantSession.setAuthToken( command.getToken() );
+    sendOk( replicantSession.getWebSocketSession(), command.getRequestId() );
   }
 
-  private void onSubscribe( @Nonnull final ReplicantSession replicantSession, @Nonnull final JsonObject command )
+  private void onSubscribe( @Nonnull final ReplicantSession replicantSession, @Nonnull final Command command )
     throws IOException, InterruptedException
   {
-    final ChannelAddress address = ChannelAddress.parse( command.getString( "channel" ) );
+    final ChannelAddress address = command.getChannel();
     final ChannelMetaData channelMetaData = getChannelMetaData( address.getChannelId() );
     if ( checkSubscribeRequest( replicantSession, channelMetaData, address ) )
     {
-      subscribe( replicantSession, command.getInt( "requestId" ), address, extractFilter( channelMetaData, command ) );
+      subscribe( replicantSession, command.getRequestId(), address, extractFilter( channelMetaData, command ) );
     }
   }
 
@@ -329,13 +364,22 @@ public abstract class AbstractReplicantEndpoint
                           @Nullable final Object filter )
     throws InterruptedException
   {
-    ReplicationRequestUtil.sessionUpdateRequest( getRegistry(),
-                                                 getEntityManager(),
-                                                 getEndpoint(),
-                                                 "Subscribe(" + address + ")",
-                                                 session,
-                                                 requestId,
-                                                 () -> doSubscribe( session, address, filter ) );
+    try
+    {
+      getSessionManager().preloadSubscriptions( session, Collections.singletonList( address ), filter );
+      ReplicationRequestUtil.sessionUpdateRequest( getRegistry(),
+                                                   getEntityManager(),
+                                                   getEndpoint(),
+                                                   "Subscribe(" + address + ")",
+                                                   session,
+                                                   requestId,
+                                                   () -> doSubscribe( session, address, filter ) );
+    }
+    finally
+    {
+      // Preloads are only left over if the request failed before the subscription was registered
+      getSessionManager().discardSubscriptionPreloads( session );
+    }
   }
 
   private void doSubscribe( @Nonnull final ReplicantSession session,
@@ -353,10 +397,10 @@ public abstract class AbstractReplicantEndpoint
     }
   }
 
-  private void onBulkSubscribe( @Nonnull final ReplicantSession session, @Nonnull final JsonObject command )
+  private void onBulkSubscribe( @Nonnull final ReplicantSession session, @Nonnull final Command command )
     throws IOException, InterruptedException
   {
-    final ChannelAddress[] addresses = extractChannels( command );
+    final ChannelAddress[] addresses = command.getChannels();
     if ( 0 == addresses.length )
     {
       return;
@@ -364,46 +408,77 @@ public abstract class AbstractReplicantEndpoint
     final int channelId = addresses[ 0 ].getChannelId();
 
     final ChannelMetaData channelMetaData = getChannelMetaData( channelId );
-    final List<Integer> subChannelIds = new ArrayList<>();
+    if ( !checkBulkSubscribeRequest( session, channelMetaData, addresses ) )
+    {
+      return;
+    }
+    final List<Integer> subChannelIds = getSubChannelIds( addresses );
+
+    final int requestId = command.getRequestId();
+    final Object filter = extractFilter( channelMetaData, command );
+    if ( 1 == addresses.length )
+    {
+      subscribe( session, requestId, addresses[ 0 ], filter );
+    }
+    else
+    {
+      try
+      {
+        getSessionManager().preloadSubscriptions( session, Arrays.asList( addresses ), filter );
+        ReplicationRequestUtil.sessionUpdateRequest( getRegistry(),
+                                                     getEntityManager(),
+                                                     getEndpoint(),
+                                                     "BulkSubscribe(" + channelMetaData.getChannelId() + ")",
+                                                     session,
+                                                     requestId,
+                                                     () -> doBulkSubscribe( session,
+                                                                            channelId,
+                                                                            subChannelIds,
+                                                                            filter ) );
+      }
+      finally
+      {
+        // Preloads are only left over if the request failed before the subscriptions were registered
+        getSessionManager().discardSubscriptionPreloads( session );
+      }
+    }
+  }
+
+  private boolean checkBulkSubscribeRequest( @Nonnull final ReplicantSession session,
+                                             @Nonnull final ChannelMetaData channelMetaData,
+                                             @Nonnull final ChannelAddress[] addresses )
+    throws IOException
+  {
     for ( final ChannelAddress address : addresses )
     {
       if ( !checkSubscribeRequest( session, channelMetaData, address ) )
       {
-        return;
+        return false;
       }
-      if ( address.getChannelId() != channelId )
+      if ( address.getChannelId() != channelMetaData.getChannelId() )
       {
         sendErrorAndClose( session, "Bulk channel subscribe included addresses from multiple channels" );
-        return;
+        return false;
       }
       else if ( !address.hasSubChannelId() )
       {
         sendErrorAndClose( session,
                            "Bulk channel subscribe included addresses channel without sub-channel ids" );
-        return;
-      }
-      else
-      {
-        subChannelIds.add( address.getSubChannelId() );
+        return false;
       }
     }
+    return true;
+  }
 
-    final int requestId = command.getInt( "requestId" );
-    final Object filter = extractFilter( channelMetaData, command );
-    if ( 1 == addresses.length )
+  @Nonnull
+  private List<Integer> getSubChannelIds( @Nonnull final ChannelAddress[] addresses )
+  {
+    final List<Integer> subChannelIds = new ArrayList<>( addresses.length );
+    for ( final ChannelAddress address : addresses )
     {
-      subscribe( session, requestId, addresses[ 0 ], filter );
-    }
-    else
-    {
-      ReplicationRequestUtil.sessionUpdateRequest( getRegistry(),
-                                                   getEntityManager(),
-                                                   getEndpoint(),
-                                                   "BulkSubscribe(" + channelMetaData.getChannelId() + ")",
-                                                   session,
-                                                   requestId,
-                                                   () -> doBulkSubscribe( session, channelId, subChannelIds, filter ) );
+      subChannelIds.add( address.getSubChannelId() );
     }
+    return subChannelIds;
   }
 
   private void doBulkSubscribe( @Nonnull final ReplicantSession session,
@@ -421,43 +496,29 @@ public abstract class AbstractReplicantEndpoint
     }
   }
 
-  @Nonnull
-  private ChannelAddress[] extractChannels( @Nonnull final JsonObject command )
-  {
-    final JsonArray channels = command.getJsonArray( "channels" );
-    final int channelCount = channels.size();
-    final ChannelAddress[] addresses = new ChannelAddress[ channelCount ];
-    for ( int i = 0; i < channelCount; i++ )
-    {
-      addresses[ i ] = ChannelAddress.parse( channels.getString( i ) );
-    }
-    return addresses;
-  }
-
   @Nullable
-  private Object extractFilter( final ChannelMetaData channelMetaData, final @Nonnull JsonObject command )
+  private Object extractFilter( final ChannelMetaData channelMetaData, final @Nonnull Command command )
   {
-    return command.containsKey( "filter" ) && !command.isNull( "filter" ) ?
-           toFilter( channelMetaData, command.getJsonObject( "filter" ) ) :
-           null;
+    final JsonObject filter = command.getFilter();
+    return null != filter ? toFilter( channelMetaData, filter ) : null;
   }
 
-  private void onUnsubscribe( @Nonnull final ReplicantSession replicantSession, @Nonnull final JsonObject command )
+  private void onUnsubscribe( @Nonnull final ReplicantSession replicantSession, @Nonnull final Command command )
     throws IOException, InterruptedException
   {
-    final ChannelAddress address = ChannelAddress.parse( command.getString( "channel" ) );
+    final ChannelAddress address = command.getChannel();
     final ChannelMetaData channelMetaData = getChannelMetaData( address.getChannelId() );
     if ( checkUnsubscribeRequest( replicantSession, channelMetaData, address ) )
     {
-      final int requestId = command.getInt( "requestId" );
+      final int requestId = command.getRequestId();
       unsubscribe( replicantSession, requestId, address );
     }
   }
 
-  private void onBulkUnsubscribe( @Nonnull final ReplicantSession session, @Nonnull final JsonObject command )
+  private void onBulkUnsubscribe( @Nonnull final ReplicantSession session, @Nonnull final Command command )
     throws IOException, InterruptedException
   {
-    final ChannelAddress[] addresses = extractChannels( command );
+    final ChannelAddress[] addresses = command.getChannels();
     if ( 0 == addresses.length )
     {
       return;
@@ -465,31 +526,13 @@ public abstract class AbstractReplicantEndpoint
     final int channelId = addresses[ 0 ].getChannelId();
 
     final ChannelMetaData channelMetaData = getChannelMetaData( channelId );
-    final List<Integer> subChannelIds = new ArrayList<>();
-    for ( final ChannelAddress address : addresses )
+    if ( !checkBulkUnsubscribeRequest( session, channelMetaData, addresses ) )
     {
-      if ( !checkUnsubscribeRequest( session, channelMetaData, address ) )
-      {
-        return;
-      }
-      if ( address.getChannelId() != channelId )
-      {
-        sendErrorAndClose( session, "Bulk channel unsubscribe included addresses from multiple channels" );
-        return;
-      }
-      else if ( !address.hasSubChannelId() )
-      {
-        sendErrorAndClose( session,
-                           "Bulk channel unsubscribe included addresses channel without sub-channel ids" );
-        return;
-      }
-      else
-      {
-        subChannelIds.add( address.getSubChannelId() );
-      }
+      return;
     }
+    final List<Integer> subChannelIds = getSubChannelIds( addresses );
 
-    final int requestId = command.getInt( "requestId" );
+    final int requestId = command.getRequestId();
     if ( 1 == addresses.length )
     {
       unsubscribe( session, requestId, addresses[ 0 ] );
@@ -506,6 +549,32 @@ public abstract class AbstractReplicantEndpoint
     }
   }
 
+  private boolean checkBulkUnsubscribeRequest( @Nonnull final ReplicantSession session,
+                                               @Nonnull final ChannelMetaData channelMetaData,
+                                               @Nonnull final ChannelAddress[] addresses )
+    throws IOException
+  {
+    for ( final ChannelAddress address : addresses )
+    {
+      if ( !checkUnsubscribeRequest( session, channelMetaData, address ) )
+      {
+        return false;
+      }
+      if ( address.getChannelId() != channelMetaData.getChannelId() )
+      {
+        sendErrorAndClose( session, "Bulk channel unsubscribe included addresses from multiple channels" );
+        return false;
+      }
+      else if ( !address.hasSubChannelId() )
+      {
+        sendErrorAndClose( session,
+                           "Bulk channel unsubscribe included addresses channel without sub-channel ids" );
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void doBulkUnsubscribe( @Nonnull final ReplicantSession session,
                                   final int channelId,
                                   final List<Integer> subChannelIds )
@@ -574,6 +643,203 @@ public abstract class AbstractReplicantEndpoint
     }
   }
 
+  /**
+   * Process a batch of commands. The commands are processed in order in a single transaction while
+   * holding the session lock once, and the changes resulting from every command are sent to the
+   * client in a single message identified by the requestId of the batch. Every command is validated
+   * before any command is processed.
+   */
+  private void onBatch( @Nonnull final ReplicantSession session, @Nonnull final Command command )
+    throws IOException, InterruptedException
+  {
+    final List<Command> commands = command.getCommands();
+    // The filters are converted once during validation and reused when preloading and processing
+    final Map<Command, Object> filters = new HashMap<>();
+    for ( final Command subCommand : commands )
+    {
+      if ( !checkBatchedCommand( session, subCommand, filters ) )
+      {
+        return;
+      }
+    }
+
+    final int requestId = command.getRequestId();
+    if ( commands.isEmpty() )
+    {
+      sendOk( session.getWebSocketSession(), requestId );
+      return;
+    }
+
+    try
+    {
+      for ( final Command subCommand : commands )
+      {
+        final String type = subCommand.getType();
+        if ( "sub".equals( type ) )
+        {
+          getSessionManager().preloadSubscriptions( session,
+                                                    Collections.singletonList( subCommand.getChannel() ),
+                                                    filters.get( subCommand ) );
+        }
+        else if ( "bulk-sub".equals( type ) )
+        {
+          getSessionManager().preloadSubscriptions( session,
+                                                    Arrays.asList( subCommand.getChannels() ),
+                                                    filters.get( subCommand ) );
+        }
+      }
+      ReplicationRequestUtil.sessionUpdateRequest( getRegistry(),
+                                                   getEntityManager(),
+                                                   getEndpoint(),
+                                                   "Batch(" + commands.size() + ")",
+                                                   session,
+                                                   requestId,
+                                                   () -> doBatch( session, commands, filters ) );
+    }
+    finally
+    {
+      // Preloads are only left over if the batch failed part way through
+      getSessionManager().discardSubscriptionPreloads( session );
+    }
+  }
+
+  private boolean checkBatchedCommand( @Nonnull final ReplicantSession session,
+                                       @Nonnull final Command command,
+                                       @Nonnull final Map<Command, Object> filters )
+    throws IOException
+  {
+    final String type = command.getType();
+    switch ( type )
+    {
+      case "sub":
+      {
+        final ChannelAddress address = command.getChannel();
+        final ChannelMetaData channelMetaData = getChannelMetaData( address.getChannelId() );
+        if ( !checkSubscribeRequest( session, channelMetaData, address ) ||
+             !checkBatchedSubscribeRequest( session, channelMetaData ) )
+        {
+          return false;
+        }
+        filters.put( command, extractFilter( channelMetaData, command ) );
+        return true;
+      }
+      case "bulk-sub":
+      {
+        final ChannelAddress[] addresses = command.getChannels();
+        if ( 0 != addresses.length )
+        {
+          final ChannelMetaData channelMetaData = getChannelMetaData( addresses[ 0 ].getChannelId() );
+          if ( !checkBulkSubscribeRequest( session, channelMetaData, addresses ) ||
+               !checkBatchedSubscribeRequest( session, channelMetaData ) )
+          {
+            return false;
+          }
+          filters.put( command, extractFilter( channelMetaData, command ) );
+        }
+        return true;
+      }
+      case "unsub":
+      {
+        final ChannelAddress address = command.getChannel();
+        return checkUnsubscribeRequest( session, getChannelMetaData( address.getChannelId() ), address );
+      }
+      case "bulk-unsub":
+      {
+        final ChannelAddress[] addresses = command.getChannels();
+        return 0 == addresses.length ||
+               checkBulkUnsubscribeRequest( session, getChannelMetaData( addresses[ 0 ].getChannelId() ), addresses );
+      }
+      case "etags":
+        command.getETags();
+        return true;
+      case "ping":
+        return true;
+      default:
+        sendErrorAndClose( session, "Batch included unsupported command of type " + type );
+        return false;
+    }
+  }
+
+  /**
+   * Cacheable channels may be answered by a separate cached message so they can not be part of a batch.
+   */
+  private boolean checkBatchedSubscribeRequest( @Nonnull final ReplicantSession session,
+                                                @Nonnull final ChannelMetaData channelMetaData )
+    throws IOException
+  {
+    if ( channelMetaData.isCacheable() )
+    {
+      sendErrorAndClose( session, "Batch included subscribe to cacheable channel" );
+      return false;
+    }
+    else
+    {
+      return true;
+    }
+  }
+
+  private void doBatch( @Nonnull final ReplicantSession session,
+                        @Nonnull final List<Command> commands,
+                        @Nonnull final Map<Command, Object> filters )
+  {
+    EntityMessageCacheUtil.getSessionChanges().setRequired( true );
+    final ReplicantSessionManager sessionManager = getSessionManager();
+    try
+    {
+      for ( final Command command : commands )
+      {
+        switch ( command.getType() )
+        {
+          case "sub":
+            sessionManager.subscribe( session, command.getChannel(), filters.get( command ) );
+            break;
+          case "bulk-sub":
+          {
+            final ChannelAddress[] addresses = command.getChannels();
+            if ( 1 == addresses.length )
+            {
+              sessionManager.subscribe( session, addresses[ 0 ], filters.get( command ) );
+            }
+            else if ( 0 != addresses.length )
+            {
+              sessionManager.bulkSubscribe( session,
+                                            addresses[ 0 ].getChannelId(),
+                                            getSubChannelIds( addresses ),
+                                            filters.get( command ) );
+            }
+            break;
+          }
+          case "unsub":
+            sessionManager.unsubscribe( session, command.getChannel() );
+            break;
+          case "bulk-unsub":
+          {
+            final ChannelAddress[] addresses = command.getChannels();
+            if ( 1 == addresses.length )
+            {
+              sessionManager.unsubscribe( session, addresses[ 0 ] );
+            }
+            else if ( 0 != addresses.length )
+            {
+              sessionManager.bulkUnsubscribe( session, addresses[ 0 ].getChannelId(), getSubChannelIds( addresses ) );
+            }
+            break;
+          }
+          case "etags":
+            session.setETags( command.getETags() );
+            break;
+          default:
+            assert "ping".equals( command.getType() );
+            break;
+        }
+      }
+    }
+    catch ( final InterruptedException ignored )
+    {
+      session.closeDueToInterrupt();
+    }
+  }
+
   @Nullable
   private ReplicantSession findReplicantSession( @Nonnull final Session session )
   {
@@ -0,0 +1,200 @@
+package org.realityforge.replicant.server.ee;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import org.realityforge.replicant.server.ChannelAddress;
+
+/**
+ * A command sent by the client. Only the parameters that were present in the message are available.
+ */
+public final class Command
+{
+  /**
+   * The message that the command was decoded from. Null if the command was nested within another command.
+   */
+  @Nullable
+  private final String _message;
+  @Nonnull
+  private final String _type;
+  private final int _requestId;
+  @Nullable
+  private final String _token;
+  @Nullable
+  private final ChannelAddress _channel;
+  @Nullable
+  private final ChannelAddress[] _channels;
+  @Nullable
+  private final JsonObject _filter;
+  @Nullable
+  private final Map<ChannelAddress, String> _etags;
+  @Nullable
+  private final List<Command> _commands;
+  /**
+   * The message parsed into a json object. Lazily created as only required when reporting errors or in hooks.
+   */
+  @Nullable
+  private JsonObject _object;
+
+  Command( @Nullable final String message,
+           @Nonnull final String type,
+           final int requestId,
+           @Nullable final String token,
+           @Nullable final ChannelAddress channel,
+           @Nullable final ChannelAddress[] channels,
+           @Nullable final JsonObject filter,
+           @Nullable final Map<ChannelAddress, String> etags,
+           @Nullable final List<Command> commands )
+  {
+    _message = message;
+    _type = Objects.requireNonNull( type );
+    _requestId = requestId;
+    _token = token;
+    _channel = channel;
+    _channels = channels;
+    _filter = filter;
+    _etags = etags;
+    _commands = null == commands ? null : Collections.unmodifiableList( commands );
+  }
+
+  @Nonnull
+  public String getType()
+  {
+    return _type;
+  }
+
+  public int getRequestId()
+  {
+    return _requestId;
+  }
+
+  @Nonnull
+  public String getToken()
+  {
+    if ( null == _token )
+    {
+      throw new IllegalStateException( "Command of type " + _type + " has no token parameter" );
+    }
+    return _token;
+  }
+
+  @Nonnull
+  public ChannelAddress getChannel()
+  {
+    if ( null == _channel )
+    {
+      throw new IllegalStateException( "Command of type " + _type + " has no channel parameter" );
+    }
+    return _channel;
+  }
+
+  @Nonnull
+  public ChannelAddress[] getChannels()
+  {
+    if ( null == _channels )
+    {
+      throw new IllegalStateException( "Command of type " + _type + " has no channels parameter" );
+    }
+    return _channels;
+  }
+
+  /**
+   * Return the filter parameter or null if the parameter is absent or null.
+   */
+  @Nullable
+  public JsonObject getFilter()
+  {
+    return _filter;
+  }
+
+  @Nonnull
+  public Map<ChannelAddress, String> getETags()
+  {
+    if ( null == _etags )
+    {
+      throw new IllegalStateException( "Command of type " + _type + " has no etags parameter" );
+    }
+    return _etags;
+  }
+
+  /**
+   * Return the sub-commands of a batch command.
+   */
+  @Nonnull
+  public List<Command> getCommands()
+  {
+    if ( null == _commands )
+    {
+      throw new IllegalStateException( "Command of type " + _type + " has no commands parameter" );
+    }
+    return _commands;
+  }
+
+  /**
+   * Return the command as a json object. The message is parsed on first access, or the object is
+   * built from the parameters if the command was nested within another command.
+   */
+  @Nonnull
+  public JsonObject toJsonObject()
+  {
+    if ( null == _object )
+    {
+      _object = null != _message ? Json.createReader( new StringReader( _message ) ).readObject() : buildJsonObject();
+    }
+    return _object;
+  }
+
+  @Nonnull
+  private JsonObject buildJsonObject()
+  {
+    final JsonObjectBuilder builder = Json.createObjectBuilder().add( "type", _type ).add( "requestId", _requestId );
+    if ( null != _token )
+    {
+      builder.add( "token", _token );
+    }
+    if ( null != _channel )
+    {
+      builder.add( "channel", _channel.toString() );
+    }
+    if ( null != _channels )
+    {
+      final JsonArrayBuilder channels = Json.createArrayBuilder();
+      for ( final ChannelAddress channel : _channels )
+      {
+        channels.add( channel.toString() );
+      }
+      builder.add( "channels", channels );
+    }
+    if ( null != _filter )
+    {
+      builder.add( "filter", _filter );
+    }
+    if ( null != _etags )
+    {
+      final JsonObjectBuilder etags = Json.createObjectBuilder();
+      _etags.forEach( ( address, etag ) -> etags.add( address.toString(), etag ) );
+      builder.add( "etags", etags );
+    }
+    if ( null != _commands )
+    {
+      final JsonArrayBuilder commands = Json.createArrayBuilder();
+      _commands.forEach( command -> commands.add( command.toJsonObject() ) );
+      builder.add( "commands", commands );
+    }
+    return builder.build();
+  }
+
+  @Override
+  public String toString()
+  {
+    return null != _message ? _message : toJsonObject().toString();
+  }
+}
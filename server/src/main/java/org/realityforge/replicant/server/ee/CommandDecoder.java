@@ -0,0 +1,316 @@
+package org.realityforge.replicant.server.ee;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonBuilderFactory;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.stream.JsonParser;
+import org.realityforge.replicant.server.ChannelAddress;
+
+/**
+ * Decodes the commands sent by the client. The message is decoded using a streaming parser so that
+ * large commands such as bulk subscribes do not build an intermediate json tree. Only the JSON-P 1.0
+ * parser api is used as the application server may supply a JSON-P 1.0 provider.
+ */
+final class CommandDecoder
+{
+  private static final JsonBuilderFactory c_builderFactory = Json.createBuilderFactory( null );
+
+  private CommandDecoder()
+  {
+  }
+
+  /**
+   * Decode the specified message.
+   *
+   * @param message the message.
+   * @return the command.
+   * @throws IllegalArgumentException if the message is not a well formed command.
+   * @throws javax.json.JsonException if the message is not well formed json.
+   */
+  @Nonnull
+  static Command decode( @Nonnull final String message )
+  {
+    try ( final JsonParser parser = Json.createParser( new StringReader( message ) ) )
+    {
+      if ( !parser.hasNext() || JsonParser.Event.START_OBJECT != parser.next() )
+      {
+        throw new IllegalArgumentException( "Command is not a json object" );
+      }
+      return readCommand( parser, message );
+    }
+  }
+
+  /**
+   * Read a command from the parser. The parser is expected to be positioned after the start of the command object.
+   *
+   * @param parser  the parser.
+   * @param message the message if the command is the complete message, otherwise null.
+   * @return the command.
+   */
+  @Nonnull
+  private static Command readCommand( @Nonnull final JsonParser parser, @Nullable final String message )
+  {
+    String type = null;
+    Integer requestId = null;
+    String token = null;
+    ChannelAddress channel = null;
+    ChannelAddress[] channels = null;
+    JsonObject filter = null;
+    Map<ChannelAddress, String> etags = null;
+    List<Command> commands = null;
+
+    JsonParser.Event event;
+    while ( JsonParser.Event.END_OBJECT != ( event = parser.next() ) )
+    {
+      assert JsonParser.Event.KEY_NAME == event;
+      final String key = parser.getString();
+      final JsonParser.Event value = parser.next();
+      switch ( key )
+      {
+        case "type":
+          type = readString( parser, value, key );
+          break;
+        case "requestId":
+          requestId = readInt( parser, value, key );
+          break;
+        case "token":
+          token = readString( parser, value, key );
+          break;
+        case "channel":
+          channel = ChannelAddress.parse( readString( parser, value, key ) );
+          break;
+        case "channels":
+          channels = readChannels( parser, value );
+          break;
+        case "filter":
+          filter = readFilter( parser, value );
+          break;
+        case "etags":
+          etags = readETags( parser, value );
+          break;
+        case "commands":
+          commands = readCommands( parser, value );
+          break;
+        default:
+          skip( parser, value );
+          break;
+      }
+    }
+    if ( null == type )
+    {
+      throw new IllegalArgumentException( "Command is missing the type parameter" );
+    }
+    if ( null == requestId )
+    {
+      throw new IllegalArgumentException( "Command is missing the requestId parameter" );
+    }
+    return new Command( message, type, requestId, token, channel, channels, filter, etags, commands );
+  }
+
+  @Nonnull
+  private static List<Command> readCommands( @Nonnull final JsonParser parser, @Nonnull final JsonParser.Event event )
+  {
+    if ( JsonParser.Event.START_ARRAY != event )
+    {
+      throw new IllegalArgumentException( "Command parameter commands is not an array" );
+    }
+    final List<Command> commands = new ArrayList<>();
+    JsonParser.Event element;
+    while ( JsonParser.Event.END_ARRAY != ( element = parser.next() ) )
+    {
+      if ( JsonParser.Event.START_OBJECT != element )
+      {
+        throw new IllegalArgumentException( "Command parameter commands contains an element that is not an object" );
+      }
+      commands.add( readCommand( parser, null ) );
+    }
+    return commands;
+  }
+
+  @Nonnull
+  private static String readString( @Nonnull final JsonParser parser,
+                                    @Nonnull final JsonParser.Event event,
+                                    @Nonnull final String key )
+  {
+    if ( JsonParser.Event.VALUE_STRING != event )
+    {
+      throw new IllegalArgumentException( "Command parameter " + key + " is not a string" );
+    }
+    return parser.getString();
+  }
+
+  private static int readInt( @Nonnull final JsonParser parser,
+                              @Nonnull final JsonParser.Event event,
+                              @Nonnull final String key )
+  {
+    if ( JsonParser.Event.VALUE_NUMBER != event || !parser.isIntegralNumber() )
+    {
+      throw new IllegalArgumentException( "Command parameter " + key + " is not an integer" );
+    }
+    return parser.getInt();
+  }
+
+  @Nonnull
+  private static ChannelAddress[] readChannels( @Nonnull final JsonParser parser,
+                                                @Nonnull final JsonParser.Event event )
+  {
+    if ( JsonParser.Event.START_ARRAY != event )
+    {
+      throw new IllegalArgumentException( "Command parameter channels is not an array" );
+    }
+    final List<ChannelAddress> channels = new ArrayList<>();
+    JsonParser.Event element;
+    while ( JsonParser.Event.END_ARRAY != ( element = parser.next() ) )
+    {
+      channels.add( ChannelAddress.parse( readString( parser, element, "channels" ) ) );
+    }
+    return channels.toArray( new ChannelAddress[ 0 ] );
+  }
+
+  @Nullable
+  private static JsonObject readFilter( @Nonnull final JsonParser parser, @Nonnull final JsonParser.Event event )
+  {
+    if ( JsonParser.Event.VALUE_NULL == event )
+    {
+      return null;
+    }
+    else if ( JsonParser.Event.START_OBJECT == event )
+    {
+      return readObject( parser );
+    }
+    else
+    {
+      throw new IllegalArgumentException( "Command parameter filter is not an object" );
+    }
+  }
+
+  @Nonnull
+  private static Map<ChannelAddress, String> readETags( @Nonnull final JsonParser parser,
+                                                        @Nonnull final JsonParser.Event event )
+  {
+    if ( JsonParser.Event.START_OBJECT != event )
+    {
+      throw new IllegalArgumentException( "Command parameter etags is not an object" );
+    }
+    final Map<ChannelAddress, String> etags = new HashMap<>();
+    while ( JsonParser.Event.END_OBJECT != parser.next() )
+    {
+      final ChannelAddress address = ChannelAddress.parse( parser.getString() );
+      etags.put( address, readString( parser, parser.next(), "etags" ) );
+    }
+    return etags;
+  }
+
+  /**
+   * Read an object from the parser. The parser is expected to be positioned after the start of the object.
+   */
+  @Nonnull
+  private static JsonObject readObject( @Nonnull final JsonParser parser )
+  {
+    final JsonObjectBuilder builder = c_builderFactory.createObjectBuilder();
+    JsonParser.Event event;
+    while ( JsonParser.Event.END_OBJECT != ( event = parser.next() ) )
+    {
+      assert JsonParser.Event.KEY_NAME == event;
+      final String name = parser.getString();
+      final JsonParser.Event value = parser.next();
+      switch ( value )
+      {
+        case START_OBJECT:
+          builder.add( name, readObject( parser ) );
+          break;
+        case START_ARRAY:
+          builder.add( name, readArray( parser ) );
+          break;
+        case VALUE_STRING:
+          builder.add( name, parser.getString() );
+          break;
+        case VALUE_NUMBER:
+          builder.add( name, parser.getBigDecimal() );
+          break;
+        case VALUE_TRUE:
+          builder.add( name, true );
+          break;
+        case VALUE_FALSE:
+          builder.add( name, false );
+          break;
+        default:
+          builder.addNull( name );
+          break;
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Read an array from the parser. The parser is expected to be positioned after the start of the array.
+   */
+  @Nonnull
+  private static JsonArray readArray( @Nonnull final JsonParser parser )
+  {
+    final JsonArrayBuilder builder = c_builderFactory.createArrayBuilder();
+    JsonParser.Event event;
+    while ( JsonParser.Event.END_ARRAY != ( event = parser.next() ) )
+    {
+      switch ( event )
+      {
+        case START_OBJECT:
+          builder.add( readObject( parser ) );
+          break;
+        case START_ARRAY:
+          builder.add( readArray( parser ) );
+          break;
+        case VALUE_STRING:
+          builder.add( parser.getString() );
+          break;
+        case VALUE_NUMBER:
+          builder.add( parser.getBigDecimal() );
+          break;
+        case VALUE_TRUE:
+          builder.add( true );
+          break;
+        case VALUE_FALSE:
+          builder.add( false );
+          break;
+        default:
+          builder.addNull();
+          break;
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Skip the value that started with the specified event. A structured value is skipped by counting the
+   * start and end events until the value is closed.
+   */
+  private static void skip( @Nonnull final JsonParser parser, @Nonnull final JsonParser.Event event )
+  {
+    if ( JsonParser.Event.START_OBJECT == event || JsonParser.Event.START_ARRAY == event )
+    {
+      int depth = 1;
+      while ( 0 != depth )
+      {
+        final JsonParser.Event next = parser.next();
+        if ( JsonParser.Event.START_OBJECT == next || JsonParser.Event.START_ARRAY == next )
+        {
+          depth++;
+        }
+        else if ( JsonParser.Event.END_OBJECT == next || JsonParser.Event.END_ARRAY == next )
+        {
+          depth--;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package org.realityforge.replicant.server.ee;
+
+import java.io.IOException;
+import javax.annotation.Nonnull;
+import org.realityforge.replicant.server.transport.ReplicantSession;
+
+/**
+ * The handler invoked to process a command of a particular type.
+ */
+@FunctionalInterface
+public interface CommandHandler
+{
+  void handle( @Nonnull ReplicantSession session, @Nonnull Command command )
+    throws IOException, InterruptedException;
+}
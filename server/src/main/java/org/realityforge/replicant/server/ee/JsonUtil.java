@@ -1,12 +1,22 @@
 package org.realityforge.replicant.server.ee;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.POJONode;
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.Iterator;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonBuilderFactory;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 import javax.json.JsonReader;
 import javax.json.JsonReaderFactory;
 
@@ -14,6 +24,7 @@ public final class JsonUtil
 {
   private static final ObjectMapper c_jsonMapper = new ObjectMapper();
   private static final JsonReaderFactory c_readerFactory = Json.createReaderFactory( null );
+  private static final JsonBuilderFactory c_builderFactory = Json.createBuilderFactory( null );
 
   private JsonUtil()
   {
@@ -29,10 +40,138 @@ public final class JsonUtil
     }
   }
 
+  /**
+   * Convert the object into a json object. The object is converted into a Jackson tree which is then
+   * copied into the json tree so that the object is not serialized to a string and parsed again.
+   *
+   * @param object the object.
+   * @return the json object.
+   */
   @Nonnull
   public static JsonObject toJsonObject( @Nonnull final Object object )
   {
-    return toJsonObject( toJsonString( object ) );
+    final JsonNode node = c_jsonMapper.valueToTree( object );
+    if ( !node.isObject() )
+    {
+      throw new IllegalArgumentException( "Object " + object + " is not serialized as a json object" );
+    }
+    return toJsonObject( (ObjectNode) node );
+  }
+
+  /*
+   * The scalar values are added via the builder overloads rather than Json.createValue(...) as the latter is
+   * only available in JSON-P 1.1 and the application server may supply a JSON-P 1.0 provider.
+   */
+  @Nonnull
+  private static JsonObject toJsonObject( @Nonnull final ObjectNode node )
+  {
+    final JsonObjectBuilder builder = c_builderFactory.createObjectBuilder();
+    final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+    while ( fields.hasNext() )
+    {
+      final Map.Entry<String, JsonNode> field = fields.next();
+      addField( builder, field.getKey(), field.getValue() );
+    }
+    return builder.build();
+  }
+
+  @Nonnull
+  private static JsonArray toJsonArray( @Nonnull final ArrayNode node )
+  {
+    final JsonArrayBuilder builder = c_builderFactory.createArrayBuilder();
+    for ( final JsonNode element : node )
+    {
+      addElement( builder, element );
+    }
+    return builder.build();
+  }
+
+  private static void addField( @Nonnull final JsonObjectBuilder builder,
+                                @Nonnull final String name,
+                                @Nonnull final JsonNode node )
+  {
+    switch ( node.getNodeType() )
+    {
+      case OBJECT:
+        builder.add( name, toJsonObject( (ObjectNode) node ) );
+        break;
+      case ARRAY:
+        builder.add( name, toJsonArray( (ArrayNode) node ) );
+        break;
+      case STRING:
+      case BINARY:
+        builder.add( name, node.asText() );
+        break;
+      case NUMBER:
+        if ( !node.isIntegralNumber() )
+        {
+          builder.add( name, node.decimalValue() );
+        }
+        else if ( node.canConvertToInt() )
+        {
+          builder.add( name, node.intValue() );
+        }
+        else if ( node.canConvertToLong() )
+        {
+          builder.add( name, node.longValue() );
+        }
+        else
+        {
+          builder.add( name, node.bigIntegerValue() );
+        }
+        break;
+      case BOOLEAN:
+        builder.add( name, node.booleanValue() );
+        break;
+      case POJO:
+        addField( builder, name, c_jsonMapper.valueToTree( ( (POJONode) node ).getPojo() ) );
+        break;
+      default:
+        builder.addNull( name );
+    }
+  }
+
+  private static void addElement( @Nonnull final JsonArrayBuilder builder, @Nonnull final JsonNode node )
+  {
+    switch ( node.getNodeType() )
+    {
+      case OBJECT:
+        builder.add( toJsonObject( (ObjectNode) node ) );
+        break;
+      case ARRAY:
+        builder.add( toJsonArray( (ArrayNode) node ) );
+        break;
+      case STRING:
+      case BINARY:
+        builder.add( node.asText() );
+        break;
+      case NUMBER:
+        if ( !node.isIntegralNumber() )
+        {
+          builder.add( node.decimalValue() );
+        }
+        else if ( node.canConvertToInt() )
+        {
+          builder.add( node.intValue() );
+        }
+        else if ( node.canConvertToLong() )
+        {
+          builder.add( node.longValue() );
+        }
+        else
+        {
+          builder.add( node.bigIntegerValue() );
+        }
+        break;
+      case BOOLEAN:
+        builder.add( node.booleanValue() );
+        break;
+      case POJO:
+        addElement( builder, c_jsonMapper.valueToTree( ( (POJONode) node ).getPojo() ) );
+        break;
+      default:
+        builder.addNull();
+    }
   }
 
   @Nonnull
@@ -61,7 +61,7 @@ public final class ReplicationRequestUtil
     final ReentrantLock lock = session.getLock();
     try
     {
-      lock.lockInterruptibly();
+      session.lockInterruptibly();
       startReplication( registry, invocationKey, session, requestId );
       try
       {
@@ -170,7 +170,7 @@ public abstract class AbstractSessionRestService
     final ReentrantLock lock = session.getLock();
     try
     {
-      lock.lockInterruptibly();
+      session.lockInterruptibly();
       return action.get();
     }
     catch ( final InterruptedException ie )
@@ -8,10 +8,10 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.json.JsonObject;
 import javax.json.stream.JsonGenerator;
 import javax.ws.rs.core.UriInfo;
 import org.realityforge.replicant.server.ChannelAddress;
-import org.realityforge.replicant.server.ee.JsonUtil;
 import org.realityforge.replicant.server.transport.ChannelMetaData;
 import org.realityforge.replicant.server.transport.ReplicantSession;
 import org.realityforge.replicant.server.transport.SubscriptionEntry;
@@ -187,14 +187,14 @@ final class Encoder
     g.write( "explicitlySubscribed", entry.isExplicitlySubscribed() );
     if ( channelMetaData.hasFilterParameter() )
     {
-      final Object f = entry.getFilter();
-      if ( null == f )
+      final JsonObject filter = entry.getFilterAsJson();
+      if ( null == filter )
       {
         g.writeNull( "filter" );
       }
       else
       {
-        g.write( "filter", JsonUtil.toJsonObject( f ) );
+        g.write( "filter", filter );
       }
     }
 
@@ -0,0 +1,22 @@
+package org.realityforge.replicant.server.json;
+
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.realityforge.replicant.server.Change;
+
+/**
+ * Determines the attributes of an entity that are encoded when a change is sent to a client.
+ */
+@FunctionalInterface
+public interface AttributeProjection
+{
+  /**
+   * Return the names of the attributes that should be encoded for the change.
+   *
+   * @param change the change.
+   * @return the names of the attributes to encode or null if every attribute should be encoded.
+   */
+  @Nullable
+  Set<String> getAttributes( @Nonnull Change change );
+}
@@ -9,6 +9,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -49,6 +50,44 @@ public final class JsonEncoder
   public static String encodeChangeSet( @Nullable final Integer requestId,
                                         @Nullable final String etag,
                                         @Nonnull final ChangeSet changeSet )
+  {
+    return encodeChangeSet( requestId, etag, null, changeSet );
+  }
+
+  /**
+   * Encode the change set with the EntityMessages.
+   *
+   * @param requestId the requestId that initiated the change. Only set if packet is destined for originating session.
+   * @param etag      the associated etag.
+   * @param baseEtag  the etag of the cached data that the change set is to be applied to, if the change set is a delta.
+   * @param changeSet the changeSet being encoded.
+   * @return the encoded change set.
+   */
+  @Nonnull
+  public static String encodeChangeSet( @Nullable final Integer requestId,
+                                        @Nullable final String etag,
+                                        @Nullable final String baseEtag,
+                                        @Nonnull final ChangeSet changeSet )
+  {
+    return encodeChangeSet( requestId, etag, baseEtag, changeSet, null );
+  }
+
+  /**
+   * Encode the change set with the EntityMessages.
+   *
+   * @param requestId  the requestId that initiated the change. Only set if destined for originating session.
+   * @param etag       the associated etag.
+   * @param baseEtag   the etag of the cached data that the change set is applied to, if the change set is a delta.
+   * @param changeSet  the changeSet being encoded.
+   * @param projection the projection that selects the attributes encoded for each change. May be null.
+   * @return the encoded change set.
+   */
+  @Nonnull
+  public static String encodeChangeSet( @Nullable final Integer requestId,
+                                        @Nullable final String etag,
+                                        @Nullable final String baseEtag,
+                                        @Nonnull final ChangeSet changeSet,
+                                        @Nullable final AttributeProjection projection )
   {
     final StringWriter writer = new StringWriter();
     final JsonGenerator generator = FACTORY.createGenerator( writer );
@@ -64,9 +103,16 @@ public final class JsonEncoder
     {
       generator.write( TransportConstants.ETAG, etag );
     }
+    if ( null != baseEtag )
+    {
+      generator.write( TransportConstants.BASE_ETAG, baseEtag );
+    }
 
     final List<ChannelAction> actions =
-      changeSet.getChannelActions().stream().filter( c -> null == c.getFilter() ).collect( Collectors.toList() );
+      changeSet.getChannelActions()
+        .stream()
+        .filter( c -> !isFilteredAction( changeSet, c ) )
+        .collect( Collectors.toList() );
     if ( !actions.isEmpty() )
     {
       generator.writeStartArray( TransportConstants.CHANNEL_ACTIONS );
@@ -75,14 +121,32 @@ public final class JsonEncoder
     }
 
     final List<ChannelAction> filteredActions =
-      changeSet.getChannelActions().stream().filter( c -> null != c.getFilter() ).collect( Collectors.toList() );
+      changeSet.getChannelActions()
+        .stream()
+        .filter( c -> isFilteredAction( changeSet, c ) )
+        .collect( Collectors.toList() );
     if ( !filteredActions.isEmpty() )
     {
       generator.writeStartArray( TransportConstants.FILTERED_CHANNEL_ACTIONS );
       filteredActions.forEach( a -> {
         generator.writeStartObject();
         generator.write( TransportConstants.CHANNEL, toDescriptor( a ) );
-        generator.write( TransportConstants.CHANNEL_FILTER, a.getFilter() );
+        final JsonObject filter = a.getFilter();
+        if ( null == filter )
+        {
+          generator.writeNull( TransportConstants.CHANNEL_FILTER );
+        }
+        else
+        {
+          generator.write( TransportConstants.CHANNEL_FILTER, filter );
+        }
+        final Set<String> delinks = getDelinks( changeSet, a );
+        if ( null != delinks )
+        {
+          generator.writeStartArray( TransportConstants.CHANNEL_DELINKS );
+          delinks.forEach( generator::write );
+          generator.writeEnd();
+        }
         generator.writeEnd();
       } );
       generator.writeEnd();
@@ -118,9 +182,13 @@ public final class JsonEncoder
           generator.writeStartObject( TransportConstants.DATA );
           final Map<String, Serializable> values = entityMessage.getAttributeValues();
           assert null != values;
+          final Set<String> attributes = null == projection ? null : projection.getAttributes( change );
           for ( final Entry<String, Serializable> entry : values.entrySet() )
           {
-            writeField( generator, entry.getKey(), entry.getValue(), dateFormat );
+            if ( null == attributes || attributes.contains( entry.getKey() ) )
+            {
+              writeField( generator, entry.getKey(), entry.getValue(), dateFormat );
+            }
           }
           generator.writeEnd();
         }
@@ -133,6 +201,21 @@ public final class JsonEncoder
     return writer.toString();
   }
 
+  /**
+   * Return true if the action is transmitted as an object with a filter rather than as a descriptor.
+   * An UPDATE action with delinks is transmitted as an object even if the filter is null.
+   */
+  private static boolean isFilteredAction( @Nonnull final ChangeSet changeSet, @Nonnull final ChannelAction action )
+  {
+    return null != action.getFilter() || null != getDelinks( changeSet, action );
+  }
+
+  @Nullable
+  private static Set<String> getDelinks( @Nonnull final ChangeSet changeSet, @Nonnull final ChannelAction action )
+  {
+    return Action.UPDATE == action.getAction() ? changeSet.getDelinks( action.getAddress() ) : null;
+  }
+
   @Nonnull
   private static String toDescriptor( final ChannelAction channelAction )
   {
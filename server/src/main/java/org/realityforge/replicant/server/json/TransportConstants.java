@@ -9,6 +9,7 @@ interface TransportConstants
   String UPDATE_TYPE = "update";
   String REQUEST_ID = "requestId";
   String ETAG = "etag";
+  String BASE_ETAG = "baseEtag";
   String CHANGES = "changes";
   String ENTITY_ID = "id";
   String DATA = "data";
@@ -17,4 +18,5 @@ interface TransportConstants
   String CHANNEL = "channel";
   String CHANNELS = "channels";
   String CHANNEL_FILTER = "filter";
+  String CHANNEL_DELINKS = "delinks";
 }
@@ -0,0 +1,212 @@
+package org.realityforge.replicant.server.transport;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.realityforge.replicant.server.ChannelAddress;
+
+/**
+ * A compact set of channel addresses. Addresses with a sub-channel id are packed into longs and
+ * addresses without a sub-channel id are stored as the channel id. The values are kept in sorted
+ * arrays, so the set holds no per-address objects and adding or removing an address does not allocate
+ * unless an array needs to grow. The addresses are recreated when the set is iterated.
+ *
+ * <p>The set is read-only via the {@link java.util.Set} interface and is modified via
+ * {@link #addAddress(ChannelAddress)} and {@link #removeAddress(ChannelAddress)}.</p>
+ */
+final class ChannelAddressSet
+  extends AbstractSet<ChannelAddress>
+{
+  private static final long[] EMPTY_INSTANCE_ADDRESSES = new long[ 0 ];
+  private static final int[] EMPTY_TYPE_ADDRESSES = new int[ 0 ];
+  /**
+   * The packed addresses that have a sub-channel id.
+   */
+  @Nonnull
+  private long[] _instanceAddresses = EMPTY_INSTANCE_ADDRESSES;
+  private int _instanceAddressCount;
+  /**
+   * The channel ids of the addresses that have no sub-channel id.
+   */
+  @Nonnull
+  private int[] _typeAddresses = EMPTY_TYPE_ADDRESSES;
+  private int _typeAddressCount;
+
+  static long pack( final int channelId, final int subChannelId )
+  {
+    return ( (long) channelId << 32 ) | ( subChannelId & 0xFFFFFFFFL );
+  }
+
+  @Nonnull
+  static ChannelAddress unpack( final long value )
+  {
+    return new ChannelAddress( (int) ( value >> 32 ), (int) value );
+  }
+
+  /**
+   * Add the address to the set.
+   *
+   * @return true if the address was added, false if it was already present.
+   */
+  boolean addAddress( @Nonnull final ChannelAddress address )
+  {
+    final Integer subChannelId = address.getSubChannelId();
+    if ( null == subChannelId )
+    {
+      final int value = address.getChannelId();
+      final int index = Arrays.binarySearch( _typeAddresses, 0, _typeAddressCount, value );
+      if ( index >= 0 )
+      {
+        return false;
+      }
+      final int insertionPoint = -index - 1;
+      if ( _typeAddressCount == _typeAddresses.length )
+      {
+        _typeAddresses = Arrays.copyOf( _typeAddresses, newCapacity( _typeAddressCount ) );
+      }
+      System.arraycopy( _typeAddresses,
+                        insertionPoint,
+                        _typeAddresses,
+                        insertionPoint + 1,
+                        _typeAddressCount - insertionPoint );
+      _typeAddresses[ insertionPoint ] = value;
+      _typeAddressCount++;
+    }
+    else
+    {
+      final long value = pack( address.getChannelId(), subChannelId );
+      final int index = Arrays.binarySearch( _instanceAddresses, 0, _instanceAddressCount, value );
+      if ( index >= 0 )
+      {
+        return false;
+      }
+      final int insertionPoint = -index - 1;
+      if ( _instanceAddressCount == _instanceAddresses.length )
+      {
+        _instanceAddresses = Arrays.copyOf( _instanceAddresses, newCapacity( _instanceAddressCount ) );
+      }
+      System.arraycopy( _instanceAddresses,
+                        insertionPoint,
+                        _instanceAddresses,
+                        insertionPoint + 1,
+                        _instanceAddressCount - insertionPoint );
+      _instanceAddresses[ insertionPoint ] = value;
+      _instanceAddressCount++;
+    }
+    return true;
+  }
+
+  private static int newCapacity( final int size )
+  {
+    return 0 == size ? 2 : size + ( size >> 1 ) + 1;
+  }
+
+  /**
+   * Remove the address from the set.
+   *
+   * @return true if the address was removed, false if it was not present.
+   */
+  boolean removeAddress( @Nonnull final ChannelAddress address )
+  {
+    final Integer subChannelId = address.getSubChannelId();
+    if ( null == subChannelId )
+    {
+      final int index = Arrays.binarySearch( _typeAddresses, 0, _typeAddressCount, address.getChannelId() );
+      if ( index < 0 )
+      {
+        return false;
+      }
+      System.arraycopy( _typeAddresses, index + 1, _typeAddresses, index, _typeAddressCount - index - 1 );
+      _typeAddressCount--;
+    }
+    else
+    {
+      final long value = pack( address.getChannelId(), subChannelId );
+      final int index = Arrays.binarySearch( _instanceAddresses, 0, _instanceAddressCount, value );
+      if ( index < 0 )
+      {
+        return false;
+      }
+      System.arraycopy( _instanceAddresses,
+                        index + 1,
+                        _instanceAddresses,
+                        index,
+                        _instanceAddressCount - index - 1 );
+      _instanceAddressCount--;
+    }
+    return true;
+  }
+
+  /**
+   * Return an estimate of the number of bytes retained by the set.
+   */
+  long estimateSize()
+  {
+    return MemoryEstimates.align( MemoryEstimates.OBJECT_HEADER + MemoryEstimates.REFERENCE * 2 + 4 * 2 ) +
+           ( 0 == _instanceAddresses.length ? 0 : MemoryEstimates.arraySize( _instanceAddresses.length, 8 ) ) +
+           ( 0 == _typeAddresses.length ? 0 : MemoryEstimates.arraySize( _typeAddresses.length, 4 ) );
+  }
+
+  @Override
+  public boolean contains( @Nullable final Object o )
+  {
+    if ( o instanceof ChannelAddress )
+    {
+      final ChannelAddress address = (ChannelAddress) o;
+      final Integer subChannelId = address.getSubChannelId();
+      return null == subChannelId ?
+             Arrays.binarySearch( _typeAddresses, 0, _typeAddressCount, address.getChannelId() ) >= 0 :
+             Arrays.binarySearch( _instanceAddresses,
+                                  0,
+                                  _instanceAddressCount,
+                                  pack( address.getChannelId(), subChannelId ) ) >= 0;
+    }
+    else
+    {
+      return false;
+    }
+  }
+
+  @Override
+  public int size()
+  {
+    return _typeAddressCount + _instanceAddressCount;
+  }
+
+  @Nonnull
+  @Override
+  public Iterator<ChannelAddress> iterator()
+  {
+    return new Iterator<ChannelAddress>()
+    {
+      private int _index;
+
+      @Override
+      public boolean hasNext()
+      {
+        return _index < size();
+      }
+
+      @Override
+      public ChannelAddress next()
+      {
+        final int index = _index++;
+        if ( index < _typeAddressCount )
+        {
+          return new ChannelAddress( _typeAddresses[ index ] );
+        }
+        else if ( index < size() )
+        {
+          return unpack( _instanceAddresses[ index - _typeAddressCount ] );
+        }
+        else
+        {
+          throw new NoSuchElementException();
+        }
+      }
+    };
+  }
+}
@@ -1,18 +1,54 @@
 package org.realityforge.replicant.server.transport;
 
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.Objects;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.realityforge.replicant.server.ChangeSet;
 import org.realityforge.replicant.server.ChannelAddress;
 
 final class ChannelCacheEntry
 {
+  /**
+   * The maximum number of deltas retained for the entry. Clients that present a cache key older than
+   * the oldest retained delta are sent the complete data.
+   */
+  static final int MAX_DELTA_HISTORY = 10;
+  /**
+   * Source of the load identifiers. The identifiers must be unique across reloads, restarts and the
+   * nodes of a cluster so a counter is not sufficient.
+   */
+  private static final SecureRandom c_random = new SecureRandom();
   private final ReadWriteLock _lock = new ReentrantReadWriteLock();
   private final ChannelAddress _descriptor;
+  /**
+   * The cache key supplied by the application when the data was loaded.
+   */
+  private String _baseCacheKey;
+  /**
+   * A random identifier generated each time the data is loaded. It is part of every derived cache key
+   * so that a derived key never identifies different data in different loads.
+   */
+  private String _loadId;
   private String _cacheKey;
+  /**
+   * The number of times that the changes have been applied to the cached data since it was loaded.
+   */
+  private int _revision;
+  /**
+   * The cached data. The change set is never modified once it has been placed in the cache and is
+   * instead replaced when an update occurs, so that readers always see a consistent snapshot.
+   */
   private ChangeSet _changeSet;
+  /**
+   * The changes applied in recent updates, oldest first. Each delta transforms the data identified
+   * by the cache key of the delta into the data of the subsequent revision.
+   */
+  private final LinkedList<Delta> _deltas = new LinkedList<>();
 
   ChannelCacheEntry( @Nonnull final ChannelAddress address )
   {
@@ -33,8 +69,38 @@ final class ChannelCacheEntry
 
   void init( @Nonnull final String cacheKey, @Nonnull final ChangeSet changeSet )
   {
+    _baseCacheKey = cacheKey;
+    _loadId = Long.toUnsignedString( c_random.nextLong(), Character.MAX_RADIX );
     _cacheKey = cacheKey;
+    _revision = 0;
     _changeSet = changeSet;
+    _deltas.clear();
+  }
+
+  /**
+   * Replace the cached data with an updated version and derive a new cache key for the data.
+   * The caller should hold the write lock.
+   *
+   * @param changeSet the updated data.
+   * @param delta     the changes that were applied to the previous data to produce the updated data.
+   */
+  void update( @Nonnull final ChangeSet changeSet, @Nonnull final ChangeSet delta )
+  {
+    assert isInitialized();
+    _deltas.add( new Delta( _cacheKey, delta ) );
+    if ( _deltas.size() > MAX_DELTA_HISTORY )
+    {
+      _deltas.removeFirst();
+    }
+    _revision++;
+    _cacheKey = deriveCacheKey();
+    _changeSet = changeSet;
+  }
+
+  @Nonnull
+  private String deriveCacheKey()
+  {
+    return _baseCacheKey + "#" + _loadId + "." + _revision;
   }
 
   boolean isInitialized()
@@ -42,6 +108,22 @@ final class ChannelCacheEntry
     return null != _cacheKey;
   }
 
+  int getRevision()
+  {
+    return _revision;
+  }
+
+  /**
+   * Return the identifier of the current load of the data.
+   *
+   * @return the identifier of the current load.
+   */
+  @Nonnull
+  String getLoadId()
+  {
+    return Objects.requireNonNull( _loadId );
+  }
+
   @Nonnull
   String getCacheKey()
   {
@@ -53,4 +135,75 @@ final class ChannelCacheEntry
   {
     return Objects.requireNonNull( _changeSet );
   }
+
+  /**
+   * Return the changes required to transform the data identified by the specified cache key into the
+   * current data. The caller should hold the read lock.
+   *
+   * @param cacheKey the cache key of the data held by the client.
+   * @return the changes or null if the cache key is from a different load or is not present in the retained history.
+   */
+  @Nullable
+  ChangeSet getChangesSince( @Nonnull final String cacheKey )
+  {
+    if ( !isCurrentLoad( cacheKey ) )
+    {
+      return null;
+    }
+    final Iterator<Delta> iterator = _deltas.iterator();
+    while ( iterator.hasNext() )
+    {
+      final Delta delta = iterator.next();
+      if ( delta.getCacheKey().equals( cacheKey ) )
+      {
+        final ChangeSet changeSet = new ChangeSet();
+        changeSet.merge( delta.getChangeSet(), true );
+        iterator.forEachRemaining( d -> changeSet.merge( d.getChangeSet(), true ) );
+        return changeSet;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return true if the cache key identifies data from the current load of the entry.
+   *
+   * @param cacheKey the cache key.
+   * @return true if the cache key identifies data from the current load of the entry.
+   */
+  boolean isCurrentLoad( @Nonnull final String cacheKey )
+  {
+    return cacheKey.equals( _baseCacheKey ) || cacheKey.startsWith( _baseCacheKey + "#" + _loadId + "." );
+  }
+
+  int getDeltaCount()
+  {
+    return _deltas.size();
+  }
+
+  private static final class Delta
+  {
+    @Nonnull
+    private final String _cacheKey;
+    @Nonnull
+    private final ChangeSet _changeSet;
+
+    Delta( @Nonnull final String cacheKey, @Nonnull final ChangeSet changeSet )
+    {
+      _cacheKey = Objects.requireNonNull( cacheKey );
+      _changeSet = Objects.requireNonNull( changeSet );
+    }
+
+    @Nonnull
+    String getCacheKey()
+    {
+      return _cacheKey;
+    }
+
+    @Nonnull
+    ChangeSet getChangeSet()
+    {
+      return _changeSet;
+    }
+  }
 }
@@ -0,0 +1,600 @@
+package org.realityforge.replicant.server.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonBuilderFactory;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import org.realityforge.replicant.server.Change;
+import org.realityforge.replicant.server.ChangeSet;
+import org.realityforge.replicant.server.ChannelAddress;
+import org.realityforge.replicant.server.ChannelLink;
+import org.realityforge.replicant.server.EntityMessage;
+
+/**
+ * Persistent snapshot of the data in the channel cache.
+ * The snapshot is written to a single file that is memory mapped when it is read. The header of
+ * each entry is read when the snapshot is loaded but the cached data is only decoded when the entry
+ * is first used, so that a large snapshot can be loaded quickly at startup.
+ *
+ * <p>The file is composed of a header containing a magic number, a format version and the number of
+ * entries, followed by the entries. Each entry contains the channel address, the cache key supplied
+ * by the application and the length-prefixed change set encoded as JSON.</p>
+ */
+final class ChannelCacheSnapshot
+{
+  private static final int MAGIC = 0x52435348;
+  private static final int VERSION = 2;
+  @Nonnull
+  private static final JsonBuilderFactory c_builderFactory = Json.createBuilderFactory( Collections.emptyMap() );
+
+  private ChannelCacheSnapshot()
+  {
+  }
+
+  /**
+   * Write the specified entries to the file. The snapshot is written to a temporary file that
+   * replaces the target file once it has been completely written, so a concurrent or subsequent
+   * reader never observes a partially written snapshot.
+   *
+   * @param file    the file to write.
+   * @param entries the entries to write.
+   * @throws IOException if an error occurs writing the file.
+   */
+  static void write( @Nonnull final Path file, @Nonnull final Collection<Entry> entries )
+    throws IOException
+  {
+    final Path parent = file.toAbsolutePath().getParent();
+    final Path tmpFile = Files.createTempFile( parent, file.getFileName().toString(), ".tmp" );
+    try
+    {
+      try ( FileChannel channel = FileChannel.open( tmpFile, StandardOpenOption.WRITE ) )
+      {
+        final ByteBuffer header = ByteBuffer.allocate( 12 );
+        header.putInt( MAGIC ).putInt( VERSION ).putInt( entries.size() );
+        header.flip();
+        writeFully( channel, header );
+        for ( final Entry entry : entries )
+        {
+          writeFully( channel, ByteBuffer.wrap( encodeEntry( entry ) ) );
+        }
+        channel.force( true );
+      }
+      Files.move( tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+    finally
+    {
+      Files.deleteIfExists( tmpFile );
+    }
+  }
+
+  /**
+   * Read the entries from the specified file.
+   * The data of each entry is not decoded until {@link Entry#getChangeSet()} is invoked.
+   *
+   * @param file the file to read.
+   * @return the entries contained in the snapshot.
+   * @throws IOException if the file can not be read or is not a valid snapshot.
+   */
+  @Nonnull
+  static Map<ChannelAddress, Entry> read( @Nonnull final Path file )
+    throws IOException
+  {
+    final MappedByteBuffer buffer;
+    try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) )
+    {
+      buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+    }
+    try
+    {
+      if ( MAGIC != buffer.getInt() )
+      {
+        throw new IOException( "File " + file + " is not a channel cache snapshot" );
+      }
+      final int version = buffer.getInt();
+      if ( VERSION != version )
+      {
+        throw new IOException( "Channel cache snapshot " + file + " has unsupported version " + version );
+      }
+      final int count = buffer.getInt();
+      final Map<ChannelAddress, Entry> entries = new HashMap<>();
+      for ( int i = 0; i < count; i++ )
+      {
+        final int channelId = buffer.getInt();
+        final Integer subChannelId = 0 == buffer.get() ? null : buffer.getInt();
+        final String cacheKey = readString( buffer );
+        final int length = buffer.getInt();
+        final ByteBuffer data = buffer.slice();
+        data.limit( length );
+        buffer.position( buffer.position() + length );
+        final ChannelAddress address = new ChannelAddress( channelId, subChannelId );
+        entries.put( address, new Entry( address, cacheKey, data ) );
+      }
+      return entries;
+    }
+    catch ( final BufferUnderflowException | IllegalArgumentException e )
+    {
+      throw new IOException( "Channel cache snapshot " + file + " is truncated or corrupt", e );
+    }
+  }
+
+  private static void writeFully( @Nonnull final FileChannel channel, @Nonnull final ByteBuffer buffer )
+    throws IOException
+  {
+    while ( buffer.hasRemaining() )
+    {
+      channel.write( buffer );
+    }
+  }
+
+  @Nonnull
+  private static byte[] encodeEntry( @Nonnull final Entry entry )
+    throws IOException
+  {
+    final byte[] data = encodeChangeSet( entry.getChangeSet() );
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream( data.length + 64 );
+    final DataOutputStream output = new DataOutputStream( bytes );
+    final ChannelAddress address = entry.getAddress();
+    output.writeInt( address.getChannelId() );
+    final Integer subChannelId = address.getSubChannelId();
+    output.writeByte( null == subChannelId ? 0 : 1 );
+    if ( null != subChannelId )
+    {
+      output.writeInt( subChannelId );
+    }
+    final byte[] cacheKey = entry.getCacheKey().getBytes( StandardCharsets.UTF_8 );
+    output.writeInt( cacheKey.length );
+    output.write( cacheKey );
+    output.writeInt( data.length );
+    output.write( data );
+    output.flush();
+    return bytes.toByteArray();
+  }
+
+  @Nonnull
+  private static String readString( @Nonnull final ByteBuffer buffer )
+  {
+    final byte[] bytes = new byte[ buffer.getInt() ];
+    buffer.get( bytes );
+    return new String( bytes, StandardCharsets.UTF_8 );
+  }
+
+  @Nonnull
+  private static byte[] encodeChangeSet( @Nonnull final ChangeSet changeSet )
+    throws IOException
+  {
+    final JsonArrayBuilder changes = c_builderFactory.createArrayBuilder();
+    for ( final Change change : changeSet.getChanges() )
+    {
+      final EntityMessage message = change.getEntityMessage();
+      final JsonObjectBuilder object = c_builderFactory.createObjectBuilder();
+      object.add( "id", message.getId() );
+      object.add( "typeId", message.getTypeId() );
+      object.add( "timestamp", message.getTimestamp() );
+      object.add( "routingKeys", encodeValues( message.getRoutingKeys() ) );
+      final Map<String, Serializable> attributeValues = message.getAttributeValues();
+      if ( null == attributeValues )
+      {
+        object.addNull( "attributes" );
+      }
+      else
+      {
+        object.add( "attributes", encodeValues( attributeValues ) );
+      }
+      final Set<ChannelLink> links = message.getLinks();
+      if ( null == links )
+      {
+        object.addNull( "links" );
+      }
+      else
+      {
+        final JsonArrayBuilder linksArray = c_builderFactory.createArrayBuilder();
+        for ( final ChannelLink link : links )
+        {
+          linksArray.add( c_builderFactory
+                            .createArrayBuilder()
+                            .add( encodeAddress( link.getSourceChannel() ) )
+                            .add( encodeAddress( link.getTargetChannel() ) ) );
+        }
+        object.add( "links", linksArray );
+      }
+      final JsonObjectBuilder channels = c_builderFactory.createObjectBuilder();
+      for ( final Map.Entry<Integer, Integer> channel : change.getChannels().entrySet() )
+      {
+        final Integer subChannelId = channel.getValue();
+        if ( null == subChannelId )
+        {
+          channels.addNull( String.valueOf( channel.getKey() ) );
+        }
+        else
+        {
+          channels.add( String.valueOf( channel.getKey() ), subChannelId );
+        }
+      }
+      object.add( "channels", channels );
+      changes.add( object );
+    }
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try ( JsonWriter writer = Json.createWriter( bytes ) )
+    {
+      writer.writeArray( changes.build() );
+    }
+    return bytes.toByteArray();
+  }
+
+  @Nonnull
+  private static ChangeSet decodeChangeSet( @Nonnull final ByteBuffer buffer )
+    throws IOException
+  {
+    try ( JsonReader reader = Json.createReader( new ByteBufferInputStream( buffer ) ) )
+    {
+      final ChangeSet changeSet = new ChangeSet();
+      for ( final JsonValue value : reader.readArray() )
+      {
+        final JsonObject object = (JsonObject) value;
+        final int id = object.getInt( "id" );
+        final int typeId = object.getInt( "typeId" );
+        final long timestamp = object.getJsonNumber( "timestamp" ).longValueExact();
+        final Map<String, Serializable> routingKeys = decodeValues( object.getJsonObject( "routingKeys" ) );
+        final Map<String, Serializable> attributeValues =
+          object.isNull( "attributes" ) ? null : decodeValues( object.getJsonObject( "attributes" ) );
+        final Set<ChannelLink> links;
+        if ( object.isNull( "links" ) )
+        {
+          links = null;
+        }
+        else
+        {
+          links = new HashSet<>();
+          for ( final JsonValue linkValue : object.getJsonArray( "links" ) )
+          {
+            final JsonArray link = (JsonArray) linkValue;
+            links.add( new ChannelLink( decodeAddress( link.getJsonArray( 0 ) ),
+                                        decodeAddress( link.getJsonArray( 1 ) ) ) );
+          }
+        }
+        final Change change =
+          new Change( new EntityMessage( id, typeId, timestamp, routingKeys, attributeValues, links ) );
+        final JsonObject channels = object.getJsonObject( "channels" );
+        for ( final String channelId : channels.keySet() )
+        {
+          change.getChannels()
+            .put( Integer.parseInt( channelId ), channels.isNull( channelId ) ? null : channels.getInt( channelId ) );
+        }
+        changeSet.merge( change );
+      }
+      return changeSet;
+    }
+    catch ( final JsonException | ClassCastException | ArithmeticException | NullPointerException e )
+    {
+      throw new IOException( "Unable to decode cached data", e );
+    }
+  }
+
+  @Nonnull
+  private static JsonArrayBuilder encodeAddress( @Nonnull final ChannelAddress address )
+  {
+    final JsonArrayBuilder builder = c_builderFactory.createArrayBuilder().add( address.getChannelId() );
+    final Integer subChannelId = address.getSubChannelId();
+    if ( null == subChannelId )
+    {
+      builder.addNull();
+    }
+    else
+    {
+      builder.add( subChannelId );
+    }
+    return builder;
+  }
+
+  @Nonnull
+  private static ChannelAddress decodeAddress( @Nonnull final JsonArray address )
+  {
+    return new ChannelAddress( address.getInt( 0 ), address.isNull( 1 ) ? null : address.getInt( 1 ) );
+  }
+
+  @Nonnull
+  private static JsonObjectBuilder encodeValues( @Nonnull final Map<String, Serializable> values )
+    throws IOException
+  {
+    final JsonObjectBuilder builder = c_builderFactory.createObjectBuilder();
+    for ( final Map.Entry<String, Serializable> entry : values.entrySet() )
+    {
+      final String name = entry.getKey();
+      final Serializable value = entry.getValue();
+      if ( null == value )
+      {
+        builder.addNull( name );
+      }
+      else if ( value instanceof String )
+      {
+        builder.add( name, (String) value );
+      }
+      else if ( value instanceof Boolean )
+      {
+        builder.add( name, (Boolean) value );
+      }
+      else if ( value instanceof Integer )
+      {
+        builder.add( name, (Integer) value );
+      }
+      else if ( value instanceof List )
+      {
+        builder.add( name, encodeList( (List<?>) value ) );
+      }
+      else
+      {
+        builder.add( name, encodeTypedValue( value ) );
+      }
+    }
+    return builder;
+  }
+
+  @Nonnull
+  private static JsonArrayBuilder encodeList( @Nonnull final List<?> values )
+    throws IOException
+  {
+    final JsonArrayBuilder builder = c_builderFactory.createArrayBuilder();
+    for ( final Object value : values )
+    {
+      if ( null == value )
+      {
+        builder.addNull();
+      }
+      else if ( value instanceof String )
+      {
+        builder.add( (String) value );
+      }
+      else if ( value instanceof Boolean )
+      {
+        builder.add( (Boolean) value );
+      }
+      else if ( value instanceof Integer )
+      {
+        builder.add( (Integer) value );
+      }
+      else if ( value instanceof List )
+      {
+        builder.add( encodeList( (List<?>) value ) );
+      }
+      else
+      {
+        builder.add( encodeTypedValue( value ) );
+      }
+    }
+    return builder;
+  }
+
+  /**
+   * Encode a value that has no direct JSON representation as an object with a single property
+   * identifying the type of the value.
+   */
+  @Nonnull
+  private static JsonObjectBuilder encodeTypedValue( @Nonnull final Object value )
+    throws IOException
+  {
+    final JsonObjectBuilder builder = c_builderFactory.createObjectBuilder();
+    if ( value instanceof Long )
+    {
+      return builder.add( "long", (Long) value );
+    }
+    else if ( value instanceof Float )
+    {
+      return builder.add( "float", (Float) value );
+    }
+    else if ( value instanceof Double )
+    {
+      return builder.add( "double", (Double) value );
+    }
+    else if ( value instanceof Date )
+    {
+      return builder.add( "date", ( (Date) value ).getTime() );
+    }
+    else
+    {
+      throw new IOException( "Unable to encode value of type " + value.getClass().getName() );
+    }
+  }
+
+  @Nonnull
+  private static Map<String, Serializable> decodeValues( @Nonnull final JsonObject object )
+    throws IOException
+  {
+    final Map<String, Serializable> values = new HashMap<>();
+    for ( final Map.Entry<String, JsonValue> entry : object.entrySet() )
+    {
+      values.put( entry.getKey(), decodeValue( entry.getValue() ) );
+    }
+    return values;
+  }
+
+  @Nullable
+  private static Serializable decodeValue( @Nonnull final JsonValue value )
+    throws IOException
+  {
+    switch ( value.getValueType() )
+    {
+      case NULL:
+        return null;
+      case STRING:
+        return ( (JsonString) value ).getString();
+      case TRUE:
+        return Boolean.TRUE;
+      case FALSE:
+        return Boolean.FALSE;
+      case NUMBER:
+        return ( (JsonNumber) value ).intValueExact();
+      case ARRAY:
+        final ArrayList<Serializable> list = new ArrayList<>();
+        for ( final JsonValue element : (JsonArray) value )
+        {
+          list.add( decodeValue( element ) );
+        }
+        return list;
+      default:
+        final JsonObject object = (JsonObject) value;
+        if ( object.containsKey( "long" ) )
+        {
+          return object.getJsonNumber( "long" ).longValueExact();
+        }
+        else if ( object.containsKey( "float" ) )
+        {
+          return (float) object.getJsonNumber( "float" ).doubleValue();
+        }
+        else if ( object.containsKey( "double" ) )
+        {
+          return object.getJsonNumber( "double" ).doubleValue();
+        }
+        else if ( object.containsKey( "date" ) )
+        {
+          return new Date( object.getJsonNumber( "date" ).longValueExact() );
+        }
+        else
+        {
+          throw new IOException( "Unable to decode value " + object );
+        }
+    }
+  }
+
+  /**
+   * An entry in the snapshot.
+   */
+  static final class Entry
+  {
+    @Nonnull
+    private final ChannelAddress _address;
+    /**
+     * The cache key supplied by the application when the data was loaded.
+     */
+    @Nonnull
+    private final String _cacheKey;
+    /**
+     * The encoded data if the entry was read from a snapshot.
+     */
+    @Nullable
+    private final ByteBuffer _data;
+    /**
+     * The decoded data.
+     */
+    @Nullable
+    private ChangeSet _changeSet;
+
+    Entry( @Nonnull final ChannelAddress address,
+           @Nonnull final String cacheKey,
+           @Nonnull final ChangeSet changeSet )
+    {
+      _address = Objects.requireNonNull( address );
+      _cacheKey = Objects.requireNonNull( cacheKey );
+      _data = null;
+      _changeSet = Objects.requireNonNull( changeSet );
+    }
+
+    Entry( @Nonnull final ChannelAddress address,
+           @Nonnull final String cacheKey,
+           @Nonnull final ByteBuffer data )
+    {
+      _address = Objects.requireNonNull( address );
+      _cacheKey = Objects.requireNonNull( cacheKey );
+      _data = Objects.requireNonNull( data );
+    }
+
+    @Nonnull
+    ChannelAddress getAddress()
+    {
+      return _address;
+    }
+
+    @Nonnull
+    String getCacheKey()
+    {
+      return _cacheKey;
+    }
+
+    /**
+     * Return the cached data, decoding it if necessary.
+     *
+     * @return the cached data.
+     * @throws IOException if the data can not be decoded.
+     */
+    @Nonnull
+    synchronized ChangeSet getChangeSet()
+      throws IOException
+    {
+      if ( null == _changeSet )
+      {
+        assert null != _data;
+        _changeSet = decodeChangeSet( _data.duplicate() );
+      }
+      return _changeSet;
+    }
+  }
+
+  private static final class ByteBufferInputStream
+    extends InputStream
+  {
+    @Nonnull
+    private final ByteBuffer _buffer;
+
+    ByteBufferInputStream( @Nonnull final ByteBuffer buffer )
+    {
+      _buffer = buffer;
+    }
+
+    @Override
+    public int read()
+    {
+      return _buffer.hasRemaining() ? _buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read( @Nonnull final byte[] bytes, final int offset, final int length )
+    {
+      if ( !_buffer.hasRemaining() )
+      {
+        return -1;
+      }
+      final int count = Math.min( length, _buffer.remaining() );
+      _buffer.get( bytes, offset, count );
+      return count;
+    }
+
+    @Override
+    public int available()
+    {
+      return _buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,300 @@
+package org.realityforge.replicant.server.transport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.realityforge.replicant.server.ChannelAddress;
+
+/**
+ * Keeps a set of cacheable channels loaded so that subscribers do not have to wait for the data to be
+ * loaded while their session lock is held. A channel is kept warm if it has been explicitly registered
+ * or if it is one of the most frequently subscribed channels. Loads are performed on the supplied
+ * executor and the number of concurrent loads is bounded to avoid flooding the database.
+ */
+final class ChannelCacheWarmer
+{
+  @Nonnull
+  private static final Logger LOG = Logger.getLogger( ChannelCacheWarmer.class.getName() );
+  /**
+   * The function invoked to load the cache entry for the channel.
+   */
+  @Nonnull
+  private final Consumer<ChannelAddress> _loader;
+  /**
+   * The channels explicitly registered to be kept warm.
+   */
+  @Nonnull
+  private final Set<ChannelAddress> _addresses = ConcurrentHashMap.newKeySet();
+  /**
+   * The number of subscribes to each cacheable channel, decayed each time {@link #decay()} is invoked.
+   */
+  @Nonnull
+  private final Map<ChannelAddress, AtomicInteger> _subscribeCounts = new ConcurrentHashMap<>();
+  /**
+   * The most frequently subscribed channels. This is recomputed from the subscribe counts when it is
+   * next requested after the counts change, rather than each time it is requested, as it is checked
+   * whenever a cache entry is removed.
+   */
+  @Nonnull
+  private volatile Set<ChannelAddress> _hotAddresses = Collections.emptySet();
+  /**
+   * Flag set when the subscribe counts or the hot channel count change and the hot addresses must be recomputed.
+   */
+  @Nonnull
+  private final AtomicBoolean _hotAddressesStale = new AtomicBoolean();
+  /**
+   * The channels waiting to be loaded. Guarded by this.
+   */
+  @Nonnull
+  private final LinkedHashSet<ChannelAddress> _pending = new LinkedHashSet<>();
+  /**
+   * The channels currently being loaded. Guarded by this.
+   */
+  @Nonnull
+  private final Set<ChannelAddress> _loading = new HashSet<>();
+  @Nullable
+  private Executor _executor;
+  private int _maxConcurrentLoads;
+  private int _hotChannelCount;
+
+  ChannelCacheWarmer( @Nonnull final Consumer<ChannelAddress> loader )
+  {
+    _loader = Objects.requireNonNull( loader );
+  }
+
+  /**
+   * Enable warming using the specified executor.
+   *
+   * @param executor           the executor used to load channels.
+   * @param maxConcurrentLoads the maximum number of channels loaded concurrently.
+   * @param hotChannelCount    the number of most frequently subscribed channels to keep warm.
+   */
+  synchronized void configure( @Nonnull final Executor executor,
+                               final int maxConcurrentLoads,
+                               final int hotChannelCount )
+  {
+    if ( maxConcurrentLoads < 1 )
+    {
+      throw new IllegalArgumentException( "maxConcurrentLoads must be greater than 0 but is " + maxConcurrentLoads );
+    }
+    if ( hotChannelCount < 0 )
+    {
+      throw new IllegalArgumentException( "hotChannelCount must not be negative but is " + hotChannelCount );
+    }
+    _executor = Objects.requireNonNull( executor );
+    _maxConcurrentLoads = maxConcurrentLoads;
+    _hotChannelCount = hotChannelCount;
+    _hotAddressesStale.set( true );
+  }
+
+  synchronized boolean isEnabled()
+  {
+    return null != _executor;
+  }
+
+  void addAddress( @Nonnull final ChannelAddress address )
+  {
+    _addresses.add( address );
+    schedule( address );
+  }
+
+  boolean removeAddress( @Nonnull final ChannelAddress address )
+  {
+    return _addresses.remove( address );
+  }
+
+  /**
+   * Record that a subscribe occurred for the specified cacheable channel.
+   */
+  void recordSubscribe( @Nonnull final ChannelAddress address )
+  {
+    _subscribeCounts.computeIfAbsent( address, k -> new AtomicInteger() ).incrementAndGet();
+    _hotAddressesStale.set( true );
+  }
+
+  /**
+   * Halve the subscribe counts so that the most frequently subscribed channels reflect recent activity.
+   */
+  void decay()
+  {
+    final Iterator<AtomicInteger> iterator = _subscribeCounts.values().iterator();
+    while ( iterator.hasNext() )
+    {
+      if ( 0 == iterator.next().updateAndGet( v -> v / 2 ) )
+      {
+        iterator.remove();
+      }
+    }
+    _hotAddressesStale.set( true );
+  }
+
+  /**
+   * Return the channels that should be kept warm.
+   */
+  @Nonnull
+  Set<ChannelAddress> getWarmAddresses()
+  {
+    final Set<ChannelAddress> addresses = new LinkedHashSet<>( _addresses );
+    addresses.addAll( getHotAddresses() );
+    return addresses;
+  }
+
+  /**
+   * Return the most frequently subscribed channels, recomputing them if the subscribe counts have changed.
+   */
+  @Nonnull
+  private Set<ChannelAddress> getHotAddresses()
+  {
+    if ( _hotAddressesStale.getAndSet( false ) )
+    {
+      final Comparator<Map.Entry<ChannelAddress, AtomicInteger>> byCount =
+        Comparator.comparingInt( e -> e.getValue().get() );
+      final Set<ChannelAddress> hotAddresses =
+        _subscribeCounts
+          .entrySet()
+          .stream()
+          .sorted( byCount.reversed() )
+          .limit( getHotChannelCount() )
+          .map( Map.Entry::getKey )
+          .collect( Collectors.toCollection( LinkedHashSet::new ) );
+      _hotAddresses = Collections.unmodifiableSet( hotAddresses );
+    }
+    return _hotAddresses;
+  }
+
+  private synchronized int getHotChannelCount()
+  {
+    return _hotChannelCount;
+  }
+
+  /**
+   * Return true if warming is enabled and the channel should be kept warm.
+   */
+  boolean shouldKeepWarm( @Nonnull final ChannelAddress address )
+  {
+    return isEnabled() && ( _addresses.contains( address ) || getHotAddresses().contains( address ) );
+  }
+
+  /**
+   * Invoked when the cache entry for the channel has been removed.
+   * The channel is reloaded if it should be kept warm.
+   */
+  void onCacheEntryRemoved( @Nonnull final ChannelAddress address )
+  {
+    if ( shouldKeepWarm( address ) )
+    {
+      schedule( address );
+    }
+  }
+
+  /**
+   * Schedule the load of all of the channels that should be kept warm.
+   * Channels that are already loaded are expected to be skipped by the loader.
+   */
+  void warmAll()
+  {
+    if ( isEnabled() )
+    {
+      getWarmAddresses().forEach( this::schedule );
+    }
+  }
+
+  void schedule( @Nonnull final ChannelAddress address )
+  {
+    synchronized ( this )
+    {
+      if ( null == _executor )
+      {
+        return;
+      }
+      _pending.add( address );
+    }
+    drain();
+  }
+
+  synchronized int getPendingCount()
+  {
+    return _pending.size();
+  }
+
+  synchronized int getLoadingCount()
+  {
+    return _loading.size();
+  }
+
+  private void drain()
+  {
+    final List<ChannelAddress> toLoad = new ArrayList<>();
+    final Executor executor;
+    synchronized ( this )
+    {
+      executor = _executor;
+      final Iterator<ChannelAddress> iterator = _pending.iterator();
+      while ( null != executor && _loading.size() < _maxConcurrentLoads && iterator.hasNext() )
+      {
+        final ChannelAddress address = iterator.next();
+        // A channel already being loaded stays pending so that it is loaded again once the current load completes
+        if ( !_loading.contains( address ) )
+        {
+          iterator.remove();
+          _loading.add( address );
+          toLoad.add( address );
+        }
+      }
+    }
+    for ( final ChannelAddress address : toLoad )
+    {
+      try
+      {
+        assert null != executor;
+        executor.execute( () -> load( address ) );
+      }
+      catch ( final RejectedExecutionException e )
+      {
+        LOG.log( Level.WARNING, "Executor rejected load of channel " + address + " to warm cache", e );
+        synchronized ( this )
+        {
+          _loading.remove( address );
+        }
+      }
+    }
+  }
+
+  private void load( @Nonnull final ChannelAddress address )
+  {
+    try
+    {
+      _loader.accept( address );
+    }
+    catch ( final Throwable t )
+    {
+      LOG.log( Level.WARNING, "Error loading channel " + address + " to warm cache", t );
+    }
+    finally
+    {
+      synchronized ( this )
+      {
+        _loading.remove( address );
+      }
+      drain();
+    }
+  }
+}
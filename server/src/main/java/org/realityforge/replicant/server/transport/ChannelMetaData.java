@@ -1,6 +1,11 @@
 package org.realityforge.replicant.server.transport;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -35,7 +40,8 @@ public final class ChannelMetaData
     NONE,
     /**
      * Caching is managed internally by replicant. If a change arrives for an entity in the graph then the
-     * cache is expired.
+     * cache is expired, unless incremental cache updates are enabled in which case the change is applied
+     * to the cached data.
      */
     INTERNAL,
     /**
@@ -58,11 +64,47 @@ public final class ChannelMetaData
    * Flag indicating whether it is valid to attempt to perform bulk loads for channel.
    */
   private final boolean _bulkLoadsSupported;
+  /**
+   * Flag indicating whether changes routed to an INTERNAL cached channel are applied to the cached data
+   * rather than expiring the cache.
+   */
+  private final boolean _incrementalCacheUpdates;
   /**
    * Flag indicating whether the channel should able to be subscribed to externally.
    * i.e. Can this be explicitly subscribed.
    */
   private final boolean _external;
+  /**
+   * The interval in milliseconds over which updates routed to the channel are merged before they are sent
+   * or 0 if updates are sent as soon as they are committed.
+   */
+  private final long _conflationInterval;
+  /**
+   * The names of the attributes sent to subscribers of the channel, keyed by entity type id.
+   * Entity types that are not present have every attribute sent.
+   */
+  @Nonnull
+  private final Map<Integer, Set<String>> _attributeProjections;
+
+  public ChannelMetaData( final int channelId,
+                          @Nonnull final String name,
+                          @Nullable final Integer instanceRootEntityTypeId,
+                          @Nonnull final FilterType filterType,
+                          @Nullable final Class<?> filterParameterType,
+                          @Nonnull final CacheType cacheType,
+                          final boolean bulkLoadsSupported,
+                          final boolean external )
+  {
+    this( channelId,
+          name,
+          instanceRootEntityTypeId,
+          filterType,
+          filterParameterType,
+          cacheType,
+          bulkLoadsSupported,
+          false,
+          external );
+  }
 
   public ChannelMetaData( final int channelId,
                           @Nonnull final String name,
@@ -71,7 +113,56 @@ public final class ChannelMetaData
                           @Nullable final Class<?> filterParameterType,
                           @Nonnull final CacheType cacheType,
                           final boolean bulkLoadsSupported,
+                          final boolean incrementalCacheUpdates,
                           final boolean external )
+  {
+    this( channelId,
+          name,
+          instanceRootEntityTypeId,
+          filterType,
+          filterParameterType,
+          cacheType,
+          bulkLoadsSupported,
+          incrementalCacheUpdates,
+          external,
+          0 );
+  }
+
+  public ChannelMetaData( final int channelId,
+                          @Nonnull final String name,
+                          @Nullable final Integer instanceRootEntityTypeId,
+                          @Nonnull final FilterType filterType,
+                          @Nullable final Class<?> filterParameterType,
+                          @Nonnull final CacheType cacheType,
+                          final boolean bulkLoadsSupported,
+                          final boolean incrementalCacheUpdates,
+                          final boolean external,
+                          final long conflationInterval )
+  {
+    this( channelId,
+          name,
+          instanceRootEntityTypeId,
+          filterType,
+          filterParameterType,
+          cacheType,
+          bulkLoadsSupported,
+          incrementalCacheUpdates,
+          external,
+          conflationInterval,
+          null );
+  }
+
+  public ChannelMetaData( final int channelId,
+                          @Nonnull final String name,
+                          @Nullable final Integer instanceRootEntityTypeId,
+                          @Nonnull final FilterType filterType,
+                          @Nullable final Class<?> filterParameterType,
+                          @Nonnull final CacheType cacheType,
+                          final boolean bulkLoadsSupported,
+                          final boolean incrementalCacheUpdates,
+                          final boolean external,
+                          final long conflationInterval,
+                          @Nullable final Map<Integer, Set<String>> attributeProjections )
   {
     _channelId = channelId;
     _name = Objects.requireNonNull( name );
@@ -88,7 +179,34 @@ public final class ChannelMetaData
     {
       throw new IllegalArgumentException( "FilterParameterType not specified but filterType is set to " + filterType );
     }
+    if ( incrementalCacheUpdates && CacheType.INTERNAL != cacheType )
+    {
+      throw new IllegalArgumentException( "IncrementalCacheUpdates specified but cacheType is set to " + cacheType );
+    }
+    else if ( incrementalCacheUpdates && FilterType.NONE != filterType )
+    {
+      throw new IllegalArgumentException( "IncrementalCacheUpdates specified but filterType is set to " + filterType );
+    }
+    if ( conflationInterval < 0 )
+    {
+      throw new IllegalArgumentException( "ConflationInterval must not be negative but is " + conflationInterval );
+    }
+    _incrementalCacheUpdates = incrementalCacheUpdates;
     _external = external;
+    _conflationInterval = conflationInterval;
+    if ( null == attributeProjections || attributeProjections.isEmpty() )
+    {
+      _attributeProjections = Collections.emptyMap();
+    }
+    else
+    {
+      final Map<Integer, Set<String>> projections = new HashMap<>();
+      for ( final Map.Entry<Integer, Set<String>> entry : attributeProjections.entrySet() )
+      {
+        projections.put( entry.getKey(), Collections.unmodifiableSet( new HashSet<>( entry.getValue() ) ) );
+      }
+      _attributeProjections = Collections.unmodifiableMap( projections );
+    }
   }
 
   public int getChannelId()
@@ -153,8 +271,50 @@ public final class ChannelMetaData
     return _bulkLoadsSupported;
   }
 
+  /**
+   * Return true if changes to the channel should be applied to the cached data rather than expiring the cache.
+   * This is only valid for unfiltered channels with a cache type of INTERNAL.
+   */
+  public boolean areIncrementalCacheUpdatesEnabled()
+  {
+    return _incrementalCacheUpdates;
+  }
+
   public boolean isExternal()
   {
     return _external;
   }
+
+  /**
+   * Return the interval in milliseconds over which updates routed to the channel are merged before they
+   * are sent. Within the interval only the latest value of each entity is sent. Deletes are never delayed.
+   *
+   * @return the interval in milliseconds or 0 if updates are sent as soon as they are committed.
+   */
+  public long getConflationInterval()
+  {
+    return _conflationInterval;
+  }
+
+  public boolean isConflated()
+  {
+    return 0 != _conflationInterval;
+  }
+
+  public boolean hasAttributeProjections()
+  {
+    return !_attributeProjections.isEmpty();
+  }
+
+  /**
+   * Return the names of the attributes of the entity type that are sent to subscribers of the channel.
+   *
+   * @param entityTypeId the id of the entity type.
+   * @return the names of the attributes or null if every attribute is sent.
+   */
+  @Nullable
+  public Set<String> getAttributeProjection( final int entityTypeId )
+  {
+    return _attributeProjections.get( entityTypeId );
+  }
 }
@@ -0,0 +1,154 @@
+package org.realityforge.replicant.server.transport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.realityforge.replicant.server.EntityMessage;
+
+/**
+ * Holds the updates routed to conflated channels until the conflation window of the entity closes.
+ * Updates to an entity that arrive while the window is open are merged into the buffered message so
+ * only the latest value of each attribute is sent. The window of an entity opens when the first update
+ * is buffered and the messages are released in the order that the windows opened.
+ */
+final class ConflationBuffer
+{
+  @Nonnull
+  private final Map<Long, Entry> _entries = new LinkedHashMap<>();
+
+  private static long toKey( @Nonnull final EntityMessage message )
+  {
+    return ( (long) message.getTypeId() << 32 ) | ( message.getId() & 0xFFFFFFFFL );
+  }
+
+  synchronized boolean isEmpty()
+  {
+    return _entries.isEmpty();
+  }
+
+  synchronized int size()
+  {
+    return _entries.size();
+  }
+
+  /**
+   * Return the earliest time at which the window of a buffered update closes.
+   *
+   * @return the time, as reported by {@link System#nanoTime()}, or null if no update is buffered.
+   */
+  @Nullable
+  synchronized Long getNextDeadline()
+  {
+    Long deadline = null;
+    for ( final Entry entry : _entries.values() )
+    {
+      if ( null == deadline || entry._deadline - deadline < 0 )
+      {
+        deadline = entry._deadline;
+      }
+    }
+    return deadline;
+  }
+
+  /**
+   * Buffer the update, merging it into any update already buffered for the entity.
+   * The message is copied so that the committed message is not modified by later merges.
+   *
+   * @param message  the update.
+   * @param deadline the time, as reported by {@link System#nanoTime()}, at which the window closes.
+   */
+  synchronized void add( @Nonnull final EntityMessage message, final long deadline )
+  {
+    assert message.isUpdate();
+    final Entry entry = _entries.get( toKey( message ) );
+    if ( null == entry )
+    {
+      _entries.put( toKey( message ), new Entry( message.duplicate(), deadline ) );
+    }
+    else
+    {
+      entry._message.merge( message );
+      // A channel with a shorter interval may close the window earlier
+      entry._deadline = Math.min( entry._deadline, deadline );
+    }
+  }
+
+  /**
+   * Remove the update buffered for the entity identified by the message.
+   *
+   * @param message the message identifying the entity.
+   * @return the buffered update or null if no update is buffered.
+   */
+  @Nullable
+  synchronized EntityMessage remove( @Nonnull final EntityMessage message )
+  {
+    final Entry entry = _entries.remove( toKey( message ) );
+    return null == entry ? null : entry._message;
+  }
+
+  /**
+   * Remove all of the buffered updates.
+   *
+   * @return the updates in the order that their windows opened.
+   */
+  @Nonnull
+  synchronized List<EntityMessage> removeAll()
+  {
+    if ( _entries.isEmpty() )
+    {
+      return Collections.emptyList();
+    }
+    final List<EntityMessage> messages = new ArrayList<>( _entries.size() );
+    for ( final Entry entry : _entries.values() )
+    {
+      messages.add( entry._message );
+    }
+    _entries.clear();
+    return messages;
+  }
+
+  /**
+   * Remove the updates whose window has closed.
+   *
+   * @param now the current time as reported by {@link System#nanoTime()}.
+   * @return the updates in the order that their windows opened.
+   */
+  @Nonnull
+  synchronized List<EntityMessage> removeExpired( final long now )
+  {
+    if ( _entries.isEmpty() )
+    {
+      return Collections.emptyList();
+    }
+    final List<EntityMessage> messages = new ArrayList<>();
+    final Iterator<Entry> iterator = _entries.values().iterator();
+    while ( iterator.hasNext() )
+    {
+      final Entry entry = iterator.next();
+      if ( now - entry._deadline >= 0 )
+      {
+        messages.add( entry._message );
+        iterator.remove();
+      }
+    }
+    return messages;
+  }
+
+  private static final class Entry
+  {
+    @Nonnull
+    private final EntityMessage _message;
+    private long _deadline;
+
+    private Entry( @Nonnull final EntityMessage message, final long deadline )
+    {
+      _message = message;
+      _deadline = deadline;
+    }
+  }
+}
@@ -0,0 +1,465 @@
+package org.realityforge.replicant.server.transport;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A metrics implementation that accumulates the metrics in memory and exposes them via JMX.
+ * The metrics are exposed once {@link #register(String)} has been invoked.
+ */
+public final class JmxReplicantMetrics
+  implements ReplicantMetrics, JmxReplicantMetricsMBean
+{
+  @Nonnull
+  private final Distribution _commitRoutingTime = new Distribution();
+  @Nonnull
+  private final LongAdder _commitMessageCount = new LongAdder();
+  @Nonnull
+  private final LongAdder _commitSessionCount = new LongAdder();
+  @Nonnull
+  private final LongAdder _sessionsTouched = new LongAdder();
+  @Nonnull
+  private final LongAdder _sessionsSkipped = new LongAdder();
+  @Nonnull
+  private final Distribution _sessionRoutingTime = new Distribution();
+  @Nonnull
+  private final Distribution _packetQueueDepth = new Distribution();
+  @Nonnull
+  private final Distribution _packetWaitTime = new Distribution();
+  @Nonnull
+  private final Distribution _expandLinksIterations = new Distribution();
+  @Nonnull
+  private final Distribution _encodeTime = new Distribution();
+  @Nonnull
+  private final LongAdder _encodedBytes = new LongAdder();
+  @Nonnull
+  private final Distribution _sendTime = new Distribution();
+  @Nonnull
+  private final LongAdder _sendFailureCount = new LongAdder();
+  @Nonnull
+  private final LongAdder _cacheHitCount = new LongAdder();
+  @Nonnull
+  private final LongAdder _cacheMissCount = new LongAdder();
+  @Nonnull
+  private final LongAdder _cachePurgeCount = new LongAdder();
+  @Nonnull
+  private final Distribution _lockWaitTime = new Distribution();
+  @Nullable
+  private ObjectName _objectName;
+
+  /**
+   * Register the metrics with the platform MBeanServer.
+   *
+   * @param name the value of the name property of the ObjectName. Typically the name of the application.
+   */
+  public synchronized void register( @Nonnull final String name )
+  {
+    if ( null != _objectName )
+    {
+      throw new IllegalStateException( "Metrics already registered as " + _objectName );
+    }
+    try
+    {
+      final ObjectName objectName =
+        new ObjectName( "org.realityforge.replicant:type=ReplicantMetrics,name=" + ObjectName.quote( name ) );
+      ManagementFactory.getPlatformMBeanServer().registerMBean( this, objectName );
+      _objectName = objectName;
+    }
+    catch ( final JMException e )
+    {
+      throw new IllegalStateException( "Unable to register metrics named " + name, e );
+    }
+  }
+
+  /**
+   * Unregister the metrics from the platform MBeanServer if registered.
+   */
+  public synchronized void unregister()
+  {
+    if ( null != _objectName )
+    {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      try
+      {
+        server.unregisterMBean( _objectName );
+      }
+      catch ( final JMException ignored )
+      {
+        // The MBean was unregistered by some other means
+      }
+      _objectName = null;
+    }
+  }
+
+  @Override
+  public void commitRouted( final long duration, final int messageCount, final int sessionCount )
+  {
+    _commitRoutingTime.record( duration );
+    _commitMessageCount.add( messageCount );
+    _commitSessionCount.add( sessionCount );
+  }
+
+  @Override
+  public void sessionRouted( final long duration, final boolean touched )
+  {
+    _sessionRoutingTime.record( duration );
+    ( touched ? _sessionsTouched : _sessionsSkipped ).increment();
+  }
+
+  @Override
+  public void packetQueued( final int queueDepth )
+  {
+    _packetQueueDepth.record( queueDepth );
+  }
+
+  @Override
+  public void packetDequeued( final long waitTime )
+  {
+    _packetWaitTime.record( waitTime );
+  }
+
+  @Override
+  public void linksExpanded( final int iterations )
+  {
+    _expandLinksIterations.record( iterations );
+  }
+
+  @Override
+  public void changeSetEncoded( final long duration, @Nonnull final String encoded )
+  {
+    _encodeTime.record( duration );
+    _encodedBytes.add( utf8Length( encoded ) );
+  }
+
+  /**
+   * Return the number of bytes in the UTF-8 encoding of the string without allocating the encoded form.
+   * Unpaired surrogates are counted as a single byte as they are replaced when encoded.
+   */
+  static long utf8Length( @Nonnull final String value )
+  {
+    final int length = value.length();
+    long bytes = 0;
+    for ( int i = 0; i < length; i++ )
+    {
+      final char ch = value.charAt( i );
+      if ( ch < 0x80 )
+      {
+        bytes += 1;
+      }
+      else if ( ch < 0x800 )
+      {
+        bytes += 2;
+      }
+      else if ( Character.isHighSurrogate( ch ) && i + 1 < length && Character.isLowSurrogate( value.charAt( i + 1 ) ) )
+      {
+        bytes += 4;
+        i++;
+      }
+      else if ( Character.isSurrogate( ch ) )
+      {
+        bytes += 1;
+      }
+      else
+      {
+        bytes += 3;
+      }
+    }
+    return bytes;
+  }
+
+  @Override
+  public void messageSent( final long duration, final boolean success )
+  {
+    _sendTime.record( duration );
+    if ( !success )
+    {
+      _sendFailureCount.increment();
+    }
+  }
+
+  @Override
+  public void cacheHit()
+  {
+    _cacheHitCount.increment();
+  }
+
+  @Override
+  public void cacheMiss()
+  {
+    _cacheMissCount.increment();
+  }
+
+  @Override
+  public void cachePurged()
+  {
+    _cachePurgeCount.increment();
+  }
+
+  @Override
+  public void lockAcquired( final long waitTime )
+  {
+    _lockWaitTime.record( waitTime );
+  }
+
+  @Override
+  public long getCommitCount()
+  {
+    return _commitRoutingTime.getCount();
+  }
+
+  @Override
+  public long getCommitRoutingTimeTotal()
+  {
+    return _commitRoutingTime.getTotal();
+  }
+
+  @Override
+  public long getCommitRoutingTimeMax()
+  {
+    return _commitRoutingTime.getMax();
+  }
+
+  @Override
+  public long getCommitMessageCount()
+  {
+    return _commitMessageCount.sum();
+  }
+
+  @Override
+  public long getCommitSessionCount()
+  {
+    return _commitSessionCount.sum();
+  }
+
+  @Override
+  public long getSessionsTouched()
+  {
+    return _sessionsTouched.sum();
+  }
+
+  @Override
+  public long getSessionsSkipped()
+  {
+    return _sessionsSkipped.sum();
+  }
+
+  @Override
+  public long getSessionRoutingTimeTotal()
+  {
+    return _sessionRoutingTime.getTotal();
+  }
+
+  @Override
+  public long getSessionRoutingTimeMax()
+  {
+    return _sessionRoutingTime.getMax();
+  }
+
+  @Override
+  public long getPacketsQueued()
+  {
+    return _packetQueueDepth.getCount();
+  }
+
+  @Override
+  public long getPacketsDequeued()
+  {
+    return _packetWaitTime.getCount();
+  }
+
+  @Override
+  public long getPacketQueueDepth()
+  {
+    return Math.max( 0, getPacketsQueued() - getPacketsDequeued() );
+  }
+
+  @Override
+  public long getPacketQueueDepthMax()
+  {
+    return _packetQueueDepth.getMax();
+  }
+
+  @Override
+  public long getPacketWaitTimeTotal()
+  {
+    return _packetWaitTime.getTotal();
+  }
+
+  @Override
+  public long getPacketWaitTimeMax()
+  {
+    return _packetWaitTime.getMax();
+  }
+
+  @Override
+  public long getExpandLinksCount()
+  {
+    return _expandLinksIterations.getCount();
+  }
+
+  @Override
+  public long getExpandLinksIterationsTotal()
+  {
+    return _expandLinksIterations.getTotal();
+  }
+
+  @Override
+  public long getExpandLinksIterationsMax()
+  {
+    return _expandLinksIterations.getMax();
+  }
+
+  @Override
+  public long getEncodeCount()
+  {
+    return _encodeTime.getCount();
+  }
+
+  @Override
+  public long getEncodeTimeTotal()
+  {
+    return _encodeTime.getTotal();
+  }
+
+  @Override
+  public long getEncodeTimeMax()
+  {
+    return _encodeTime.getMax();
+  }
+
+  @Override
+  public long getEncodedBytesTotal()
+  {
+    return _encodedBytes.sum();
+  }
+
+  @Override
+  public long getSendCount()
+  {
+    return _sendTime.getCount();
+  }
+
+  @Override
+  public long getSendFailureCount()
+  {
+    return _sendFailureCount.sum();
+  }
+
+  @Override
+  public long getSendTimeTotal()
+  {
+    return _sendTime.getTotal();
+  }
+
+  @Override
+  public long getSendTimeMax()
+  {
+    return _sendTime.getMax();
+  }
+
+  @Override
+  public long getCacheHitCount()
+  {
+    return _cacheHitCount.sum();
+  }
+
+  @Override
+  public long getCacheMissCount()
+  {
+    return _cacheMissCount.sum();
+  }
+
+  @Override
+  public long getCachePurgeCount()
+  {
+    return _cachePurgeCount.sum();
+  }
+
+  @Override
+  public long getLockAcquisitionCount()
+  {
+    return _lockWaitTime.getCount();
+  }
+
+  @Override
+  public long getLockWaitTimeTotal()
+  {
+    return _lockWaitTime.getTotal();
+  }
+
+  @Override
+  public long getLockWaitTimeMax()
+  {
+    return _lockWaitTime.getMax();
+  }
+
+  @Override
+  public void reset()
+  {
+    _commitRoutingTime.reset();
+    _commitMessageCount.reset();
+    _commitSessionCount.reset();
+    _sessionsTouched.reset();
+    _sessionsSkipped.reset();
+    _sessionRoutingTime.reset();
+    _packetQueueDepth.reset();
+    _packetWaitTime.reset();
+    _expandLinksIterations.reset();
+    _encodeTime.reset();
+    _encodedBytes.reset();
+    _sendTime.reset();
+    _sendFailureCount.reset();
+    _cacheHitCount.reset();
+    _cacheMissCount.reset();
+    _cachePurgeCount.reset();
+    _lockWaitTime.reset();
+  }
+
+  /**
+   * The count, total and maximum of a recorded value.
+   */
+  private static final class Distribution
+  {
+    @Nonnull
+    private final LongAdder _count = new LongAdder();
+    @Nonnull
+    private final LongAdder _total = new LongAdder();
+    @Nonnull
+    private final AtomicLong _max = new AtomicLong();
+
+    void record( final long value )
+    {
+      _count.increment();
+      _total.add( value );
+      _max.accumulateAndGet( value, Math::max );
+    }
+
+    long getCount()
+    {
+      return _count.sum();
+    }
+
+    long getTotal()
+    {
+      return _total.sum();
+    }
+
+    long getMax()
+    {
+      return _max.get();
+    }
+
+    void reset()
+    {
+      _count.reset();
+      _total.reset();
+      _max.set( 0 );
+    }
+  }
+}
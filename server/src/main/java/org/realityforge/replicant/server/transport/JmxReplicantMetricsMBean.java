@@ -0,0 +1,80 @@
+package org.realityforge.replicant.server.transport;
+
+/**
+ * The management interface of {@link JmxReplicantMetrics}.
+ * Durations are reported in nanoseconds. Totals and maximums accumulate until {@link #reset()} is invoked.
+ */
+public interface JmxReplicantMetricsMBean
+{
+  long getCommitCount();
+
+  long getCommitRoutingTimeTotal();
+
+  long getCommitRoutingTimeMax();
+
+  long getCommitMessageCount();
+
+  long getCommitSessionCount();
+
+  long getSessionsTouched();
+
+  long getSessionsSkipped();
+
+  long getSessionRoutingTimeTotal();
+
+  long getSessionRoutingTimeMax();
+
+  long getPacketsQueued();
+
+  long getPacketsDequeued();
+
+  /**
+   * Return the number of packets that have been queued but not yet removed from the queue across all sessions.
+   */
+  long getPacketQueueDepth();
+
+  long getPacketQueueDepthMax();
+
+  long getPacketWaitTimeTotal();
+
+  long getPacketWaitTimeMax();
+
+  long getExpandLinksCount();
+
+  long getExpandLinksIterationsTotal();
+
+  long getExpandLinksIterationsMax();
+
+  long getEncodeCount();
+
+  long getEncodeTimeTotal();
+
+  long getEncodeTimeMax();
+
+  long getEncodedBytesTotal();
+
+  long getSendCount();
+
+  long getSendFailureCount();
+
+  long getSendTimeTotal();
+
+  long getSendTimeMax();
+
+  long getCacheHitCount();
+
+  long getCacheMissCount();
+
+  long getCachePurgeCount();
+
+  long getLockAcquisitionCount();
+
+  long getLockWaitTimeTotal();
+
+  long getLockWaitTimeMax();
+
+  /**
+   * Reset all the metrics to zero.
+   */
+  void reset();
+}
@@ -0,0 +1,45 @@
+package org.realityforge.replicant.server.transport;
+
+import javax.annotation.Nonnull;
+import org.realityforge.replicant.server.ChannelAddress;
+
+/**
+ * Sizes used to estimate the memory retained by sessions. The sizes assume a 64-bit JVM with
+ * compressed object pointers and are intended for capacity planning rather than exact accounting.
+ */
+final class MemoryEstimates
+{
+  static final int OBJECT_HEADER = 12;
+  static final int REFERENCE = 4;
+  static final int ARRAY_HEADER = 16;
+  /**
+   * The size of an entry in a HashMap including the slot in the table.
+   */
+  static final int HASH_MAP_ENTRY = 32 + REFERENCE;
+
+  private MemoryEstimates()
+  {
+  }
+
+  static long align( final long size )
+  {
+    return ( size + 7 ) & ~7L;
+  }
+
+  static long arraySize( final int length, final int elementSize )
+  {
+    return align( ARRAY_HEADER + (long) length * elementSize );
+  }
+
+  static long stringSize( @Nonnull final String value )
+  {
+    // Assumes the Java 8 layout of a char array
+    return align( OBJECT_HEADER + REFERENCE + 4 ) + arraySize( value.length(), 2 );
+  }
+
+  static long addressSize( @Nonnull final ChannelAddress address )
+  {
+    // The Integer sub-channel id is counted although small values may be shared via the Integer cache
+    return align( OBJECT_HEADER + 4 + REFERENCE ) + ( address.hasSubChannelId() ? align( OBJECT_HEADER + 4 ) : 0 );
+  }
+}
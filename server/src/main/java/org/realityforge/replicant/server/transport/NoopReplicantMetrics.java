@@ -0,0 +1,72 @@
+package org.realityforge.replicant.server.transport;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The default metrics implementation that discards all metrics.
+ */
+public final class NoopReplicantMetrics
+  implements ReplicantMetrics
+{
+  @Nonnull
+  public static final NoopReplicantMetrics INSTANCE = new NoopReplicantMetrics();
+
+  private NoopReplicantMetrics()
+  {
+  }
+
+  @Override
+  public void commitRouted( final long duration, final int messageCount, final int sessionCount )
+  {
+  }
+
+  @Override
+  public void sessionRouted( final long duration, final boolean touched )
+  {
+  }
+
+  @Override
+  public void packetQueued( final int queueDepth )
+  {
+  }
+
+  @Override
+  public void packetDequeued( final long waitTime )
+  {
+  }
+
+  @Override
+  public void linksExpanded( final int iterations )
+  {
+  }
+
+  @Override
+  public void changeSetEncoded( final long duration, @Nonnull final String encoded )
+  {
+  }
+
+  @Override
+  public void messageSent( final long duration, final boolean success )
+  {
+  }
+
+  @Override
+  public void cacheHit()
+  {
+  }
+
+  @Override
+  public void cacheMiss()
+  {
+  }
+
+  @Override
+  public void cachePurged()
+  {
+  }
+
+  @Override
+  public void lockAcquired( final long waitTime )
+  {
+  }
+}
@@ -29,6 +29,12 @@ final class Packet
    */
   @Nullable
   private final String _etag;
+  /**
+   * If the packet contains the changes to a cached subscription since the version held by the client
+   * then this is the etag of the version held by the client.
+   */
+  @Nullable
+  private final String _baseEtag;
   /**
    * The change messages that were collected during the transaction.
    */
@@ -40,18 +46,34 @@ final class Packet
    */
   @Nonnull
   private final ChangeSet _changeSet;
+  /**
+   * The time at which the packet was created, as reported by {@link System#nanoTime()}.
+   */
+  private final long _createdAt = System.nanoTime();
+
+  Packet( final boolean altersExplicitSubscriptions,
+          @Nullable final Integer requestId,
+          @Nullable final String etag,
+          @Nonnull final Collection<EntityMessage> messages,
+          @Nonnull final ChangeSet changeSet )
+  {
+    this( altersExplicitSubscriptions, requestId, etag, null, messages, changeSet );
+  }
 
   Packet( final boolean altersExplicitSubscriptions,
           @Nullable final Integer requestId,
           @Nullable final String etag,
+          @Nullable final String baseEtag,
           @Nonnull final Collection<EntityMessage> messages,
           @Nonnull final ChangeSet changeSet )
   {
     _altersExplicitSubscriptions = altersExplicitSubscriptions;
     assert null == etag || null != requestId;
+    assert null == baseEtag || null != etag;
     assert !changeSet.hasContent() || null != requestId;
     _requestId = requestId;
     _etag = etag;
+    _baseEtag = baseEtag;
     _messages = Objects.requireNonNull( messages );
     _changeSet = Objects.requireNonNull( changeSet );
   }
@@ -73,6 +95,12 @@ final class Packet
     return _etag;
   }
 
+  @Nullable
+  String getBaseEtag()
+  {
+    return _baseEtag;
+  }
+
   @Nonnull
   Collection<EntityMessage> getMessages()
   {
@@ -84,4 +112,9 @@ final class Packet
   {
     return _changeSet;
   }
+
+  long getCreatedAt()
+  {
+    return _createdAt;
+  }
 }
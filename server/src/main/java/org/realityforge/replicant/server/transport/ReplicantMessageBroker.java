@@ -16,4 +16,43 @@ public interface ReplicantMessageBroker
                            @Nullable String etag,
                            @Nonnull Collection<EntityMessage> messages,
                            @Nonnull ChangeSet changeSet );
+
+  /**
+   * Return true if the broker supports queueing changes that are a delta of cached data.
+   * If this returns false then the cached data is sent in full rather than as a delta.
+   *
+   * @return true if the broker supports queueing changes that are a delta of cached data.
+   */
+  default boolean supportsCachedDeltas()
+  {
+    return false;
+  }
+
+  /**
+   * Queue the changes to be sent to the session.
+   * Brokers that support deltas of cached data must override this method and {@link #supportsCachedDeltas()}.
+   *
+   * @param session                     the session.
+   * @param altersExplicitSubscriptions true if the changes alter the explicit subscriptions of the session.
+   * @param requestId                   the request that resulted in the changes if sent to the initiator.
+   * @param etag                        the etag of the cached data if any.
+   * @param baseEtag                    the etag of the cached data that the changes are applied to if the
+   *                                    changes are a delta of cached data.
+   * @param messages                    the messages to route to the session.
+   * @param changeSet                   the changes to send to the session.
+   */
+  default void queueChangeMessage( @Nonnull final ReplicantSession session,
+                                   final boolean altersExplicitSubscriptions,
+                                   @Nullable final Integer requestId,
+                                   @Nullable final String etag,
+                                   @Nullable final String baseEtag,
+                                   @Nonnull final Collection<EntityMessage> messages,
+                                   @Nonnull final ChangeSet changeSet )
+  {
+    if ( null != baseEtag )
+    {
+      throw new IllegalStateException( "ReplicantMessageBroker does not support deltas of cached data" );
+    }
+    queueChangeMessage( session, altersExplicitSubscriptions, requestId, etag, messages, changeSet );
+  }
 }
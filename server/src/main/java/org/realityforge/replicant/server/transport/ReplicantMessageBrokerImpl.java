@@ -40,7 +40,25 @@ public abstract class ReplicantMessageBrokerImpl
                                   @Nonnull final Collection<EntityMessage> messages,
                                   @Nonnull final ChangeSet changeSet )
   {
-    session.queuePacket( new Packet( altersExplicitSubscriptions, requestId, etag, messages, changeSet ) );
+    queueChangeMessage( session, altersExplicitSubscriptions, requestId, etag, null, messages, changeSet );
+  }
+
+  @Override
+  public boolean supportsCachedDeltas()
+  {
+    return true;
+  }
+
+  @Override
+  public void queueChangeMessage( @Nonnull final ReplicantSession session,
+                                  final boolean altersExplicitSubscriptions,
+                                  @Nullable final Integer requestId,
+                                  @Nullable final String etag,
+                                  @Nullable final String baseEtag,
+                                  @Nonnull final Collection<EntityMessage> messages,
+                                  @Nonnull final ChangeSet changeSet )
+  {
+    session.queuePacket( new Packet( altersExplicitSubscriptions, requestId, etag, baseEtag, messages, changeSet ) );
     _queue.add( session );
   }
 
@@ -69,7 +87,7 @@ public abstract class ReplicantMessageBrokerImpl
       final ReentrantLock lock = session.getLock();
       try
       {
-        lock.lockInterruptibly();
+        session.lockInterruptibly();
         _inProgress.put( id, session );
         Packet packet;
         while ( null != ( packet = session.popPendingPacket() ) )
@@ -78,6 +96,7 @@ public abstract class ReplicantMessageBrokerImpl
             .sendChangeMessage( session,
                                 packet.getRequestId(),
                                 packet.getEtag(),
+                                packet.getBaseEtag(),
                                 packet.getMessages(),
                                 packet.getChangeSet() );
         }
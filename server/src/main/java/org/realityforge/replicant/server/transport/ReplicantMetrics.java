@@ -0,0 +1,93 @@
+package org.realityforge.replicant.server.transport;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The interface via which the transport reports metrics.
+ * The methods are invoked on the hot paths that route messages to sessions and should return quickly.
+ * All durations are in nanoseconds.
+ *
+ * @see NoopReplicantMetrics
+ * @see JmxReplicantMetrics
+ */
+public interface ReplicantMetrics
+{
+  /**
+   * Invoked when the messages generated by a transaction have been queued for the sessions.
+   *
+   * @param duration      the time taken to apply the messages to the cache and queue them for the sessions.
+   * @param messageCount  the number of messages.
+   * @param sessionCount  the number of sessions that the messages were queued for.
+   */
+  void commitRouted( long duration, int messageCount, int sessionCount );
+
+  /**
+   * Invoked when the messages queued for a session have been routed to the channels of the session.
+   *
+   * @param duration the time taken to route the messages.
+   * @param touched  true if the session was sent a message, false if the session was skipped.
+   */
+  void sessionRouted( long duration, boolean touched );
+
+  /**
+   * Invoked when a packet is queued for a session.
+   *
+   * @param queueDepth the number of packets queued for the session, including the packet.
+   */
+  void packetQueued( int queueDepth );
+
+  /**
+   * Invoked when a packet is removed from the queue of a session so that it can be sent.
+   *
+   * @param waitTime the time that the packet spent in the queue.
+   */
+  void packetDequeued( long waitTime );
+
+  /**
+   * Invoked when the links in a ChangeSet have been expanded.
+   *
+   * @param iterations the number of passes over the ChangeSet, one more than the number of links expanded.
+   */
+  void linksExpanded( int iterations );
+
+  /**
+   * Invoked when a ChangeSet has been encoded.
+   *
+   * The encoded ChangeSet is supplied rather than its size so that implementations that record the size
+   * in bytes only pay the cost of computing it when the metrics are recorded.
+   *
+   * @param duration the time taken to encode the ChangeSet.
+   * @param encoded  the encoded ChangeSet.
+   */
+  void changeSetEncoded( long duration, @Nonnull String encoded );
+
+  /**
+   * Invoked when a message has been sent to a session.
+   *
+   * @param duration the time taken to send the message.
+   * @param success  true if the message was sent, false if the send failed.
+   */
+  void messageSent( long duration, boolean success );
+
+  /**
+   * Invoked when a cache entry is requested and the data is already cached.
+   */
+  void cacheHit();
+
+  /**
+   * Invoked when a cache entry is requested and the data had to be loaded.
+   */
+  void cacheMiss();
+
+  /**
+   * Invoked when a cache entry is removed from the cache.
+   */
+  void cachePurged();
+
+  /**
+   * Invoked when the lock of a session has been acquired.
+   *
+   * @param waitTime the time spent waiting for the lock.
+   */
+  void lockAcquired( long waitTime );
+}
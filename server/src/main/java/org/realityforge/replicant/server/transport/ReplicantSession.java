@@ -3,6 +3,7 @@ package org.realityforge.replicant.server.transport;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -18,6 +19,8 @@ import javax.websocket.CloseReason;
 import javax.websocket.Session;
 import org.realityforge.replicant.server.ChangeSet;
 import org.realityforge.replicant.server.ChannelAddress;
+import org.realityforge.replicant.server.EntityMessage;
+import org.realityforge.replicant.server.json.AttributeProjection;
 import org.realityforge.replicant.server.json.JsonEncoder;
 
 public final class ReplicantSession
@@ -31,18 +34,50 @@ public final class ReplicantSession
   private final Map<ChannelAddress, String> _eTags = new HashMap<>();
   @Nonnull
   private final Map<ChannelAddress, SubscriptionEntry> _subscriptions = new HashMap<>();
+  /**
+   * The data collected for subscriptions while the lock was not held, awaiting registration.
+   */
+  @Nonnull
+  private final Map<ChannelAddress, SubscriptionPreload> _preloads = new HashMap<>();
   @Nonnull
   private final BlockingQueue<Packet> _pendingSubscriptionPackets = new LinkedBlockingQueue<>();
   @Nonnull
   private final BlockingQueue<Packet> _pendingPackets = new LinkedBlockingQueue<>();
   @Nonnull
   private final ReentrantLock _lock = new ReentrantLock( true );
+  @Nonnull
+  private final ReplicantMetrics _metrics;
+  /**
+   * The projection that selects the attributes sent to the client or null if every attribute is sent.
+   */
+  @Nullable
+  private final AttributeProjection _attributeProjection;
   @Nullable
   private String _authToken;
 
   public ReplicantSession( @Nonnull final Session webSocketSession )
+  {
+    this( webSocketSession, NoopReplicantMetrics.INSTANCE );
+  }
+
+  public ReplicantSession( @Nonnull final Session webSocketSession, @Nonnull final ReplicantMetrics metrics )
+  {
+    this( webSocketSession, metrics, null );
+  }
+
+  public ReplicantSession( @Nonnull final Session webSocketSession,
+                           @Nonnull final ReplicantMetrics metrics,
+                           @Nullable final AttributeProjection attributeProjection )
   {
     _webSocketSession = Objects.requireNonNull( webSocketSession );
+    _metrics = Objects.requireNonNull( metrics );
+    _attributeProjection = attributeProjection;
+  }
+
+  @Nonnull
+  ReplicantMetrics getMetrics()
+  {
+    return _metrics;
   }
 
   public void closeDueToInterrupt()
@@ -169,6 +204,27 @@ public final class ReplicantSession
     return _lock;
   }
 
+  /**
+   * Acquire the lock of the session, reporting the time spent waiting for the lock to the metrics.
+   * The caller is responsible for releasing the lock.
+   *
+   * @throws InterruptedException if the thread is interrupted while waiting for the lock.
+   */
+  public void lockInterruptibly()
+    throws InterruptedException
+  {
+    if ( _lock.isHeldByCurrentThread() )
+    {
+      _lock.lockInterruptibly();
+    }
+    else
+    {
+      final long start = System.nanoTime();
+      _lock.lockInterruptibly();
+      _metrics.lockAcquired( System.nanoTime() - start );
+    }
+  }
+
   void queuePacket( @Nonnull final Packet packet )
   {
     if ( packet.altersExplicitSubscriptions() )
@@ -179,6 +235,7 @@ public final class ReplicantSession
     {
       _pendingPackets.add( packet );
     }
+    _metrics.packetQueued( _pendingSubscriptionPackets.size() + _pendingPackets.size() );
   }
 
   @Nullable
@@ -193,8 +250,27 @@ public final class ReplicantSession
      * Only after the client has been updated with all subscription changing
      * packets do we send other packets.
      */
-    final Packet packet = _pendingSubscriptionPackets.poll();
-    return null == packet ? _pendingPackets.poll() : packet;
+    final Packet subscriptionPacket = _pendingSubscriptionPackets.poll();
+    final Packet packet = null == subscriptionPacket ? _pendingPackets.poll() : subscriptionPacket;
+    if ( null != packet )
+    {
+      _metrics.packetDequeued( System.nanoTime() - packet.getCreatedAt() );
+    }
+    return packet;
+  }
+
+  /**
+   * Send a packet to the client.
+   *
+   * @param requestId the request id that caused these changes if this session requested the changes.
+   * @param etag      the opaque identifier identifying the version. May be null if packet is not cache-able
+   * @param changeSet the changeSet to create packet from.
+   */
+  public void sendPacket( @Nullable final Integer requestId,
+                          @Nullable final String etag,
+                          @Nonnull final ChangeSet changeSet )
+  {
+    sendPacket( requestId, etag, null, changeSet );
   }
 
   /**
@@ -202,17 +278,25 @@ public final class ReplicantSession
    *
    * @param requestId the request id that caused these changes if this session requested the changes.
    * @param etag      the opaque identifier identifying the version. May be null if packet is not cache-able
+   * @param baseEtag  the opaque identifier identifying the version of the cached data that the changeSet
+   *                  is applied to. May be null if the changeSet is not a delta.
    * @param changeSet the changeSet to create packet from.
    */
   public void sendPacket( @Nullable final Integer requestId,
                           @Nullable final String etag,
+                          @Nullable final String baseEtag,
                           @Nonnull final ChangeSet changeSet )
   {
     ensureLockedByCurrentThread();
-    final String message = JsonEncoder.encodeChangeSet( requestId, etag, changeSet );
+    final long encodeStart = System.nanoTime();
+    final String message = JsonEncoder.encodeChangeSet( requestId, etag, baseEtag, changeSet, _attributeProjection );
+    final long sendStart = System.nanoTime();
+    _metrics.changeSetEncoded( sendStart - encodeStart, message );
     LOG.log( Level.FINE,
              () -> "Sending text message for replicant session " + getId() + " with payload " + message );
-    if ( !WebSocketUtil.sendText( getWebSocketSession(), message ) )
+    final boolean sent = WebSocketUtil.sendText( getWebSocketSession(), message );
+    _metrics.messageSent( System.nanoTime() - sendStart, sent );
+    if ( !sent )
     {
       LOG.log( Level.FINE,
                () -> "Failed to send text message for replicant session " + getId() + " with payload " + message );
@@ -320,6 +404,83 @@ public final class ReplicantSession
     return null != findSubscriptionEntry( address );
   }
 
+  /**
+   * Register the preload for a subscription so that messages routed to the session are recorded against it.
+   */
+  void addSubscriptionPreload( @Nonnull final SubscriptionPreload preload )
+  {
+    ensureLockedByCurrentThread();
+    _preloads.put( preload.getAddress(), preload );
+  }
+
+  /**
+   * Remove and return the preload for the specified channel if any.
+   */
+  @Nullable
+  SubscriptionPreload removeSubscriptionPreload( @Nonnull final ChannelAddress address )
+  {
+    ensureLockedByCurrentThread();
+    return _preloads.isEmpty() ? null : _preloads.remove( address );
+  }
+
+  /**
+   * Discard any preloads that were not consumed when registering subscriptions.
+   */
+  void clearSubscriptionPreloads()
+  {
+    ensureLockedByCurrentThread();
+    _preloads.clear();
+  }
+
+  boolean hasSubscriptionPreloads()
+  {
+    ensureLockedByCurrentThread();
+    return !_preloads.isEmpty();
+  }
+
+  boolean hasSubscriptionPreload( @Nonnull final ChannelAddress address )
+  {
+    ensureLockedByCurrentThread();
+    return _preloads.containsKey( address );
+  }
+
+  /**
+   * Record messages routed to the session against any registered preloads.
+   */
+  void recordRoutedMessages( @Nonnull final Collection<EntityMessage> messages )
+  {
+    ensureLockedByCurrentThread();
+    if ( !_preloads.isEmpty() && !messages.isEmpty() )
+    {
+      for ( final SubscriptionPreload preload : _preloads.values() )
+      {
+        preload.recordRoutedMessages( messages );
+      }
+    }
+  }
+
+  /**
+   * Return an estimate of the number of bytes retained by the subscriptions and etags of the session.
+   * Filters are excluded as they are application objects that may be shared between sessions. The
+   * estimate is intended for capacity planning, i.e. to determine how many sessions fit in a heap.
+   */
+  public long estimateSubscriptionSize()
+  {
+    ensureLockedByCurrentThread();
+    long size = 0;
+    for ( final SubscriptionEntry entry : _subscriptions.values() )
+    {
+      size += MemoryEstimates.HASH_MAP_ENTRY + entry.estimateSize();
+    }
+    for ( final Map.Entry<ChannelAddress, String> entry : _eTags.entrySet() )
+    {
+      size += MemoryEstimates.HASH_MAP_ENTRY +
+              MemoryEstimates.addressSize( entry.getKey() ) +
+              MemoryEstimates.stringSize( entry.getValue() );
+    }
+    return size;
+  }
+
   /**
    * Delete specified subscription entry.
    */
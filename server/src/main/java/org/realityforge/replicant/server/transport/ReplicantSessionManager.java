@@ -52,6 +52,29 @@ public interface ReplicantSessionManager
   @Nonnull
   SystemMetaData getSystemMetaData();
 
+  /**
+   * Collect the data for subscribing to the specified channels without holding the session lock.
+   * The collected data is used by a subsequent call to subscribe or bulkSubscribe in the same transaction.
+   * The default implementation does not preload any data.
+   */
+  default void preloadSubscriptions( @Nonnull final ReplicantSession session,
+                                     @Nonnull final Collection<ChannelAddress> addresses,
+                                     @Nullable final Object filter )
+    throws InterruptedException
+  {
+  }
+
+  /**
+   * Discard any preloaded subscription data that was not used by a subscribe or bulkSubscribe.
+   * The data for a subscription is discarded when the subscription is registered so this need only
+   * be invoked when a request may have failed before registering every preloaded subscription.
+   * The default implementation does nothing as no data is preloaded.
+   */
+  default void discardSubscriptionPreloads( @Nonnull final ReplicantSession session )
+    throws InterruptedException
+  {
+  }
+
   void subscribe( @Nonnull ReplicantSession session, @Nonnull ChannelAddress address, @Nullable Object filter )
     throws InterruptedException;
 
@@ -73,6 +96,31 @@ public interface ReplicantSessionManager
                           @Nonnull Collection<EntityMessage> messages,
                           @Nonnull ChangeSet changeSet );
 
+  /**
+   * Send the changes to the session where the changes may be a delta of cached data.
+   * Implementations that produce deltas of cached data must override this method.
+   *
+   * @param session   the session.
+   * @param requestId the request that resulted in the changes if sent to the initiator.
+   * @param etag      the etag of the cached data if any.
+   * @param baseEtag  the etag of the cached data that the changes are applied to if the changes are a delta.
+   * @param messages  the messages to route to the session.
+   * @param changeSet the changes to send to the session.
+   */
+  default void sendChangeMessage( @Nonnull final ReplicantSession session,
+                                  @Nullable final Integer requestId,
+                                  @Nullable final String etag,
+                                  @Nullable final String baseEtag,
+                                  @Nonnull final Collection<EntityMessage> messages,
+                                  @Nonnull final ChangeSet changeSet )
+  {
+    if ( null != baseEtag )
+    {
+      throw new IllegalStateException( "ReplicantSessionManager does not support deltas of cached data" );
+    }
+    sendChangeMessage( session, requestId, etag, messages, changeSet );
+  }
+
   /**
    * Exposed so that bulk changes can reset Cache.
    */
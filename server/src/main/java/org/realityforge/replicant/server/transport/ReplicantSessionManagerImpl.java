@@ -1,5 +1,7 @@
 package org.realityforge.replicant.server.transport;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -9,7 +11,16 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -22,6 +33,8 @@ import javax.annotation.Nullable;
 import javax.annotation.PreDestroy;
 import javax.json.Json;
 import javax.json.JsonObjectBuilder;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
 import javax.transaction.TransactionSynchronizationRegistry;
 import javax.websocket.CloseReason;
 import javax.websocket.Session;
@@ -51,10 +64,71 @@ public abstract class ReplicantSessionManagerImpl
   private final ReadWriteLock _cacheLock = new ReentrantReadWriteLock();
   @Nonnull
   private final Map<ChannelAddress, ChannelCacheEntry> _cache = new HashMap<>();
+  /**
+   * Entries loaded from a cache snapshot that have yet to be used to initialize the cache.
+   */
+  @Nonnull
+  private final Map<ChannelAddress, ChannelCacheSnapshot.Entry> _snapshot = new ConcurrentHashMap<>();
+  @Nonnull
+  private final ChannelCacheWarmer _cacheWarmer = new ChannelCacheWarmer( this::warmCacheEntry );
+  /**
+   * The executor used to collect subscription data in parallel if enabled.
+   */
+  @Nullable
+  private volatile Executor _subscribeLoadExecutor;
+  private volatile int _maxConcurrentSubscribeLoads;
+  @Nonnull
+  private volatile ReplicantMetrics _metrics = NoopReplicantMetrics.INSTANCE;
+  /**
+   * Updates routed to conflated channels that have yet to be sent.
+   */
+  @Nonnull
+  private final ConflationBuffer _conflationBuffer = new ConflationBuffer();
+  /**
+   * The executor used to flush the conflation buffer when the earliest window closes, if enabled.
+   */
+  @Nullable
+  private volatile ScheduledExecutorService _conflationFlushExecutor;
+  /**
+   * The pending flush of the conflation buffer. Guarded by _conflationBuffer.
+   */
+  @Nullable
+  private ScheduledFuture<?> _conflationFlush;
+  /**
+   * The time, as reported by {@link System#nanoTime()}, at which the pending flush occurs.
+   * Guarded by _conflationBuffer.
+   */
+  private long _conflationFlushAt;
+  /**
+   * Flag set once a warning has been logged that updates were buffered without any flush configured.
+   */
+  private volatile boolean _conflationFlushWarningLogged;
+  /**
+   * Flag set once {@link #flushConflatedMessages()} has been invoked by the application.
+   */
+  private volatile boolean _conflationFlushInvoked;
 
   @Nonnull
   protected abstract ReplicantMessageBroker getReplicantMessageBroker();
 
+  /**
+   * Specify the metrics that the transport reports to. The metrics should be specified before any
+   * session is created as sessions report to the metrics that were specified when the session was created.
+   *
+   * @param metrics the metrics.
+   */
+  @SuppressWarnings( "unused" )
+  public void setMetrics( @Nonnull final ReplicantMetrics metrics )
+  {
+    _metrics = Objects.requireNonNull( metrics );
+  }
+
+  @Nonnull
+  public ReplicantMetrics getMetrics()
+  {
+    return _metrics;
+  }
+
   @Override
   public boolean invalidateSession( @Nonnull final ReplicantSession session )
   {
@@ -125,7 +199,11 @@ public abstract class ReplicantSessionManagerImpl
   @Nonnull
   public ReplicantSession createSession( @Nonnull final Session webSocketSession )
   {
-    final ReplicantSession session = new ReplicantSession( webSocketSession );
+    final SystemMetaData schema = getSystemMetaData();
+    final ReplicantSession session =
+      new ReplicantSession( webSocketSession,
+                            _metrics,
+                            schema.hasAttributeProjections() ? schema::getAttributeProjection : null );
     _lock.writeLock().lock();
     try
     {
@@ -220,6 +298,24 @@ public abstract class ReplicantSessionManagerImpl
   void queueCachedChangeSet( @Nonnull final ReplicantSession session,
                              @Nullable final String etag,
                              @Nonnull final ChangeSet changeSet )
+  {
+    queueCachedChangeSet( session, etag, null, changeSet );
+  }
+
+  /**
+   * Send messages to the specified session.
+   * The requesting service must NOT have made any other changes that will be sent to the
+   * client, otherwise this message will be discarded.
+   *
+   * @param session   the session.
+   * @param etag      the etag for message if any.
+   * @param baseEtag  the etag of the cached data that the messages are applied to if the messages are a delta.
+   * @param changeSet the messages to be sent along to the client.
+   */
+  void queueCachedChangeSet( @Nonnull final ReplicantSession session,
+                             @Nullable final String etag,
+                             @Nullable final String baseEtag,
+                             @Nonnull final ChangeSet changeSet )
   {
     final TransactionSynchronizationRegistry registry = getRegistry();
     final Integer requestId = (Integer) registry.getResource( ServerConstants.REQUEST_ID_KEY );
@@ -229,6 +325,7 @@ public abstract class ReplicantSessionManagerImpl
                                                     true,
                                                     requestId,
                                                     etag,
+                                                    baseEtag,
                                                     Collections.emptyList(),
                                                     changeSet );
   }
@@ -245,7 +342,22 @@ public abstract class ReplicantSessionManagerImpl
                                      @Nonnull final Collection<EntityMessage> messages,
                                      @Nullable final ChangeSet sessionChanges )
   {
+    final long start = System.nanoTime();
+    if ( getSystemMetaData().hasIncrementalCacheUpdates() )
+    {
+      processCacheUpdates( messages );
+    }
+    flushConflatedMessages( start );
+    // Messages that are the response to a request are never delayed
+    final Collection<EntityMessage> routedMessages =
+      conflateMessages( messages, null == sessionId && null == requestId, start );
+    if ( routedMessages.isEmpty() && !messages.isEmpty() )
+    {
+      // All messages were buffered and will be routed when the conflation window closes
+      return false;
+    }
     boolean impactsInitiator = false;
+    int sessionCount = 0;
     //TODO: Rewrite this so that we add clients to indexes rather than searching through everyone for each change!
     for ( final ReplicantSession session : getSessions() )
     {
@@ -264,8 +376,7 @@ public abstract class ReplicantSessionManagerImpl
           if ( null != sessionChanges )
           {
             changeSet.setRequired( sessionChanges.isRequired() );
-            changeSet.merge( sessionChanges.getChanges() );
-            changeSet.mergeActions( sessionChanges.getChannelActions() );
+            changeSet.merge( sessionChanges, false );
           }
 
           /*
@@ -287,27 +398,260 @@ public abstract class ReplicantSessionManagerImpl
                                                         altersExplicitSubscriptions,
                                                         isInitiator ? requestId : null,
                                                         null,
-                                                        messages,
+                                                        null,
+                                                        routedMessages,
                                                         changeSet );
+        sessionCount++;
       }
     }
+    _metrics.commitRouted( System.nanoTime() - start, routedMessages.size(), sessionCount );
 
     return impactsInitiator;
   }
 
+  /**
+   * Buffer the updates that are routed to conflated channels and return the messages that should be
+   * routed immediately. The messages are only buffered if every message is an update routed solely to
+   * conflated channels, in which case an update for an entity that already has a buffered update is merged
+   * into the buffered update. Otherwise any buffered updates are released so that they are routed before
+   * the messages, as the messages may refer to entities created by the buffered updates. Buffered updates
+   * for entities deleted by the messages are discarded.
+   *
+   * @param messages the messages committed in the transaction.
+   * @param conflate true if the updates may be buffered, false if they must be routed immediately.
+   * @param now      the current time as reported by {@link System#nanoTime()}.
+   * @return the messages to route immediately.
+   */
+  @Nonnull
+  private Collection<EntityMessage> conflateMessages( @Nonnull final Collection<EntityMessage> messages,
+                                                      final boolean conflate,
+                                                      final long now )
+  {
+    if ( messages.isEmpty() )
+    {
+      return messages;
+    }
+    if ( conflate && getSystemMetaData().hasConflatedChannels() )
+    {
+      final long[] intervals = new long[ messages.size() ];
+      int index = 0;
+      for ( final EntityMessage message : messages )
+      {
+        final long interval = getConflationInterval( message );
+        if ( 0 == interval )
+        {
+          break;
+        }
+        intervals[ index++ ] = interval;
+      }
+      if ( intervals.length == index )
+      {
+        index = 0;
+        for ( final EntityMessage message : messages )
+        {
+          final long deadline = now + TimeUnit.MILLISECONDS.toNanos( intervals[ index++ ] );
+          _conflationBuffer.add( message, deadline );
+          scheduleConflationFlush( deadline );
+        }
+        return Collections.emptyList();
+      }
+    }
+    if ( _conflationBuffer.isEmpty() )
+    {
+      return messages;
+    }
+    for ( final EntityMessage message : messages )
+    {
+      if ( message.isDelete() )
+      {
+        // The client need not be sent an update to an entity that has been deleted
+        _conflationBuffer.remove( message );
+      }
+    }
+    final List<EntityMessage> buffered = _conflationBuffer.removeAll();
+    if ( buffered.isEmpty() )
+    {
+      return messages;
+    }
+    else
+    {
+      final List<EntityMessage> routedMessages = new ArrayList<>( buffered.size() + messages.size() );
+      routedMessages.addAll( buffered );
+      routedMessages.addAll( messages );
+      return routedMessages;
+    }
+  }
+
+  /**
+   * Return the interval over which the message can be merged with later updates to the same entity.
+   * This is the shortest interval of the channels that the message is routed to and is 0 if the message
+   * is a delete or is routed to any channel that is not conflated.
+   */
+  private long getConflationInterval( @Nonnull final EntityMessage message )
+  {
+    if ( message.isDelete() )
+    {
+      return 0;
+    }
+    long interval = 0;
+    final SystemMetaData schema = getSystemMetaData();
+    final int channelCount = schema.getChannelCount();
+    for ( int i = 0; i < channelCount; i++ )
+    {
+      final ChannelMetaData channel = schema.getChannelMetaData( i );
+      if ( message.getRoutingKeys().containsKey( channel.getName() ) )
+      {
+        if ( !channel.isConflated() )
+        {
+          return 0;
+        }
+        final long channelInterval = channel.getConflationInterval();
+        interval = 0 == interval ? channelInterval : Math.min( interval, channelInterval );
+      }
+    }
+    return interval;
+  }
+
+  /**
+   * Route the buffered updates whose conflation window has closed. Windows are checked whenever a
+   * transaction is committed but, unless {@link #enableConflationFlushing(ScheduledExecutorService)} has
+   * been invoked, this should also be invoked periodically, in the same way as {@link #pingSessions()},
+   * so that updates are sent when no further transactions are committed. The period determines how late
+   * a window may close.
+   */
+  @SuppressWarnings( { "WeakerAccess", "unused" } )
+  public void flushConflatedMessages()
+  {
+    _conflationFlushInvoked = true;
+    flushConflatedMessages( System.nanoTime() );
+  }
+
+  /**
+   * Enable flushing the conflation buffer on the supplied executor. A flush is scheduled for the time at
+   * which the earliest conflation window closes whenever updates are buffered, so that the application
+   * need not invoke {@link #flushConflatedMessages()} periodically.
+   *
+   * @param executor the executor used to flush the buffered updates.
+   */
+  @SuppressWarnings( "unused" )
+  public void enableConflationFlushing( @Nonnull final ScheduledExecutorService executor )
+  {
+    _conflationFlushExecutor = Objects.requireNonNull( executor );
+    final Long deadline = _conflationBuffer.getNextDeadline();
+    if ( null != deadline )
+    {
+      scheduleConflationFlush( deadline );
+    }
+  }
+
+  /**
+   * Ensure that a flush of the conflation buffer is scheduled at or before the specified time.
+   *
+   * @param deadline the time, as reported by {@link System#nanoTime()}, at which a conflation window closes.
+   */
+  private void scheduleConflationFlush( final long deadline )
+  {
+    final ScheduledExecutorService executor = _conflationFlushExecutor;
+    if ( null == executor )
+    {
+      if ( !_conflationFlushInvoked && !_conflationFlushWarningLogged )
+      {
+        _conflationFlushWarningLogged = true;
+        LOG.log( Level.WARNING,
+                 "Updates have been buffered for conflated channels but conflation flushing has not been " +
+                 "enabled via enableConflationFlushing(...). The updates are only routed when a subsequent " +
+                 "transaction commits or flushConflatedMessages() is invoked." );
+      }
+      return;
+    }
+    synchronized ( _conflationBuffer )
+    {
+      if ( null != _conflationFlush && !_conflationFlush.isDone() )
+      {
+        if ( _conflationFlushAt - deadline <= 0 )
+        {
+          return;
+        }
+        _conflationFlush.cancel( false );
+      }
+      _conflationFlushAt = deadline;
+      _conflationFlush =
+        executor.schedule( this::performScheduledConflationFlush,
+                           Math.max( 0, deadline - System.nanoTime() ),
+                           TimeUnit.NANOSECONDS );
+    }
+  }
+
+  private void performScheduledConflationFlush()
+  {
+    synchronized ( _conflationBuffer )
+    {
+      _conflationFlush = null;
+    }
+    try
+    {
+      flushConflatedMessages( System.nanoTime() );
+    }
+    catch ( final Throwable t )
+    {
+      LOG.log( Level.WARNING, "Error flushing conflated messages", t );
+    }
+    finally
+    {
+      final Long deadline = _conflationBuffer.getNextDeadline();
+      if ( null != deadline )
+      {
+        scheduleConflationFlush( deadline );
+      }
+    }
+  }
+
+  private void flushConflatedMessages( final long now )
+  {
+    final List<EntityMessage> messages = _conflationBuffer.removeExpired( now );
+    if ( !messages.isEmpty() )
+    {
+      int sessionCount = 0;
+      for ( final ReplicantSession session : getSessions() )
+      {
+        if ( session.isOpen() )
+        {
+          getReplicantMessageBroker().queueChangeMessage( session, false, null, null, null, messages, new ChangeSet() );
+          sessionCount++;
+        }
+      }
+      _metrics.commitRouted( System.nanoTime() - now, messages.size(), sessionCount );
+    }
+  }
+
+  @Override
+  public void sendChangeMessage( @Nonnull final ReplicantSession session,
+                                 @Nullable final Integer requestId,
+                                 @Nullable final String etag,
+                                 @Nonnull final Collection<EntityMessage> messages,
+                                 @Nonnull final ChangeSet changeSet )
+  {
+    sendChangeMessage( session, requestId, etag, null, messages, changeSet );
+  }
+
   @Override
   public void sendChangeMessage( @Nonnull final ReplicantSession session,
                                  @Nullable final Integer requestId,
                                  @Nullable final String etag,
+                                 @Nullable final String baseEtag,
                                  @Nonnull final Collection<EntityMessage> messages,
                                  @Nonnull final ChangeSet changeSet )
   {
+    session.recordRoutedMessages( messages );
+    final long start = System.nanoTime();
     processMessages( messages, session, changeSet );
+    final boolean touched = changeSet.hasContent();
+    _metrics.sessionRouted( System.nanoTime() - start, touched );
 
-    if ( changeSet.hasContent() )
+    if ( touched )
     {
       completeMessageProcessing( session, changeSet );
-      session.sendPacket( requestId, etag, changeSet );
+      session.sendPacket( requestId, etag, baseEtag, changeSet );
     }
   }
 
@@ -359,7 +703,16 @@ public abstract class ReplicantSessionManagerImpl
     if ( doFiltersNotMatch( filter, originalFilter ) )
     {
       entry.setFilter( filter );
-      collectDataForSubscriptionUpdate( session, address, changeSet, originalFilter, filter );
+      final SubscriptionPreload preload = session.removeSubscriptionPreload( address );
+      final boolean preloaded = null != preload && preload.matches( true, originalFilter, filter );
+      if ( preloaded )
+      {
+        changeSet.merge( preload.getChangeSet(), false );
+      }
+      else
+      {
+        collectDataForSubscriptionUpdate( session, address, changeSet, originalFilter, filter );
+      }
       changeSet.mergeAction( address, ChannelAction.Action.UPDATE, filter );
       // If collectDataForSubscriptionUpdate indicates that we should unsubscribe from a channel
       // due to filter omitting entity (i.e. action == REMOVE) then we should explicitly unsubscribe
@@ -380,6 +733,10 @@ public abstract class ReplicantSessionManagerImpl
         }
       }
       propagateSubscriptionFilterUpdate( session, address, filter, changeSet );
+      if ( preloaded )
+      {
+        processRoutedMessages( session, address, preload.getRoutedMessages(), changeSet );
+      }
     }
   }
 
@@ -401,13 +758,21 @@ public abstract class ReplicantSessionManagerImpl
     if ( session.isOpen() )
     {
       final ReentrantLock lock = session.getLock();
-      lock.lockInterruptibly();
+      session.lockInterruptibly();
+      // The actions for every channel are merged with the same filter so the filter is converted to json once
+      final ChangeSet changeSet = EntityMessageCacheUtil.getSessionChanges();
+      changeSet.setFilterJsonRetained( true );
       try
       {
         doBulkSubscribe( session, channelId, subChannelIds, filter );
       }
       finally
       {
+        changeSet.setFilterJsonRetained( false );
+        for ( final Integer subChannelId : subChannelIds )
+        {
+          session.removeSubscriptionPreload( new ChannelAddress( channelId, subChannelId ) );
+        }
         lock.unlock();
       }
     }
@@ -417,6 +782,7 @@ public abstract class ReplicantSessionManagerImpl
                                 final int channelId,
                                 @Nonnull final Collection<Integer> subChannelIds,
                                 @Nullable final Object filter )
+    throws InterruptedException
   {
     final ChannelMetaData channel = getSystemMetaData().getChannelMetaData( channelId );
     assert channel.isInstanceGraph();
@@ -440,13 +806,27 @@ public abstract class ReplicantSessionManagerImpl
     }
     Throwable t = null;
 
+    if ( session.hasSubscriptionPreloads() )
+    {
+      // Channels with data collected while the lock was not held are subscribed individually
+      final List<ChannelAddress> preloadedChannels = new ArrayList<>();
+      newChannels.removeIf( address -> session.hasSubscriptionPreload( address ) && preloadedChannels.add( address ) );
+      if ( !preloadedChannels.isEmpty() )
+      {
+        t = subscribeToAddresses( session, preloadedChannels, filter );
+      }
+    }
     if ( !newChannels.isEmpty() )
     {
       if ( !channel.isInstanceGraph() ||
            !channel.areBulkLoadsSupported() ||
            !bulkCollectDataForSubscribe( session, newChannels, filter ) )
       {
-        t = subscribeToAddresses( session, newChannels, filter );
+        final Throwable error = subscribeToAddresses( session, newChannels, filter );
+        if ( null != error )
+        {
+          t = error;
+        }
       }
     }
     if ( !channelsToUpdate.isEmpty() )
@@ -488,13 +868,32 @@ public abstract class ReplicantSessionManagerImpl
   private Throwable subscribeToAddresses( @Nonnull final ReplicantSession session,
                                           @Nonnull final List<ChannelAddress> addresses,
                                           @Nullable final Object filter )
+    throws InterruptedException
   {
+    if ( null != _subscribeLoadExecutor && addresses.size() > 1 )
+    {
+      // Collect the data for new subscriptions in parallel. The data is merged in order as each channel is subscribed
+      final List<SubscriptionPreload> preloads = new ArrayList<>();
+      for ( final ChannelAddress address : addresses )
+      {
+        if ( !getSystemMetaData().getChannelMetaData( address ).isCacheable() &&
+             shouldCollectSubscriptionDataInParallel( address ) &&
+             !session.isSubscriptionEntryPresent( address ) &&
+             !session.hasSubscriptionPreload( address ) )
+        {
+          final SubscriptionPreload preload = new SubscriptionPreload( address, false, null, filter );
+          session.addSubscriptionPreload( preload );
+          preloads.add( preload );
+        }
+      }
+      collectPreloadData( session, preloads );
+    }
     Throwable t = null;
     for ( final ChannelAddress address : addresses )
     {
       try
       {
-        subscribe( session, address, filter );
+        subscribe( session, address, true, filter, EntityMessageCacheUtil.getSessionChanges() );
       }
       catch ( final Throwable e )
       {
@@ -513,13 +912,14 @@ public abstract class ReplicantSessionManagerImpl
     if ( session.isOpen() )
     {
       final ReentrantLock lock = session.getLock();
-      lock.lockInterruptibly();
+      session.lockInterruptibly();
       try
       {
         subscribe( session, address, true, filter, EntityMessageCacheUtil.getSessionChanges() );
       }
       finally
       {
+        session.removeSubscriptionPreload( address );
         lock.unlock();
       }
     }
@@ -587,6 +987,7 @@ public abstract class ReplicantSessionManagerImpl
     final ChannelMetaData channelMetaData = getSystemMetaData().getChannelMetaData( address );
     if ( channelMetaData.isCacheable() )
     {
+      _cacheWarmer.recordSubscribe( address );
       final ChannelCacheEntry cacheEntry = tryGetCacheEntry( address );
       if ( null != cacheEntry )
       {
@@ -595,8 +996,27 @@ public abstract class ReplicantSessionManagerImpl
           entry.setExplicitlySubscribed( true );
         }
 
-        final String eTag = cacheEntry.getCacheKey();
-        if ( eTag.equals( session.getETag( address ) ) )
+        // Retrieve the key and data together as the cache entry may be concurrently updated
+        final String sessionETag = session.getETag( address );
+        final boolean deltaSupported = getReplicantMessageBroker().supportsCachedDeltas();
+        final String eTag;
+        final ChangeSet cachedChangeSet;
+        final ChangeSet delta;
+        cacheEntry.getLock().readLock().lock();
+        try
+        {
+          eTag = cacheEntry.getCacheKey();
+          cachedChangeSet = cacheEntry.getChangeSet();
+          delta =
+            !deltaSupported || null == sessionETag || sessionETag.equals( eTag ) ?
+            null :
+            cacheEntry.getChangesSince( sessionETag );
+        }
+        finally
+        {
+          cacheEntry.getLock().readLock().unlock();
+        }
+        if ( eTag.equals( sessionETag ) )
         {
           if ( session.getWebSocketSession().isOpen() )
           {
@@ -617,11 +1037,20 @@ public abstract class ReplicantSessionManagerImpl
             getRegistry().putResource( ServerConstants.CACHED_RESULT_HANDLED_KEY, "1" );
           }
         }
+        else if ( null != delta )
+        {
+          // The client has an older version of the cached data so only send the changes since that version
+          assert null != sessionETag;
+          session.setETag( address, null );
+          delta.mergeAction( address, ChannelAction.Action.ADD, filter );
+          queueCachedChangeSet( session, eTag, sessionETag, delta );
+          changeSet.setRequired( false );
+        }
         else
         {
           session.setETag( address, null );
           final ChangeSet cacheChangeSet = new ChangeSet();
-          cacheChangeSet.merge( cacheEntry.getChangeSet(), true );
+          cacheChangeSet.merge( cachedChangeSet, true );
           cacheChangeSet.mergeAction( address, ChannelAction.Action.ADD, filter );
           queueCachedChangeSet( session, eTag, cacheChangeSet );
           changeSet.setRequired( false );
@@ -640,7 +1069,18 @@ public abstract class ReplicantSessionManagerImpl
     }
     else
     {
-      final SubscribeResult result = collectDataForSubscribe( address, changeSet, filter );
+      final SubscriptionPreload preload = session.removeSubscriptionPreload( address );
+      final boolean preloaded = null != preload && preload.matches( false, null, filter );
+      final SubscribeResult result;
+      if ( preloaded )
+      {
+        changeSet.merge( preload.getChangeSet(), false );
+        result = preload.getResult();
+      }
+      else
+      {
+        result = collectDataForSubscribe( address, changeSet, filter );
+      }
       if ( result.isChannelRootDeleted() )
       {
         changeSet.mergeAction( address, ChannelAction.Action.DELETE, null );
@@ -652,53 +1092,447 @@ public abstract class ReplicantSessionManagerImpl
         {
           entry.setExplicitlySubscribed( true );
         }
+        if ( preloaded )
+        {
+          processRoutedMessages( session, address, preload.getRoutedMessages(), changeSet );
+        }
       }
     }
   }
 
-  @SuppressWarnings( "WeakerAccess" )
-  protected boolean deleteCacheEntry( @Nonnull final ChannelAddress address )
+  /**
+   * Collect the data for subscribing to, or updating the filter of subscriptions to, the specified channels
+   * without holding the session lock. This allows messages to continue to be routed to the session while
+   * long running queries execute. The messages routed to the session while the data is collected are
+   * recorded and are merged into the collected data when the subscription is registered by a subsequent
+   * call to {@link #subscribe(ReplicantSession, ChannelAddress, Object)} or
+   * {@link #bulkSubscribe(ReplicantSession, int, Collection, Object)}.
+   *
+   * <p>Data is only collected for channels where {@link #shouldPreloadSubscription(ChannelAddress)} returns
+   * true. Any other channel and any channel where the collection fails has the data collected while the
+   * lock is held when the subscription is registered.</p>
+   */
+  @Override
+  public void preloadSubscriptions( @Nonnull final ReplicantSession session,
+                                    @Nonnull final Collection<ChannelAddress> addresses,
+                                    @Nullable final Object filter )
+    throws InterruptedException
   {
-    _cacheLock.writeLock().lock();
-    try
-    {
-      return null != _cache.remove( address );
-    }
-    finally
+    if ( session.isOpen() )
     {
-      _cacheLock.writeLock().unlock();
+      final List<SubscriptionPreload> preloads = new ArrayList<>();
+      final ReentrantLock lock = session.getLock();
+      session.lockInterruptibly();
+      try
+      {
+        for ( final ChannelAddress address : addresses )
+        {
+          final ChannelMetaData channel = getSystemMetaData().getChannelMetaData( address );
+          if ( !channel.isCacheable() && shouldPreloadSubscription( address ) )
+          {
+            final SubscriptionEntry entry = session.findSubscriptionEntry( address );
+            final SubscriptionPreload preload;
+            if ( null == entry )
+            {
+              preload = new SubscriptionPreload( address, false, null, filter );
+            }
+            else if ( ChannelMetaData.FilterType.DYNAMIC == channel.getFilterType() &&
+                      doFiltersNotMatch( filter, entry.getFilter() ) )
+            {
+              preload = new SubscriptionPreload( address, true, entry.getFilter(), filter );
+            }
+            else
+            {
+              preload = null;
+            }
+            if ( null != preload )
+            {
+              // The preload is registered before the data is collected so that any message
+              // that the collected data may not reflect is recorded
+              session.addSubscriptionPreload( preload );
+              preloads.add( preload );
+            }
+          }
+        }
+      }
+      finally
+      {
+        lock.unlock();
+      }
+
+      collectPreloadData( session, preloads );
     }
   }
 
   @Override
-  public void deleteAllCacheEntries()
+  public void discardSubscriptionPreloads( @Nonnull final ReplicantSession session )
+    throws InterruptedException
   {
-    _cacheLock.writeLock().lock();
+    final ReentrantLock lock = session.getLock();
+    session.lockInterruptibly();
     try
     {
-      _cache.clear();
+      session.clearSubscriptionPreloads();
     }
     finally
     {
-      _cacheLock.writeLock().unlock();
+      lock.unlock();
     }
   }
 
   /**
-   * Return a CacheEntry for a specific channel. When this method returns the cache
-   * data will have already been loaded. The cache data is loaded using a separate lock for
-   * each channel cached.
+   * Collect the data for the specified preloads. The data is collected on the executor supplied to
+   * {@link #enableParallelSubscribeLoads(Executor, int)} if parallel loads are enabled, otherwise it
+   * is collected on the current thread.
    */
-  @Nullable
-  ChannelCacheEntry tryGetCacheEntry( @Nonnull final ChannelAddress address )
+  private void collectPreloadData( @Nonnull final ReplicantSession session,
+                                   @Nonnull final List<SubscriptionPreload> preloads )
+    throws InterruptedException
   {
-    assert getSystemMetaData().getChannelMetaData( address ).isCacheable();
+    final Executor executor = _subscribeLoadExecutor;
+    final List<SubscriptionPreload> parallelPreloads = new ArrayList<>();
+    for ( final SubscriptionPreload preload : preloads )
+    {
+      if ( null != executor && shouldCollectSubscriptionDataInParallel( preload.getAddress() ) )
+      {
+        parallelPreloads.add( preload );
+      }
+      else
+      {
+        collectPreloadData( session, preload );
+      }
+    }
+    final int workerCount = Math.min( _maxConcurrentSubscribeLoads, parallelPreloads.size() );
+    if ( null == executor || workerCount < 2 )
+    {
+      for ( final SubscriptionPreload preload : parallelPreloads )
+      {
+        collectPreloadData( session, preload );
+      }
+    }
+    else
+    {
+      final Queue<SubscriptionPreload> queue = new ConcurrentLinkedQueue<>( parallelPreloads );
+      final CountDownLatch latch = new CountDownLatch( workerCount );
+      for ( int i = 0; i < workerCount; i++ )
+      {
+        final Runnable worker = () -> {
+          try
+          {
+            SubscriptionPreload preload;
+            while ( null != ( preload = queue.poll() ) )
+            {
+              collectPreloadData( session, preload );
+            }
+          }
+          finally
+          {
+            latch.countDown();
+          }
+        };
+        try
+        {
+          executor.execute( worker );
+        }
+        catch ( final RejectedExecutionException e )
+        {
+          LOG.log( Level.WARNING, "Executor rejected parallel subscribe load for session " + session.getId(), e );
+          worker.run();
+        }
+      }
+      latch.await();
+    }
+  }
+
+  private void collectPreloadData( @Nonnull final ReplicantSession session,
+                                   @Nonnull final SubscriptionPreload preload )
+  {
+    final ChannelAddress address = preload.getAddress();
+    try
+    {
+      if ( preload.isUpdate() )
+      {
+        collectDataForSubscriptionUpdate( session,
+                                          address,
+                                          preload.getChangeSet(),
+                                          preload.getOriginalFilter(),
+                                          preload.getFilter() );
+        preload.complete( null );
+      }
+      else
+      {
+        preload.complete( collectDataForSubscribe( address, preload.getChangeSet(), preload.getFilter() ) );
+      }
+    }
+    catch ( final Throwable t )
+    {
+      // The incomplete preload is discarded when the subscription is registered
+      // and the data is collected again while the lock is held
+      if ( LOG.isLoggable( Level.FINE ) )
+      {
+        LOG.log( Level.FINE, "Error preloading data for channel " + address + " for session " + session.getId(), t );
+      }
+    }
+  }
+
+  /**
+   * Enable collecting the data for subscriptions to multiple channels in parallel. This is used when
+   * a bulk subscribe can not be bulk loaded and when preloading subscriptions. Each channel has the data
+   * collected into a separate change set and the results are merged in the order that the channels were
+   * requested, while the session lock is held. Data is only collected in parallel for channels where
+   * {@link #shouldCollectSubscriptionDataInParallel(ChannelAddress)} returns true.
+   *
+   * @param executor           the executor used to collect data.
+   * @param maxConcurrentLoads the maximum number of channels that will be loaded concurrently for a request.
+   */
+  @SuppressWarnings( "unused" )
+  public void enableParallelSubscribeLoads( @Nonnull final Executor executor, final int maxConcurrentLoads )
+  {
+    if ( maxConcurrentLoads < 1 )
+    {
+      throw new IllegalArgumentException( "maxConcurrentLoads must be greater than 0 but is " + maxConcurrentLoads );
+    }
+    _maxConcurrentSubscribeLoads = maxConcurrentLoads;
+    _subscribeLoadExecutor = Objects.requireNonNull( executor );
+  }
+
+  /**
+   * Return true if the data for subscriptions to the specified channel can be collected without holding
+   * the session lock. The data collection methods must not access the session state for such channels.
+   * Cacheable channels are never preloaded.
+   *
+   * @param address the address of the channel.
+   * @return true if the data for subscriptions to the channel can be collected without holding the session lock.
+   */
+  @SuppressWarnings( "unused" )
+  protected boolean shouldPreloadSubscription( @Nonnull final ChannelAddress address )
+  {
+    return false;
+  }
+
+  /**
+   * Return true if the data for subscriptions to the specified channel can be collected on the executor
+   * supplied to {@link #enableParallelSubscribeLoads(Executor, int)}. The data is collected on a thread
+   * that does not participate in the transaction or use the EntityManager of the request, while the
+   * request thread waits and may hold the session lock. Only return true if the data collection methods
+   * establish any transaction or other context that they require and do not access the session state.
+   *
+   * @param address the address of the channel.
+   * @return true if the data for subscriptions to the channel can be collected on the executor.
+   */
+  @SuppressWarnings( "unused" )
+  protected boolean shouldCollectSubscriptionDataInParallel( @Nonnull final ChannelAddress address )
+  {
+    return false;
+  }
+
+  /**
+   * Merge the messages routed to the session while the data for a subscription was collected into the
+   * changes for the subscription. The messages were not processed for the channel when they were
+   * routed as the subscription had not been registered or had a different filter.
+   */
+  private void processRoutedMessages( @Nonnull final ReplicantSession session,
+                                      @Nonnull final ChannelAddress address,
+                                      @Nonnull final List<EntityMessage> messages,
+                                      @Nonnull final ChangeSet changeSet )
+  {
+    final ChannelMetaData channel = getSystemMetaData().getChannelMetaData( address );
+    final List<EntityMessage> routed = new ArrayList<>();
+    for ( final EntityMessage message : messages )
+    {
+      final List<ChannelAddress> addresses = extractChannelAddressesFromMessage( channel, message );
+      if ( null != addresses && addresses.contains( address ) )
+      {
+        routed.add( message );
+      }
+    }
+    if ( !routed.isEmpty() )
+    {
+      final Function<EntityMessage, EntityMessage> filter =
+        ChannelMetaData.FilterType.NONE != channel.getFilterType() ? m -> filterEntityMessage( session, address, m ) : null;
+      for ( final EntityMessage message : routed )
+      {
+        if ( channel.isInstanceGraph() )
+        {
+          processDeleteMessage( address, message, session, changeSet, filter );
+        }
+      }
+      for ( final EntityMessage message : routed )
+      {
+        processUpdateMessage( address, message, session, changeSet, filter );
+      }
+    }
+  }
+
+  @SuppressWarnings( "WeakerAccess" )
+  protected boolean deleteCacheEntry( @Nonnull final ChannelAddress address )
+  {
+    _snapshot.remove( address );
+    final boolean removed;
+    _cacheLock.writeLock().lock();
+    try
+    {
+      removed = null != _cache.remove( address );
+    }
+    finally
+    {
+      _cacheLock.writeLock().unlock();
+    }
+    if ( removed )
+    {
+      _metrics.cachePurged();
+      if ( _cacheWarmer.shouldKeepWarm( address ) )
+      {
+        reloadWarmCacheEntryAfterCommit( address );
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Reload the cache entry for a channel that is kept warm once the current transaction commits.
+   * The cache entry is typically purged while the transaction that modified the data is still open and
+   * loading it before the transaction commits would cache the data as it was prior to the modification.
+   */
+  private void reloadWarmCacheEntryAfterCommit( @Nonnull final ChannelAddress address )
+  {
+    final TransactionSynchronizationRegistry registry = getRegistry();
+    if ( Status.STATUS_NO_TRANSACTION == registry.getTransactionStatus() )
+    {
+      _cacheWarmer.onCacheEntryRemoved( address );
+    }
+    else
+    {
+      registry.registerInterposedSynchronization( new Synchronization()
+      {
+        @Override
+        public void beforeCompletion()
+        {
+        }
+
+        @Override
+        public void afterCompletion( final int status )
+        {
+          if ( Status.STATUS_COMMITTED == status )
+          {
+            _cacheWarmer.onCacheEntryRemoved( address );
+          }
+        }
+      } );
+    }
+  }
+
+  @Override
+  public void deleteAllCacheEntries()
+  {
+    _snapshot.clear();
+    _cacheLock.writeLock().lock();
+    try
+    {
+      _cache.clear();
+    }
+    finally
+    {
+      _cacheLock.writeLock().unlock();
+    }
+    _cacheWarmer.warmAll();
+  }
+
+  /**
+   * Enable the background loading of cacheable channels. Channels registered via
+   * {@link #addWarmCacheAddress(ChannelAddress)} and the channels most frequently subscribed to are
+   * loaded ahead of any subscriber and are reloaded as soon as their cache entry is purged. The loads
+   * are performed on the supplied executor rather than while a subscribing session's lock is held.
+   * Applications may need to override {@link #warmCacheEntry(ChannelAddress)} if loading the data
+   * requires a transaction or other context that the executor does not supply.
+   *
+   * @param executor           the executor used to load channels.
+   * @param maxConcurrentLoads the maximum number of channels that will be loaded concurrently.
+   * @param hotChannelCount    the number of the most frequently subscribed channels to keep warm.
+   */
+  @SuppressWarnings( "unused" )
+  public void enableCacheWarming( @Nonnull final Executor executor,
+                                  final int maxConcurrentLoads,
+                                  final int hotChannelCount )
+  {
+    _cacheWarmer.configure( executor, maxConcurrentLoads, hotChannelCount );
+  }
+
+  /**
+   * Register a cacheable channel that should be kept warm.
+   *
+   * @param address the address of the channel.
+   */
+  @SuppressWarnings( "unused" )
+  public void addWarmCacheAddress( @Nonnull final ChannelAddress address )
+  {
+    if ( !getSystemMetaData().getChannelMetaData( address ).isCacheable() )
+    {
+      throw new IllegalArgumentException( "Attempted to keep channel " + address + " warm but it is not cacheable" );
+    }
+    _cacheWarmer.addAddress( address );
+  }
+
+  /**
+   * Deregister a channel that was registered via {@link #addWarmCacheAddress(ChannelAddress)}.
+   *
+   * @param address the address of the channel.
+   * @return true if the channel was registered, false otherwise.
+   */
+  @SuppressWarnings( "unused" )
+  public boolean removeWarmCacheAddress( @Nonnull final ChannelAddress address )
+  {
+    return _cacheWarmer.removeAddress( address );
+  }
+
+  /**
+   * Return the channels that are currently being kept warm.
+   */
+  @Nonnull
+  public Set<ChannelAddress> getWarmCacheAddresses()
+  {
+    return _cacheWarmer.getWarmAddresses();
+  }
+
+  /**
+   * Schedule the load of any channel that should be kept warm and is not loaded, then decay the
+   * subscribe frequencies so that the most frequently subscribed channels reflect recent activity.
+   * This is expected to be invoked periodically, in the same way as {@link #pingSessions()}.
+   */
+  @SuppressWarnings( { "WeakerAccess", "unused" } )
+  public void warmCacheEntries()
+  {
+    _cacheWarmer.warmAll();
+    _cacheWarmer.decay();
+  }
+
+  /**
+   * Load the data for the cacheable channel if it is not already loaded.
+   * This is invoked on the executor supplied to {@link #enableCacheWarming(Executor, int, int)}.
+   *
+   * @param address the address of the channel.
+   */
+  protected void warmCacheEntry( @Nonnull final ChannelAddress address )
+  {
+    tryGetCacheEntry( address );
+  }
+
+  /**
+   * Return a CacheEntry for a specific channel. When this method returns the cache
+   * data will have already been loaded. The cache data is loaded using a separate lock for
+   * each channel cached.
+   */
+  @Nullable
+  ChannelCacheEntry tryGetCacheEntry( @Nonnull final ChannelAddress address )
+  {
+    assert getSystemMetaData().getChannelMetaData( address ).isCacheable();
     final ChannelCacheEntry entry = getCacheEntry( address );
     entry.getLock().readLock().lock();
     try
     {
       if ( entry.isInitialized() )
       {
+        _metrics.cacheHit();
         return entry;
       }
     }
@@ -711,6 +1545,12 @@ public abstract class ReplicantSessionManagerImpl
     {
       //Make sure check again once we re-acquire the lock
       if ( entry.isInitialized() )
+      {
+        _metrics.cacheHit();
+        return entry;
+      }
+      _metrics.cacheMiss();
+      if ( restoreCacheEntry( entry ) )
       {
         return entry;
       }
@@ -734,6 +1574,144 @@ public abstract class ReplicantSessionManagerImpl
     }
   }
 
+  /**
+   * Initialize the cache entry from the cache snapshot if the snapshot contains the entry and
+   * the application reports that the cache key of the snapshot entry is still current.
+   * The caller should hold the write lock of the entry.
+   *
+   * @return true if the cache entry was initialized from the snapshot.
+   */
+  private boolean restoreCacheEntry( @Nonnull final ChannelCacheEntry entry )
+  {
+    final ChannelAddress address = entry.getDescriptor();
+    final ChannelCacheSnapshot.Entry snapshotEntry = _snapshot.remove( address );
+    if ( null != snapshotEntry && isCacheKeyCurrent( address, snapshotEntry.getCacheKey() ) )
+    {
+      try
+      {
+        entry.init( snapshotEntry.getCacheKey(), snapshotEntry.getChangeSet() );
+        return true;
+      }
+      catch ( final IOException e )
+      {
+        LOG.log( Level.WARNING, "Failed to restore channel " + address + " from the cache snapshot", e );
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return true if the cache key supplied by the application when the data for the channel was
+   * previously loaded still identifies the current data. This is invoked before data restored from
+   * a cache snapshot is used. The default implementation returns false and thus data is never
+   * restored from a snapshot unless the application overrides this method.
+   *
+   * @param address  the address of the channel.
+   * @param cacheKey the cache key returned in the {@link SubscribeResult} when the data was loaded.
+   * @return true if the cached data is still current, false otherwise.
+   */
+  protected boolean isCacheKeyCurrent( @Nonnull final ChannelAddress address, @Nonnull final String cacheKey )
+  {
+    return false;
+  }
+
+  /**
+   * Write the data that is currently cached to the specified file.
+   * This is typically invoked when the application is shutting down or periodically, so that the cache
+   * can be restored using {@link #loadCacheSnapshot(Path)} when the application is restarted.
+   * Data that has been incrementally updated since it was loaded is not written to the snapshot.
+   *
+   * @param file the file to write the snapshot to.
+   * @return the number of cache entries written to the snapshot.
+   * @throws IOException if an error occurs writing the snapshot.
+   */
+  @SuppressWarnings( "UnusedReturnValue" )
+  public int saveCacheSnapshot( @Nonnull final Path file )
+    throws IOException
+  {
+    final List<ChannelCacheEntry> entries;
+    _cacheLock.readLock().lock();
+    try
+    {
+      entries = new ArrayList<>( _cache.values() );
+    }
+    finally
+    {
+      _cacheLock.readLock().unlock();
+    }
+    final List<ChannelCacheSnapshot.Entry> snapshotEntries = new ArrayList<>();
+    for ( final ChannelCacheEntry entry : entries )
+    {
+      entry.getLock().readLock().lock();
+      try
+      {
+        // Entries that have been incrementally updated are excluded as the cache key supplied by
+        // the application no longer identifies the data and thus can not be checked when restored
+        if ( entry.isInitialized() && 0 == entry.getRevision() )
+        {
+          // The ChangeSet is never modified once cached so it is safe to encode it outside the lock
+          snapshotEntries.add( new ChannelCacheSnapshot.Entry( entry.getDescriptor(),
+                                                               entry.getCacheKey(),
+                                                               entry.getChangeSet() ) );
+        }
+      }
+      finally
+      {
+        entry.getLock().readLock().unlock();
+      }
+    }
+    ChannelCacheSnapshot.write( file, snapshotEntries );
+    return snapshotEntries.size();
+  }
+
+  /**
+   * Load a snapshot previously written by {@link #saveCacheSnapshot(Path)}.
+   * The snapshot file is memory mapped and each entry is decoded when the channel is first
+   * requested, after {@link #isCacheKeyCurrent(ChannelAddress, String)} has confirmed that the data
+   * is still current. Entries for channels that are no longer cacheable are ignored.
+   *
+   * @param file the file to read the snapshot from.
+   * @return the number of cache entries loaded from the snapshot.
+   * @throws IOException if the snapshot can not be read.
+   */
+  @SuppressWarnings( "UnusedReturnValue" )
+  public int loadCacheSnapshot( @Nonnull final Path file )
+    throws IOException
+  {
+    final SystemMetaData schema = getSystemMetaData();
+    int count = 0;
+    for ( final ChannelCacheSnapshot.Entry entry : ChannelCacheSnapshot.read( file ).values() )
+    {
+      final ChannelAddress address = entry.getAddress();
+      final int channelId = address.getChannelId();
+      final ChannelMetaData channel = channelId < schema.getChannelCount() ? schema.getChannelMetaData( channelId ) : null;
+      if ( null != channel && channel.isCacheable() && address.hasSubChannelId() == channel.isInstanceGraph() )
+      {
+        _snapshot.put( address, entry );
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Return the CacheEntry for specified channel if it is present in the cache.
+   * The cache data is not necessarily loaded.
+   */
+  @Nullable
+  ChannelCacheEntry findCacheEntry( @Nonnull final ChannelAddress address )
+  {
+    _cacheLock.readLock().lock();
+    try
+    {
+      return _cache.get( address );
+    }
+    finally
+    {
+      _cacheLock.readLock().unlock();
+    }
+  }
+
   /**
    * Get the CacheEntry for specified channel. Note that the cache is not necessarily
    * loaded at this stage. This is done to avoid using a global lock while loading data for a
@@ -800,6 +1778,12 @@ public abstract class ReplicantSessionManagerImpl
     throw new IllegalStateException( "collectDataForSubscriptionUpdate called for unsupported channel " + address );
   }
 
+  /**
+   * Hook method invoked to collect the data for a subscription when the filter of the subscription is updated.
+   * The hook may record the entities that no longer match the filter via
+   * {@link ChangeSet#addDelinks(ChannelAddress, int, Collection)} so that the client need not evaluate the
+   * filter against every entity in the subscription.
+   */
   protected void collectDataForSubscriptionUpdate( @Nonnull final ReplicantSession session,
                                                    @Nonnull final ChannelAddress address,
                                                    @Nonnull final ChangeSet changeSet,
@@ -830,7 +1814,7 @@ public abstract class ReplicantSessionManagerImpl
     if ( session.isOpen() )
     {
       final ReentrantLock lock = session.getLock();
-      lock.lockInterruptibly();
+      session.lockInterruptibly();
       try
       {
         unsubscribe( session, address, EntityMessageCacheUtil.getSessionChanges() );
@@ -869,7 +1853,7 @@ public abstract class ReplicantSessionManagerImpl
     if ( session.isOpen() )
     {
       final ReentrantLock lock = session.getLock();
-      lock.lockInterruptibly();
+      session.lockInterruptibly();
       try
       {
         doBulkUnsubscribe( session, channelId, subChannelIds );
@@ -952,8 +1936,8 @@ public abstract class ReplicantSessionManagerImpl
   void linkSubscriptionEntries( @Nonnull final SubscriptionEntry sourceEntry,
                                 @Nonnull final SubscriptionEntry targetEntry )
   {
-    sourceEntry.registerOutwardSubscriptions( targetEntry.getAddress() );
-    targetEntry.registerInwardSubscriptions( sourceEntry.getAddress() );
+    sourceEntry.registerOutwardSubscription( targetEntry.getAddress() );
+    targetEntry.registerInwardSubscription( sourceEntry.getAddress() );
   }
 
   /**
@@ -962,17 +1946,18 @@ public abstract class ReplicantSessionManagerImpl
   void delinkSubscriptionEntries( @Nonnull final SubscriptionEntry sourceEntry,
                                   @Nonnull final SubscriptionEntry targetEntry )
   {
-    sourceEntry.deregisterOutwardSubscriptions( targetEntry.getAddress() );
-    targetEntry.deregisterInwardSubscriptions( sourceEntry.getAddress() );
+    sourceEntry.deregisterOutwardSubscription( targetEntry.getAddress() );
+    targetEntry.deregisterInwardSubscription( sourceEntry.getAddress() );
   }
 
-  @SuppressWarnings( { "PMD.WhileLoopsMustUseBraces", "StatementWithEmptyBody" } )
   void expandLinks( @Nonnull final ReplicantSession session, @Nonnull final ChangeSet changeSet )
   {
+    int iterations = 1;
     while ( expandLink( session, changeSet ) )
     {
-      //Ignore.
+      iterations++;
     }
+    _metrics.linksExpanded( iterations );
   }
 
   /**
@@ -1065,7 +2050,8 @@ public abstract class ReplicantSessionManagerImpl
     for ( int i = 0; i < channelCount; i++ )
     {
       final ChannelMetaData channel = schema.getChannelMetaData( i );
-      if ( ChannelMetaData.CacheType.INTERNAL == channel.getCacheType() )
+      if ( ChannelMetaData.CacheType.INTERNAL == channel.getCacheType() &&
+           !channel.areIncrementalCacheUpdatesEnabled() )
       {
         final List<ChannelAddress> addresses = extractChannelAddressesFromMessage( channel, message );
         if ( null != addresses )
@@ -1079,6 +2065,95 @@ public abstract class ReplicantSessionManagerImpl
     }
   }
 
+  /**
+   * Apply the messages to the cached data for any channels that have incremental cache updates enabled.
+   * This is invoked once for the messages generated by a transaction, before the messages are routed
+   * to the sessions.
+   */
+  private void processCacheUpdates( @Nonnull final Collection<EntityMessage> messages )
+  {
+    final SystemMetaData schema = getSystemMetaData();
+    final int channelCount = schema.getIncrementalCacheChannelCount();
+    final Map<ChannelAddress, List<EntityMessage>> updates = new HashMap<>();
+    for ( final EntityMessage message : messages )
+    {
+      for ( int i = 0; i < channelCount; i++ )
+      {
+        final ChannelMetaData channel = schema.getIncrementalCacheChannelByIndex( i );
+        final List<ChannelAddress> addresses = extractChannelAddressesFromMessage( channel, message );
+        if ( null != addresses )
+        {
+          for ( final ChannelAddress address : addresses )
+          {
+            updates.computeIfAbsent( address, k -> new ArrayList<>() ).add( message );
+          }
+        }
+      }
+    }
+    for ( final Map.Entry<ChannelAddress, List<EntityMessage>> update : updates.entrySet() )
+    {
+      updateCacheEntry( update.getKey(), update.getValue() );
+    }
+  }
+
+  /**
+   * Apply the messages to the cached data for the specified channel, if the data has been loaded.
+   * The cached data is copied before the messages are merged so that any reader that has already
+   * retrieved the data continues to see a consistent snapshot. If the messages delete the root of
+   * an instance graph then the cache entry is removed.
+   */
+  private void updateCacheEntry( @Nonnull final ChannelAddress address,
+                                 @Nonnull final List<EntityMessage> messages )
+  {
+    // Any data restored from a snapshot is now stale
+    _snapshot.remove( address );
+    final ChannelCacheEntry entry = findCacheEntry( address );
+    if ( null != entry )
+    {
+      final ChannelMetaData channel = getSystemMetaData().getChannelMetaData( address );
+      boolean rootDeleted = false;
+      entry.getLock().writeLock().lock();
+      try
+      {
+        if ( entry.isInitialized() )
+        {
+          final ChangeSet changeSet = new ChangeSet();
+          changeSet.merge( entry.getChangeSet(), true );
+          final ChangeSet delta = new ChangeSet();
+          for ( final EntityMessage message : messages )
+          {
+            if ( message.isDelete() )
+            {
+              if ( channel.isInstanceGraph() && channel.getInstanceRootEntityTypeId() == message.getTypeId() )
+              {
+                rootDeleted = true;
+                break;
+              }
+              changeSet.remove( message );
+            }
+            else
+            {
+              changeSet.merge( new Change( message, address.getChannelId(), address.getSubChannelId() ), true );
+            }
+            delta.merge( new Change( message, address.getChannelId(), address.getSubChannelId() ), true );
+          }
+          if ( !rootDeleted )
+          {
+            entry.update( changeSet, delta );
+          }
+        }
+      }
+      finally
+      {
+        entry.getLock().writeLock().unlock();
+      }
+      if ( rootDeleted )
+      {
+        deleteCacheEntry( address );
+      }
+    }
+  }
+
   private void processUpdateMessages( @Nonnull final EntityMessage message,
                                       @Nonnull final ReplicantSession session,
                                       @Nonnull final ChangeSet changeSet )
@@ -1,14 +1,15 @@
 package org.realityforge.replicant.server.transport;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.json.JsonObject;
 import org.realityforge.replicant.server.ChannelAddress;
+import org.realityforge.replicant.server.ee.JsonUtil;
 
 /**
  * An object defining the state of the subscription to a particular channel and
@@ -22,22 +23,25 @@ public final class SubscriptionEntry
   @Nonnull
   private final ChannelAddress _address;
   /**
-   * This is a list of channels that this auto-subscribed to.
+   * This is a list of channels that this auto-subscribed to. Created when the first link is registered
+   * and discarded when the last link is deregistered, as most entries have few or no links.
    */
-  @Nonnull
-  private final Set<ChannelAddress> _outwardSubscriptions = new HashSet<>();
-  @Nonnull
-  private final Set<ChannelAddress> _roOutwardSubscriptions = Collections.unmodifiableSet( _outwardSubscriptions );
+  @Nullable
+  private ChannelAddressSet _outwardSubscriptions;
   /**
-   * This is a list of channels that auto-subscribed to this channel.
+   * This is a list of channels that auto-subscribed to this channel. Created and discarded like the
+   * outward subscriptions.
    */
-  @Nonnull
-  private final Set<ChannelAddress> _inwardSubscriptions = new HashSet<>();
-  @Nonnull
-  private final Set<ChannelAddress> _roInwardSubscriptions = Collections.unmodifiableSet( _inwardSubscriptions );
+  @Nullable
+  private ChannelAddressSet _inwardSubscriptions;
   private boolean _explicitlySubscribed;
   @Nullable
   private Object _filter;
+  /**
+   * The filter converted to json. Lazily created and discarded when the filter changes.
+   */
+  @Nullable
+  private JsonObject _filterJson;
 
   public SubscriptionEntry( @Nonnull final ReplicantSession session, @Nonnull final ChannelAddress address )
   {
@@ -57,7 +61,7 @@ public final class SubscriptionEntry
    */
   public boolean canUnsubscribe()
   {
-    return !isExplicitlySubscribed() && _inwardSubscriptions.isEmpty();
+    return !isExplicitlySubscribed() && null == _inwardSubscriptions;
   }
 
   /**
@@ -95,7 +99,24 @@ public final class SubscriptionEntry
   public void setFilter( @Nullable final Object filter )
   {
     _session.ensureLockedByCurrentThread();
-    _filter = filter;
+    if ( filter != _filter )
+    {
+      _filter = filter;
+      _filterJson = null;
+    }
+  }
+
+  /**
+   * Return the filter converted to json or null if there is no filter.
+   */
+  @Nullable
+  public JsonObject getFilterAsJson()
+  {
+    if ( null == _filterJson && null != _filter )
+    {
+      _filterJson = JsonUtil.toJsonObject( _filter );
+    }
+    return _filterJson;
   }
 
   /**
@@ -104,7 +125,22 @@ public final class SubscriptionEntry
   @Nonnull
   public Set<ChannelAddress> getOutwardSubscriptions()
   {
-    return _roOutwardSubscriptions;
+    return null == _outwardSubscriptions ? Collections.emptySet() : _outwardSubscriptions;
+  }
+
+  /**
+   * Register the specified channel as an outward link.
+   *
+   * @return true if the link was added, false if it was already present.
+   */
+  public boolean registerOutwardSubscription( @Nonnull final ChannelAddress channel )
+  {
+    _session.ensureLockedByCurrentThread();
+    if ( null == _outwardSubscriptions )
+    {
+      _outwardSubscriptions = new ChannelAddressSet();
+    }
+    return _outwardSubscriptions.addAddress( channel );
   }
 
   /**
@@ -114,16 +150,29 @@ public final class SubscriptionEntry
   public ChannelAddress[] registerOutwardSubscriptions( @Nonnull final ChannelAddress... channels )
   {
     _session.ensureLockedByCurrentThread();
-    final List<ChannelAddress> results = new ArrayList<>( channels.length );
-    for ( final ChannelAddress channel : channels )
+    return select( channels, this::registerOutwardSubscription );
+  }
+
+  /**
+   * Deregister the specified channel as an outward link.
+   *
+   * @return true if the link was removed, false if it was not present.
+   */
+  boolean deregisterOutwardSubscription( @Nonnull final ChannelAddress channel )
+  {
+    _session.ensureLockedByCurrentThread();
+    if ( null != _outwardSubscriptions && _outwardSubscriptions.removeAddress( channel ) )
     {
-      if ( !_outwardSubscriptions.contains( channel ) )
+      if ( _outwardSubscriptions.isEmpty() )
       {
-        _outwardSubscriptions.add( channel );
-        results.add( channel );
+        _outwardSubscriptions = null;
       }
+      return true;
+    }
+    else
+    {
+      return false;
     }
-    return results.toArray( new ChannelAddress[ 0 ] );
   }
 
   /**
@@ -133,16 +182,7 @@ public final class SubscriptionEntry
   ChannelAddress[] deregisterOutwardSubscriptions( @Nonnull final ChannelAddress... channels )
   {
     _session.ensureLockedByCurrentThread();
-    final List<ChannelAddress> results = new ArrayList<>( channels.length );
-    for ( final ChannelAddress channel : channels )
-    {
-      if ( _outwardSubscriptions.contains( channel ) )
-      {
-        _outwardSubscriptions.remove( channel );
-        results.add( channel );
-      }
-    }
-    return results.toArray( new ChannelAddress[ 0 ] );
+    return select( channels, this::deregisterOutwardSubscription );
   }
 
   /**
@@ -151,7 +191,22 @@ public final class SubscriptionEntry
   @Nonnull
   public Set<ChannelAddress> getInwardSubscriptions()
   {
-    return _roInwardSubscriptions;
+    return null == _inwardSubscriptions ? Collections.emptySet() : _inwardSubscriptions;
+  }
+
+  /**
+   * Register the specified channel as an inward link.
+   *
+   * @return true if the link was added, false if it was already present.
+   */
+  public boolean registerInwardSubscription( @Nonnull final ChannelAddress channel )
+  {
+    _session.ensureLockedByCurrentThread();
+    if ( null == _inwardSubscriptions )
+    {
+      _inwardSubscriptions = new ChannelAddressSet();
+    }
+    return _inwardSubscriptions.addAddress( channel );
   }
 
   /**
@@ -161,16 +216,29 @@ public final class SubscriptionEntry
   public ChannelAddress[] registerInwardSubscriptions( @Nonnull final ChannelAddress... channels )
   {
     _session.ensureLockedByCurrentThread();
-    final List<ChannelAddress> results = new ArrayList<>( channels.length );
-    for ( final ChannelAddress channel : channels )
+    return select( channels, this::registerInwardSubscription );
+  }
+
+  /**
+   * Deregister the specified channel as an inward link.
+   *
+   * @return true if the link was removed, false if it was not present.
+   */
+  boolean deregisterInwardSubscription( @Nonnull final ChannelAddress channel )
+  {
+    _session.ensureLockedByCurrentThread();
+    if ( null != _inwardSubscriptions && _inwardSubscriptions.removeAddress( channel ) )
     {
-      if ( !_inwardSubscriptions.contains( channel ) )
+      if ( _inwardSubscriptions.isEmpty() )
       {
-        _inwardSubscriptions.add( channel );
-        results.add( channel );
+        _inwardSubscriptions = null;
       }
+      return true;
+    }
+    else
+    {
+      return false;
     }
-    return results.toArray( new ChannelAddress[ 0 ] );
   }
 
   /**
@@ -180,16 +248,44 @@ public final class SubscriptionEntry
   ChannelAddress[] deregisterInwardSubscriptions( @Nonnull final ChannelAddress... channels )
   {
     _session.ensureLockedByCurrentThread();
-    final List<ChannelAddress> results = new ArrayList<>( channels.length );
+    return select( channels, this::deregisterInwardSubscription );
+  }
+
+  /**
+   * Apply the action to each channel and return the channels for which the action returned true.
+   */
+  @Nonnull
+  private static ChannelAddress[] select( @Nonnull final ChannelAddress[] channels,
+                                          @Nonnull final Predicate<ChannelAddress> action )
+  {
+    int count = 0;
+    final ChannelAddress[] results = new ChannelAddress[ channels.length ];
     for ( final ChannelAddress channel : channels )
     {
-      if ( _inwardSubscriptions.contains( channel ) )
+      if ( action.test( channel ) )
       {
-        _inwardSubscriptions.remove( channel );
-        results.add( channel );
+        results[ count++ ] = channel;
       }
     }
-    return results.toArray( new ChannelAddress[ 0 ] );
+    return count == results.length ? results : Arrays.copyOf( results, count );
+  }
+
+  /**
+   * Return an estimate of the number of bytes retained by the entry, excluding the filter.
+   */
+  long estimateSize()
+  {
+    long size = MemoryEstimates.align( MemoryEstimates.OBJECT_HEADER + MemoryEstimates.REFERENCE * 6 + 1 ) +
+                MemoryEstimates.addressSize( _address );
+    if ( null != _outwardSubscriptions )
+    {
+      size += _outwardSubscriptions.estimateSize();
+    }
+    if ( null != _inwardSubscriptions )
+    {
+      size += _inwardSubscriptions.estimateSize();
+    }
+    return size;
   }
 
   @Override
@@ -0,0 +1,130 @@
+package org.realityforge.replicant.server.transport;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.realityforge.replicant.server.ChangeSet;
+import org.realityforge.replicant.server.ChannelAddress;
+import org.realityforge.replicant.server.EntityMessage;
+
+/**
+ * The data collected for a subscription while the session lock was not held. The messages routed to
+ * the session after the preload was registered are recorded so that they can be merged into the
+ * collected data when the subscription is registered, as the collected data may not reflect them.
+ */
+final class SubscriptionPreload
+{
+  @Nonnull
+  private final ChannelAddress _address;
+  /**
+   * True if the preload is an update of the filter of an existing subscription.
+   */
+  private final boolean _update;
+  /**
+   * The filter of the existing subscription when the preload was registered. Only used for updates.
+   */
+  @Nullable
+  private final Object _originalFilter;
+  @Nullable
+  private final Object _filter;
+  @Nonnull
+  private final ChangeSet _changeSet = new ChangeSet();
+  /**
+   * The messages routed to the session since the preload was registered. Guarded by the session lock.
+   */
+  @Nonnull
+  private final List<EntityMessage> _routedMessages = new ArrayList<>();
+  @Nullable
+  private SubscribeResult _result;
+  /**
+   * True once the data has been collected. The data may be collected on a different thread to the
+   * thread that registers the subscription.
+   */
+  private volatile boolean _complete;
+
+  SubscriptionPreload( @Nonnull final ChannelAddress address,
+                       final boolean update,
+                       @Nullable final Object originalFilter,
+                       @Nullable final Object filter )
+  {
+    _address = Objects.requireNonNull( address );
+    _update = update;
+    _originalFilter = originalFilter;
+    _filter = filter;
+  }
+
+  @Nonnull
+  ChannelAddress getAddress()
+  {
+    return _address;
+  }
+
+  boolean isUpdate()
+  {
+    return _update;
+  }
+
+  @Nullable
+  Object getOriginalFilter()
+  {
+    return _originalFilter;
+  }
+
+  @Nullable
+  Object getFilter()
+  {
+    return _filter;
+  }
+
+  @Nonnull
+  ChangeSet getChangeSet()
+  {
+    return _changeSet;
+  }
+
+  /**
+   * Return the result of collecting the data for a subscribe. Not present for updates.
+   */
+  @Nonnull
+  SubscribeResult getResult()
+  {
+    return Objects.requireNonNull( _result );
+  }
+
+  /**
+   * Mark the data as collected.
+   *
+   * @param result the result of collecting the data for a subscribe. Should be null for updates.
+   */
+  void complete( @Nullable final SubscribeResult result )
+  {
+    assert _update == ( null == result );
+    _result = result;
+    _complete = true;
+  }
+
+  /**
+   * Return true if the preload has completed and was collected for the specified subscription.
+   */
+  boolean matches( final boolean update, @Nullable final Object originalFilter, @Nullable final Object filter )
+  {
+    return _complete &&
+           update == _update &&
+           Objects.equals( originalFilter, _originalFilter ) &&
+           Objects.equals( filter, _filter );
+  }
+
+  void recordRoutedMessages( @Nonnull final Collection<EntityMessage> messages )
+  {
+    _routedMessages.addAll( messages );
+  }
+
+  @Nonnull
+  List<EntityMessage> getRoutedMessages()
+  {
+    return _routedMessages;
+  }
+}
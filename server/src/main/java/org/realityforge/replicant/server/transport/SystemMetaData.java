@@ -1,9 +1,13 @@
 package org.realityforge.replicant.server.transport;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.realityforge.replicant.server.Change;
 import org.realityforge.replicant.server.ChannelAddress;
 
 public final class SystemMetaData
@@ -14,6 +18,10 @@ public final class SystemMetaData
   private final ChannelMetaData[] _channels;
   @Nonnull
   private final ChannelMetaData[] _instanceChannels;
+  @Nonnull
+  private final ChannelMetaData[] _incrementalCacheChannels;
+  private final boolean _conflated;
+  private final boolean _projected;
 
   public SystemMetaData( @Nonnull final String name, @Nonnull final ChannelMetaData... channels )
   {
@@ -31,6 +39,13 @@ public final class SystemMetaData
     _channels = channels;
     _instanceChannels =
       Stream.of( channels ).filter( ChannelMetaData::isInstanceGraph ).toArray( ChannelMetaData[]::new );
+    _incrementalCacheChannels =
+      Stream
+        .of( channels )
+        .filter( ChannelMetaData::areIncrementalCacheUpdatesEnabled )
+        .toArray( ChannelMetaData[]::new );
+    _conflated = Stream.of( channels ).anyMatch( ChannelMetaData::isConflated );
+    _projected = Stream.of( channels ).anyMatch( ChannelMetaData::hasAttributeProjections );
   }
 
   @Nonnull
@@ -69,4 +84,78 @@ public final class SystemMetaData
   {
     return _instanceChannels[ index ];
   }
+
+  /**
+   * Return true if any channel applies changes to the cached data rather than purging the cache.
+   */
+  public boolean hasIncrementalCacheUpdates()
+  {
+    return 0 != _incrementalCacheChannels.length;
+  }
+
+  public int getIncrementalCacheChannelCount()
+  {
+    return _incrementalCacheChannels.length;
+  }
+
+  @Nonnull
+  public ChannelMetaData getIncrementalCacheChannelByIndex( final int index )
+  {
+    return _incrementalCacheChannels[ index ];
+  }
+
+  /**
+   * Return true if any channel merges updates over a conflation interval.
+   */
+  public boolean hasConflatedChannels()
+  {
+    return _conflated;
+  }
+
+  /**
+   * Return true if any channel restricts the attributes that are sent to subscribers.
+   */
+  public boolean hasAttributeProjections()
+  {
+    return _projected;
+  }
+
+  /**
+   * Return the names of the attributes that should be sent for the change. This is the union of the
+   * projections of the channels that the change is routed through, so an attribute is sent if any of
+   * the channels requires it. The projections should include any attribute that the client needs to
+   * create the entity.
+   *
+   * @param change the change.
+   * @return the names of the attributes or null if every attribute should be sent.
+   */
+  @Nullable
+  public Set<String> getAttributeProjection( @Nonnull final Change change )
+  {
+    final int entityTypeId = change.getEntityMessage().getTypeId();
+    Set<String> projection = null;
+    boolean copied = false;
+    for ( final Integer channelId : change.getChannels().keySet() )
+    {
+      final Set<String> attributes = getChannelMetaData( channelId ).getAttributeProjection( entityTypeId );
+      if ( null == attributes )
+      {
+        return null;
+      }
+      else if ( null == projection )
+      {
+        projection = attributes;
+      }
+      else if ( !projection.containsAll( attributes ) )
+      {
+        if ( !copied )
+        {
+          projection = new HashSet<>( projection );
+          copied = true;
+        }
+        projection.addAll( attributes );
+      }
+    }
+    return projection;
+  }
 }
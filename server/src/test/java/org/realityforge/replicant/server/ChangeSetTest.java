@@ -1,8 +1,11 @@
 package org.realityforge.replicant.server;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.json.Json;
 import javax.json.JsonObject;
@@ -75,6 +78,44 @@ public class ChangeSetTest
     assertEquals( action.getFilter(), filter );
   }
 
+  @Test
+  public void addAction_sharedFilterConvertedOnce()
+  {
+    final ChangeSet changeSet = new ChangeSet();
+
+    final TestFilter myFilter = new TestFilter( 23 );
+    changeSet.setFilterJsonRetained( true );
+    changeSet.mergeAction( new ChannelAddress( 1, 2 ), Action.ADD, myFilter );
+    changeSet.mergeAction( new ChannelAddress( 1, 3 ), Action.ADD, myFilter );
+    changeSet.mergeAction( new ChannelAddress( 1, 4 ), Action.ADD, new TestFilter( 24 ) );
+    changeSet.setFilterJsonRetained( false );
+
+    final List<ChannelAction> actions = changeSet.getChannelActions();
+    assertEquals( actions.size(), 3 );
+    assertSame( actions.get( 0 ).getFilter(), actions.get( 1 ).getFilter() );
+    assertNotNull( actions.get( 2 ).getFilter() );
+    assertEquals( actions.get( 2 ).getFilter().getInt( "myField" ), 24 );
+  }
+
+  @Test
+  public void addAction_modifiedFilterConvertedAgain()
+  {
+    final ChangeSet changeSet = new ChangeSet();
+
+    final TestFilter myFilter = new TestFilter( 23 );
+    changeSet.mergeAction( new ChannelAddress( 1, 2 ), Action.ADD, myFilter );
+    myFilter.setMyField( 24 );
+    changeSet.mergeAction( new ChannelAddress( 1, 3 ), Action.ADD, myFilter );
+
+    // The json form of the filter is only retained while explicitly enabled
+    final List<ChannelAction> actions = changeSet.getChannelActions();
+    assertEquals( actions.size(), 2 );
+    assertNotNull( actions.get( 0 ).getFilter() );
+    assertEquals( actions.get( 0 ).getFilter().getInt( "myField" ), 23 );
+    assertNotNull( actions.get( 1 ).getFilter() );
+    assertEquals( actions.get( 1 ).getFilter().getInt( "myField" ), 24 );
+  }
+
   @Test
   public void addAction_basic()
   {
@@ -119,6 +160,33 @@ public class ChangeSetTest
     assertNotSame( change, change1 );
   }
 
+  @Test
+  public void delinks()
+  {
+    final ChannelAddress address1 = new ChannelAddress( 1, 2 );
+    final ChannelAddress address2 = new ChannelAddress( 3, 4 );
+
+    final ChangeSet changeSet = new ChangeSet();
+
+    assertNull( changeSet.getDelinks( address1 ) );
+
+    changeSet.addDelink( address1, 42, 17 );
+    changeSet.addDelinks( address1, 42, Arrays.asList( 17, 18 ) );
+    changeSet.addDelinks( address2, 43, Collections.emptyList() );
+
+    assertEquals( changeSet.getDelinks( address1 ), new LinkedHashSet<>( Arrays.asList( "42.17", "42.18" ) ) );
+    final Set<String> delinks2 = changeSet.getDelinks( address2 );
+    assertNotNull( delinks2 );
+    assertTrue( delinks2.isEmpty() );
+
+    final ChangeSet other = new ChangeSet();
+    other.addDelink( address1, 44, 1 );
+    changeSet.merge( other, true );
+
+    assertEquals( changeSet.getDelinks( address1 ),
+                  new LinkedHashSet<>( Arrays.asList( "42.17", "42.18", "44.1" ) ) );
+  }
+
   @Test
   public void fullMerge()
   {
@@ -175,6 +243,29 @@ public class ChangeSetTest
     assertNull( change.getChannels().get( 1 ) );
   }
 
+  @Test
+  public void remove()
+  {
+    final EntityMessage message1 = MessageTestUtil.createMessage( 17, 42, 0, "r1", "r2", "a1", "a2" );
+    final EntityMessage message2 = MessageTestUtil.createMessage( 18, 42, 0, "r1", "r2", "a1", "a2" );
+    final EntityMessage deleteMessage = MessageTestUtil.createMessage( 17, 42, 0, "r1", "r2", null, null );
+
+    final ChangeSet changeSet = new ChangeSet();
+    changeSet.merge( new Change( message1 ) );
+    changeSet.merge( new Change( message2 ) );
+
+    assertEquals( changeSet.getChanges().size(), 2 );
+
+    assertTrue( changeSet.remove( deleteMessage ) );
+
+    assertEquals( changeSet.getChanges().size(), 1 );
+    assertEquals( changeSet.getChanges().iterator().next().getEntityMessage(), message2 );
+
+    assertFalse( changeSet.remove( deleteMessage ) );
+
+    assertEquals( changeSet.getChanges().size(), 1 );
+  }
+
   @Test
   public void mergeActionDelete()
   {
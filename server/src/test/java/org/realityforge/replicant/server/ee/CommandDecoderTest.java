@@ -0,0 +1,110 @@
+package org.realityforge.replicant.server.ee;
+
+import java.util.List;
+import java.util.Map;
+import javax.json.JsonException;
+import org.realityforge.replicant.server.ChannelAddress;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class CommandDecoderTest
+{
+  @Test
+  public void decode_subscribe()
+  {
+    final Command command =
+      CommandDecoder.decode( "{\"type\":\"sub\",\"requestId\":3,\"channel\":\"1.2\",\"filter\":{\"a\":[1,2]}}" );
+    assertEquals( command.getType(), "sub" );
+    assertEquals( command.getRequestId(), 3 );
+    assertEquals( command.getChannel(), new ChannelAddress( 1, 2 ) );
+    assertNotNull( command.getFilter() );
+    assertEquals( command.getFilter().toString(), "{\"a\":[1,2]}" );
+    expectThrows( IllegalStateException.class, command::getChannels );
+    expectThrows( IllegalStateException.class, command::getToken );
+    expectThrows( IllegalStateException.class, command::getETags );
+  }
+
+  @Test
+  public void decode_nestedFilter()
+  {
+    final String filter = "{\"a\":{\"b\":[true,false,null,\"x\",{\"c\":[]}]},\"d\":1.5,\"e\":null,\"f\":-7}";
+    final Command command =
+      CommandDecoder.decode( "{\"type\":\"sub\",\"requestId\":3,\"channel\":\"1\",\"filter\":" + filter + "}" );
+    assertNotNull( command.getFilter() );
+    assertEquals( command.getFilter().toString(), filter );
+  }
+
+  @Test
+  public void decode_bulkSubscribe()
+  {
+    final Command command =
+      CommandDecoder.decode( "{\"type\":\"bulk-sub\",\"channels\":[\"1.2\",\"1.3\",\"1.4\"],\"filter\":null," +
+                             "\"requestId\":7}" );
+    assertEquals( command.getType(), "bulk-sub" );
+    assertEquals( command.getRequestId(), 7 );
+    assertEquals( command.getChannels(),
+                  new ChannelAddress[]{ new ChannelAddress( 1, 2 ),
+                                        new ChannelAddress( 1, 3 ),
+                                        new ChannelAddress( 1, 4 ) } );
+    assertNull( command.getFilter() );
+  }
+
+  @Test
+  public void decode_etags()
+  {
+    final Command command = CommandDecoder.decode( "{\"type\":\"etags\",\"requestId\":1,\"etags\":{\"0\":\"X\",\"1.2\":\"Y\"}}" );
+    final Map<ChannelAddress, String> etags = command.getETags();
+    assertEquals( etags.size(), 2 );
+    assertEquals( etags.get( new ChannelAddress( 0 ) ), "X" );
+    assertEquals( etags.get( new ChannelAddress( 1, 2 ) ), "Y" );
+  }
+
+  @Test
+  public void decode_batch()
+  {
+    final Command command =
+      CommandDecoder.decode( "{\"type\":\"batch\",\"requestId\":9,\"commands\":[" +
+                             "{\"type\":\"unsub\",\"requestId\":9,\"channel\":\"1.2\"}," +
+                             "{\"type\":\"sub\",\"requestId\":9,\"channel\":\"1.3\",\"filter\":{\"a\":1}}]}" );
+    assertEquals( command.getType(), "batch" );
+    assertEquals( command.getRequestId(), 9 );
+    final List<Command> commands = command.getCommands();
+    assertEquals( commands.size(), 2 );
+    assertEquals( commands.get( 0 ).getType(), "unsub" );
+    assertEquals( commands.get( 0 ).getChannel(), new ChannelAddress( 1, 2 ) );
+    assertEquals( commands.get( 1 ).getType(), "sub" );
+    assertEquals( commands.get( 1 ).getChannel(), new ChannelAddress( 1, 3 ) );
+    assertEquals( commands.get( 1 ).toString(),
+                  "{\"type\":\"sub\",\"requestId\":9,\"channel\":\"1.3\",\"filter\":{\"a\":1}}" );
+    expectThrows( IllegalStateException.class, commands.get( 0 )::getCommands );
+
+    expectThrows( IllegalArgumentException.class,
+                  () -> CommandDecoder.decode( "{\"type\":\"batch\",\"requestId\":1,\"commands\":[1]}" ) );
+  }
+
+  @Test
+  public void decode_ignoresUnknownParameters()
+  {
+    final String message =
+      "{\"type\":\"auth\",\"x\":{\"y\":[1,{\"z\":true}]},\"w\":[[]],\"requestId\":2,\"token\":\"T\",\"v\":1.5}";
+    final Command command = CommandDecoder.decode( message );
+    assertEquals( command.getType(), "auth" );
+    assertEquals( command.getRequestId(), 2 );
+    assertEquals( command.getToken(), "T" );
+    assertEquals( command.toString(), message );
+    assertEquals( command.toJsonObject().getJsonObject( "x" ).getJsonArray( "y" ).size(), 2 );
+  }
+
+  @Test
+  public void decode_malformed()
+  {
+    expectThrows( IllegalArgumentException.class, () -> CommandDecoder.decode( "[]" ) );
+    expectThrows( IllegalArgumentException.class, () -> CommandDecoder.decode( "{\"requestId\":1}" ) );
+    expectThrows( IllegalArgumentException.class, () -> CommandDecoder.decode( "{\"type\":\"ping\"}" ) );
+    expectThrows( IllegalArgumentException.class,
+                  () -> CommandDecoder.decode( "{\"type\":\"ping\",\"requestId\":\"1\"}" ) );
+    expectThrows( IllegalArgumentException.class,
+                  () -> CommandDecoder.decode( "{\"type\":\"sub\",\"requestId\":1,\"channel\":3}" ) );
+    expectThrows( JsonException.class, () -> CommandDecoder.decode( "{\"type\":" ) );
+  }
+}
@@ -50,4 +50,38 @@ public class JsonUtilTest
     assertEquals( jsonObject.size(), 1 );
     assertEquals( jsonObject.getInt( "myField" ), 45 );
   }
+
+  @JsonAutoDetect( fieldVisibility = JsonAutoDetect.Visibility.ANY, getterVisibility = JsonAutoDetect.Visibility.NONE, setterVisibility = JsonAutoDetect.Visibility.NONE, isGetterVisibility = JsonAutoDetect.Visibility.NONE, creatorVisibility = JsonAutoDetect.Visibility.NONE )
+  public static class Bar
+  {
+    private final String name;
+    private final long count;
+    private final double ratio;
+    private final boolean enabled;
+    private final Foo foo;
+    private final int[] ids;
+    private final Object missing;
+
+    public Bar( final String name, final long count, final double ratio, final boolean enabled, final Foo foo, final int[] ids )
+    {
+      this.name = name;
+      this.count = count;
+      this.ratio = ratio;
+      this.enabled = enabled;
+      this.foo = foo;
+      this.ids = ids;
+      this.missing = null;
+    }
+  }
+
+  @Test
+  public void toJsonObject_nestedObject()
+  {
+    final Bar bar = new Bar( "X", 1L + Integer.MAX_VALUE, 0.1, true, new Foo( 3 ), new int[]{ 1, 2 } );
+    final JsonObject jsonObject = JsonUtil.toJsonObject( bar );
+    assertEquals( jsonObject, JsonUtil.toJsonObject( JsonUtil.toJsonString( bar ) ) );
+    assertEquals( jsonObject.toString(),
+                  "{\"name\":\"X\",\"count\":2147483648,\"ratio\":0.1,\"enabled\":true,\"foo\":{\"myField\":3}," +
+                  "\"ids\":[1,2],\"missing\":null}" );
+  }
 }
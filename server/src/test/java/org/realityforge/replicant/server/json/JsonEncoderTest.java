@@ -3,6 +3,7 @@ package org.realityforge.replicant.server.json;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -65,6 +66,7 @@ public final class JsonEncoderTest
 
     assertEquals( changeSet.getInt( TransportConstants.REQUEST_ID ), requestId );
     assertEquals( changeSet.getString( TransportConstants.ETAG ), etag );
+    assertFalse( changeSet.containsKey( TransportConstants.BASE_ETAG ) );
 
     final JsonObject action = changeSet.getJsonArray( TransportConstants.FILTERED_CHANNEL_ACTIONS ).getJsonObject( 0 );
     assertEquals( action.getString( TransportConstants.CHANNEL ), "=45.77" );
@@ -95,6 +97,42 @@ public final class JsonEncoderTest
     assertEquals( channel3, "3.73" );
   }
 
+  @Test
+  public void encodeChangeSet_withBaseEtag()
+  {
+    final EntityMessage message = MessageTestUtil.createMessage( 17, 42, 0, "r1", "r2", "a1", "a2" );
+    final ChangeSet cs = new ChangeSet();
+    cs.merge( new Change( message, 1, null ) );
+
+    final JsonObject changeSet = toJsonObject( JsonEncoder.encodeChangeSet( 1, "X#2", "X", cs ) );
+
+    assertNotNull( changeSet );
+    assertEquals( changeSet.getString( TransportConstants.ETAG ), "X#2" );
+    assertEquals( changeSet.getString( TransportConstants.BASE_ETAG ), "X" );
+    assertEquals( changeSet.getJsonArray( TransportConstants.CHANGES ).size(), 1 );
+  }
+
+  @Test
+  public void encodeChangeSet_withAttributeProjection()
+  {
+    final EntityMessage message = MessageTestUtil.createMessage( 17, 42, 0, "r1", "r2", "a1", "a2" );
+    final ChangeSet cs = new ChangeSet();
+    cs.merge( new Change( message, 1, null ) );
+
+    final JsonObject changeSet =
+      toJsonObject( JsonEncoder.encodeChangeSet( null,
+                                                 null,
+                                                 null,
+                                                 cs,
+                                                 c -> Collections.singleton( MessageTestUtil.ATTR_KEY2 ) ) );
+
+    final JsonObject data =
+      changeSet.getJsonArray( TransportConstants.CHANGES ).getJsonObject( 0 ).getJsonObject( TransportConstants.DATA );
+    assertNotNull( data );
+    assertEquals( data.size(), 1 );
+    assertEquals( data.getString( MessageTestUtil.ATTR_KEY2 ), "a2" );
+  }
+
   @Test
   public void encodeChangeSetFromEntityMessages_deleteMessage()
   {
@@ -133,6 +171,27 @@ public final class JsonEncoderTest
     assertEquals( changeSet.getJsonArray( TransportConstants.CHANNEL_ACTIONS ).getString( 0 ), "+45" );
   }
 
+  @Test
+  public void channelAction_UPDATE_withDelinks()
+  {
+    final ChannelAddress address = new ChannelAddress( 45, 77 );
+    final ChangeSet cs = new ChangeSet();
+    cs.mergeAction( new ChannelAction( address, Action.UPDATE, null ) );
+    cs.addDelink( address, 42, 17 );
+    cs.addDelink( address, 43, 18 );
+    final JsonObject changeSet = toJsonObject( JsonEncoder.encodeChangeSet( null, null, cs ) );
+    assertNotNull( changeSet );
+
+    assertFalse( changeSet.containsKey( TransportConstants.CHANNEL_ACTIONS ) );
+    final JsonObject action = changeSet.getJsonArray( TransportConstants.FILTERED_CHANNEL_ACTIONS ).getJsonObject( 0 );
+    assertEquals( action.getString( TransportConstants.CHANNEL ), "=45.77" );
+    assertTrue( action.isNull( TransportConstants.CHANNEL_FILTER ) );
+    final JsonArray delinks = action.getJsonArray( TransportConstants.CHANNEL_DELINKS );
+    assertEquals( delinks.size(), 2 );
+    assertEquals( delinks.getString( 0 ), "42.17" );
+    assertEquals( delinks.getString( 1 ), "43.18" );
+  }
+
   @Test
   public void channelAction_DELETE()
   {
@@ -0,0 +1,76 @@
+package org.realityforge.replicant.server.transport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.realityforge.replicant.server.ChannelAddress;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class ChannelAddressSetTest
+{
+  @Test
+  public void addAndRemove()
+  {
+    final ChannelAddress address1 = new ChannelAddress( 1 );
+    final ChannelAddress address2 = new ChannelAddress( 1, 2 );
+    final ChannelAddress address3 = new ChannelAddress( -3, Integer.MIN_VALUE );
+    final ChannelAddress address4 = new ChannelAddress( Integer.MAX_VALUE, -1 );
+    final ChannelAddress address5 = new ChannelAddress( 2 );
+
+    final ChannelAddressSet set = new ChannelAddressSet();
+    assertTrue( set.isEmpty() );
+    assertFalse( set.contains( address1 ) );
+    assertFalse( set.contains( "1" ) );
+
+    assertTrue( set.addAddress( address4 ) );
+    assertTrue( set.addAddress( address2 ) );
+    assertTrue( set.addAddress( address1 ) );
+    assertTrue( set.addAddress( address3 ) );
+    assertFalse( set.addAddress( address2 ) );
+    assertFalse( set.addAddress( new ChannelAddress( 1 ) ) );
+
+    assertEquals( set.size(), 4 );
+    assertTrue( set.contains( address1 ) );
+    assertTrue( set.contains( new ChannelAddress( 1, 2 ) ) );
+    assertTrue( set.contains( address3 ) );
+    assertTrue( set.contains( address4 ) );
+    assertFalse( set.contains( address5 ) );
+    assertFalse( set.contains( new ChannelAddress( 2, 1 ) ) );
+    assertEquals( set, new HashSet<>( Arrays.asList( address1, address2, address3, address4 ) ) );
+
+    assertFalse( set.removeAddress( address5 ) );
+    assertTrue( set.removeAddress( address2 ) );
+    assertFalse( set.removeAddress( address2 ) );
+    assertTrue( set.removeAddress( address1 ) );
+
+    final List<ChannelAddress> addresses = new ArrayList<>( set );
+    assertEquals( addresses, Arrays.asList( address3, address4 ) );
+
+    expectThrows( UnsupportedOperationException.class, () -> set.add( address5 ) );
+    expectThrows( UnsupportedOperationException.class, () -> set.remove( address3 ) );
+  }
+
+  @Test
+  public void manyAddresses()
+  {
+    final ChannelAddressSet set = new ChannelAddressSet();
+    final long initialSize = set.estimateSize();
+    for ( int i = 1000; i > 0; i-- )
+    {
+      assertTrue( set.addAddress( new ChannelAddress( i % 3, i ) ) );
+    }
+    assertEquals( set.size(), 1000 );
+    assertTrue( set.estimateSize() >= initialSize + 1000 * 8 );
+    for ( int i = 1; i <= 1000; i += 2 )
+    {
+      assertTrue( set.removeAddress( new ChannelAddress( i % 3, i ) ) );
+    }
+    assertEquals( set.size(), 500 );
+    for ( int i = 1; i <= 1000; i++ )
+    {
+      assertEquals( set.contains( new ChannelAddress( i % 3, i ) ), 0 == i % 2 );
+    }
+  }
+}
@@ -1,7 +1,10 @@
 package org.realityforge.replicant.server.transport;
 
+import org.realityforge.replicant.server.Change;
 import org.realityforge.replicant.server.ChangeSet;
 import org.realityforge.replicant.server.ChannelAddress;
+import org.realityforge.replicant.server.EntityMessage;
+import org.realityforge.replicant.server.MessageTestUtil;
 import org.testng.annotations.Test;
 import static org.testng.Assert.*;
 
@@ -37,5 +40,101 @@ public class ChannelCacheEntryTest
 
     assertEquals( entry.getCacheKey(), "X" );
     assertEquals( entry.getChangeSet(), changeSet );
+    assertEquals( entry.getRevision(), 0 );
+
+    final ChangeSet changeSet2 = new ChangeSet();
+    entry.update( changeSet2, new ChangeSet() );
+
+    final String loadId = entry.getLoadId();
+    assertEquals( entry.getCacheKey(), "X#" + loadId + ".1" );
+    assertEquals( entry.getRevision(), 1 );
+    assertEquals( entry.getChangeSet(), changeSet2 );
+
+    entry.update( new ChangeSet(), new ChangeSet() );
+
+    assertEquals( entry.getCacheKey(), "X#" + loadId + ".2" );
+
+    entry.init( "Y", changeSet );
+
+    assertEquals( entry.getCacheKey(), "Y" );
+    assertEquals( entry.getRevision(), 0 );
+    assertNotEquals( entry.getLoadId(), loadId );
+  }
+
+  @Test
+  public void derivedCacheKeysAreUniquePerLoad()
+  {
+    final ChannelCacheEntry entry = new ChannelCacheEntry( new ChannelAddress( 1, null ) );
+    entry.init( "X", new ChangeSet() );
+    entry.update( new ChangeSet(), new ChangeSet() );
+    final String cacheKey1 = entry.getCacheKey();
+
+    // Reloading the data with the same application supplied key restarts the revisions
+    entry.init( "X", new ChangeSet() );
+    assertEquals( entry.getCacheKey(), "X" );
+    entry.update( new ChangeSet(), new ChangeSet() );
+    final String cacheKey2 = entry.getCacheKey();
+
+    assertEquals( entry.getRevision(), 1 );
+    assertNotEquals( cacheKey2, cacheKey1 );
+
+    entry.update( new ChangeSet(), new ChangeSet() );
+    assertNotNull( entry.getChangesSince( cacheKey2 ) );
+    assertNull( entry.getChangesSince( cacheKey1 ) );
+  }
+
+  @Test
+  public void getChangesSince()
+  {
+    final ChannelCacheEntry entry = new ChannelCacheEntry( new ChannelAddress( 1, null ) );
+    entry.init( "X", new ChangeSet() );
+
+    assertNull( entry.getChangesSince( "X" ) );
+
+    final EntityMessage update1 = MessageTestUtil.createMessage( 17, 1, 0, "r1", "r2", "a1", "a2" );
+    final EntityMessage update2 = MessageTestUtil.createMessage( 18, 1, 0, "r1", "r2", "a1", "a2" );
+    final EntityMessage delete1 = MessageTestUtil.createMessage( 17, 1, 0, "r1", "r2", null, null );
+
+    final ChangeSet delta1 = new ChangeSet();
+    delta1.merge( new Change( update1, 1, null ) );
+    entry.update( new ChangeSet(), delta1 );
+    final String cacheKey1 = entry.getCacheKey();
+
+    final ChangeSet delta2 = new ChangeSet();
+    delta2.merge( new Change( update2, 1, null ) );
+    delta2.merge( new Change( delete1, 1, null ) );
+    entry.update( new ChangeSet(), delta2 );
+
+    final String cacheKey2 = entry.getCacheKey();
+    assertEquals( cacheKey2, "X#" + entry.getLoadId() + ".2" );
+    assertEquals( entry.getDeltaCount(), 2 );
+
+    final ChangeSet changes1 = entry.getChangesSince( "X" );
+    assertNotNull( changes1 );
+    assertEquals( changes1.getChanges().size(), 2 );
+    // The update to entity 17 has been merged with the subsequent delete
+    assertTrue( changes1.getChanges().stream().filter( c -> 17 == c.getEntityMessage().getId() )
+                  .allMatch( c -> c.getEntityMessage().isDelete() ) );
+    // The delta retained in the history has not been modified by the merge
+    assertTrue( update1.isUpdate() );
+
+    final ChangeSet changes2 = entry.getChangesSince( cacheKey1 );
+    assertNotNull( changes2 );
+    assertEquals( changes2.getChanges().size(), 2 );
+
+    assertNull( entry.getChangesSince( cacheKey2 ) );
+    assertNull( entry.getChangesSince( "Y" ) );
+
+    for ( int i = 0; i < ChannelCacheEntry.MAX_DELTA_HISTORY; i++ )
+    {
+      entry.update( new ChangeSet(), new ChangeSet() );
+    }
+    assertEquals( entry.getDeltaCount(), ChannelCacheEntry.MAX_DELTA_HISTORY );
+    // The oldest deltas have been discarded
+    assertNull( entry.getChangesSince( "X" ) );
+    assertNotNull( entry.getChangesSince( cacheKey2 ) );
+
+    entry.init( "Y", new ChangeSet() );
+    assertEquals( entry.getDeltaCount(), 0 );
   }
 }
@@ -0,0 +1,127 @@
+package org.realityforge.replicant.server.transport;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.realityforge.replicant.server.Change;
+import org.realityforge.replicant.server.ChangeSet;
+import org.realityforge.replicant.server.ChannelAddress;
+import org.realityforge.replicant.server.ChannelLink;
+import org.realityforge.replicant.server.EntityMessage;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class ChannelCacheSnapshotTest
+{
+  @Test
+  public void writeAndRead()
+    throws Exception
+  {
+    final ChannelAddress address1 = new ChannelAddress( 1, null );
+    final ChannelAddress address2 = new ChannelAddress( 2, 42 );
+
+    final HashMap<String, Serializable> routingKeys = new HashMap<>();
+    routingKeys.put( "R", 23 );
+    routingKeys.put( "L", new ArrayList<>( Arrays.asList( 1, 2, 3 ) ) );
+    final HashMap<String, Serializable> attributes = new HashMap<>();
+    attributes.put( "ID", 17 );
+    attributes.put( "Name", "Bob" );
+    attributes.put( "Active", true );
+    attributes.put( "Count", 5000000000L );
+    attributes.put( "Rate", 1.5F );
+    attributes.put( "CreatedAt", new Date( 1234567890L ) );
+    attributes.put( "Parent", null );
+    final Set<ChannelLink> links =
+      new HashSet<>( Collections.singletonList( new ChannelLink( address1, new ChannelAddress( 3, 17 ) ) ) );
+    final Change change = new Change( new EntityMessage( 17, 5, 77L, routingKeys, attributes, links ) );
+    change.getChannels().put( 1, null );
+    change.getChannels().put( 2, 42 );
+    final ChangeSet changeSet1 = new ChangeSet();
+    changeSet1.merge( change );
+
+    final Path file = Files.createTempFile( "replicant", ".cache" );
+    try
+    {
+      ChannelCacheSnapshot.write( file,
+                                  Arrays.asList( new ChannelCacheSnapshot.Entry( address1, "X", changeSet1 ),
+                                                 new ChannelCacheSnapshot.Entry( address2, "Y", new ChangeSet() ) ) );
+
+      final Map<ChannelAddress, ChannelCacheSnapshot.Entry> entries = ChannelCacheSnapshot.read( file );
+      assertEquals( entries.size(), 2 );
+
+      final ChannelCacheSnapshot.Entry entry1 = entries.get( address1 );
+      assertNotNull( entry1 );
+      assertEquals( entry1.getAddress(), address1 );
+      assertEquals( entry1.getCacheKey(), "X" );
+      final ChangeSet changeSet = entry1.getChangeSet();
+      assertSame( entry1.getChangeSet(), changeSet );
+      assertEquals( changeSet.getChanges().size(), 1 );
+      final Change restored = changeSet.getChanges().iterator().next();
+      assertEquals( restored.getChannels(), change.getChannels() );
+      final EntityMessage message = restored.getEntityMessage();
+      assertEquals( message.getId(), 17 );
+      assertEquals( message.getTypeId(), 5 );
+      assertEquals( message.getTimestamp(), 77L );
+      assertEquals( message.getRoutingKeys(), routingKeys );
+      assertEquals( message.getAttributeValues(), attributes );
+      assertEquals( message.getLinks(), links );
+
+      final ChannelCacheSnapshot.Entry entry2 = entries.get( address2 );
+      assertNotNull( entry2 );
+      assertEquals( entry2.getCacheKey(), "Y" );
+      assertEquals( entry2.getChangeSet().getChanges().size(), 0 );
+    }
+    finally
+    {
+      Files.delete( file );
+    }
+  }
+
+  @Test
+  public void write_unsupportedValue()
+    throws Exception
+  {
+    final HashMap<String, Serializable> attributes = new HashMap<>();
+    attributes.put( "Value", new StringBuilder() );
+    final ChangeSet changeSet = new ChangeSet();
+    changeSet.merge( new Change( new EntityMessage( 17, 5, 0, new HashMap<>(), attributes, null ) ) );
+
+    final Path file = Files.createTempFile( "replicant", ".cache" );
+    try
+    {
+      final ChannelCacheSnapshot.Entry entry =
+        new ChannelCacheSnapshot.Entry( new ChannelAddress( 1 ), "X", changeSet );
+      expectThrows( IOException.class, () -> ChannelCacheSnapshot.write( file, Collections.singletonList( entry ) ) );
+    }
+    finally
+    {
+      Files.delete( file );
+    }
+  }
+
+  @Test
+  public void read_badFile()
+    throws Exception
+  {
+    final Path file = Files.createTempFile( "replicant", ".cache" );
+    try
+    {
+      Files.write( file, "Not a snapshot".getBytes( StandardCharsets.UTF_8 ) );
+      expectThrows( IOException.class, () -> ChannelCacheSnapshot.read( file ) );
+    }
+    finally
+    {
+      Files.delete( file );
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package org.realityforge.replicant.server.transport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.realityforge.replicant.server.ChannelAddress;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class ChannelCacheWarmerTest
+{
+  @Test
+  public void disabledByDefault()
+  {
+    final List<ChannelAddress> loaded = new ArrayList<>();
+    final ChannelCacheWarmer warmer = new ChannelCacheWarmer( loaded::add );
+    final ChannelAddress address = new ChannelAddress( 1, 2 );
+
+    assertFalse( warmer.isEnabled() );
+
+    warmer.addAddress( address );
+    warmer.onCacheEntryRemoved( address );
+    warmer.warmAll();
+
+    assertEquals( loaded.size(), 0 );
+    assertEquals( warmer.getPendingCount(), 0 );
+  }
+
+  @Test
+  public void registeredAddresses()
+  {
+    final List<ChannelAddress> loaded = new ArrayList<>();
+    final ChannelCacheWarmer warmer = new ChannelCacheWarmer( loaded::add );
+    warmer.configure( Runnable::run, 1, 0 );
+    final ChannelAddress address1 = new ChannelAddress( 1, 2 );
+    final ChannelAddress address2 = new ChannelAddress( 1, 3 );
+
+    warmer.addAddress( address1 );
+    assertEquals( loaded, Collections.singletonList( address1 ) );
+
+    // Channels not kept warm are not reloaded after a purge
+    warmer.onCacheEntryRemoved( address2 );
+    assertEquals( loaded.size(), 1 );
+
+    warmer.onCacheEntryRemoved( address1 );
+    assertEquals( loaded.size(), 2 );
+
+    assertTrue( warmer.removeAddress( address1 ) );
+    assertFalse( warmer.removeAddress( address1 ) );
+    warmer.onCacheEntryRemoved( address1 );
+    assertEquals( loaded.size(), 2 );
+  }
+
+  @Test
+  public void hotChannels()
+  {
+    final List<ChannelAddress> loaded = new ArrayList<>();
+    final ChannelCacheWarmer warmer = new ChannelCacheWarmer( loaded::add );
+    warmer.configure( Runnable::run, 1, 1 );
+    final ChannelAddress address1 = new ChannelAddress( 1, 2 );
+    final ChannelAddress address2 = new ChannelAddress( 1, 3 );
+
+    warmer.recordSubscribe( address1 );
+    warmer.recordSubscribe( address2 );
+    warmer.recordSubscribe( address2 );
+
+    assertEquals( warmer.getWarmAddresses().size(), 1 );
+    assertTrue( warmer.getWarmAddresses().contains( address2 ) );
+
+    warmer.onCacheEntryRemoved( address1 );
+    warmer.onCacheEntryRemoved( address2 );
+    assertEquals( loaded.size(), 1 );
+    assertEquals( loaded.get( 0 ), address2 );
+
+    // Decay removes channels that have not been recently subscribed
+    warmer.decay();
+    warmer.decay();
+    assertTrue( warmer.getWarmAddresses().isEmpty() );
+
+    // The hot channels are recomputed once the subscribe counts change
+    warmer.recordSubscribe( address1 );
+    assertEquals( warmer.getWarmAddresses().size(), 1 );
+    assertTrue( warmer.getWarmAddresses().contains( address1 ) );
+  }
+
+  @Test
+  public void concurrentLoadsAreBounded()
+  {
+    final List<ChannelAddress> loaded = new ArrayList<>();
+    final LinkedList<Runnable> tasks = new LinkedList<>();
+    final Executor executor = tasks::add;
+    final ChannelCacheWarmer warmer = new ChannelCacheWarmer( loaded::add );
+    warmer.configure( executor, 2, 0 );
+
+    final ChannelAddress address1 = new ChannelAddress( 1, 1 );
+    final ChannelAddress address2 = new ChannelAddress( 1, 2 );
+    final ChannelAddress address3 = new ChannelAddress( 1, 3 );
+    warmer.addAddress( address1 );
+    warmer.addAddress( address2 );
+    warmer.addAddress( address3 );
+    // A reload requested while a load is in progress is deferred
+    warmer.onCacheEntryRemoved( address1 );
+
+    assertEquals( tasks.size(), 2 );
+    assertEquals( warmer.getLoadingCount(), 2 );
+    assertEquals( warmer.getPendingCount(), 2 );
+
+    tasks.removeFirst().run();
+    assertEquals( loaded.size(), 1 );
+    // The completed load allows the next pending channel to start loading
+    assertEquals( tasks.size(), 2 );
+    assertEquals( warmer.getLoadingCount(), 2 );
+    assertEquals( warmer.getPendingCount(), 1 );
+
+    while ( !tasks.isEmpty() )
+    {
+      tasks.removeFirst().run();
+    }
+    assertEquals( loaded.size(), 4 );
+    assertEquals( warmer.getLoadingCount(), 0 );
+    assertEquals( warmer.getPendingCount(), 0 );
+  }
+
+  @Test
+  public void loaderErrorsAreContained()
+  {
+    final ChannelCacheWarmer warmer = new ChannelCacheWarmer( a -> {
+      throw new IllegalStateException();
+    } );
+    warmer.configure( Runnable::run, 1, 0 );
+    warmer.addAddress( new ChannelAddress( 1, 1 ) );
+
+    assertEquals( warmer.getLoadingCount(), 0 );
+  }
+
+  @Test
+  public void badConfiguration()
+  {
+    final ChannelCacheWarmer warmer = new ChannelCacheWarmer( a -> {
+    } );
+    expectThrows( IllegalArgumentException.class, () -> warmer.configure( Runnable::run, 0, 0 ) );
+    expectThrows( IllegalArgumentException.class, () -> warmer.configure( Runnable::run, 1, -1 ) );
+  }
+}
@@ -1,5 +1,10 @@
 package org.realityforge.replicant.server.transport;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import org.testng.annotations.Test;
 import static org.testng.Assert.*;
 
@@ -27,6 +32,10 @@ public class ChannelMetaDataTest
     assertFalse( metaData.hasFilterParameter() );
     assertFalse( metaData.isExternal() );
     assertFalse( metaData.areBulkLoadsSupported() );
+    assertFalse( metaData.areIncrementalCacheUpdatesEnabled() );
+    assertFalse( metaData.isConflated() );
+    assertEquals( metaData.getConflationInterval(), 0 );
+    assertFalse( metaData.hasAttributeProjections() );
 
     assertThrows( metaData::getInstanceRootEntityTypeId );
     assertThrows( metaData::getFilterParameterType );
@@ -78,6 +87,107 @@ public class ChannelMetaDataTest
     assertTrue( metaData.isExternal() );
   }
 
+  @Test
+  public void incrementalCacheUpdates()
+  {
+    final ChannelMetaData metaData =
+      new ChannelMetaData( 1,
+                           "MetaData",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.INTERNAL,
+                           false,
+                           true,
+                           true );
+    assertTrue( metaData.isCacheable() );
+    assertEquals( metaData.getCacheType(), ChannelMetaData.CacheType.INTERNAL );
+    assertTrue( metaData.areIncrementalCacheUpdatesEnabled() );
+    assertFalse( metaData.areBulkLoadsSupported() );
+    assertTrue( metaData.isExternal() );
+  }
+
+  @Test
+  public void conflation()
+  {
+    final ChannelMetaData metaData =
+      new ChannelMetaData( 1,
+                           "MetaData",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.NONE,
+                           false,
+                           false,
+                           true,
+                           250 );
+    assertTrue( metaData.isConflated() );
+    assertEquals( metaData.getConflationInterval(), 250 );
+
+    assertThrows( () -> new ChannelMetaData( 1,
+                                             "X",
+                                             null,
+                                             ChannelMetaData.FilterType.NONE,
+                                             null,
+                                             ChannelMetaData.CacheType.NONE,
+                                             false,
+                                             false,
+                                             true,
+                                             -1 ) );
+  }
+
+  @Test
+  public void attributeProjections()
+  {
+    final Map<Integer, Set<String>> projections = new HashMap<>();
+    final Set<String> attributes = new HashSet<>( Arrays.asList( "ID", "Name" ) );
+    projections.put( 3, attributes );
+    final ChannelMetaData metaData =
+      new ChannelMetaData( 1,
+                           "MetaData",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.NONE,
+                           false,
+                           false,
+                           true,
+                           0,
+                           projections );
+    assertTrue( metaData.hasAttributeProjections() );
+    assertEquals( metaData.getAttributeProjection( 3 ), attributes );
+    assertNull( metaData.getAttributeProjection( 4 ) );
+
+    // The projections are copied
+    attributes.add( "Other" );
+    projections.put( 4, attributes );
+    assertEquals( metaData.getAttributeProjection( 3 ), new HashSet<>( Arrays.asList( "ID", "Name" ) ) );
+    assertNull( metaData.getAttributeProjection( 4 ) );
+  }
+
+  @Test
+  public void badIncrementalCacheUpdatesConfig()
+  {
+    assertThrows( () -> new ChannelMetaData( 1,
+                                             "X",
+                                             null,
+                                             ChannelMetaData.FilterType.NONE,
+                                             null,
+                                             ChannelMetaData.CacheType.EXTERNAL,
+                                             false,
+                                             true,
+                                             true ) );
+    assertThrows( () -> new ChannelMetaData( 1,
+                                             "X",
+                                             null,
+                                             ChannelMetaData.FilterType.STATIC,
+                                             String.class,
+                                             ChannelMetaData.CacheType.INTERNAL,
+                                             false,
+                                             true,
+                                             true ) );
+  }
+
   @Test
   public void badFilteredConfig()
   {
@@ -0,0 +1,94 @@
+package org.realityforge.replicant.server.transport;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.realityforge.replicant.server.EntityMessage;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class ConflationBufferTest
+{
+  @Test
+  public void mergeAndExpire()
+  {
+    final ConflationBuffer buffer = new ConflationBuffer();
+    assertTrue( buffer.isEmpty() );
+
+    final EntityMessage message1 = newMessage( 1, "A", "X" );
+    buffer.add( message1, 100 );
+    buffer.add( newMessage( 2, "B", "Y" ), 50 );
+    buffer.add( newMessage( 1, "C", null ), 200 );
+    assertEquals( buffer.size(), 2 );
+
+    // The committed message is not modified by merges
+    final Map<String, Serializable> values1 = message1.getAttributeValues();
+    assertNotNull( values1 );
+    assertEquals( values1.get( "Name" ), "A" );
+
+    assertTrue( buffer.removeExpired( 49 ).isEmpty() );
+    final List<EntityMessage> expired = buffer.removeExpired( 100 );
+    assertEquals( expired.size(), 2 );
+    // Messages are released in the order that their windows opened
+    assertEquals( expired.get( 0 ).getId(), 1 );
+    assertEquals( expired.get( 1 ).getId(), 2 );
+    final Map<String, Serializable> values = expired.get( 0 ).getAttributeValues();
+    assertNotNull( values );
+    assertEquals( values.get( "Name" ), "C" );
+    assertEquals( values.get( "Other" ), "X" );
+    assertTrue( buffer.isEmpty() );
+  }
+
+  @Test
+  public void shorterIntervalClosesWindowEarlier()
+  {
+    final ConflationBuffer buffer = new ConflationBuffer();
+    buffer.add( newMessage( 1, "A", null ), 100 );
+    buffer.add( newMessage( 1, "B", null ), 20 );
+    assertEquals( buffer.removeExpired( 20 ).size(), 1 );
+  }
+
+  @Test
+  public void remove()
+  {
+    final ConflationBuffer buffer = new ConflationBuffer();
+    buffer.add( newMessage( 1, "A", null ), 100 );
+
+    assertNull( buffer.remove( newMessage( 2, "A", null ) ) );
+    final EntityMessage removed = buffer.remove( newMessage( 1, "B", null ) );
+    assertNotNull( removed );
+    assertEquals( removed.getId(), 1 );
+    assertTrue( buffer.isEmpty() );
+    assertTrue( buffer.removeExpired( 100 ).isEmpty() );
+  }
+
+  @Test
+  public void removeAll()
+  {
+    final ConflationBuffer buffer = new ConflationBuffer();
+    assertTrue( buffer.removeAll().isEmpty() );
+
+    buffer.add( newMessage( 2, "A", null ), 100 );
+    buffer.add( newMessage( 1, "B", null ), 50 );
+
+    final List<EntityMessage> messages = buffer.removeAll();
+    assertEquals( messages.size(), 2 );
+    assertEquals( messages.get( 0 ).getId(), 2 );
+    assertEquals( messages.get( 1 ).getId(), 1 );
+    assertTrue( buffer.isEmpty() );
+  }
+
+  @Nonnull
+  private EntityMessage newMessage( final int id, @Nonnull final String name, final String other )
+  {
+    final HashMap<String, Serializable> attributes = new HashMap<>();
+    attributes.put( "Name", name );
+    if ( null != other )
+    {
+      attributes.put( "Other", other );
+    }
+    return new EntityMessage( id, 1, 0, new HashMap<>(), attributes, null );
+  }
+}
@@ -0,0 +1,106 @@
+package org.realityforge.replicant.server.transport;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.websocket.Session;
+import org.realityforge.replicant.server.ChangeSet;
+import org.testng.annotations.Test;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+public class JmxReplicantMetricsTest
+{
+  @Test
+  public void sessionReportsMetrics()
+    throws Exception
+  {
+    final JmxReplicantMetrics metrics = new JmxReplicantMetrics();
+    final ReplicantSession session = new ReplicantSession( mock( Session.class ), metrics );
+
+    session.lockInterruptibly();
+    // Reentrant acquisitions are not reported
+    session.lockInterruptibly();
+    session.getLock().unlock();
+
+    assertEquals( metrics.getLockAcquisitionCount(), 1 );
+
+    session.queuePacket( new Packet( false, null, null, Collections.emptyList(), new ChangeSet() ) );
+    session.queuePacket( new Packet( true, 1, null, Collections.emptyList(), new ChangeSet() ) );
+
+    assertEquals( metrics.getPacketsQueued(), 2 );
+    assertEquals( metrics.getPacketQueueDepth(), 2 );
+    assertEquals( metrics.getPacketQueueDepthMax(), 2 );
+
+    assertNotNull( session.popPendingPacket() );
+
+    assertEquals( metrics.getPacketsDequeued(), 1 );
+    assertEquals( metrics.getPacketQueueDepth(), 1 );
+
+    // The websocket session is closed so the send fails
+    session.sendPacket( 1, null, new ChangeSet() );
+
+    assertEquals( metrics.getEncodeCount(), 1 );
+    assertTrue( metrics.getEncodedBytesTotal() > 0 );
+    assertEquals( metrics.getSendCount(), 1 );
+    assertEquals( metrics.getSendFailureCount(), 1 );
+
+    session.getLock().unlock();
+
+    metrics.reset();
+
+    assertEquals( metrics.getLockAcquisitionCount(), 0 );
+    assertEquals( metrics.getPacketsQueued(), 0 );
+    assertEquals( metrics.getEncodedBytesTotal(), 0 );
+  }
+
+  @Test
+  public void changeSetEncoded()
+  {
+    final JmxReplicantMetrics metrics = new JmxReplicantMetrics();
+    metrics.changeSetEncoded( 1, "{}" );
+    assertEquals( metrics.getEncodedBytesTotal(), 2 );
+    metrics.changeSetEncoded( 1, "a\u00e9\u20ac\ud83d\ude00" );
+    assertEquals( metrics.getEncodedBytesTotal(), 12 );
+    assertEquals( metrics.getEncodeCount(), 2 );
+
+    final String value = "a\u00e9\u20ac\ud83d\ude00\ud83d";
+    assertEquals( JmxReplicantMetrics.utf8Length( value ), value.getBytes( StandardCharsets.UTF_8 ).length );
+  }
+
+  @Test
+  public void register()
+    throws Exception
+  {
+    final JmxReplicantMetrics metrics = new JmxReplicantMetrics();
+    metrics.cacheHit();
+    metrics.cacheMiss();
+    metrics.cacheMiss();
+    metrics.sessionRouted( 5, true );
+    metrics.sessionRouted( 7, false );
+    metrics.sessionRouted( 3, false );
+
+    metrics.register( "Test" );
+    try
+    {
+      expectThrows( IllegalStateException.class, () -> metrics.register( "Test" ) );
+
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName name = new ObjectName( "org.realityforge.replicant:type=ReplicantMetrics,name=\"Test\"" );
+      assertEquals( server.getAttribute( name, "CacheHitCount" ), 1L );
+      assertEquals( server.getAttribute( name, "CacheMissCount" ), 2L );
+      assertEquals( server.getAttribute( name, "SessionsTouched" ), 1L );
+      assertEquals( server.getAttribute( name, "SessionsSkipped" ), 2L );
+      assertEquals( server.getAttribute( name, "SessionRoutingTimeTotal" ), 15L );
+      assertEquals( server.getAttribute( name, "SessionRoutingTimeMax" ), 7L );
+    }
+    finally
+    {
+      metrics.unregister();
+    }
+    assertFalse( ManagementFactory.getPlatformMBeanServer()
+                   .isRegistered( new ObjectName( "org.realityforge.replicant:type=ReplicantMetrics,name=\"Test\"" ) ) );
+  }
+}
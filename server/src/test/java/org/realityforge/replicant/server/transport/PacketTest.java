@@ -23,10 +23,27 @@ public class PacketTest
     assertTrue( packet.altersExplicitSubscriptions() );
     assertEquals( packet.getRequestId(), (Integer) requestId );
     assertEquals( packet.getEtag(), etag );
+    assertNull( packet.getBaseEtag() );
     assertSame( packet.getMessages(), messages );
     assertSame( packet.getChangeSet(), changeSet );
   }
 
+  @Test
+  public void packetContainingDelta()
+  {
+    final int requestId = ValueUtil.randomInt();
+    final String etag = ValueUtil.randomString();
+    final String baseEtag = ValueUtil.randomString();
+    final List<EntityMessage> messages = new ArrayList<>();
+    final ChangeSet changeSet = new ChangeSet();
+
+    final Packet packet = new Packet( true, requestId, etag, baseEtag, messages, changeSet );
+
+    assertEquals( packet.getEtag(), etag );
+    assertEquals( packet.getBaseEtag(), baseEtag );
+    assertSame( packet.getChangeSet(), changeSet );
+  }
+
   @Test
   public void packetNotFromInitiator()
   {
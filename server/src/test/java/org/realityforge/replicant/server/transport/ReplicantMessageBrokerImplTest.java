@@ -117,13 +117,13 @@ public class ReplicantMessageBrokerImplTest
                                @Nonnull final ChangeSet changeSet )
   {
     verify( ( (TestReplicantMessageBrokerImpl) broker ).getReplicantSessionManager(), times( 1 ) )
-      .sendChangeMessage( eq( session ), eq( requestId ), eq( etag ), eq( messages ), eq( changeSet ) );
+      .sendChangeMessage( eq( session ), eq( requestId ), eq( etag ), eq( null ), eq( messages ), eq( changeSet ) );
   }
 
   private void verifyNoSend( @Nonnull final ReplicantMessageBroker broker )
   {
     verify( ( (TestReplicantMessageBrokerImpl) broker ).getReplicantSessionManager(), never() )
-      .sendChangeMessage( any(), any(), any(), any(), any() );
+      .sendChangeMessage( any(), any(), any(), any(), any(), any() );
   }
 
   @Nonnull
@@ -1,24 +1,38 @@
 package org.realityforge.replicant.server.transport;
 
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.json.JsonObject;
+import javax.naming.Context;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
 import javax.transaction.TransactionSynchronizationRegistry;
 import javax.websocket.RemoteEndpoint;
 import javax.websocket.Session;
+import org.mockito.ArgumentCaptor;
 import org.realityforge.guiceyloops.server.AssertUtil;
 import org.realityforge.guiceyloops.server.TestInitialContextFactory;
+import org.realityforge.guiceyloops.server.TestTransactionSynchronizationRegistry;
 import org.realityforge.guiceyloops.shared.ValueUtil;
 import org.realityforge.replicant.server.Change;
 import org.realityforge.replicant.server.ChangeSet;
@@ -28,6 +42,7 @@ import org.realityforge.replicant.server.ChannelLink;
 import org.realityforge.replicant.server.EntityMessage;
 import org.realityforge.replicant.server.ServerConstants;
 import org.realityforge.replicant.server.ee.EntityMessageCacheUtil;
+import org.realityforge.replicant.server.ee.JsonUtil;
 import org.realityforge.replicant.server.ee.RegistryUtil;
 import org.realityforge.replicant.server.ee.TransactionSynchronizationRegistryUtil;
 import org.testng.annotations.AfterMethod;
@@ -199,6 +214,284 @@ public class ReplicantSessionManagerImplTest
     assertTrue( sm.deleteCacheEntry( address1 ) );
   }
 
+  @Test
+  public void saveEntityMessages_incrementalCacheUpdates()
+  {
+    final ChannelMetaData ch1 =
+      new ChannelMetaData( 0,
+                           "C1",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.INTERNAL,
+                           false,
+                           true,
+                           true );
+    final ChannelMetaData ch2 =
+      new ChannelMetaData( 1,
+                           "C2",
+                           1,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.INTERNAL,
+                           false,
+                           true,
+                           true );
+    final ChannelMetaData[] channels = new ChannelMetaData[]{ ch1, ch2 };
+
+    final ChannelAddress address1 = new ChannelAddress( ch1.getChannelId(), null );
+    final ChannelAddress address2 = new ChannelAddress( ch2.getChannelId(), 79 );
+
+    final TestReplicantSessionManager sm = new TestReplicantSessionManager( channels );
+    sm.setCacheKey( "X" );
+
+    final ChannelCacheEntry entry = sm.tryGetCacheEntry( address1 );
+    assertNotNull( entry );
+    final ChangeSet initialChangeSet = entry.getChangeSet();
+    assertEquals( entry.getCacheKey(), "X" );
+    assertEquals( initialChangeSet.getChanges().size(), 1 );
+
+    // Update existing entity and create new entity
+    {
+      final HashMap<String, Serializable> routingKeys = new HashMap<>();
+      routingKeys.put( ch1.getName(), true );
+      final HashMap<String, Serializable> attributes1 = new HashMap<>();
+      attributes1.put( "ID", 79 );
+      attributes1.put( "Name", "Bob" );
+      final HashMap<String, Serializable> attributes2 = new HashMap<>();
+      attributes2.put( "ID", 80 );
+      final EntityMessage message1 = new EntityMessage( 79, 1, 0, routingKeys, attributes1, null );
+      final EntityMessage message2 = new EntityMessage( 80, 1, 0, routingKeys, attributes2, null );
+
+      sm.saveEntityMessages( null, null, Arrays.asList( message1, message2 ), null );
+    }
+
+    assertTrue( entry.isInitialized() );
+    assertEquals( entry.getCacheKey(), "X#" + entry.getLoadId() + ".1" );
+    assertEquals( entry.getRevision(), 1 );
+    assertNotSame( entry.getChangeSet(), initialChangeSet );
+    assertEquals( initialChangeSet.getChanges().size(), 1 );
+    assertEquals( entry.getChangeSet().getChanges().size(), 2 );
+    final Change change = entry.getChangeSet().getChanges().iterator().next();
+    assertEquals( change.getEntityMessage().getId(), 79 );
+    final Map<String, Serializable> values = change.getEntityMessage().getAttributeValues();
+    assertNotNull( values );
+    assertEquals( values.get( "Name" ), "Bob" );
+    assertTrue( change.getChannels().containsKey( 0 ) );
+
+    // Delete an entity
+    {
+      final HashMap<String, Serializable> routingKeys = new HashMap<>();
+      routingKeys.put( ch1.getName(), true );
+      final EntityMessage message = new EntityMessage( 80, 1, 0, routingKeys, null, null );
+
+      sm.saveEntityMessages( null, null, Collections.singletonList( message ), null );
+    }
+
+    assertEquals( entry.getCacheKey(), "X#" + entry.getLoadId() + ".2" );
+    assertEquals( entry.getChangeSet().getChanges().size(), 1 );
+
+    // Messages not routed to cached channels leave cache untouched
+    sm.saveEntityMessages( null,
+                           null,
+                           Collections.singletonList( new EntityMessage( 80, 1, 0, new HashMap<>(), null, null ) ),
+                           null );
+    assertEquals( entry.getCacheKey(), "X#" + entry.getLoadId() + ".2" );
+
+    // Deleting the root of an instance graph expires the cache entry
+    final ChannelCacheEntry entry2 = sm.tryGetCacheEntry( address2 );
+    assertNotNull( entry2 );
+    assertNotNull( sm.findCacheEntry( address2 ) );
+    {
+      final HashMap<String, Serializable> routingKeys = new HashMap<>();
+      routingKeys.put( ch2.getName(), new ArrayList<>( Collections.singletonList( 79 ) ) );
+      final EntityMessage message = new EntityMessage( 79, 1, 0, routingKeys, null, null );
+
+      sm.saveEntityMessages( null, null, Collections.singletonList( message ), null );
+    }
+    assertNull( sm.findCacheEntry( address2 ) );
+    assertNotNull( sm.findCacheEntry( address1 ) );
+  }
+
+  @Test
+  public void saveEntityMessages_conflation()
+    throws Exception
+  {
+    final ChannelMetaData ch1 =
+      new ChannelMetaData( 0,
+                           "C1",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.NONE,
+                           false,
+                           false,
+                           true,
+                           60_000 );
+    final ChannelMetaData ch2 =
+      new ChannelMetaData( 1,
+                           "C2",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.NONE,
+                           false,
+                           true );
+    final ChannelMetaData ch3 =
+      new ChannelMetaData( 2,
+                           "C3",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.NONE,
+                           false,
+                           false,
+                           true,
+                           1 );
+    final TestReplicantSessionManager sm = new TestReplicantSessionManager( new ChannelMetaData[]{ ch1, ch2, ch3 } );
+    assertTrue( sm.getSystemMetaData().hasConflatedChannels() );
+    final ReplicantSession session = createSession( sm );
+    final ReplicantMessageBroker broker = sm.getReplicantMessageBroker();
+
+    // Updates routed to the conflated channel are buffered
+    sm.saveEntityMessages( null, null, Collections.singletonList( newConflationMessage( 1, "A", ch1 ) ), null );
+    sm.saveEntityMessages( null, null, Collections.singletonList( newConflationMessage( 1, "B", ch1 ) ), null );
+    verify( broker, never() ).queueChangeMessage( eq( session ), anyBoolean(), any(), any(), eq( null ), any(), any() );
+
+    // A message routed to an unconflated channel is not delayed and releases the buffered updates so that
+    // they are routed first, as the message may refer to an entity created by a buffered update
+    final EntityMessage message2 = newConflationMessage( 2, "C", ch1, ch2 );
+    sm.saveEntityMessages( null, null, Collections.singletonList( message2 ), null );
+    {
+      @SuppressWarnings( { "unchecked", "rawtypes" } )
+      final ArgumentCaptor<Collection<EntityMessage>> captor = ArgumentCaptor.forClass( (Class) Collection.class );
+      verify( broker )
+        .queueChangeMessage( eq( session ), eq( false ), eq( null ), eq( null ), eq( null ), captor.capture(), any() );
+      final List<EntityMessage> routed = new ArrayList<>( captor.getValue() );
+      assertEquals( routed.size(), 2 );
+      assertEquals( routed.get( 0 ).getId(), 1 );
+      final Map<String, Serializable> values = routed.get( 0 ).getAttributeValues();
+      assertNotNull( values );
+      assertEquals( values.get( "Name" ), "B" );
+      assertSame( routed.get( 1 ), message2 );
+    }
+
+    // Updates are not buffered if the transaction also contains a message that must be routed immediately
+    final EntityMessage message3 = newConflationMessage( 6, "D", ch1 );
+    final EntityMessage message3b = newConflationMessage( 7, "D", ch2 );
+    sm.saveEntityMessages( null, null, Arrays.asList( message3, message3b ), null );
+    verify( broker )
+      .queueChangeMessage( eq( session ),
+                           eq( false ),
+                           eq( null ),
+                           eq( null ),
+                           eq( null ),
+                           eq( Arrays.asList( message3, message3b ) ),
+                           any() );
+
+    // A delete discards the buffered update and is routed immediately
+    sm.saveEntityMessages( null, null, Collections.singletonList( newConflationMessage( 3, "E", ch1 ) ), null );
+    final HashMap<String, Serializable> routingKeys = new HashMap<>();
+    routingKeys.put( ch1.getName(), true );
+    final EntityMessage delete = new EntityMessage( 3, 1, 0, routingKeys, null, null );
+    sm.saveEntityMessages( null, null, Collections.singletonList( delete ), null );
+    verify( broker )
+      .queueChangeMessage( eq( session ),
+                           eq( false ),
+                           eq( null ),
+                           eq( null ),
+                           eq( null ),
+                           eq( Collections.singletonList( delete ) ),
+                           any() );
+
+    // Updates that are part of the response to a request are not delayed
+    final EntityMessage message4 = newConflationMessage( 4, "F", ch1 );
+    sm.saveEntityMessages( session.getId(), 1, Collections.singletonList( message4 ), null );
+    verify( broker )
+      .queueChangeMessage( eq( session ),
+                           eq( false ),
+                           eq( 1 ),
+                           eq( null ),
+                           eq( null ),
+                           eq( Collections.singletonList( message4 ) ),
+                           any() );
+
+    // Buffered updates are routed once the window closes
+    sm.saveEntityMessages( null, null, Collections.singletonList( newConflationMessage( 5, "G", ch1, ch3 ) ), null );
+    sm.flushConflatedMessages();
+    verify( broker, times( 4 ) )
+      .queueChangeMessage( eq( session ), anyBoolean(), any(), any(), eq( null ), any(), any() );
+    Thread.sleep( 5 );
+    sm.flushConflatedMessages();
+    verify( broker, times( 5 ) )
+      .queueChangeMessage( eq( session ), anyBoolean(), any(), any(), eq( null ), any(), any() );
+  }
+
+  @Test
+  public void saveEntityMessages_scheduledConflationFlush()
+    throws Exception
+  {
+    final ChannelMetaData ch1 =
+      new ChannelMetaData( 0,
+                           "C1",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.NONE,
+                           false,
+                           false,
+                           true,
+                           100 );
+    final TestReplicantSessionManager sm = new TestReplicantSessionManager( new ChannelMetaData[]{ ch1 } );
+    final ReplicantSession session = createSession( sm );
+    final ReplicantMessageBroker broker = sm.getReplicantMessageBroker();
+
+    final ScheduledExecutorService executor = mock( ScheduledExecutorService.class );
+    final ScheduledFuture<?> future = mock( ScheduledFuture.class );
+    doReturn( future ).when( executor ).schedule( any( Runnable.class ), anyLong(), any( TimeUnit.class ) );
+    sm.enableConflationFlushing( executor );
+
+    // Buffering an update schedules a flush for when the window closes
+    sm.saveEntityMessages( null, null, Collections.singletonList( newConflationMessage( 1, "A", ch1 ) ), null );
+    final ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass( Runnable.class );
+    final ArgumentCaptor<Long> delay = ArgumentCaptor.forClass( Long.class );
+    verify( executor ).schedule( task.capture(), delay.capture(), eq( TimeUnit.NANOSECONDS ) );
+    assertTrue( delay.getValue() <= TimeUnit.MILLISECONDS.toNanos( 100 ) );
+
+    // A flush that is already pending is not rescheduled for a later window
+    sm.saveEntityMessages( null, null, Collections.singletonList( newConflationMessage( 2, "B", ch1 ) ), null );
+    verify( executor ).schedule( any( Runnable.class ), anyLong(), any( TimeUnit.class ) );
+    verify( broker, never() ).queueChangeMessage( eq( session ), anyBoolean(), any(), any(), any(), any(), any() );
+
+    Thread.sleep( 110 );
+    task.getValue().run();
+
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    final ArgumentCaptor<Collection<EntityMessage>> captor = ArgumentCaptor.forClass( (Class) Collection.class );
+    verify( broker )
+      .queueChangeMessage( eq( session ), eq( false ), eq( null ), eq( null ), eq( null ), captor.capture(), any() );
+    assertEquals( captor.getValue().size(), 2 );
+
+    // No flush is scheduled once the buffer is empty
+    verify( executor ).schedule( any( Runnable.class ), anyLong(), any( TimeUnit.class ) );
+  }
+
+  @Nonnull
+  private EntityMessage newConflationMessage( final int id,
+                                              @Nonnull final String name,
+                                              @Nonnull final ChannelMetaData... channels )
+  {
+    final HashMap<String, Serializable> routingKeys = new HashMap<>();
+    for ( final ChannelMetaData channel : channels )
+    {
+      routingKeys.put( channel.getName(), true );
+    }
+    final HashMap<String, Serializable> attributes = new HashMap<>();
+    attributes.put( "ID", id );
+    attributes.put( "Name", name );
+    return new EntityMessage( id, 1, 0, routingKeys, attributes, null );
+  }
+
   @Test
   public void ensureCdiType()
   {
@@ -398,10 +691,444 @@ public class ReplicantSessionManagerImplTest
       assertEntry( entry1, false, 0, 0, null );
 
       verify( sm.getReplicantMessageBroker() )
-        .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( "X" ), any(), any() );
+        .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( "X" ), eq( null ), any(), any() );
+    }
+  }
+
+  @Test
+  public void subscribe_withCache_delta()
+    throws Exception
+  {
+    final ChannelMetaData ch1 = new ChannelMetaData( 0,
+                                                     "C1",
+                                                     null,
+                                                     ChannelMetaData.FilterType.NONE,
+                                                     null,
+                                                     ChannelMetaData.CacheType.INTERNAL,
+                                                     false,
+                                                     true,
+                                                     true );
+    final ChannelMetaData[] channels = new ChannelMetaData[]{ ch1 };
+
+    final ChannelAddress address1 = new ChannelAddress( ch1.getChannelId(), null );
+
+    final TestReplicantSessionManager sm = new TestReplicantSessionManager( channels );
+
+    sm.setCacheKey( "X" );
+
+    assertNotNull( sm.tryGetCacheEntry( address1 ) );
+
+    final HashMap<String, Serializable> routingKeys = new HashMap<>();
+    routingKeys.put( ch1.getName(), true );
+    final HashMap<String, Serializable> attributes = new HashMap<>();
+    attributes.put( "ID", 80 );
+    sm.saveEntityMessages( null,
+                           null,
+                           Collections.singletonList( new EntityMessage( 80, 1, 0, routingKeys, attributes, null ) ),
+                           null );
+    final String eTag = Objects.requireNonNull( sm.tryGetCacheEntry( address1 ) ).getCacheKey();
+
+    // subscribe - client has previous version of cache
+    {
+      final ReplicantSession session = createSession( sm );
+      final Session webSocketSession = session.getWebSocketSession();
+      when( webSocketSession.isOpen() ).thenReturn( true );
+
+      EntityMessageCacheUtil.removeSessionChanges();
+      with( session, () -> session.setETag( address1, "X" ) );
+
+      with( session, () -> sm.subscribe( session, address1, false, null, EntityMessageCacheUtil.getSessionChanges() ) );
+
+      final SubscriptionEntry entry1 = with( session, () -> session.findSubscriptionEntry( address1 ) );
+      assertNotNull( entry1 );
+      assertEntry( entry1, false, 0, 0, null );
+      assertNull( session.getETag( address1 ) );
+
+      // The delta is queued through the broker like the complete data
+      final ArgumentCaptor<ChangeSet> captor = ArgumentCaptor.forClass( ChangeSet.class );
+      verify( sm.getReplicantMessageBroker() )
+        .queueChangeMessage( eq( session ),
+                             eq( true ),
+                             eq( null ),
+                             eq( eTag ),
+                             eq( "X" ),
+                             eq( Collections.emptyList() ),
+                             captor.capture() );
+      verify( webSocketSession.getBasicRemote(), never() ).sendText( anyString() );
+
+      with( session, () -> sm.sendChangeMessage( session,
+                                                 null,
+                                                 eTag,
+                                                 "X",
+                                                 Collections.emptyList(),
+                                                 captor.getValue() ) );
+
+      verify( webSocketSession.getBasicRemote() )
+        .sendText( "{\"type\":\"update\",\"etag\":\"" + eTag + "\",\"baseEtag\":\"X\",\"channels\":[\"+0\"]," +
+                   "\"changes\":[{\"id\":\"1.80\",\"channels\":[\"0\"],\"data\":{\"ID\":80}}]}" );
+
+      assertChannelActionCount( 0 );
+      assertSessionChangesCount( 0 );
+    }
+
+    // subscribe - client has a derived cache key from a different load of the cache
+    {
+      final ReplicantSession session = createSession( sm );
+      final Session webSocketSession = session.getWebSocketSession();
+      when( webSocketSession.isOpen() ).thenReturn( true );
+
+      EntityMessageCacheUtil.removeSessionChanges();
+      with( session, () -> session.setETag( address1, "X#0.1" ) );
+
+      with( session, () -> sm.subscribe( session, address1, false, null, EntityMessageCacheUtil.getSessionChanges() ) );
+
+      verify( sm.getReplicantMessageBroker() )
+        .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( eTag ), eq( null ), any(), any() );
+    }
+
+    // subscribe - client has an older version of cache but the broker does not support deltas
+    {
+      when( sm.getReplicantMessageBroker().supportsCachedDeltas() ).thenReturn( false );
+      final ReplicantSession session = createSession( sm );
+      final Session webSocketSession = session.getWebSocketSession();
+      when( webSocketSession.isOpen() ).thenReturn( true );
+
+      EntityMessageCacheUtil.removeSessionChanges();
+      with( session, () -> session.setETag( address1, "X" ) );
+
+      with( session, () -> sm.subscribe( session, address1, false, null, EntityMessageCacheUtil.getSessionChanges() ) );
+
+      verify( sm.getReplicantMessageBroker() )
+        .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( eTag ), eq( null ), any(), any() );
+      when( sm.getReplicantMessageBroker().supportsCachedDeltas() ).thenReturn( true );
+    }
+
+    // subscribe - client has unknown version of cache
+    {
+      final ReplicantSession session = createSession( sm );
+      final Session webSocketSession = session.getWebSocketSession();
+      when( webSocketSession.isOpen() ).thenReturn( true );
+
+      EntityMessageCacheUtil.removeSessionChanges();
+      with( session, () -> session.setETag( address1, "Y" ) );
+
+      with( session, () -> sm.subscribe( session, address1, false, null, EntityMessageCacheUtil.getSessionChanges() ) );
+
+      verify( sm.getReplicantMessageBroker() )
+        .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( eTag ), eq( null ), any(), any() );
+    }
+  }
+
+  @Test
+  public void cacheSnapshot()
+    throws Exception
+  {
+    final ChannelMetaData ch1 =
+      new ChannelMetaData( 0,
+                           "C1",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.INTERNAL,
+                           false,
+                           true,
+                           true );
+    final ChannelMetaData ch2 =
+      new ChannelMetaData( 1,
+                           "C2",
+                           1,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.INTERNAL,
+                           false,
+                           true );
+    final ChannelMetaData[] channels = new ChannelMetaData[]{ ch1, ch2 };
+
+    final ChannelAddress address1 = new ChannelAddress( ch1.getChannelId(), null );
+    final ChannelAddress address2 = new ChannelAddress( ch2.getChannelId(), 42 );
+
+    final Path file = Files.createTempFile( "replicant", ".cache" );
+    try
+    {
+      final TestReplicantSessionManager sm1 = new TestReplicantSessionManager( channels );
+      sm1.setCacheKey( "X" );
+
+      assertNotNull( sm1.tryGetCacheEntry( address1 ) );
+      assertNotNull( sm1.tryGetCacheEntry( address2 ) );
+
+      final HashMap<String, Serializable> routingKeys = new HashMap<>();
+      routingKeys.put( ch1.getName(), true );
+      final HashMap<String, Serializable> attributes = new HashMap<>();
+      attributes.put( "ID", 80 );
+      sm1.saveEntityMessages( null,
+                              null,
+                              Collections.singletonList( new EntityMessage( 80, 1, 0, routingKeys, attributes, null ) ),
+                              null );
+
+      // The incrementally updated entry is not written to the snapshot
+      assertEquals( sm1.saveCacheSnapshot( file ), 1 );
+
+      // Restore snapshot where the application reports that the cache keys are current
+      final TestReplicantSessionManager sm2 = new TestReplicantSessionManager( channels );
+      sm2.setCacheKey( "X" );
+      assertEquals( sm2.loadCacheSnapshot( file ), 1 );
+
+      final ChannelCacheEntry entry2 = sm2.tryGetCacheEntry( address2 );
+      assertNotNull( entry2 );
+      assertEquals( entry2.getCacheKey(), "X" );
+      assertEquals( entry2.getChangeSet().getChanges().size(), 1 );
+      assertEquals( sm2.getCollectDataForSubscribeCallCount(), 0 );
+
+      final ChannelCacheEntry entry1 = sm2.tryGetCacheEntry( address1 );
+      assertNotNull( entry1 );
+      assertEquals( entry1.getCacheKey(), "X" );
+      assertEquals( entry1.getRevision(), 0 );
+      assertEquals( entry1.getChangeSet().getChanges().size(), 1 );
+      assertEquals( sm2.getCollectDataForSubscribeCallCount(), 1 );
+
+      // Restore snapshot where the application reports that the cache keys are stale
+      final TestReplicantSessionManager sm3 = new TestReplicantSessionManager( channels );
+      sm3.setCacheKey( "Y" );
+      assertEquals( sm3.loadCacheSnapshot( file ), 1 );
+
+      final ChannelCacheEntry entry3 = sm3.tryGetCacheEntry( address2 );
+      assertNotNull( entry3 );
+      assertEquals( entry3.getCacheKey(), "Y" );
+      assertEquals( entry3.getChangeSet().getChanges().size(), 1 );
+      assertEquals( sm3.getCollectDataForSubscribeCallCount(), 1 );
+
+      // Entries for channels that are not cacheable are ignored
+      final ChannelMetaData ch1b =
+        new ChannelMetaData( 0,
+                             "C1",
+                             null,
+                             ChannelMetaData.FilterType.NONE,
+                             null,
+                             ChannelMetaData.CacheType.NONE,
+                             false,
+                             true );
+      final TestReplicantSessionManager sm4 = new TestReplicantSessionManager( new ChannelMetaData[]{ ch1b } );
+      assertEquals( sm4.loadCacheSnapshot( file ), 0 );
+    }
+    finally
+    {
+      Files.delete( file );
     }
   }
 
+  @Test
+  public void cacheWarming()
+    throws Exception
+  {
+    final ChannelMetaData ch1 =
+      new ChannelMetaData( 0,
+                           "C1",
+                           1,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.INTERNAL,
+                           false,
+                           true );
+    final ChannelMetaData ch2 =
+      new ChannelMetaData( 1,
+                           "C2",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.NONE,
+                           false,
+                           true );
+    final ChannelMetaData[] channels = new ChannelMetaData[]{ ch1, ch2 };
+
+    final ChannelAddress address1 = new ChannelAddress( ch1.getChannelId(), 1 );
+    final ChannelAddress address2 = new ChannelAddress( ch1.getChannelId(), 2 );
+
+    final TestReplicantSessionManager sm = new TestReplicantSessionManager( channels );
+    sm.setCacheKey( "X" );
+    ( (TestTransactionSynchronizationRegistry) sm.getRegistry() ).setTransactionStatus( Status.STATUS_NO_TRANSACTION );
+
+    // Warming is not enabled so no load occurs
+    sm.addWarmCacheAddress( address1 );
+    assertNull( sm.findCacheEntry( address1 ) );
+
+    sm.enableCacheWarming( Runnable::run, 1, 1 );
+
+    sm.warmCacheEntries();
+    final ChannelCacheEntry entry1 = sm.findCacheEntry( address1 );
+    assertNotNull( entry1 );
+    assertTrue( entry1.isInitialized() );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 1 );
+
+    // Already loaded entries are not reloaded
+    sm.warmCacheEntries();
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 1 );
+
+    // Purged entries are immediately reloaded when there is no transaction
+    sm.deleteCacheEntry( address1 );
+    final ChannelCacheEntry entry1b = sm.findCacheEntry( address1 );
+    assertNotNull( entry1b );
+    assertNotSame( entry1b, entry1 );
+    assertTrue( entry1b.isInitialized() );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 2 );
+
+    // Frequently subscribed channels are kept warm
+    final ReplicantSession session = createSession( sm );
+    with( session, () -> sm.subscribe( session, address2, null ) );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 3 );
+    assertTrue( sm.getWarmCacheAddresses().contains( address2 ) );
+    sm.deleteCacheEntry( address2 );
+    assertNotNull( sm.findCacheEntry( address2 ) );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 4 );
+
+    assertTrue( sm.removeWarmCacheAddress( address1 ) );
+    sm.deleteCacheEntry( address1 );
+    assertNull( sm.findCacheEntry( address1 ) );
+
+    expectThrows( IllegalArgumentException.class, () -> sm.addWarmCacheAddress( new ChannelAddress( 1 ) ) );
+  }
+
+  @Test
+  public void cacheWarming_reloadAfterCommit()
+    throws Exception
+  {
+    final ChannelMetaData ch1 =
+      new ChannelMetaData( 0,
+                           "C1",
+                           1,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.INTERNAL,
+                           false,
+                           true );
+    final ChannelAddress address1 = new ChannelAddress( ch1.getChannelId(), 1 );
+
+    final List<Synchronization> synchronizations = new ArrayList<>();
+    final TestTransactionSynchronizationRegistry registry = new TestTransactionSynchronizationRegistry()
+    {
+      @Override
+      public void registerInterposedSynchronization( final Synchronization synchronization )
+      {
+        synchronizations.add( synchronization );
+      }
+    };
+    registry.setTransactionStatus( Status.STATUS_ACTIVE );
+    ( (Context) TestInitialContextFactory.getContext().lookup( "java:comp" ) )
+      .rebind( "TransactionSynchronizationRegistry", registry );
+
+    final TestReplicantSessionManager sm = new TestReplicantSessionManager( new ChannelMetaData[]{ ch1 } );
+    sm.setCacheKey( "X" );
+    sm.addWarmCacheAddress( address1 );
+    sm.enableCacheWarming( Runnable::run, 1, 1 );
+    sm.warmCacheEntries();
+    assertNotNull( sm.findCacheEntry( address1 ) );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 1 );
+
+    // The entry is not reloaded while the transaction that purged it is open
+    sm.deleteCacheEntry( address1 );
+    assertNull( sm.findCacheEntry( address1 ) );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 1 );
+    assertEquals( synchronizations.size(), 1 );
+
+    // The entry is not reloaded if the transaction rolls back
+    synchronizations.get( 0 ).afterCompletion( Status.STATUS_ROLLEDBACK );
+    assertNull( sm.findCacheEntry( address1 ) );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 1 );
+
+    sm.warmCacheEntries();
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 2 );
+
+    // The entry is reloaded once the transaction commits
+    sm.deleteCacheEntry( address1 );
+    assertEquals( synchronizations.size(), 2 );
+    assertNull( sm.findCacheEntry( address1 ) );
+    synchronizations.get( 1 ).afterCompletion( Status.STATUS_COMMITTED );
+    assertNotNull( sm.findCacheEntry( address1 ) );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 3 );
+  }
+
+  @Test
+  public void subscribe_preloaded()
+    throws Exception
+  {
+    final ChannelMetaData ch1 =
+      new ChannelMetaData( 0,
+                           "C1",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.NONE,
+                           false,
+                           true );
+    final ChannelMetaData ch2 =
+      new ChannelMetaData( 1,
+                           "C2",
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.NONE,
+                           false,
+                           true );
+    final ChannelMetaData[] channels = new ChannelMetaData[]{ ch1, ch2 };
+
+    final ChannelAddress address1 = new ChannelAddress( ch1.getChannelId() );
+    final ChannelAddress address2 = new ChannelAddress( ch2.getChannelId() );
+
+    final TestReplicantSessionManager sm = new TestReplicantSessionManager( channels );
+    final ReplicantSession session = createSession( sm );
+
+    // Preloading is not enabled so data is collected when subscribing
+    sm.preloadSubscriptions( session, Collections.singletonList( address1 ), null );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 0 );
+
+    sm.markSubscriptionsAsPreloaded();
+    sm.preloadSubscriptions( session, Collections.singletonList( address1 ), null );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 1 );
+    assertTrue( with( session, () -> session.hasSubscriptionPreload( address1 ) ) );
+
+    // Messages routed while the data is collected are recorded
+    final HashMap<String, Serializable> routingKeys = new HashMap<>();
+    routingKeys.put( ch1.getName(), true );
+    final HashMap<String, Serializable> attributes = new HashMap<>();
+    attributes.put( "ID", 80 );
+    final EntityMessage message1 = new EntityMessage( 80, 1, 0, routingKeys, attributes, null );
+    final HashMap<String, Serializable> routingKeys2 = new HashMap<>();
+    routingKeys2.put( ch2.getName(), true );
+    final EntityMessage message2 = new EntityMessage( 81, 1, 0, routingKeys2, new HashMap<>(), null );
+    final ChangeSet changeSet = new ChangeSet();
+    with( session, () -> sm.sendChangeMessage( session, null, null, Arrays.asList( message1, message2 ), changeSet ) );
+    assertFalse( changeSet.hasContent() );
+
+    EntityMessageCacheUtil.removeSessionChanges();
+    sm.subscribe( session, address1, null );
+
+    // Data was not collected again
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 1 );
+
+    final List<ChannelAction> actions = getChannelActions();
+    assertEquals( actions.size(), 1 );
+    assertChannelAction( actions.get( 0 ), address1, ChannelAction.Action.ADD, null );
+
+    // Changes include the collected data and the message routed to the channel
+    final Collection<Change> changes = getChanges();
+    assertEquals( changes.size(), 2 );
+    assertTrue( changes.stream().anyMatch( c -> 79 == c.getEntityMessage().getId() ) );
+    assertTrue( changes.stream().anyMatch( c -> 80 == c.getEntityMessage().getId() ) );
+
+    final SubscriptionEntry entry1 = with( session, () -> session.findSubscriptionEntry( address1 ) );
+    assertNotNull( entry1 );
+    assertEntry( entry1, true, 0, 0, null );
+    assertFalse( with( session, () -> session.hasSubscriptionPreloads() ) );
+
+    // Unused preloads are discarded
+    sm.preloadSubscriptions( session, Collections.singletonList( address2 ), null );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 2 );
+    EntityMessageCacheUtil.removeSessionChanges();
+    sm.subscribe( session, address1, null );
+    assertTrue( with( session, () -> session.hasSubscriptionPreload( address2 ) ) );
+    sm.discardSubscriptionPreloads( session );
+    assertFalse( with( session, () -> session.hasSubscriptionPreloads() ) );
+  }
+
   @Test
   public void subscribe_withSessionID()
     throws Exception
@@ -512,7 +1239,7 @@ public class ReplicantSessionManagerImplTest
     assertEntry( entry1, true, 0, 0, null );
 
     verify( sm.getReplicantMessageBroker() )
-      .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( "X" ), any(), any() );
+      .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( "X" ), eq( null ), any(), any() );
   }
 
   @Test
@@ -701,7 +1428,7 @@ public class ReplicantSessionManagerImplTest
       assertEntry( e1, true, 0, 0, null );
 
       verify( sm.getReplicantMessageBroker() )
-        .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( "X" ), any(), any() );
+        .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( "X" ), eq( null ), any(), any() );
     }
 
     //Not cached locally
@@ -721,7 +1448,7 @@ public class ReplicantSessionManagerImplTest
       assertEntry( e1, true, 0, 0, null );
 
       verify( sm.getReplicantMessageBroker() )
-        .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( "X" ), any(), any() );
+        .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( "X" ), eq( null ), any(), any() );
     }
 
     //Locally cached but deleted
@@ -748,7 +1475,13 @@ public class ReplicantSessionManagerImplTest
 
       // Queue a cached response that contains a delete
       verify( sm.getReplicantMessageBroker() )
-        .queueChangeMessage( eq( session ), eq( true ), eq( null ), eq( null ), eq( Collections.emptyList() ), any() );
+        .queueChangeMessage( eq( session ),
+                             eq( true ),
+                             eq( null ),
+                             eq( null ),
+                             eq( null ),
+                             eq( Collections.emptyList() ),
+                             any() );
     }
   }
 
@@ -1174,6 +1907,140 @@ public class ReplicantSessionManagerImplTest
     assertSessionChangesCount( 1 );
   }
 
+  @Test
+  public void updateSubscription_withDelinks()
+    throws Exception
+  {
+    final ChannelMetaData ch =
+      new ChannelMetaData( 0,
+                           "C2",
+                           null,
+                           ChannelMetaData.FilterType.DYNAMIC,
+                           String.class,
+                           ChannelMetaData.CacheType.NONE,
+                           false,
+                           true );
+    final ChannelMetaData[] channels = new ChannelMetaData[]{ ch };
+
+    final ChannelAddress cd = new ChannelAddress( ch.getChannelId(), null );
+
+    final TestReplicantSessionManager sm = new TestReplicantSessionManager( channels );
+    sm.markDelinkOnSubscriptionUpdate();
+    final ReplicantSession session = createSession( sm );
+    final Session webSocketSession = session.getWebSocketSession();
+    when( webSocketSession.isOpen() ).thenReturn( true );
+
+    EntityMessageCacheUtil.removeSessionChanges();
+    with( session, () -> sm.subscribe( session, cd, new TestFilter( 41 ) ) );
+    EntityMessageCacheUtil.removeSessionChanges();
+
+    final int requestId = ValueUtil.randomInt();
+    TransactionSynchronizationRegistryUtil.lookup().putResource( ServerConstants.REQUEST_ID_KEY, requestId );
+    with( session, () -> sm.subscribe( session, cd, new TestFilter( 42 ) ) );
+
+    sm.saveEntityMessages( session.getId(),
+                           requestId,
+                           Collections.emptyList(),
+                           EntityMessageCacheUtil.getSessionChanges() );
+
+    final ArgumentCaptor<ChangeSet> captor = ArgumentCaptor.forClass( ChangeSet.class );
+    verify( sm.getReplicantMessageBroker() )
+      .queueChangeMessage( eq( session ),
+                           anyBoolean(),
+                           eq( requestId ),
+                           eq( null ),
+                           eq( null ),
+                           any(),
+                           captor.capture() );
+
+    with( session, () -> sm.sendChangeMessage( session, requestId, null, Collections.emptyList(), captor.getValue() ) );
+
+    final ArgumentCaptor<String> packet = ArgumentCaptor.forClass( String.class );
+    verify( webSocketSession.getBasicRemote() ).sendText( packet.capture() );
+    final JsonObject action =
+      JsonUtil.toJsonObject( packet.getValue() ).getJsonArray( "fchannels" ).getJsonObject( 0 );
+    assertEquals( action.getString( "channel" ), "=0" );
+    assertEquals( action.getJsonArray( "delinks" ).getString( 0 ), "1.77" );
+  }
+
+  @Test
+  public void bulkSubscribe_parallelLoads()
+    throws Exception
+  {
+    final ChannelMetaData ch1 =
+      new ChannelMetaData( 0,
+                           "C1",
+                           42,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.NONE,
+                           false,
+                           true );
+    final ChannelMetaData[] channels = new ChannelMetaData[]{ ch1 };
+
+    final TestReplicantSessionManager sm = new TestReplicantSessionManager( channels );
+    final ReplicantSession session = createSession( sm );
+
+    expectThrows( IllegalArgumentException.class, () -> sm.enableParallelSubscribeLoads( Runnable::run, 0 ) );
+
+    final List<Runnable> tasks = new ArrayList<>();
+    sm.enableParallelSubscribeLoads( tasks::add, 2 );
+
+    // Data is collected on the request thread unless the channel opts in to parallel loads
+    sm.bulkSubscribe( session, ch1.getChannelId(), Arrays.asList( 4, 5 ), null );
+    assertEquals( tasks.size(), 0 );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 2 );
+
+    sm.markSubscribeLoadsAsParallel();
+
+    final List<Integer> subChannelIds = Arrays.asList( 3, 1, 2 );
+    EntityMessageCacheUtil.removeSessionChanges();
+    final Thread thread = new Thread( () -> {
+      try
+      {
+        sm.bulkSubscribe( session, ch1.getChannelId(), subChannelIds, null );
+      }
+      catch ( final InterruptedException ignored )
+      {
+      }
+    } );
+    thread.start();
+
+    // The request waits for the loads to complete
+    while ( tasks.size() < 2 )
+    {
+      Thread.sleep( 1 );
+    }
+    assertEquals( tasks.size(), 2 );
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 2 );
+    assertTrue( thread.isAlive() );
+
+    // The first worker collects all of the data as the second is not run until later
+    tasks.get( 0 ).run();
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 5 );
+    tasks.get( 1 ).run();
+    thread.join();
+
+    // Data is not collected again when subscribing
+    assertEquals( sm.getCollectDataForSubscribeCallCount(), 5 );
+
+    // Channels are merged in the order requested
+    final List<ChannelAction> actions = getChannelActions();
+    assertEquals( actions.size(), 3 );
+    assertChannelAction( actions.get( 0 ), new ChannelAddress( 0, 3 ), ChannelAction.Action.ADD, null );
+    assertChannelAction( actions.get( 1 ), new ChannelAddress( 0, 1 ), ChannelAction.Action.ADD, null );
+    assertChannelAction( actions.get( 2 ), new ChannelAddress( 0, 2 ), ChannelAction.Action.ADD, null );
+
+    for ( final Integer subChannelId : subChannelIds )
+    {
+      final ChannelAddress address = new ChannelAddress( ch1.getChannelId(), subChannelId );
+      final SubscriptionEntry entry = with( session, () -> session.findSubscriptionEntry( address ) );
+      assertNotNull( entry );
+      assertEntry( entry, true, 0, 0, null );
+    }
+    assertFalse( with( session, () -> session.hasSubscriptionPreloads() ) );
+  }
+
   @Test
   public void bulkSubscribe_forUpdate()
     throws Exception
@@ -1425,6 +2292,7 @@ public class ReplicantSessionManagerImplTest
                            eq( true ),
                            eq( 1 ),
                            eq( "X" ),
+                           eq( null ),
                            eq( Collections.emptyList() ),
                            eq( changeSet ) );
   }
@@ -1871,6 +2739,10 @@ public class ReplicantSessionManagerImplTest
     private boolean _bulkCollectDataForSubscriptionUpdate;
     private int _bulkCollectDataForSubscriptionUpdateCallCount;
     private boolean _channelRootDeleted;
+    private int _collectDataForSubscribeCallCount;
+    private boolean _preloadSubscriptions;
+    private boolean _parallelSubscribeLoads;
+    private boolean _delinkOnSubscriptionUpdate;
 
     private TestReplicantSessionManager()
     {
@@ -1885,6 +2757,7 @@ public class ReplicantSessionManagerImplTest
     private TestReplicantSessionManager( final SystemMetaData systemMetaData )
     {
       _systemMetaData = systemMetaData;
+      when( _broker.supportsCachedDeltas() ).thenReturn( true );
     }
 
     int getBulkCollectDataForSubscriptionUpdateCallCount()
@@ -1907,6 +2780,44 @@ public class ReplicantSessionManagerImplTest
       _cacheKey = cacheKey;
     }
 
+    int getCollectDataForSubscribeCallCount()
+    {
+      return _collectDataForSubscribeCallCount;
+    }
+
+    void markDelinkOnSubscriptionUpdate()
+    {
+      _delinkOnSubscriptionUpdate = true;
+    }
+
+    void markSubscriptionsAsPreloaded()
+    {
+      _preloadSubscriptions = true;
+    }
+
+    @Override
+    protected boolean shouldPreloadSubscription( @Nonnull final ChannelAddress address )
+    {
+      return _preloadSubscriptions;
+    }
+
+    void markSubscribeLoadsAsParallel()
+    {
+      _parallelSubscribeLoads = true;
+    }
+
+    @Override
+    protected boolean shouldCollectSubscriptionDataInParallel( @Nonnull final ChannelAddress address )
+    {
+      return _parallelSubscribeLoads;
+    }
+
+    @Override
+    protected boolean isCacheKeyCurrent( @Nonnull final ChannelAddress address, @Nonnull final String cacheKey )
+    {
+      return cacheKey.equals( _cacheKey );
+    }
+
     @Nonnull
     @Override
     public SystemMetaData getSystemMetaData()
@@ -1937,6 +2848,7 @@ public class ReplicantSessionManagerImplTest
                                                        @Nonnull final ChangeSet changeSet,
                                                        @Nullable final Object filter )
     {
+      _collectDataForSubscribeCallCount += 1;
       if ( !_channelRootDeleted )
       {
         final HashMap<String, Serializable> routingKeys = new HashMap<>();
@@ -1959,6 +2871,12 @@ public class ReplicantSessionManagerImplTest
                                                      @Nullable final Object originalFilter,
                                                      @Nullable final Object filter )
     {
+      if ( _delinkOnSubscriptionUpdate )
+      {
+        // The filter has been narrowed so no entities are added and an entity is delinked
+        changeSet.addDelink( descriptor, 1, 77 );
+        return;
+      }
       final HashMap<String, Serializable> routingKeys = new HashMap<>();
       final HashMap<String, Serializable> attributes = new HashMap<>();
       attributes.put( "ID", 78 );
@@ -79,4 +79,31 @@ public class ReplicantSessionTest
 
     assertEquals( session.getETag( cd1 ), "X" );
   }
+
+  @Test
+  public void estimateSubscriptionSize()
+  {
+    final ReplicantSession session = new ReplicantSession( mock( Session.class ) );
+    session.getLock().lock();
+
+    assertEquals( session.estimateSubscriptionSize(), 0 );
+
+    final SubscriptionEntry entry1 = session.createSubscriptionEntry( new ChannelAddress( 1, 1 ) );
+    final long size1 = session.estimateSubscriptionSize();
+    assertTrue( size1 > 0 );
+
+    final SubscriptionEntry entry2 = session.createSubscriptionEntry( new ChannelAddress( 2, 1 ) );
+    final long size2 = session.estimateSubscriptionSize();
+    assertEquals( size2, size1 * 2 );
+
+    entry1.registerOutwardSubscription( entry2.getAddress() );
+    entry2.registerInwardSubscription( entry1.getAddress() );
+    assertTrue( session.estimateSubscriptionSize() > size2 );
+
+    session.setETag( entry1.getAddress(), "X" );
+    assertTrue( session.estimateSubscriptionSize() > size2 );
+
+    session.getLock().unlock();
+    expectThrows( IllegalStateException.class, session::estimateSubscriptionSize );
+  }
 }
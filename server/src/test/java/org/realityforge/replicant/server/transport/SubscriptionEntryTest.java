@@ -105,6 +105,39 @@ public class SubscriptionEntryTest
     assertFalse( entry.getOutwardSubscriptions().contains( cd5 ) );
   }
 
+  @Test
+  public void registerSingleSubscriptions()
+  {
+    final ChannelAddress cd1 = new ChannelAddress( 1, 1 );
+    final ChannelAddress cd2 = new ChannelAddress( 2, 1 );
+    final ChannelAddress cd3 = new ChannelAddress( 3 );
+
+    final ReplicantSession session = newSession();
+    session.getLock().lock();
+    final SubscriptionEntry entry = new SubscriptionEntry( session, cd1 );
+    final long initialSize = entry.estimateSize();
+
+    assertSame( entry.getOutwardSubscriptions(), Collections.emptySet() );
+    assertSame( entry.getInwardSubscriptions(), Collections.emptySet() );
+
+    assertTrue( entry.registerOutwardSubscription( cd2 ) );
+    assertFalse( entry.registerOutwardSubscription( cd2 ) );
+    assertTrue( entry.registerInwardSubscription( cd3 ) );
+    assertFalse( entry.canUnsubscribe() );
+    assertEquals( entry.getOutwardSubscriptions(), Collections.singleton( cd2 ) );
+    assertEquals( entry.getInwardSubscriptions(), Collections.singleton( cd3 ) );
+    assertTrue( entry.estimateSize() > initialSize );
+
+    assertTrue( entry.deregisterOutwardSubscription( cd2 ) );
+    assertFalse( entry.deregisterOutwardSubscription( cd2 ) );
+    assertTrue( entry.deregisterInwardSubscription( cd3 ) );
+    assertFalse( entry.deregisterInwardSubscription( cd3 ) );
+    assertTrue( entry.canUnsubscribe() );
+    assertSame( entry.getOutwardSubscriptions(), Collections.emptySet() );
+    assertSame( entry.getInwardSubscriptions(), Collections.emptySet() );
+    assertEquals( entry.estimateSize(), initialSize );
+  }
+
   @Test
   public void sorting()
   {
@@ -1,6 +1,15 @@
 package org.realityforge.replicant.server.transport;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.realityforge.guiceyloops.shared.ValueUtil;
+import org.realityforge.replicant.server.Change;
+import org.realityforge.replicant.server.EntityMessage;
 import org.testng.annotations.Test;
 import static org.testng.Assert.*;
 
@@ -49,5 +58,89 @@ public class SystemMetaDataTest
     assertEquals( systemMetaData.getInstanceChannelCount(), 2 );
     assertEquals( systemMetaData.getInstanceChannelByIndex( 0 ), ch0 );
     assertEquals( systemMetaData.getInstanceChannelByIndex( 1 ), ch2 );
+    assertFalse( systemMetaData.hasIncrementalCacheUpdates() );
+    assertEquals( systemMetaData.getIncrementalCacheChannelCount(), 0 );
+  }
+
+  @Test
+  public void incrementalCacheChannels()
+  {
+    final ChannelMetaData ch0 =
+      new ChannelMetaData( 0,
+                           ValueUtil.randomString(),
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.INTERNAL,
+                           false,
+                           false );
+    final ChannelMetaData ch1 =
+      new ChannelMetaData( 1,
+                           ValueUtil.randomString(),
+                           null,
+                           ChannelMetaData.FilterType.NONE,
+                           null,
+                           ChannelMetaData.CacheType.INTERNAL,
+                           false,
+                           true,
+                           false );
+
+    final SystemMetaData systemMetaData = new SystemMetaData( ValueUtil.randomString(), ch0, ch1 );
+
+    assertTrue( systemMetaData.hasIncrementalCacheUpdates() );
+    assertEquals( systemMetaData.getIncrementalCacheChannelCount(), 1 );
+    assertEquals( systemMetaData.getIncrementalCacheChannelByIndex( 0 ), ch1 );
+  }
+
+  @Test
+  public void getAttributeProjection()
+  {
+    final Map<Integer, Set<String>> projections1 = new HashMap<>();
+    projections1.put( 7, new HashSet<>( Arrays.asList( "ID", "Name" ) ) );
+    final Map<Integer, Set<String>> projections2 = new HashMap<>();
+    projections2.put( 7, new HashSet<>( Arrays.asList( "ID", "Colour" ) ) );
+    final ChannelMetaData ch0 = newChannel( 0, null );
+    final ChannelMetaData ch1 = newChannel( 1, projections1 );
+    final ChannelMetaData ch2 = newChannel( 2, projections2 );
+
+    assertFalse( new SystemMetaData( ValueUtil.randomString(), ch0 ).hasAttributeProjections() );
+    final SystemMetaData systemMetaData = new SystemMetaData( ValueUtil.randomString(), ch0, ch1, ch2 );
+    assertTrue( systemMetaData.hasAttributeProjections() );
+
+    final EntityMessage message = new EntityMessage( 1, 7, 0, new HashMap<>(), new HashMap<>(), null );
+    final EntityMessage otherMessage = new EntityMessage( 1, 8, 0, new HashMap<>(), new HashMap<>(), null );
+
+    assertEquals( systemMetaData.getAttributeProjection( new Change( message, 1, null ) ),
+                  new HashSet<>( Arrays.asList( "ID", "Name" ) ) );
+    // Entity types without a projection have every attribute sent
+    assertNull( systemMetaData.getAttributeProjection( new Change( otherMessage, 1, null ) ) );
+
+    // The union of the projections is sent when the entity is routed through multiple channels
+    final Change change = new Change( message, 1, null );
+    change.getChannels().put( 2, null );
+    assertEquals( systemMetaData.getAttributeProjection( change ),
+                  new HashSet<>( Arrays.asList( "ID", "Name", "Colour" ) ) );
+    // The projections are not modified by the union
+    assertEquals( ch1.getAttributeProjection( 7 ), new HashSet<>( Arrays.asList( "ID", "Name" ) ) );
+
+    // Every attribute is sent when any channel has no projection
+    change.getChannels().put( 0, null );
+    assertNull( systemMetaData.getAttributeProjection( change ) );
+  }
+
+  @Nonnull
+  private ChannelMetaData newChannel( final int channelId, @Nullable final Map<Integer, Set<String>> projections )
+  {
+    return new ChannelMetaData( channelId,
+                                ValueUtil.randomString(),
+                                null,
+                                ChannelMetaData.FilterType.NONE,
+                                null,
+                                ChannelMetaData.CacheType.NONE,
+                                false,
+                                false,
+                                false,
+                                0,
+                                projections );
   }
 }
@@ -24,4 +24,9 @@ public class TestFilter
   {
     return myField;
   }
+
+  public void setMyField( final int myField )
+  {
+    this.myField = myField;
+  }
 }